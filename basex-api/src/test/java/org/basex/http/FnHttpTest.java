@@ -23,6 +23,7 @@ import org.basex.query.QueryError.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
+import org.basex.query.value.array.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
@@ -146,6 +147,26 @@ public class FnHttpTest extends HTTPTest {
     }
   }
 
+  /**
+   * Test sending of multiple HTTP GET requests.
+   * @throws Exception exception
+   */
+  @Test public void getMultiple() throws Exception {
+    final String request = "<http:request method='get' status-only='true' href='" +
+        REST_ROOT + "'/>";
+    try(QueryProcessor qp = new QueryProcessor(
+        _HTTP_SEND_REQUESTS.args(" (1 to 10) ! " + request, 3), ctx)) {
+      final Value value = qp.value();
+      assertEquals(10, value.size());
+      for(final Item item : value) {
+        checkResponse(((XQArray) item).get(0), 1, HttpURLConnection.HTTP_OK);
+      }
+    }
+    try(QueryProcessor qp = new QueryProcessor(_HTTP_SEND_REQUESTS.args(" ()"), ctx)) {
+      assertEquals(0, qp.value().size());
+    }
+  }
+
   /**
    * Test sending of HTTP DELETE requests.
    * @throws Exception exception
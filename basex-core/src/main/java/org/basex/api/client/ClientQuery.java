@@ -27,6 +27,8 @@ public class ClientQuery extends Query {
   final ClientSession cs;
   /** Query id. */
   final String id;
+  /** Number of results to be requested at once (0: request all results). */
+  private int page;
 
   /**
    * Standard constructor.
@@ -42,6 +44,17 @@ public class ClientQuery extends Query {
     id = session.exec(ServerCmd.QUERY, query, null);
   }
 
+  /**
+   * Specifies the number of results that will be requested from the server at once.
+   * By default, all results are requested and cached when {@link #more()} is called for the
+   * first time. If a page size is specified, the query will be kept open on the server,
+   * and further results will only be requested and cached if they are accessed by the client.
+   * @param size number of results (0: request all results)
+   */
+  public void page(final int size) {
+    page = Math.max(0, size);
+  }
+
   @Override
   public String info() throws IOException {
     return cs.exec(ServerCmd.INFO, id, null);
@@ -60,6 +73,7 @@ public class ClientQuery extends Query {
   @Override
   public void bind(final String name, final Object value, final String type) throws IOException {
     cache = null;
+    remaining = false;
 
     final Object vl = value instanceof BXNode ? ((BXNode) value).getNode() : value;
     String t = type == null ? "" : type;
@@ -110,13 +124,26 @@ public class ClientQuery extends Query {
 
   @Override
   public void cache(final boolean full) throws IOException {
-    cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
-    cs.send(id);
+    final ServerCmd format = binary ? ServerCmd.BINARY : full ? ServerCmd.FULL :
+      ServerCmd.RESULTS;
+    if(page > 0) {
+      cs.sout.write(ServerCmd.PAGE.code);
+      cs.send(id);
+      cs.send(Integer.toString(page));
+      cs.send(Integer.toString(format.code));
+    } else {
+      cs.sout.write(format.code);
+      cs.send(id);
+    }
     cs.sout.flush();
 
     @SuppressWarnings("resource")
     final BufferInput bi = BufferInput.get(cs.sin);
     cache(bi, full);
-    if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
+    remaining = page > 0 && cache.size() == page;
+    if(!ClientSession.ok(bi)) {
+      remaining = false;
+      throw new BaseXException(bi.readString());
+    }
   }
 }
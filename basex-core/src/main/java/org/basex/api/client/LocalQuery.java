@@ -45,7 +45,8 @@ public class LocalQuery extends Query {
   @Override
   public void cache(final boolean full) throws IOException {
     final ArrayOutput ao = new ArrayOutput();
-    ql.execute(ao, true, true, full);
+    if(binary) ql.binary(ao);
+    else ql.execute(ao, true, true, full);
     cache(new ArrayInput(ao.finish()), full);
   }
 
@@ -5,6 +5,7 @@ import java.io.*;
 import org.basex.io.in.*;
 import org.basex.query.value.type.*;
 import org.basex.query.value.type.Type.ID;
+import org.basex.server.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -24,11 +25,17 @@ public abstract class Query implements Closeable {
   protected OutputStream out;
   /** Cached results. */
   protected TokenList cache;
+  /** Indicates if more results can be requested. */
+  protected boolean remaining;
+  /** Indicates if results are retrieved in a binary format. */
+  protected boolean binary;
 
   /** Cached result types. */
   private ByteList types;
   /** Cache pointer. */
   private int pos;
+  /** Indicates if full type information is retrieved. */
+  private boolean full;
 
   /**
    * Binds a value to an external variable.
@@ -66,6 +73,17 @@ public abstract class Query implements Closeable {
    */
   public abstract void context(Object value, String type) throws IOException;
 
+  /**
+   * Specifies if results are retrieved in a binary format. If enabled, numbers and booleans
+   * will be transferred in their native representation, and binary items as raw bytes.
+   * @param bin binary flag
+   */
+  public final void binary(final boolean bin) {
+    binary = bin;
+    cache = null;
+    remaining = false;
+  }
+
   /**
    * Returns {@code true} if more items are available.
    * @return result of check
@@ -74,6 +92,10 @@ public abstract class Query implements Closeable {
   public boolean more() throws IOException {
     if(cache == null) cache(false);
     if(pos < cache.size()) return true;
+    if(remaining) {
+      cache(full);
+      if(pos < cache.size()) return true;
+    }
     cache = null;
     types = null;
     return false;
@@ -93,7 +115,8 @@ public abstract class Query implements Closeable {
    */
   public final String next() throws IOException {
     if(more()) {
-      final byte[] item = cache.get(pos);
+      final byte[] value = cache.get(pos);
+      final byte[] item = binary ? BinaryResults.string(types.get(pos), value) : value;
       cache.set(pos++, null);
       if(out == null) return Token.string(item);
       out.write(item);
@@ -101,6 +124,20 @@ public abstract class Query implements Closeable {
     return null;
   }
 
+  /**
+   * Returns the next item of the query as Java object. If results are retrieved in a binary
+   * format, a {@link Long}, {@link Double}, {@link Float}, {@link Boolean} or byte array
+   * will be returned for numeric, boolean and binary items. Otherwise, a string is returned.
+   * @return object or {@code null}
+   * @throws IOException I/O exception
+   */
+  public final Object nextObject() throws IOException {
+    if(!more()) return null;
+    final byte[] value = cache.get(pos);
+    cache.set(pos++, null);
+    return binary ? BinaryResults.object(types.get(pos - 1), value) : Token.string(value);
+  }
+
   /**
    * Returns the XQuery type of the current item (must be called after {@link #next()}.
    * @return item type
@@ -116,21 +153,26 @@ public abstract class Query implements Closeable {
    * @throws IOException I/O exception
    */
   void cache(final InputStream input, final boolean full) throws IOException {
+    this.full = full;
     cache = new TokenList();
     types = new ByteList();
     final ByteList bl = new ByteList();
     for(int t; (t = input.read()) > 0;) {
-      // skip type information
-      if(full) {
-        final ID id = ID.get(t);
-        if(id != null && id.isExtended()) {
-          while(input.read() > 0);
+      if(binary) {
+        cache.add(BinaryResults.read(input));
+      } else {
+        // skip type information
+        if(full) {
+          final ID id = ID.get(t);
+          if(id != null && id.isExtended()) {
+            while(input.read() > 0);
+          }
         }
+        // read and decode result
+        final ServerInput si = new ServerInput(input);
+        for(int b; (b = si.read()) != -1;) bl.add(b);
+        cache.add(bl.next());
       }
-      // read and decode result
-      final ServerInput si = new ServerInput(input);
-      for(int b; (b = si.read()) != -1;) bl.add(b);
-      cache.add(bl.next());
       types.add(t);
     }
     pos = 0;
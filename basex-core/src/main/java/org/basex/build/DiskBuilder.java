@@ -31,6 +31,10 @@ public final class DiskBuilder extends Builder {
   private DataOutput vout;
   /** Output stream for temporary values. */
   private DataOutput sout;
+  /** Dictionary builder (only assigned if values are to be compressed with a dictionary). */
+  private Compressor.Builder dictionary;
+  /** Compressor (assigned as soon as the dictionary is complete). */
+  private Compressor compressor;
 
   /** Static options. */
   private final StaticOptions sopts;
@@ -74,12 +78,14 @@ public final class DiskBuilder extends Builder {
         xout = new DataOutput(meta.dbFile(DATATXT), bs);
         vout = new DataOutput(meta.dbFile(DATAATV), bs);
         sout = new DataOutput(meta.dbFile(DATATMP), bs);
+        if(meta.compression) dictionary = new Compressor.Builder();
         parse();
       } finally {
         if(tout != null) tout.close();
         if(xout != null) xout.close();
         if(vout != null) vout.close();
         if(sout != null) sout.close();
+        if(compressor != null) compressor.close();
       }
 
       // copy temporary values into database table
@@ -93,6 +99,11 @@ public final class DiskBuilder extends Builder {
       }
       meta.dbFile(DATATMP).delete();
 
+      // write dictionary (may be incomplete if only few values have been stored)
+      final byte[] dict = compressor != null ? compressor.dictionary() :
+        dictionary != null ? dictionary.finish() : Token.EMPTY;
+      if(dict.length != 0) meta.dbFile(DATADIC).write(dict);
+
       // return database instance
       return new DiskData(meta, elemNames, attrNames, path, nspaces);
 
@@ -164,8 +175,12 @@ public final class DiskBuilder extends Builder {
     final long inlined = Inline.pack(value);
     if(inlined != 0) return inlined;
 
-    // store text to heap file
-    final byte[] packed = Compress.pack(value);
+    // store text to heap file; values are compressed with a dictionary once it is complete
+    if(dictionary != null && dictionary.add(value)) {
+      compressor = new Compressor(dictionary.finish());
+      dictionary = null;
+    }
+    final byte[] packed = compressor != null ? compressor.pack(value) : Compress.pack(value);
     final DataOutput store = text ? xout : vout;
     final long offset = store.size();
     store.writeToken(packed);
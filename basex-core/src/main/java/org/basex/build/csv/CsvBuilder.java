@@ -85,6 +85,6 @@ final class CsvBuilder extends CsvConverter {
 
   @Override
   public double progressInfo() {
-    return (double) nli.size() / nli.length();
+    return progress();
   }
 }
@@ -11,6 +11,8 @@ import org.basex.util.options.*;
 public final class CsvParserOptions extends CsvOptions {
   /** Option: encoding. */
   public static final StringOption ENCODING = new StringOption("encoding");
+  /** Option: number of parsing threads (0: number of processors, 1: sequential parsing). */
+  public static final NumberOption THREADS = new NumberOption("threads", 0);
 
   /**
    * Default constructor.
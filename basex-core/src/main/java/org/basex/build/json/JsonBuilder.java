@@ -0,0 +1,218 @@
+package org.basex.build.json;
+
+import static org.basex.io.parse.json.JsonConstants.*;
+import static org.basex.query.QueryError.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.build.*;
+import org.basex.build.json.JsonOptions.*;
+import org.basex.build.json.JsonParserOptions.*;
+import org.basex.io.parse.json.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class converts JSON data to XML, using the direct, attributes or basic conversion.
+ * Parse events are directly passed on to the database builder.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class JsonBuilder extends JsonConverter {
+  /** Attributes. */
+  private final Atts atts = new Atts();
+  /** Namespaces. */
+  private final Atts nsp = new Atts();
+  /** Add pairs. */
+  private final BoolList addPairs = new BoolList();
+  /** Builder. */
+  private final Builder builder;
+  /** Conversion format. */
+  private final JsonFormat format;
+  /** Include string type. */
+  private final boolean strings;
+  /** Lax QName conversion. */
+  private final boolean lax;
+  /** Escape characters. */
+  private final boolean escape;
+  /** Chop whitespaces. */
+  private final boolean chop;
+
+  /** Name of next element. */
+  private byte[] name = JSON;
+  /** Key of next element (can be {@code null}). */
+  private byte[] key;
+  /** Root flag. */
+  private boolean root = true;
+
+  /**
+   * Constructor.
+   * @param jopts JSON options
+   * @param builder builder
+   * @param chop chop whitespaces
+   * @throws QueryIOException query I/O exception
+   */
+  JsonBuilder(final JsonParserOptions jopts, final Builder builder, final boolean chop)
+      throws QueryIOException {
+    super(jopts);
+    this.builder = builder;
+    this.chop = chop;
+    format = jopts.get(JsonOptions.FORMAT);
+    strings = jopts.get(JsonOptions.STRINGS);
+    lax = jopts.get(JsonOptions.LAX);
+    escape = jopts.get(JsonParserOptions.ESCAPE);
+    addPairs.add(true);
+
+    final JsonDuplicates dupl = jopts.get(JsonParserOptions.DUPLICATES);
+    if(format == JsonFormat.BASIC && dupl == JsonDuplicates.USE_LAST) throw new QueryIOException(
+        JSON_OPTIONS_X.get(null, JsonParserOptions.DUPLICATES.name(), dupl));
+  }
+
+  /**
+   * Checks if the specified options are supported by this builder.
+   * Type information can only be merged after the whole input has been parsed.
+   * @param jopts JSON options
+   * @return result of check
+   */
+  static boolean supports(final JsonParserOptions jopts) {
+    final JsonFormat format = jopts.get(JsonOptions.FORMAT);
+    return (format == JsonFormat.DIRECT || format == JsonFormat.ATTRIBUTES ||
+      format == JsonFormat.BASIC) && !jopts.get(JsonOptions.MERGE);
+  }
+
+  @Override
+  protected void openObject() throws IOException {
+    open(format == JsonFormat.BASIC ? MAP : OBJECT, null);
+  }
+
+  @Override
+  protected void openPair(final byte[] k, final boolean add) {
+    if(format == JsonFormat.DIRECT) {
+      name = XMLToken.encode(k, lax);
+    } else {
+      name = PAIR;
+      key = k;
+    }
+    addPairs.add(add() && (add || format == JsonFormat.DIRECT));
+  }
+
+  @Override
+  protected void closePair(final boolean add) {
+    addPairs.pop();
+  }
+
+  @Override
+  protected void closeObject() throws IOException {
+    if(add()) builder.closeElem();
+  }
+
+  @Override
+  protected void openArray() throws IOException {
+    open(ARRAY, null);
+  }
+
+  @Override
+  protected void openItem() {
+    name = format == JsonFormat.DIRECT ? VALUE : ITEM;
+  }
+
+  @Override
+  protected void closeItem() { }
+
+  @Override
+  protected void closeArray() throws IOException {
+    closeObject();
+  }
+
+  @Override
+  protected void numberLit(final byte[] value) throws IOException {
+    value(NUMBER, value);
+  }
+
+  @Override
+  protected void stringLit(final byte[] value) throws IOException {
+    value(STRING, value);
+  }
+
+  @Override
+  protected void nullLit() throws IOException {
+    value(NULL, null);
+  }
+
+  @Override
+  protected void booleanLit(final byte[] value) throws IOException {
+    value(BOOLEAN, value);
+  }
+
+  @Override
+  protected Item finish() {
+    return null;
+  }
+
+  /**
+   * Returns the progress of the conversion.
+   * @return progress
+   */
+  double progressInfo() {
+    return nli == null ? 0 : (double) nli.size() / nli.length();
+  }
+
+  /**
+   * Adds an element with a single value.
+   * @param type JSON type
+   * @param value value (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private void value(final byte[] type, final byte[] value) throws IOException {
+    if(open(type, value)) {
+      if(value != null) builder.text(chop ? trim(value) : value);
+      builder.closeElem();
+    }
+  }
+
+  /**
+   * Opens a new element with the given type.
+   * @param type JSON type
+   * @param value value (can be {@code null})
+   * @return {@code true} if the element was opened
+   * @throws IOException I/O exception
+   */
+  private boolean open(final byte[] type, final byte[] value) throws IOException {
+    if(!add()) return false;
+
+    final byte[] elem;
+    if(format == JsonFormat.BASIC) {
+      elem = type;
+      if(key != null) {
+        atts.add(KEY, key);
+        if(escape && contains(key, '\\')) atts.add(ESCAPED_KEY, TRUE);
+      }
+      if(escape && type == STRING && contains(value, '\\')) atts.add(ESCAPED, TRUE);
+      // root node: declare namespace
+      if(root) nsp.add(EMPTY, QueryText.FN_URI);
+    } else {
+      elem = name;
+      if(key != null) atts.add(NAME, key);
+      if(strings || type != STRING) atts.add(TYPE, type);
+    }
+    builder.openElem(elem, atts, nsp);
+    atts.reset();
+    nsp.reset();
+    name = null;
+    key = null;
+    root = false;
+    return true;
+  }
+
+  /**
+   * Indicates if an entry should be added.
+   * @return result of check
+   */
+  private boolean add() {
+    return addPairs.peek();
+  }
+}
@@ -1,11 +1,18 @@
 package org.basex.build.json;
 
+import static org.basex.query.QueryError.*;
+import static org.basex.util.Token.*;
+
 import java.io.*;
 
-import org.basex.build.xml.*;
+import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.io.*;
 import org.basex.io.parse.json.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
 
 /**
  * This class parses files in the JSON format
@@ -14,17 +21,24 @@ import org.basex.io.parse.json.*;
  * <p>The parser provides some options, which can be specified via the
  * {@link MainOptions#JSONPARSER} option.</p>
  *
+ * <p>If possible, the input is streamed: parse events are directly passed on to the builder.
+ * Otherwise, the input is converted to main-memory nodes first.</p>
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
-public final class JsonParser extends XMLParser {
+public final class JsonParser extends SingleParser {
+  /** JSON Parser options. */
+  private final JsonParserOptions jopts;
+  /** JSON Builder. */
+  private JsonBuilder json;
+
   /**
    * Constructor.
    * @param source document source
    * @param opts database options
-   * @throws IOException I/O exception
    */
-  public JsonParser(final IO source, final MainOptions opts) throws IOException {
+  public JsonParser(final IO source, final MainOptions opts) {
     this(source, opts, opts.get(MainOptions.JSONPARSER));
   }
 
@@ -33,24 +47,48 @@ public final class JsonParser extends XMLParser {
    * @param source document source
    * @param opts database options
    * @param jopts parser options
-   * @throws IOException I/O exception
    */
-  public JsonParser(final IO source, final MainOptions opts, final JsonParserOptions jopts)
-      throws IOException {
-    super(toXML(source, jopts), opts);
+  public JsonParser(final IO source, final MainOptions opts, final JsonParserOptions jopts) {
+    super(source, opts);
+    this.jopts = jopts;
+  }
+
+  @Override
+  protected void parse() throws IOException {
+    final boolean chop = options.get(MainOptions.CHOP);
+    if(JsonBuilder.supports(jopts)) {
+      json = new JsonBuilder(jopts, builder, chop);
+      json.convert(source);
+    } else {
+      final Item item = JsonConverter.get(jopts).convert(source);
+      if(!(item instanceof ANode)) throw SERFUNC_X.getIO(item.type);
+      add((ANode) item, chop);
+    }
   }
 
   /**
-   * Converts a JSON document to XML.
-   * @param io input
-   * @param options parser options
-   * @return parser
+   * Adds the descendants of the specified node.
+   * @param node node
+   * @param chop chop whitespaces
    * @throws IOException I/O exception
    */
-  private static IOContent toXML(final IO io, final JsonParserOptions options) throws IOException {
-    final JsonConverter conv = JsonConverter.get(options);
-    final IOContent xml = new IOContent(conv.convert(io).serialize().finish());
-    xml.name(io.name());
-    return xml;
+  private void add(final ANode node, final boolean chop) throws IOException {
+    final Type type = node.type;
+    if(type == NodeType.ELM) {
+      final Atts atts = new Atts();
+      for(final ANode attr : node.attributes()) atts.add(attr.name(), attr.string());
+      builder.openElem(node.name(), atts, node.namespaces());
+      for(final ANode child : node.children()) add(child, chop);
+      builder.closeElem();
+    } else if(type == NodeType.TXT) {
+      builder.text(chop ? trim(node.string()) : node.string());
+    } else {
+      for(final ANode child : node.children()) add(child, chop);
+    }
+  }
+
+  @Override
+  public double progressInfo() {
+    return json != null ? json.progressInfo() : super.progressInfo();
   }
 }
@@ -24,6 +24,9 @@ public final class JsonParserOptions extends JsonOptions {
   public static final BooleanOption VALIDATE = new BooleanOption("validate", false);
   /** Option: encoding (custom). */
   public static final StringOption ENCODING = new StringOption("encoding");
+  /** Option: stream mode (custom, parse-stream). */
+  public static final EnumOption<JsonStreamMode> MODE =
+      new EnumOption<>("mode", JsonStreamMode.LINES);
 
   /** Duplicate handling. */
   public enum JsonDuplicates {
@@ -38,6 +41,17 @@ public final class JsonParserOptions extends JsonOptions {
     }
   }
 
+  /** Stream mode. */
+  public enum JsonStreamMode {
+    /** Sequence of values. */ LINES,
+    /** Array members.      */ ARRAY;
+
+    @Override
+    public String toString() {
+      return name().toLowerCase(Locale.ENGLISH);
+    }
+  }
+
   /**
    * Default constructor.
    */
@@ -4,11 +4,13 @@ import static org.basex.build.BuildText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -36,6 +38,19 @@ public class XMLParser extends SingleParser {
   /** Closed root element. */
   private boolean closed;
 
+  /** Streaming: local names of the path steps ({@code null}: wildcard). */
+  private byte[][] steps;
+  /** Streaming: namespace URIs of the path steps ({@code null}: wildcard). */
+  private byte[][] uris;
+  /** Streaming: number of opened elements that match the leading path steps. */
+  private int matched;
+  /** Streaming: namespaces declared by the opened elements outside of subtrees. */
+  private final ArrayList<Atts> scopes = new ArrayList<>();
+  /** Streaming: subtree that has been parsed last. */
+  private MemData subtree;
+  /** Streaming: indicates if parsing has been started. */
+  private boolean started;
+
   /**
    * Constructor.
    * @param source document source
@@ -66,29 +81,45 @@ public class XMLParser extends SingleParser {
   public final void parse() throws IOException {
     // loop until all tokens have been processed
     scanner.more();
-    while(true) {
-      if(scanner.type == Type.TEXT) {
-        final byte[] text = scanner.token.toArray();
-        if(!elms.isEmpty() || fragment || !ws(text)) {
-          if(chops.peek()) scanner.token.trim();
-          builder.text(scanner.token.toArray());
-        }
-      } else if(scanner.type == Type.COMMENT) {
-        builder.comment(scanner.token.toArray());
-      } else if(scanner.type == Type.PI) {
-        builder.pi(scanner.token.toArray());
-      } else if(scanner.type == Type.EOF) {
-        break;
-      } else if(scanner.type != Type.DTD) {
-        // L_BR, L_BR_CLOSE
-        if(!fragment && closed) throw new BuildException(MOREROOTS, detailedInfo());
-        if(!parseElement()) break;
-        continue;
+    while(parseNext());
+    finish();
+  }
+
+  /**
+   * Streams the input. The element subtrees that match the specified path are built as
+   * separate main-memory instances. All other nodes are skipped.
+   * @param names local names of the path steps, starting with the root element
+   *   ({@code null} references serve as wildcards)
+   * @param nsUris namespace URIs of the path steps (empty tokens: no namespace,
+   *   {@code null} references: wildcards)
+   * @return self reference
+   */
+  public XMLParser stream(final byte[][] names, final byte[][] nsUris) {
+    steps = names;
+    uris = nsUris;
+    return this;
+  }
+
+  /**
+   * Parses the input until the next matching subtree has been built.
+   * @return instance with the root element of the subtree at pre value 0,
+   *   or {@code null} if the input has been completely parsed
+   * @throws IOException I/O exception
+   */
+  public MemData next() throws IOException {
+    if(!started) {
+      started = true;
+      scanner.more();
+    }
+    while(subtree == null) {
+      if(!parseNext()) {
+        finish();
+        return null;
       }
-      if(!scanner.more()) break;
     }
-    scanner.close();
-    if(!elms.isEmpty()) throw new BuildException(DOCOPEN, detailedInfo(), elms.pop());
+    final MemData data = subtree;
+    subtree = null;
+    return data;
   }
 
   @Override
@@ -96,6 +127,42 @@ public class XMLParser extends SingleParser {
     scanner.close();
   }
 
+  /**
+   * Parses the next tokens.
+   * @return {@code false} if all tokens have been processed
+   * @throws IOException I/O exception
+   */
+  private boolean parseNext() throws IOException {
+    final Type type = scanner.type;
+    if(type == Type.TEXT) {
+      final byte[] text = scanner.token.toArray();
+      if(builder != null && (!elms.isEmpty() || fragment || !ws(text))) {
+        if(chops.peek()) scanner.token.trim();
+        builder.text(scanner.token.toArray());
+      }
+    } else if(type == Type.COMMENT) {
+      if(builder != null) builder.comment(scanner.token.toArray());
+    } else if(type == Type.PI) {
+      if(builder != null) builder.pi(scanner.token.toArray());
+    } else if(type == Type.EOF) {
+      return false;
+    } else if(type != Type.DTD) {
+      // L_BR, L_BR_CLOSE
+      if(!fragment && closed) throw new BuildException(MOREROOTS, detailedInfo());
+      return parseElement();
+    }
+    return scanner.more();
+  }
+
+  /**
+   * Finishes parsing.
+   * @throws IOException I/O exception
+   */
+  private void finish() throws IOException {
+    scanner.close();
+    if(!elms.isEmpty()) throw new BuildException(DOCOPEN, detailedInfo(), elms.pop());
+  }
+
   /**
    * Parses an XML element name.
    * @return result of scanner step
@@ -116,8 +183,13 @@ public class XMLParser extends SingleParser {
       if(!eq(open, name)) throw new BuildException(CLOSINGELEM, detailedInfo(), name, open);
       chops.pop();
 
-      builder.closeElem();
+      if(builder != null) builder.closeElem();
       if(elms.isEmpty()) closed = true;
+      if(steps != null) {
+        final int level = elms.size();
+        if(matched > level) matched = level;
+        if(level < scopes.size()) scopes.remove(level);
+      }
       return consume(Type.R_BR);
     }
 
@@ -160,15 +232,33 @@ public class XMLParser extends SingleParser {
       }
     }
 
+    // streaming: check if the element is the root of a subtree
+    final boolean empty = scanner.type == Type.CLOSE_R_BR;
+    boolean root = false;
+    if(steps != null && builder == null) {
+      final int level = elms.size();
+      if(level == matched && level < steps.length &&
+          (steps[level] == null || eq(local(en), steps[level])) &&
+          (uris[level] == null || eq(uri(prefix(en)), uris[level]))) {
+        root = level + 1 == steps.length;
+        if(!empty && !root) matched++;
+      }
+      if(!root && !empty) scopes.add(nsp.isEmpty() ? null : nsp.copy());
+    }
+
     // send empty element to builder
-    if(scanner.type == Type.CLOSE_R_BR) {
-      builder.emptyElem(en, atts, nsp);
+    if(empty) {
+      if(root) {
+        parseSubtree(en, true);
+      } else if(builder != null) {
+        builder.emptyElem(en, atts, nsp);
+      }
       if(elms.isEmpty()) closed = true;
       return scanner.more();
     }
 
     // send start element
-    builder.openElem(en, atts, nsp);
+    if(builder != null) builder.openElem(en, atts, nsp);
     elms.push(en);
     boolean c = chops.peek();
     if(chop) {
@@ -180,7 +270,62 @@ public class XMLParser extends SingleParser {
       }
     }
     chops.push(c);
-    return consume(Type.R_BR);
+    return root ? parseSubtree(en, false) : consume(Type.R_BR);
+  }
+
+  /**
+   * Returns the namespace URI that is bound to a prefix of the currently opened element.
+   * @param prefix prefix
+   * @return namespace URI (empty if no URI is bound)
+   */
+  private byte[] uri(final byte[] prefix) {
+    byte[] uri = nsp.value(prefix);
+    for(int s = scopes.size() - 1; uri == null && s >= 0; s--) {
+      final Atts scope = scopes.get(s);
+      if(scope != null) uri = scope.value(prefix);
+    }
+    return uri != null ? uri : EMPTY;
+  }
+
+  /**
+   * Builds a subtree.
+   * @param name name of the root element
+   * @param empty empty root element
+   * @return result of scanner step
+   * @throws IOException I/O exception
+   */
+  private boolean parseSubtree(final byte[] name, final boolean empty) throws IOException {
+    // add namespaces of the ancestors that are not overwritten by the root element
+    final Atts ns = nsp.copy(), as = atts.copy();
+    for(int s = scopes.size() - 1; s >= 0; s--) {
+      final Atts scope = scopes.get(s);
+      if(scope == null) continue;
+      final int sl = scope.size();
+      for(int a = 0; a < sl; a++) {
+        if(!ns.contains(scope.name(a))) ns.add(scope.name(a), scope.value(a));
+      }
+    }
+
+    final int level = elms.size();
+    final boolean[] more = { true };
+    subtree = MemBuilder.build(source.dbName(), new Parser(source, options) {
+      @Override
+      public void parse(final Builder build) throws IOException {
+        if(empty) {
+          build.emptyElem(name, as, ns);
+        } else {
+          build.openElem(name, as, ns);
+          builder = build;
+          try {
+            more[0] = consume(Type.R_BR);
+            while(more[0] && elms.size() >= level) more[0] = parseNext();
+          } finally {
+            builder = null;
+          }
+        }
+      }
+    });
+    return more[0];
   }
 
   /**
@@ -33,6 +33,10 @@ final class XMLScanner extends Job {
   private static final byte[] QUESTION = { '?' };
   /** Ampersand entity. */
   private static final byte[] AMPER = { '&' };
+  /** Characters that interrupt runs of text content (see {@link XMLInput#copy}). */
+  private static final boolean[] TEXT = stop("<&]", true);
+  /** Characters that interrupt runs of attribute values (see {@link XMLInput#copy}). */
+  private static final boolean[] ATTVALUE = stop("<&'\"", false);
 
   /** Scanning states. */
   private enum Scan {
@@ -281,6 +285,7 @@ final class XMLScanner extends Job {
       } else {
         token.add(c);
       }
+      if(!pe) input.copy(token, ATTVALUE);
     } while((c = consume()) != quote);
   }
 
@@ -320,6 +325,7 @@ final class XMLScanner extends Job {
           token.add(c);
         }
       }
+      if(!pe) input.copy(token, TEXT);
       c = consume();
       f = false;
     }
@@ -1020,4 +1026,18 @@ final class XMLScanner extends Job {
     final double l = input.length();
     return l <= 0 ? 0 : input.pos() / l;
   }
+
+  /**
+   * Returns a table with the ASCII characters that interrupt runs of plain characters.
+   * Control characters are always included.
+   * @param chars stop characters
+   * @param newline include newlines in runs
+   * @return table
+   */
+  private static boolean[] stop(final String chars, final boolean newline) {
+    final boolean[] stop = new boolean[0x80];
+    for(int c = 0; c < ' '; c++) stop[c] = c != '\t' && !(newline && c == '\n');
+    for(final char ch : chars.toCharArray()) stop[ch] = true;
+    return stop;
+  }
 }
@@ -4,6 +4,7 @@ import org.basex.core.jobs.*;
 import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
@@ -43,6 +44,8 @@ public final class Context {
   public final Log log;
   /** Locking. */
   public final Locking locking;
+  /** Cache for fetched resources. */
+  public final IOCache cache;
 
   /** Client info. Set to {@code null} in standalone/server mode. */
   private final ClientInfo client;
@@ -107,6 +110,7 @@ public final class Context {
     repo = ctx.repo;
     log = ctx.log;
     jobs = ctx.jobs;
+    cache = ctx.cache;
   }
 
   /**
@@ -126,6 +130,7 @@ public final class Context {
     log = new Log(soptions);
     user = users.get(UserText.ADMIN);
     jobs = new JobPool(soptions);
+    cache = new IOCache(soptions);
     client = null;
   }
 
@@ -31,8 +31,16 @@ public final class StaticOptions extends Options {
   public static final BooleanOption LANGKEYS = new BooleanOption("LANGKEYS", false);
   /** Locking strategy. */
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
+  /** Defer exclusive locks of updating queries and OPTIMIZE ALL until the updates are applied. */
+  public static final BooleanOption DEFERLOCK = new BooleanOption("DEFERLOCK", false);
+  /** Lock single documents if updating queries only add or replace documents of a database. */
+  public static final BooleanOption DOCLOCK = new BooleanOption("DOCLOCK", false);
+  /** Release database locks of backup commands after the database files have been copied. */
+  public static final BooleanOption HOTBACKUP = new BooleanOption("HOTBACKUP", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Size (KB) of the cache for fetched resources; deactivated if set to 0. */
+  public static final NumberOption FETCHCACHE = new NumberOption("FETCHCACHE", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -59,6 +67,8 @@ public final class StaticOptions extends Options {
   public static final BooleanOption IGNORECERT = new BooleanOption("IGNORECERT", false);
   /** Ignore verification of hostname in certificates. */
   public static final BooleanOption IGNOREHOSTNAME = new BooleanOption("IGNOREHOSTNAME", false);
+  /** Maximum number of parallel HTTP client connections per host; unlimited if set to 0. */
+  public static final NumberOption HTTPCONNECTIONS = new NumberOption("HTTPCONNECTIONS", 0);
 
   /** Timeout (seconds) for processing client requests; deactivated if set to 0. */
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
@@ -70,6 +80,12 @@ public final class StaticOptions extends Options {
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
   public static final NumberOption LOGMSGMAXLEN = new NumberOption("LOGMSGMAXLEN", 1000);
+  /** Size of the queue for asynchronous logging; deactivated if set to 0. */
+  public static final NumberOption LOGQUEUE = new NumberOption("LOGQUEUE", 0);
+  /** Discard log entries if the queue for asynchronous logging is full. */
+  public static final BooleanOption LOGDROP = new BooleanOption("LOGDROP", false);
+  /** Interval (ms) for syncing asynchronously written log files; deactivated if set to 0. */
+  public static final NumberOption LOGSYNC = new NumberOption("LOGSYNC", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_HTTP = new Comment("HTTP Services");
@@ -136,6 +152,9 @@ public final class StaticOptions extends Options {
     if(!nph.isEmpty()) {
       Prop.setSystem("http.nonProxyHosts", nph);
     }
+    // number of idle connections per host that will be kept alive
+    final int hc = get(HTTPCONNECTIONS);
+    if(hc > 0) Prop.setSystem("http.maxConnections", Integer.toString(hc));
     if(get(IGNORECERT)) IOUrl.ignoreCert();
     if(get(IGNOREHOSTNAME)) IOUrl.ignoreHostname();
   }
@@ -152,6 +152,8 @@ public interface Text {
   /** Command keyword. */
   String S_TO = "TO";
   /** Command keyword. */
+  String S_INCREMENTAL = "INCREMENTAL";
+  /** Command keyword. */
   String S_QUERY = "query";
   /** Command keyword. */
   String S_PATH = "path";
@@ -283,7 +285,7 @@ public interface Text {
     CmdCreate.INDEX + '|' + CmdCreate.USER + "] [...]",
     lang("c_create1"),
     lang("c_create2") + NL +
-    LI + CmdDrop.BACKUP + " [" + S_NAME + "]:" + NL +
+    LI + CmdCreate.BACKUP + " [" + S_NAME + "] (" + S_INCREMENTAL + "):" + NL +
     "  " + lang("c_create22", S_NAME) + NL +
     LI + CmdCreate.DATABASE + " [" + S_NAME + "] ([" + S_INPUT + "]):"  + NL +
     "  " + lang("c_create21", S_NAME, S_INPUT) + NL +
@@ -620,6 +622,8 @@ public interface Text {
   String BACKUP_DROPPED_X = lang("backup_dropped_%");
   /** Backup was not found. */
   String BACKUP_NOT_FOUND_X = lang("backup_not_found_%");
+  /** Backup is referenced by an incremental backup. */
+  String BACKUP_REFERENCED_X = lang("backup_referenced_%");
   /** File could not be deleted. */
   String FILE_NOT_DELETED_X = lang("file_not_deleted_%");
   /** File could not be renamed. */
@@ -27,7 +27,16 @@ public final class CreateBackup extends ABackup {
    * @param arg optional argument
    */
   public CreateBackup(final String arg) {
-    super(arg);
+    this(arg, false);
+  }
+
+  /**
+   * Constructor.
+   * @param arg optional argument
+   * @param incremental only back up pages that have changed since the last backup
+   */
+  public CreateBackup(final String arg, final boolean incremental) {
+    super(arg, incremental ? S_INCREMENTAL : null);
   }
 
   @Override
@@ -40,6 +49,8 @@ public final class CreateBackup extends ABackup {
     if(dbs.isEmpty()) return error(DB_NOT_FOUND_X, pattern);
 
     // loop through all databases
+    final boolean incremental = args[1] != null, hot = soptions.get(StaticOptions.HOTBACKUP);
+    final Map<String, Backup> snapshots = new LinkedHashMap<>();
     boolean ok = true;
     for(final String db : dbs) {
       // don't open databases marked as updating
@@ -49,9 +60,12 @@ public final class CreateBackup extends ABackup {
         ok = false;
       } else {
         try {
-          backup(db, soptions, this);
+          final StringList backups = incremental ? context.databases.backups(db) : null;
+          final String base = backups != null && !backups.isEmpty() ? backups.get(0) : null;
+          final Backup backup = backup(db, base, hot, soptions, this);
           // backup was successful
-          info(DB_BACKUP_X, db, jc().performance);
+          if(hot) snapshots.put(db, backup);
+          else info(DB_BACKUP_X, db, jc().performance);
         } catch(final IOException ex) {
           Util.debug(ex);
           info(DB_NOT_BACKUP_X, db);
@@ -59,6 +73,21 @@ public final class CreateBackup extends ABackup {
         }
       }
     }
+
+    if(!snapshots.isEmpty()) {
+      // database files have been copied: allow other jobs to update the databases
+      context.locking.releaseReads();
+      for(final Map.Entry<String, Backup> entry : snapshots.entrySet()) {
+        try {
+          finish(entry.getValue(), this);
+          info(DB_BACKUP_X, entry.getKey(), jc().performance);
+        } catch(final IOException ex) {
+          Util.debug(ex);
+          info(DB_NOT_BACKUP_X, entry.getKey());
+          ok = false;
+        }
+      }
+    }
     return ok;
   }
 
@@ -71,21 +100,53 @@ public final class CreateBackup extends ABackup {
    */
   public static void backup(final String db, final StaticOptions sopts, final CreateBackup cmd)
       throws IOException {
+    backup(db, null, false, sopts, cmd);
+  }
 
-    final String backup = db + '-' + DateTime.format(new Date(), DateTime.DATETIME) + IO.ZIPSUFFIX;
-    final IOFile zf = sopts.dbPath(backup);
-    final Zip zip = new Zip(zf);
+  /**
+   * Backups the specified database.
+   * @param db name of the database
+   * @param base name of the base backup (can be {@code null})
+   * @param snapshot create a snapshot of the database files; the backup will be completed
+   *   by {@link #finish}
+   * @param sopts static options
+   * @param cmd calling command instance
+   * @return backup
+   * @throws IOException I/O Exception
+   */
+  private static Backup backup(final String db, final String base, final boolean snapshot,
+      final StaticOptions sopts, final CreateBackup cmd) throws IOException {
 
+    final String name = db + '-' + DateTime.format(new Date(), DateTime.DATETIME);
+    final Backup backup = new Backup(sopts.dbPath(name + IO.ZIPSUFFIX));
     try {
-      if(cmd != null) cmd.pushJob(zip);
+      if(cmd != null) cmd.pushJob(backup);
       final IOFile dbpath = sopts.dbPath(db);
       final StringList files = dbpath.descendants();
       // ignore file indicating an update (this file is generated when using XQuery)
       files.removeAll(DATAUPD + IO.BASEXSUFFIX);
-      zip.zip(dbpath, files);
+      // backup with the same name will be overwritten: create full backup
+      backup.create(dbpath, files, name.equals(base) ? null : base,
+          snapshot ? sopts.dbPath('.' + name) : null);
     } finally {
       if(cmd != null) cmd.popJob();
     }
+    return backup;
+  }
+
+  /**
+   * Creates the archive of a backup from its snapshot.
+   * @param backup backup
+   * @param cmd calling command instance
+   * @throws IOException I/O Exception
+   */
+  private static void finish(final Backup backup, final CreateBackup cmd) throws IOException {
+    try {
+      cmd.pushJob(backup);
+      backup.finish();
+    } finally {
+      cmd.popJob();
+    }
   }
 
   @Override
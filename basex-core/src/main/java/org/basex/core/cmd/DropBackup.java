@@ -2,12 +2,15 @@ package org.basex.core.cmd;
 
 import static org.basex.core.Text.*;
 
+import java.io.*;
+
 import org.basex.core.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.Cmd;
 import org.basex.core.parse.Commands.CmdDrop;
 import org.basex.core.users.*;
 import org.basex.io.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -35,10 +38,14 @@ public final class DropBackup extends ABackup {
     // if the given argument is not a database name, it could be the name of a backup file
     if(dbs.isEmpty() && context.perm(Perm.READ, pattern)) dbs.add(pattern);
 
+    // collect backups, check if they are referenced by incremental backups that will be kept
+    final StringList backups = new StringList();
+    for(final String db : dbs) backups.add(context.databases.backups(db));
+    final String dependent = dependent(backups, context);
+    if(dependent != null) return error(BACKUP_REFERENCED_X, dependent);
+
     // drop all backups
-    for(final String db : dbs) {
-      for(final String backup : context.databases.backups(db)) drop(backup, soptions);
-    }
+    for(final String backup : backups) drop(backup, soptions);
 
     return info(BACKUP_DROPPED_X, pattern + '*' + IO.ZIPSUFFIX);
   }
@@ -53,6 +60,28 @@ public final class DropBackup extends ABackup {
     return new IOFile(sopts.dbPath(), name + IO.ZIPSUFFIX).delete();
   }
 
+  /**
+   * Returns an incremental backup that will not be dropped and that is based on one of the
+   * specified backups.
+   * @param backups names of backups to be dropped
+   * @param ctx database context
+   * @return name of dependent backup, or {@code null}
+   */
+  public static String dependent(final StringList backups, final Context ctx) {
+    final IOFile dbPath = ctx.soptions.dbPath();
+    for(final String backup : backups) {
+      for(final String other : ctx.databases.backups(Databases.name(backup))) {
+        if(backups.contains(other)) continue;
+        try {
+          if(backups.contains(Backup.base(new IOFile(dbPath, other + IO.ZIPSUFFIX)))) return other;
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
+      }
+    }
+    return null;
+  }
+
   @Override
   public void build(final CmdBuilder cb) {
     cb.init(Cmd.DROP + " " + CmdDrop.BACKUP).args();
@@ -4,6 +4,8 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.locks.*;
@@ -24,6 +26,9 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class Export extends Command {
+  /** Minimum number of nodes that are serialized by a single task. */
+  private static final int NODES = 1 << 16;
+
   /** Currently exported file. */
   private IO progFile;
   /** Current number of exported file. */
@@ -72,17 +77,37 @@ public final class Export extends Command {
   /**
    * Exports the current database to the specified path.
    * Files and directories in {@code path} will be possibly overwritten.
+   * If the path points to a ZIP or TAR file, all resources will be written to this archive.
    * @param data data reference
-   * @param path directory
+   * @param path directory or archive
    * @param sopts serialization parameters
    * @param export calling instance
    * @throws IOException I/O exception
    */
   public static void export(final Data data, final String path, final SerializerOptions sopts,
       final Export export) throws IOException {
+    export(data, path, sopts, export, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Exports the current database to the specified path.
+   * Adjacent documents are grouped by their pre values and serialized in parallel.
+   * @param data data reference
+   * @param path directory or archive
+   * @param sopts serialization parameters
+   * @param export calling instance
+   * @param threads number of threads
+   * @throws IOException I/O exception
+   */
+  static void export(final Data data, final String path, final SerializerOptions sopts,
+      final Export export, final int threads) throws IOException {
 
     final IOFile root = new IOFile(path);
-    root.md();
+    final boolean dir = root.isDir();
+    final boolean zip = !dir && root.hasSuffix(IO.ZIPSUFFIX);
+    final boolean tar = !dir && root.hasSuffix(IO.TARSUFFIX);
+    if(zip || tar) root.parent().md();
+    else root.md();
 
     // XML documents
     final IntList docs = data.resources.docs();
@@ -102,40 +127,160 @@ public final class Export extends Command {
       export.progSize = docs.size() + files.size();
     }
 
-    // XML documents
     final HashSet<String> target = new HashSet<>();
-    final int is = docs.size();
-    for(int i = 0; i < is; i++) {
-      final int pre = docs.get(i);
-      // create file path
-      final IOFile io = root.resolve(Token.string(data.text(pre, true)));
-      if(export != null) {
-        export.checkStop();
-        export.progFile = io;
+    final ArrayDeque<Group> groups = new ArrayDeque<>();
+    ExecutorService pool = null;
+    try(OutputStream archive = zip ? new ZipOutput(buffer(root)) :
+      tar ? new TarOutput(buffer(root)) : null) {
+
+      // XML documents: serialize groups of adjacent documents in parallel, write them in order
+      final boolean archived = archive != null;
+      final int ds = docs.size();
+      for(int d = 0; d < ds || !groups.isEmpty();) {
+        if(d < ds && groups.size() <= threads << 1) {
+          if(export != null) export.checkStop();
+          final int start = d;
+          long nodes = 0;
+          while(d < ds && nodes < NODES) nodes += data.size(docs.get(d++), Data.DOC);
+
+          final Group group = new Group(d - start);
+          for(int g = 0; g < group.pres.length; g++) {
+            final int pre = docs.get(start + g);
+            final String name = Token.string(data.text(pre, true));
+            group.pres[g] = pre;
+            group.paths[g] = unique(target, archived ? name : root.resolve(name).path());
+          }
+          groups.add(group);
+          // single large documents are directly serialized into ZIP archives
+          if(zip && group.pres.length == 1 && nodes >= NODES) {
+            group.future = CompletableFuture.completedFuture(null);
+          } else if(threads < 2 || d == ds && groups.size() == 1) {
+            final byte[][] contents = group.serialize(data, archived, sopts);
+            group.future = CompletableFuture.completedFuture(contents);
+          } else {
+            if(pool == null) pool = Executors.newFixedThreadPool(threads);
+            group.future = pool.submit(() -> group.serialize(data, archived, sopts));
+          }
+        } else {
+          final Group group = groups.peek();
+          final byte[][] contents = get(group.future);
+          final int gl = group.pres.length;
+          if(archived) {
+            for(int g = 0; g < gl; g++) {
+              final IOFile spooled = contents != null ? group.spooled[g] : null;
+              final long size = contents == null ? -1 : spooled != null ? spooled.length() :
+                contents[g].length;
+              entry(archive, group.paths[g], size, System.currentTimeMillis());
+              if(contents == null) {
+                serialize(data, group.pres[g], archive, sopts);
+              } else if(spooled != null) {
+                copy(spooled, archive);
+              } else {
+                archive.write(contents[g]);
+              }
+            }
+          }
+          groups.poll().delete();
+          if(export != null) {
+            export.progFile = archived ? root : new IOFile(group.paths[gl - 1]);
+            export.progPos += gl;
+          }
+        }
       }
-      // create dir if necessary
-      io.parent().md();
 
-      // serialize file
-      try(PrintOutput po = new PrintOutput(unique(target, io.path()))) {
-        try(Serializer ser = Serializer.get(po, sopts)) {
-          ser.serialize(new DBNode(data, pre));
+      // export raw files
+      for(final String file : files) {
+        if(export != null) export.checkStop();
+        final IOFile src = new IOFile(source, file);
+        if(archived) {
+          entry(archive, unique(target, file), src.length(), src.timeStamp());
+          copy(src, archive);
+        } else {
+          final IOFile io = new IOFile(root.path(), file);
+          if(export != null) export.progFile = io;
+          src.copyTo(new IOFile(unique(target, io.path())));
         }
+        if(export != null) export.progPos++;
       }
+    } finally {
+      if(pool != null) pool.shutdownNow();
+      // delete temporary files of groups that have not been written
+      for(final Group group : groups) group.delete();
+    }
+  }
 
-      if(export != null) export.progPos++;
+  /**
+   * Copies the contents of a file to an archive.
+   * @param file file
+   * @param archive archive
+   * @throws IOException I/O exception
+   */
+  private static void copy(final IOFile file, final OutputStream archive) throws IOException {
+    try(InputStream is = file.inputStream()) {
+      final byte[] bytes = new byte[IO.BLOCKSIZE];
+      for(int r; (r = is.read(bytes)) != -1;) archive.write(bytes, 0, r);
     }
+  }
 
-    // export raw files
-    for(final String file : files) {
-      final IOFile io = new IOFile(root.path(), file);
-      if(export != null) {
-        export.checkStop();
-        export.progFile = io;
-      }
-      new IOFile(source, file).copyTo(unique(target, io.path()));
+  /**
+   * Serializes a document.
+   * @param data data reference
+   * @param pre pre value of the document
+   * @param os output stream
+   * @param sopts serialization parameters
+   * @throws IOException I/O exception
+   */
+  private static void serialize(final Data data, final int pre, final OutputStream os,
+      final SerializerOptions sopts) throws IOException {
+    try(Serializer ser = Serializer.get(os, sopts)) {
+      ser.serialize(new DBNode(data, pre));
+    }
+  }
+
+  /**
+   * Starts a new archive entry.
+   * @param archive archive
+   * @param name name of the entry
+   * @param size size of the entry ({@code -1}: unknown; only supported by ZIP archives)
+   * @param time modification time
+   * @throws IOException I/O exception
+   */
+  private static void entry(final OutputStream archive, final String name, final long size,
+      final long time) throws IOException {
+    if(archive instanceof ZipOutput) {
+      final ZipEntry ze = new ZipEntry(name);
+      ze.setTime(time);
+      ((ZipOutput) archive).putNextEntry(ze);
+    } else {
+      ((TarOutput) archive).putNextEntry(name, size, time);
+    }
+  }
 
-      if(export != null) export.progPos++;
+  /**
+   * Returns a buffered output stream for the specified archive.
+   * @param archive archive
+   * @return output stream
+   * @throws IOException I/O exception
+   */
+  private static OutputStream buffer(final IOFile archive) throws IOException {
+    return new BufferedOutputStream(archive.outputStream());
+  }
+
+  /**
+   * Returns the serialized documents of a group.
+   * @param future future
+   * @return serialized documents
+   * @throws IOException I/O exception
+   */
+  private static byte[][] get(final Future<byte[][]> future) throws IOException {
+    try {
+      return future.get();
+    } catch(final InterruptedException ex) {
+      throw new InterruptedIOException(ex.getMessage());
+    } catch(final ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
     }
   }
 
@@ -170,7 +315,7 @@ public final class Export extends Command {
    * @param file file path
    * @return unique path
    */
-  private static IOFile unique(final HashSet<String> exp, final String file) {
+  private static String unique(final HashSet<String> exp, final String file) {
     int c = 1;
     String path = file;
     while(exp.contains(path)) {
@@ -178,6 +323,74 @@ public final class Export extends Command {
            file.replaceAll("(.*)\\.(.*)", "$1(" + ++c + ").$2");
     }
     exp.add(path);
-    return new IOFile(path);
+    return path;
+  }
+
+  /** Group of adjacent documents. */
+  private static final class Group {
+    /** Pre values. */
+    private final int[] pres;
+    /** Target paths. */
+    private final String[] paths;
+    /** Temporary files with large serialized documents (entries can be {@code null}). */
+    private final IOFile[] spooled;
+    /** Result of the serialization. */
+    private Future<byte[][]> future;
+
+    /**
+     * Constructor.
+     * @param size number of documents
+     */
+    private Group(final int size) {
+      pres = new int[size];
+      paths = new String[size];
+      spooled = new IOFile[size];
+    }
+
+    /**
+     * Serializes the documents. If the documents are buffered, large documents will be
+     * spooled to temporary files.
+     * @param data data reference
+     * @param buffer buffer the serialized documents instead of writing them to files
+     * @param sopts serialization parameters
+     * @return serialized documents ({@code null} entries: spooled documents),
+     *   or {@code null} if they have been written to files
+     * @throws IOException I/O exception
+     */
+    private byte[][] serialize(final Data data, final boolean buffer,
+        final SerializerOptions sopts) throws IOException {
+      final int pl = pres.length;
+      final byte[][] contents = buffer ? new byte[pl][] : null;
+      for(int p = 0; p < pl; p++) {
+        if(buffer && data.size(pres[p], Data.DOC) >= NODES) {
+          final IOFile tmp = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+          spooled[p] = tmp;
+          try(BufferOutput bo = new BufferOutput(tmp)) {
+            Export.serialize(data, pres[p], bo, sopts);
+          }
+        } else if(buffer) {
+          final ArrayOutput ao = new ArrayOutput();
+          Export.serialize(data, pres[p], ao, sopts);
+          contents[p] = ao.finish();
+        } else {
+          final IOFile io = new IOFile(paths[p]);
+          // create dir if necessary
+          io.parent().md();
+          try(PrintOutput po = new PrintOutput(io)) {
+            Export.serialize(data, pres[p], po, sopts);
+          }
+        }
+      }
+      return contents;
+    }
+
+    /**
+     * Deletes temporary files.
+     */
+    private void delete() {
+      for(final IOFile file : spooled) {
+        if(file != null) file.delete();
+      }
+    }
   }
 }
@@ -56,6 +56,7 @@ public final class InfoDB extends AInfo {
     info(tb, MetaProp.BINARIES, meta);
     info(tb, MetaProp.TIMESTAMP, meta);
     info(tb, MetaProp.UPTODATE, meta);
+    info(tb, MetaProp.COMPRESSION, meta);
     if(meta.corrupt) tb.add(' ' + DB_CORRUPT + NL);
 
     tb.add(NL).addExt(header, RES_PROPS);
@@ -13,8 +13,8 @@ import org.basex.util.list.*;
 
 /**
  * Evaluates the 'optimize' command and optimizes the data structures of
- * the currently opened database. Indexes and statistics are refreshed,
- * which is especially helpful after updates.
+ * the currently opened database. Indexes and statistics are refreshed, and unused space
+ * in the heap files is reclaimed, which is especially helpful after updates.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
@@ -156,6 +156,10 @@ public final class Optimize extends ACreate {
       meta.uptodate = true;
     }
 
+    // remove gaps from heap files, create missing compression dictionary
+    data.compact();
+    data.compress();
+
     // rebuild value indexes
     optimize(IndexType.TEXT, data, meta.createtext, enforceText, cmd);
     optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
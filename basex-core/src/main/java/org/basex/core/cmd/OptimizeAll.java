@@ -52,6 +52,13 @@ public final class OptimizeAll extends ACreate {
       error(open.info());
   }
 
+  @Override
+  public void addLocks() {
+    super.addLocks();
+    // exclusive lock is only required for replacing the database (see optimizeAll)
+    jc().locks.updating = true;
+  }
+
   @Override
   public boolean newData(final Context ctx) {
     return true;
@@ -71,6 +78,8 @@ public final class OptimizeAll extends ACreate {
   /**
    * Optimizes all data structures and closes the database.
    * Recreates the database, drops the old instance and renames the recreated instance.
+   * If the write lock of the database has been deferred ({@link StaticOptions#DEFERLOCK}),
+   * readers will only be blocked while the database is replaced.
    * @param data disk data
    * @param context database context
    * @param options main options
@@ -86,9 +95,11 @@ public final class OptimizeAll extends ACreate {
     final DiskData odata = (DiskData) data;
     final MetaData ometa = odata.meta;
 
-    // check if database is also pinned by other users
+    // check if database is also pinned by other users (checked again before it is replaced);
+    // if the write lock has been deferred, running readers may pin the database as well
     final String name = ometa.name;
-    if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
+    if(context.datas.pins(name) - context.locking.readers(name) > 1)
+      throw new BaseXException(DB_PINNED_X, name);
 
     // adopt original index options
     options.set(MainOptions.TEXTINDEX, ometa.textindex);
@@ -108,6 +119,8 @@ public final class OptimizeAll extends ACreate {
     // adopt original index options
     options.set(MainOptions.MAXLEN, ometa.maxlen);
     options.set(MainOptions.MAXCATS, ometa.maxcats);
+    // adopt original storage options
+    options.set(MainOptions.COMPRESSION, ometa.compression);
 
     // build database and index structures
     final StaticOptions sopts = context.soptions;
@@ -123,7 +136,6 @@ public final class OptimizeAll extends ACreate {
     } finally {
       if(cmd != null) cmd.popJob();
     }
-    Close.close(odata, context);
 
     // adopt original meta data, create new index structures
     final MetaData nmeta = ndata.meta;
@@ -145,6 +157,14 @@ public final class OptimizeAll extends ACreate {
       ndata.close();
     }
 
+    // wait for readers, check if database is also pinned by other users
+    context.locking.upgrade();
+    if(context.datas.pins(name) > 1) {
+      DropDB.drop(tmpName, sopts);
+      throw new BaseXException(DB_PINNED_X, name);
+    }
+    Close.close(odata, context);
+
     // move binary files
     final IOFile bin = ometa.binaryDir();
     if(bin.exists()) bin.rename(nmeta.binaryDir());
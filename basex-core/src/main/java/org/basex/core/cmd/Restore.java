@@ -74,14 +74,15 @@ public final class Restore extends ABackup {
   public static void restore(final String db, final String backup, final StaticOptions sopts,
       final Restore cmd) throws IOException {
 
-    // drop target database
+    // check backups before dropping the target database
+    final IOFile dbPath = sopts.dbPath();
+    final Backup bckp = new Backup(new IOFile(dbPath, backup + IO.ZIPSUFFIX));
+    bckp.check();
     DropDB.drop(db, sopts);
 
-    final IOFile dbPath = sopts.dbPath();
-    final Zip zip = new Zip(new IOFile(dbPath, backup + IO.ZIPSUFFIX));
     try {
-      if(cmd != null) cmd.pushJob(zip);
-      zip.unzip(dbPath);
+      if(cmd != null) cmd.pushJob(bckp);
+      bckp.restore(dbPath);
     } finally {
       if(cmd != null) cmd.popJob();
     }
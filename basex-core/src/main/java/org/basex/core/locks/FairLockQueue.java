@@ -21,22 +21,26 @@ public final class FairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
+  public void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // add job id to queue and wait
-    if(jobs >= parallel) {
-      queue.add(id);
-
-      // loop until job is placed first
-      do {
-        wait();
-      } while(!id.equals(queue.peek()));
+    // start job if no other jobs are queued
+    if(queued.get() == 0 && start()) return;
 
-      // remove job from queue
-      queue.remove(id);
+    synchronized(this) {
+      // add job id to queue and wait
+      queue.add(id);
+      queued.incrementAndGet();
+      try {
+        // loop until job is placed first
+        while(!id.equals(queue.peek()) || !start()) wait();
+      } finally {
+        // remove job from queue, notify next job
+        queue.remove(id);
+        queued.decrementAndGet();
+        notifyAll();
+      }
     }
-    jobs++;
   }
 
   @Override
@@ -9,7 +9,12 @@ import java.util.concurrent.locks.*;
  * @author Christian Gruen
  */
 final class LocalReadWriteLock extends ReentrantReadWriteLock {
-  /** Pins. */
+  /**
+   * Update lock, which is acquired by writers before the write lock. It is acquired exclusively
+   * by writers of a resource, and shared by writers of its documents (see {@link Locks#docs}).
+   */
+  final ReentrantReadWriteLock update;
+  /** Pins (only accessed while the lock table is updated). */
   private int pins;
 
   /**
@@ -18,6 +23,7 @@ final class LocalReadWriteLock extends ReentrantReadWriteLock {
    */
   LocalReadWriteLock(final boolean fair) {
     super(fair);
+    update = new ReentrantReadWriteLock(fair);
   }
 
   /**
@@ -89,6 +89,19 @@ public final class LockList implements Iterable<String> {
     list.removeAll(locks.list);
   }
 
+  /**
+   * Checks if this list and the specified list have locks in common.
+   * @param locks lock list
+   * @return result of check
+   */
+  public boolean overlaps(final LockList locks) {
+    if(global ? locks.locking() : locks.global && local()) return true;
+    for(final String lock : list) {
+      if(locks.list.contains(lock)) return true;
+    }
+    return false;
+  }
+
   /**
    * Returns the element at the specified position.
    * @param index element index
@@ -1,8 +1,14 @@
 package org.basex.core.locks;
 
+import java.util.concurrent.atomic.*;
+
 /**
  * Lock queue.
  *
+ * Jobs are started without synchronization if the job limit has not been reached and no other
+ * jobs are queued. Otherwise, they are queued and started in the order defined by the
+ * implementation.
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
@@ -10,7 +16,9 @@ public abstract class LockQueue {
   /** Maximum number of parallel jobs. */
   protected final int parallel;
   /** Number of currently running jobs. */
-  protected int jobs;
+  protected final AtomicInteger jobs = new AtomicInteger();
+  /** Number of queued jobs. */
+  protected final AtomicInteger queued = new AtomicInteger();
 
   /**
    * Constructor.
@@ -32,8 +40,23 @@ public abstract class LockQueue {
   /**
    * Notifies other jobs that a job has been completed.
    */
-  public synchronized void release() {
-    notifyAll();
-    jobs--;
+  public final void release() {
+    jobs.decrementAndGet();
+    if(queued.get() > 0) {
+      synchronized(this) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Tries to start a job without waiting.
+   * @return success flag
+   */
+  final boolean start() {
+    for(int j; (j = jobs.get()) < parallel;) {
+      if(jobs.compareAndSet(j, j + 1)) return true;
+    }
+    return false;
   }
 }
@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
@@ -19,6 +20,21 @@ import org.basex.util.list.*;
  *
  * (Non-)fair locking can be adjusted via the {@link StaticOptions#FAIRLOCK} option.
  *
+ * If {@link StaticOptions#DEFERLOCK} is enabled, the write lock of an updating query (or
+ * another job flagged as {@link Locks#updating}) that accesses a single database is only acquired
+ * before its updates are applied (see {@link #upgrade()}). Until then, only the update lock of the
+ * database is held, which excludes other writers, but not readers.
+ *
+ * If {@link StaticOptions#DOCLOCK} is enabled, and if an updating query only adds or replaces
+ * documents of a single database with statically known paths, exclusive update locks are acquired
+ * for the documents, and shared update locks for the database and the parent directories of the
+ * documents (see {@link Locks#docs}). Jobs that write to different documents can be evaluated in
+ * parallel. The write lock of the database is deferred until the updates are applied.
+ *
+ * Jobs can be started without synchronization on a shared monitor: the table of lock strings
+ * is a concurrent map, and local writers only synchronize with each other if a global reader
+ * is running.
+ *
  * This class prevents locking deadlocks by sorting all strings.
  *
  * Locks can only be released by the same thread which acquired it.
@@ -37,6 +53,8 @@ public final class Locking {
   public static final String QUERY_PREFIX = "Q/";
   /** Prefix for locks in Java modules. */
   public static final String JAVA_PREFIX = "J/";
+  /** Prefix for document and directory locks. */
+  public static final String DOC_PREFIX = "D/";
 
   /** Special lock identifier for database opened in current context; will be substituted. */
   public static final String CONTEXT = PREFIX + "CONTEXT";
@@ -51,6 +69,8 @@ public final class Locking {
 
   /** Fair ordering policy; prevents starvation, but reduces parallelism. */
   private final boolean fair;
+  /** Defer write locks of updating queries. */
+  private final boolean defer;
 
   /** Locks assigned to threads. */
   private final ConcurrentMap<Long, Locks> locked = new ConcurrentHashMap<>();
@@ -60,14 +80,14 @@ public final class Locking {
   /** Global lock: exclusive lock for global writes, shared lock otherwise. */
   private final ReentrantReadWriteLock globalLocks;
   /** Stores one lock for each lock string. */
-  private final Map<String, LocalReadWriteLock> localLocks = new HashMap<>();
+  private final ConcurrentMap<String, LocalReadWriteLock> localLocks = new ConcurrentHashMap<>();
   /** Lock object for queuing local writes and global reads. */
   private final Object globalLock = new Object();
 
   /** Number of running local writers. */
-  private int localWriters;
-  /** Number of running global readers. */
-  private int globalReaders;
+  private final AtomicInteger localWriters = new AtomicInteger();
+  /** Number of running global readers (only updated while the global lock is held). */
+  private final AtomicInteger globalReaders = new AtomicInteger();
 
   /**
    * Constructor.
@@ -75,6 +95,7 @@ public final class Locking {
    */
   public Locking(final StaticOptions soptions) {
     fair = soptions.get(StaticOptions.FAIRLOCK);
+    defer = soptions.get(StaticOptions.DEFERLOCK);
     globalLocks = new ReentrantReadWriteLock(fair);
     final int parallel = Math.max(soptions.get(StaticOptions.PARALLEL), 1);
     queue = fair ? new FairLockQueue(parallel) : new NonfairLockQueue(parallel);
@@ -112,23 +133,40 @@ public final class Locking {
     locked.put(id, locks);
 
     // queue job if the job limit has been reached
-    final LockList reads = locks.reads, writes = locks.writes;
-    final boolean write = writes.locking(), read = reads.locking(), lock = read || write;
+    final LockList reads = locks.reads, writes = locks.writes, docs = locks.docs;
+    final boolean local = writes.local() || docs.local();
+    final boolean write = writes.global() || local, read = reads.locking(), lock = read || write;
     queue.acquire(id, read, write);
 
+    // defer write lock if a single database is updated and no other database is accessed,
+    // or if documents are locked
+    locks.deferred = docs.local() ||
+        defer && locks.updating && writes.local() && writes.size() == 1 && !read;
+
     // apply exclusive lock (global write), or shared lock otherwise
     if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
 
-    synchronized(globalLock) {
-      // local write locks: wait for completion of global readers
-      if(writes.local()) {
-        while(globalReaders > 0) globalLock.wait();
-        localWriters++;
+    if(reads.global()) {
+      synchronized(globalLock) {
+        // local write locks: wait for completion of global readers
+        if(local) {
+          while(globalReaders.get() > 0) globalLock.wait();
+          localWriters.incrementAndGet();
+        }
+        // global read lock: wait for completion of local writers (excluding the current job)
+        globalReaders.incrementAndGet();
+        while(localWriters.get() > (local ? 1 : 0)) globalLock.wait();
       }
-      // global read lock: wait for completion of local writers (excluding the current job)
-      if(reads.global()) {
-        while(localWriters > 1 || localWriters == 1 && !writes.local()) globalLock.wait();
-        globalReaders++;
+    } else if(local) {
+      // local write locks: only synchronize if global readers are running
+      while(true) {
+        localWriters.incrementAndGet();
+        if(globalReaders.get() == 0) break;
+        localWriters.decrementAndGet();
+        synchronized(globalLock) {
+          globalLock.notifyAll();
+          while(globalReaders.get() > 0) globalLock.wait();
+        }
       }
     }
 
@@ -137,11 +175,65 @@ public final class Locking {
     final int rs = reads.size(), ws = writes.size();
     while(r < rs || w < ws) {
       if(w < ws && (r == rs || writes.get(w).compareTo(reads.get(r)) <= 0)) {
-        pin(writes.get(w++)).writeLock().lock();
+        final LocalReadWriteLock lrw = pin(writes.get(w++));
+        lrw.update.writeLock().lock();
+        if(!locks.deferred) lrw.writeLock().lock();
       } else {
         pin(reads.get(r++)).readLock().lock();
       }
     }
+
+    // document locks: exclusive update locks for documents, shared locks for their ancestors
+    for(final Map.Entry<String, Boolean> entry : documentLocks(docs).entrySet()) {
+      final ReentrantReadWriteLock update = pin(entry.getKey()).update;
+      (entry.getValue() ? update.writeLock() : update.readLock()).lock();
+    }
+  }
+
+  /**
+   * Acquires the write locks that have been deferred for the current thread.
+   * Waits until all readers of the affected database have released their locks.
+   */
+  public void upgrade() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    if(locks == null || !locks.deferred) return;
+
+    for(final String string : writes(locks)) localLocks.get(string).writeLock().lock();
+    locks.deferred = false;
+  }
+
+  /**
+   * Returns the number of read locks that are currently held for the specified lock string.
+   * @param string lock string
+   * @return number of read locks
+   */
+  public int readers(final String string) {
+    final LocalReadWriteLock lock = localLocks.get(string);
+    return lock != null ? lock.getReadLockCount() : 0;
+  }
+
+  /**
+   * Indicates if the current thread holds document locks.
+   * @return result of check
+   */
+  public boolean documents() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    return locks != null && locks.docs.local();
+  }
+
+  /**
+   * Releases the local read locks of the current thread before its job is finished.
+   * Nothing is released if the job holds a global read lock or no write locks (the shared global
+   * lock will be released together with the write locks).
+   */
+  public void releaseReads() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    if(locks == null) return;
+    final LockList reads = locks.reads;
+    if(reads.global() || !locks.writes.locking()) return;
+
+    for(final String string : reads) unpin(string).readLock().unlock();
+    reads.reset();
   }
 
   /**
@@ -150,26 +242,40 @@ public final class Locking {
   public void release() {
     final Long id = Thread.currentThread().getId();
     final Locks locks = locked.remove(id);
-    final LockList reads = locks.reads, writes = locks.writes;
-    final boolean lock = reads.locking() || writes.locking();
+    final LockList reads = locks.reads, writes = locks.writes, docs = locks.docs;
+    final boolean local = writes.local() || docs.local();
+    final boolean lock = reads.locking() || writes.global() || local;
 
     // release all local locks
+    if(docs.local() && !locks.deferred) {
+      for(final String string : writes(locks)) localLocks.get(string).writeLock().unlock();
+    }
+    for(final Map.Entry<String, Boolean> entry : documentLocks(docs).entrySet()) {
+      final ReentrantReadWriteLock update = unpin(entry.getKey()).update;
+      (entry.getValue() ? update.writeLock() : update.readLock()).unlock();
+    }
     for(final String string : reads) unpin(string).readLock().unlock();
-    for(final String string : writes) unpin(string).writeLock().unlock();
+    for(final String string : writes) {
+      final LocalReadWriteLock lrw = unpin(string);
+      if(!locks.deferred) lrw.writeLock().unlock();
+      lrw.update.writeLock().unlock();
+    }
 
     // allow next global reader to resume
-    synchronized(globalLock) {
-      if(reads.global()) {
-        globalReaders--;
+    if(reads.global()) {
+      synchronized(globalLock) {
+        globalReaders.decrementAndGet();
         globalLock.notifyAll();
       }
     }
 
     // allow next local writer to resume
-    synchronized(globalLock) {
-      if(writes.local()) {
-        localWriters--;
-        globalLock.notifyAll();
+    if(local) {
+      localWriters.decrementAndGet();
+      if(globalReaders.get() > 0) {
+        synchronized(globalLock) {
+          globalLock.notifyAll();
+        }
       }
     }
 
@@ -186,12 +292,11 @@ public final class Locking {
    * @return lock
    */
   private LocalReadWriteLock pin(final String string) {
-    synchronized(localLocks) {
-      final LocalReadWriteLock lock = localLocks.computeIfAbsent(string,
-          k -> new LocalReadWriteLock(fair));
+    return localLocks.compute(string, (key, value) -> {
+      final LocalReadWriteLock lock = value != null ? value : new LocalReadWriteLock(fair);
       lock.pin();
       return lock;
-    }
+    });
   }
 
   /**
@@ -200,11 +305,38 @@ public final class Locking {
    * @return lock
    */
   private LocalReadWriteLock unpin(final String string) {
-    synchronized(localLocks) {
-      final LocalReadWriteLock lock = localLocks.get(string);
-      if(lock.unpin()) localLocks.remove(string);
-      return lock;
+    final LocalReadWriteLock lock = localLocks.get(string);
+    localLocks.computeIfPresent(string, (key, value) -> value.unpin() ? null : value);
+    return lock;
+  }
+
+  /**
+   * Returns the strings whose write locks will be acquired by {@link #upgrade()}.
+   * @param locks locks
+   * @return lock strings
+   */
+  private static Iterable<String> writes(final Locks locks) {
+    final LockList docs = locks.docs;
+    return docs.local() ? Collections.singletonList(Locks.database(docs.get(0))) : locks.writes;
+  }
+
+  /**
+   * Returns the strings to be locked for the specified document locks, and the lock modes.
+   * The database is locked by its name, directories and documents are locked with a prefix.
+   * @param docs document locks
+   * @return map with lock strings and exclusive flags, sorted by lock strings
+   */
+  private static TreeMap<String, Boolean> documentLocks(final LockList docs) {
+    final TreeMap<String, Boolean> map = new TreeMap<>();
+    for(final String doc : docs) {
+      final int d = doc.indexOf('/');
+      map.putIfAbsent(doc.substring(0, d), false);
+      for(int i = doc.indexOf('/', d + 1); i != -1; i = doc.indexOf('/', i + 1)) {
+        map.putIfAbsent(DOC_PREFIX + doc.substring(0, i), false);
+      }
+      map.put(DOC_PREFIX + doc, true);
     }
+    return map;
   }
 
   /**
@@ -228,10 +360,8 @@ public final class Locking {
     final String in = "| ";
     sb.append(in).append(queue).append(NL);
     sb.append(in).append("Held locks by object:").append(NL);
-    synchronized(localLocks) {
-      localLocks.forEach((key, value) ->
-        sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
-    }
+    localLocks.forEach((key, value) ->
+      sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
     sb.append(in).append("Held locks by job:").append(NL);
     locked.forEach((key, value) ->
       sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
@@ -14,6 +14,16 @@ public final class Locks {
   public final LockList reads = new LockList();
   /** Write locks. */
   public final LockList writes = new LockList();
+  /**
+   * Document locks: names of databases, followed by a slash and the normalized path to a document
+   * or directory. Only assigned if no other locks exist, and if all paths refer to the same
+   * database (see {@link StaticOptions#DOCLOCK}).
+   */
+  public final LockList docs = new LockList();
+  /** Indicates if the write locks are only required after evaluation (updating queries). */
+  public boolean updating;
+  /** Indicates if the write locks have been deferred (see {@link Locking#upgrade()}). */
+  boolean deferred;
 
   /**
    * Finalizes locks. Replaces context references with current database, sorts entries,
@@ -30,12 +40,69 @@ public final class Locks {
     writes.finish(name);
     reads.finish(name);
 
+    // document locks: convert to database locks if other resources are locked
+    if(docs.local()) {
+      boolean single = !(writes.locking() || reads.locking());
+      final String db = database(docs.get(0));
+      for(final String doc : docs) single &= database(doc).equals(db);
+      if(!single) {
+        for(final String doc : docs) writes.add(database(doc));
+        writes.finish(name);
+        docs.reset();
+      }
+      docs.finish(name);
+    }
+
     // remove read locks that are also defined as write locks
     reads.remove(writes);
   }
 
+  /**
+   * Resets all locks.
+   */
+  public void reset() {
+    reads.reset();
+    writes.reset();
+    docs.reset();
+    updating = false;
+  }
+
+  /**
+   * Checks if these locks conflict with the specified locks, i.e., if one of the jobs would be
+   * blocked by the other one. Document locks are treated as write locks of their databases.
+   * Both instances must have been finalized (see {@link #finish(Context)}).
+   * @param locks locks
+   * @return result of check
+   */
+  public boolean conflicts(final Locks locks) {
+    final LockList exclusive = exclusive(), other = locks.exclusive();
+    return exclusive.overlaps(other) || exclusive.overlaps(locks.reads) ||
+        reads.overlaps(other);
+  }
+
+  /**
+   * Returns the write locks, including the databases of document locks.
+   * @return lock list
+   */
+  private LockList exclusive() {
+    if(!docs.local()) return writes;
+    final LockList list = new LockList();
+    list.add(writes);
+    for(final String doc : docs) list.add(database(doc));
+    return list;
+  }
+
+  /**
+   * Returns the name of the database of a document lock.
+   * @param doc document lock
+   * @return name of database
+   */
+  static String database(final String doc) {
+    return doc.substring(0, doc.indexOf('/'));
+  }
+
   @Override
   public String toString() {
-    return "Reads: " + reads + ", Writes: " + writes;
+    return "Reads: " + reads + ", Writes: " + writes + (docs.local() ? ", Documents: " + docs : "");
   }
 }
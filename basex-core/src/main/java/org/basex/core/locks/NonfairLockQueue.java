@@ -23,24 +23,31 @@ public final class NonfairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
+  public void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // only wait if job is locking
-    if(jobs >= parallel && (read || write)) {
+    // only wait if job is locking, and if other jobs are queued or the job limit has been reached
+    if(!(read || write)) {
+      jobs.incrementAndGet();
+      return;
+    }
+    if(queued.get() == 0 && start()) return;
+
+    synchronized(this) {
       // add job id to queue and wait
       final Queue<Long> queue = write ? writers : readers;
       queue.add(id);
-
-      // loop until job is placed first (prefer readers)
-      do {
-        wait();
-      } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
-
-      // remove job from queue
-      queue.remove(id);
+      queued.incrementAndGet();
+      try {
+        // loop until job is placed first (prefer readers)
+        while(write && !readers.isEmpty() || !id.equals(queue.peek()) || !start()) wait();
+      } finally {
+        // remove job from queue, notify next job
+        queue.remove(id);
+        queued.decrementAndGet();
+        notifyAll();
+      }
     }
-    jobs++;
   }
 
   @Override
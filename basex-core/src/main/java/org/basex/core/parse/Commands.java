@@ -156,6 +156,8 @@ public interface Commands {
   String FILE = "file";
   /** Command attribute: "value". */
   String VALUE = "value";
+  /** Command attribute: "incremental". */
+  String INCREMENTAL = "incremental";
   /** Command attribute: "command". */
   String COMMAND = "command";
 
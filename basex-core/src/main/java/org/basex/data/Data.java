@@ -176,6 +176,17 @@ public abstract class Data {
    */
   public abstract void flush(boolean all);
 
+  /**
+   * Compacts the storage of texts and attribute values by removing the gaps left by updates.
+   */
+  public abstract void compact();
+
+  /**
+   * Creates a dictionary for compressing texts and attribute values if compression is enabled
+   * and no dictionary exists yet. Existing values will only be recompressed by a full rebuild.
+   */
+  public abstract void compress();
+
   /**
    * Returns an index iterator for the specified token.
    * @param token index token reference
@@ -467,6 +478,16 @@ public abstract class Data {
    */
   public abstract byte[] text(int pre, boolean text);
 
+  /**
+   * Adds a text (text, comment, pi, document) or attribute value to the specified token builder.
+   * @param pre pre value
+   * @param text text/attribute flag
+   * @param tb token builder
+   */
+  public void text(final int pre, final boolean text, final TokenBuilder tb) {
+    tb.add(text(pre, text));
+  }
+
   /**
    * Returns a text (text, comment, pi, document) or attribute value as integer value.
    * {@link Long#MIN_VALUE} is returned if the input is no valid integer.
@@ -581,8 +602,9 @@ public abstract class Data {
     final int tPar = parent(pre, tKind);
     bufferSize(sCount);
 
-    // update index structures
+    // update index structures, release textual values
     indexDelete(pre, id(pre), tSize);
+    deleteTexts(pre, tSize);
 
     final Data sData = source.data;
     int sTopPre = source.start;
@@ -674,8 +696,8 @@ public abstract class Data {
     // delete entries in value indexes
     indexDelete(pre, id(pre), size);
 
-    /// delete textual values
-    if(kind != DOC && kind != ELEM) delete(pre, kind != ATTR);
+    // delete textual values
+    deleteTexts(pre, size);
 
     // reduce size of ancestors
     int par = pre;
@@ -926,11 +948,11 @@ public abstract class Data {
   }
 
   /**
-   * Deletes the specified text entry.
-   * @param pre pre value
-   * @param text text (text, comment or pi) or attribute flag
+   * Deletes the texts and attribute values of the specified nodes.
+   * @param pre pre value of the first node
+   * @param size number of nodes
    */
-  protected abstract void delete(int pre, boolean text);
+  protected abstract void deleteTexts(int pre, int size);
 
   // INSERTS WITHOUT TABLE UPDATES ================================================================
 
@@ -1072,6 +1094,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1090,6 +1113,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
@@ -34,6 +34,8 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Dictionary compression. */
+  String DBCOMPR = "COMPRESS";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -68,6 +70,8 @@ public interface DataText {
   String DBSPLITS = "SPLITS";
   /** Up-to-date flag. */
   String DBUPTODATE = "UPTODATE";
+  /** Full-text index with ids. */
+  String DBFTIDS = "FTIDS";
   /** Last (highest) id. */
   String DBLASTID = "LASTID";
   /** Documents. */
@@ -110,10 +114,16 @@ public interface DataText {
   String DATASWL = "swl";
   /** Database - Updating flag. */
   String DATAUPD = "upd";
+  /** Database - Write-ahead log. */
+  String DATAWAL = "wal";
   /** Database - Document path index. */
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Free-space map of the text and attribute value files. */
+  String DATAFSM = "fsm";
+  /** Database - Dictionary for compressing texts and attribute values. */
+  String DATADIC = "dic";
 
   // XML SERIALIZATION ============================================================================
 
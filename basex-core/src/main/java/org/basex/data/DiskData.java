@@ -5,6 +5,7 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.nio.channels.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
@@ -19,6 +20,7 @@ import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * This class stores and organizes the database table and the index structures
@@ -56,6 +58,20 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Free slots in the text heap file. */
+  private FreeSlots textSlots;
+  /** Free slots in the attribute value heap file. */
+  private FreeSlots valueSlots;
+  /** Compressor for texts (can be {@code null}). */
+  private Compressor textCompressor;
+  /** Compressor for attribute values (can be {@code null}). */
+  private Compressor valueCompressor;
+  /** Dictionary builder (assigned if compression is enabled, but no dictionary exists yet). */
+  private Compressor.Builder dictionary;
+  /** Write-ahead log (can be {@code null}). */
+  private Journal journal;
+  /** Indicates if updates are currently written to the write-ahead log. */
+  private boolean logging;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -65,6 +81,8 @@ public final class DiskData extends Data {
   public DiskData(final MetaData meta) throws IOException {
     super(meta);
 
+    // redo committed updates of a write-ahead log
+    final boolean recovered = recover(meta);
     try(DataInput in = new DataInput(meta.dbFile(DATAINF))) {
       meta.read(in);
       while(true) {
@@ -80,6 +98,15 @@ public final class DiskData extends Data {
       }
     }
 
+    // updatable value indexes are not logged: drop them if an incomplete update was discarded
+    if(recovered && meta.updindex) {
+      meta.textindex = false;
+      meta.attrindex = false;
+      meta.tokenindex = false;
+      meta.ftindex = false;
+      meta.dirty = true;
+    }
+
     // open data and indexes
     init();
     if(meta.updindex) {
@@ -92,7 +119,8 @@ public final class DiskData extends Data {
       if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
     }
-    if(meta.ftindex) ftIndex = new FTIndex(this);
+    // full-text indexes with pre values will be invalidated by the next update
+    if(meta.ftindex) ftIndex = meta.ftids ? new UpdatableFTIndex(this) : new FTIndex(this);
   }
 
   /**
@@ -117,6 +145,32 @@ public final class DiskData extends Data {
     init();
   }
 
+  /**
+   * Redoes the committed updates of a write-ahead log. The log will not be touched if the
+   * database is opened by another process, which may still write to it.
+   * @param meta meta data
+   * @return {@code true} if an incomplete update was discarded
+   * @throws IOException I/O exception
+   */
+  private static boolean recover(final MetaData meta) throws IOException {
+    final IOFile wal = meta.dbFile(DATAWAL);
+    if(!wal.exists()) return false;
+
+    try(RandomAccessFile raf = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw")) {
+      FileLock lock;
+      try {
+        lock = raf.getChannel().tryLock();
+      } catch(final OverlappingFileLockException ex) {
+        // database is opened by another context of this process
+        Util.debug(ex);
+        lock = null;
+      }
+      if(lock == null) throw new BaseXException(DB_UPDATED_X, meta.name);
+      // the lock will be released when the file is closed
+      return Journal.recover(wal);
+    }
+  }
+
   /**
    * Initializes the database.
    * @throws IOException I/O exception
@@ -125,6 +179,24 @@ public final class DiskData extends Data {
     table = new TableDiskAccess(meta, false);
     texts = new DataAccess(meta.dbFile(DATATXT));
     values = new DataAccess(meta.dbFile(DATAATV));
+    final IOFile file = meta.dbFile(DATAFSM);
+    if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        textSlots = new FreeSlots(in, texts.length());
+        valueSlots = new FreeSlots(in, values.length());
+      }
+    } else {
+      textSlots = new FreeSlots();
+      valueSlots = new FreeSlots();
+    }
+    final IOFile dict = meta.dbFile(DATADIC);
+    if(dict.exists()) {
+      final byte[] bytes = dict.read();
+      textCompressor = new Compressor(bytes);
+      valueCompressor = new Compressor(bytes);
+    } else if(meta.compression) {
+      dictionary = new Compressor.Builder();
+    }
   }
 
   /**
@@ -134,7 +206,7 @@ public final class DiskData extends Data {
   private void write() throws IOException {
     if(!meta.dirty) return;
 
-    try(DataOutput out = new DataOutput(meta.dbFile(DATAINF))) {
+    try(DataOutput out = output(DATAINF)) {
       meta.write(out);
       out.writeToken(token(DBTAGS));
       elemNames.write(out);
@@ -148,15 +220,43 @@ public final class DiskData extends Data {
       resources.write(out);
       out.write(0);
     }
-    if(meta.updindex) idmap.write(meta.dbFile(DATAIDP));
+    if(meta.updindex) {
+      try(DataOutput out = output(DATAIDP)) {
+        idmap.write(out);
+      }
+    }
+    try(DataOutput out = output(DATAFSM)) {
+      textSlots.write(out);
+      valueSlots.write(out);
+    }
+    // write dictionary if it has been created after the database was built
+    if(textCompressor != null && !meta.dbFile(DATADIC).exists()) {
+      try(DataOutput out = output(DATADIC)) {
+        out.write(textCompressor.dictionary());
+      }
+    }
     meta.dirty = false;
   }
 
+  /**
+   * Returns an output for the specified database file.
+   * If updates are logged, the file contents will be written to the write-ahead log.
+   * @param name name of file
+   * @return output
+   * @throws IOException I/O exception
+   */
+  private DataOutput output(final String name) throws IOException {
+    final IOFile file = meta.dbFile(name);
+    return logging ? new DataOutput(journal.output(file)) : new DataOutput(file);
+  }
+
   @Override
   public synchronized void close() {
     if(closed) return;
     super.close();
     try {
+      // commit pending updates (OPTIMIZE ALL closes the database before updates are finished)
+      if(logging) commit();
       write();
       table.close();
       texts.close();
@@ -165,6 +265,9 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      if(journal != null) journal.close();
+      if(textCompressor != null) textCompressor.close();
+      if(valueCompressor != null) valueCompressor.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -227,7 +330,24 @@ public final class DiskData extends Data {
   @Override
   public void startUpdate(final MainOptions opts) throws BaseXException {
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
-    if(opts.get(MainOptions.AUTOFLUSH)) {
+    final boolean auto = opts.get(MainOptions.AUTOFLUSH);
+    try {
+      if(auto && opts.get(MainOptions.WAL)) {
+        // write updates to the write-ahead log
+        if(journal == null) journal = new Journal(meta.dbFile(DATAWAL));
+        journal(journal);
+        journal.begin();
+        return;
+      }
+      // updates will be written in place: invalidate existing log
+      if(journal != null) {
+        journal.close();
+        journal = null;
+      }
+    } catch(final IOException ex) {
+      throw new BaseXException(ex);
+    }
+    if(auto) {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
@@ -239,6 +359,17 @@ public final class DiskData extends Data {
     // OPTIMIZE ALL / db:optimize(..., true) will close the database before this function is called
     if(closed) return;
 
+    // commit logged updates
+    if(logging) {
+      try {
+        commit();
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+      if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
+      return;
+    }
+
     // remove updating file
     final boolean auto = opts.get(MainOptions.AUTOFLUSH);
     if(auto) {
@@ -251,6 +382,41 @@ public final class DiskData extends Data {
     if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
   }
 
+  /**
+   * Assigns the write-ahead log to the database files.
+   * @param jrnl journal (can be {@code null})
+   */
+  private void journal(final Journal jrnl) {
+    ((TableDiskAccess) table).journal(jrnl);
+    texts.journal(jrnl);
+    values.journal(jrnl);
+    logging = jrnl != null;
+  }
+
+  /**
+   * Commits logged updates. Updatable value and full-text indexes are flushed first, as they
+   * are not logged (this includes the delta file and merges of the full-text index). If an
+   * incomplete update is discarded during recovery, these indexes will be dropped.
+   * All other changes are written to the write-ahead log, which is synchronized with disk
+   * and applied to the database files.
+   * @throws IOException I/O exception
+   */
+  private void commit() throws IOException {
+    try {
+      if(textIndex != null) textIndex.flush();
+      if(attrIndex != null) attrIndex.flush();
+      if(tokenIndex != null) tokenIndex.flush();
+      if(ftIndex != null) ftIndex.flush();
+      table.flush(true);
+      write();
+      texts.flush();
+      values.flush();
+      journal.commit();
+    } finally {
+      journal(null);
+    }
+  }
+
   @Override
   public synchronized void flush(final boolean all) {
     try {
@@ -261,6 +427,7 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -273,6 +440,16 @@ public final class DiskData extends Data {
     return Inline.inlined(value) ? Inline.unpack(value) : txt(value, text);
   }
 
+  @Override
+  public void text(final int pre, final boolean text, final TokenBuilder tb) {
+    final long value = textRef(pre);
+    if(Inline.inlined(value) || Compress.compressed(value)) {
+      tb.add(text(pre, text));
+    } else {
+      (text ? texts : values).readToken(value, tb);
+    }
+  }
+
   @Override
   public long textItr(final int pre, final boolean text) {
     final long value = textRef(pre);
@@ -303,8 +480,14 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long offset, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
-    return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
+    final DataAccess store = text ? texts : values;
+    final long off = offset & Compress.COMPRESS - 1;
+    if(!Compress.compressed(offset)) return store.readToken(off);
+
+    final Compressor comp = text ? textCompressor : valueCompressor;
+    if(comp == null) return Compress.unpack(store.readToken(off));
+    final byte[] cached = comp.cached(off);
+    return cached != null ? cached : comp.unpack(store.readToken(off), off);
   }
 
   @Override
@@ -315,11 +498,30 @@ public final class DiskData extends Data {
   // UPDATE OPERATIONS ============================================================================
 
   @Override
-  protected void delete(final int pre, final boolean text) {
-    // old entry (offset or value)
-    final long old = textRef(pre);
-    // if old text was not inlined, fill unused space in text file with zero bytes
-    if(!Inline.inlined(old)) (text ? texts : values).free(old & Compress.COMPRESS - 1, 0);
+  protected void deleteTexts(final int pre, final int size) {
+    final int last = pre + size;
+    for(int p = pre; p < last; p++) {
+      final int kind = kind(p);
+      if(kind != ELEM) free(textRef(p), kind != ATTR);
+    }
+  }
+
+  @Override
+  public void compact() {
+    compact(true);
+    compact(false);
+  }
+
+  @Override
+  public void compress() {
+    if(dictionary == null) return;
+    final int size = meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = kind(pre);
+      if(kind != ELEM && dictionary.add(text(pre, kind != ATTR))) break;
+    }
+    final byte[] dict = dictionary.finish();
+    if(dict.length != 0) compressor(dict);
   }
 
   @Override
@@ -332,28 +534,19 @@ public final class DiskData extends Data {
     // old entry (offset or value)
     final long oldRef = textRef(pre);
 
+    // release space of old entry
+    final boolean text = kind != ATTR;
+    free(oldRef, text);
+
     // check if new entry can be inlined
     final long v = Inline.packInt(value);
     if(v != -1) {
-      // invalidate old entry if it was not inlined
-      if(!Inline.inlined(oldRef)) store.free(oldRef & Compress.COMPRESS - 1, 0);
       // inline integer value
       textRef(pre, v);
     } else {
-      // otherwise, try to compress new value
-      final byte[] val = Compress.pack(value);
-
-      // choose inserting position
-      final long off;
-      if(Inline.inlined(oldRef)) {
-        // old entry was inlined: append new entry to heap file
-        off = store.length();
-      } else {
-        // otherwise, compute inserting position and invalidate old entry
-        final int vl = val.length;
-        off = store.free(oldRef & Compress.COMPRESS - 1, vl + Num.length(vl));
-      }
-
+      // otherwise, try to compress new value and store it in the heap file
+      final byte[] val = pack(value, text);
+      final long off = offset(val, text);
       store.writeToken(off, val);
       textRef(pre, val == value ? off : off | Compress.COMPRESS);
     }
@@ -369,10 +562,106 @@ public final class DiskData extends Data {
     if(inlined != 0) return inlined;
 
     // store text in heap file
-    final byte[] packed = Compress.pack(value);
-    final DataAccess store = text ? texts : values;
-    final long offset = store.length();
-    store.writeToken(offset, packed);
+    final byte[] packed = pack(value, text);
+    final long offset = offset(packed, text);
+    (text ? texts : values).writeToken(offset, packed);
     return packed != value ? Compress.COMPRESS | offset : offset;
   }
+
+  /**
+   * Releases the space of a text or attribute value in the heap file.
+   * @param ref reference to the value (offset or inlined value)
+   * @param text text/attribute flag
+   */
+  private void free(final long ref, final boolean text) {
+    if(!Inline.inlined(ref)) {
+      final long off = ref & Compress.COMPRESS - 1;
+      (text ? texts : values).free(off, text ? textSlots : valueSlots);
+      final Compressor comp = text ? textCompressor : valueCompressor;
+      if(comp != null) comp.invalidate(off);
+    }
+  }
+
+  /**
+   * Compresses a text or attribute value.
+   * @param value value
+   * @param text text/attribute flag
+   * @return packed or original value
+   */
+  private byte[] pack(final byte[] value, final boolean text) {
+    final Compressor comp = text ? textCompressor : valueCompressor;
+    if(comp != null) return comp.pack(value);
+    // values are compressed with a dictionary once it is complete
+    if(dictionary != null && dictionary.add(value)) compressor(dictionary.finish());
+    return Compress.pack(value);
+  }
+
+  /**
+   * Assigns compressors for the specified dictionary.
+   * The dictionary will be written to disk when the meta data is written.
+   * @param dict dictionary
+   */
+  private void compressor(final byte[] dict) {
+    dictionary = null;
+    textCompressor = new Compressor(dict);
+    valueCompressor = new Compressor(dict);
+    meta.dirty = true;
+  }
+
+  /**
+   * Returns the heap file offset for storing a text or attribute value.
+   * @param value (packed) value
+   * @param text text/attribute flag
+   * @return offset
+   */
+  private long offset(final byte[] value, final boolean text) {
+    final int vl = value.length;
+    return (text ? texts : values).offset(vl + Num.length(vl), text ? textSlots : valueSlots);
+  }
+
+  /**
+   * Compacts a heap file by moving all values to the front and updating their references.
+   * @param text text/attribute flag
+   */
+  private void compact(final boolean text) {
+    final FreeSlots slots = text ? textSlots : valueSlots;
+    if(slots.isEmpty()) return;
+
+    // collect references to the heap file
+    final IntList pres = new IntList();
+    final LongList offsets = new LongList();
+    final int size = meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = kind(pre);
+      if(kind == ELEM || kind == ATTR == text) continue;
+      final long ref = textRef(pre);
+      if(Inline.inlined(ref)) continue;
+      pres.add(pre);
+      offsets.add(ref & Compress.COMPRESS - 1);
+    }
+
+    // move values in ascending order
+    final DataAccess store = text ? texts : values;
+    final long[] offs = offsets.finish();
+    final int[] order = Array.createOrder(offs, true);
+    long off = 0, last = -1, moved = -1;
+    final int ol = offs.length;
+    for(int o = 0; o < ol; o++) {
+      final long old = offs[o];
+      final int pre = pres.get(order[o]);
+      if(old != last) {
+        final byte[] value = store.readToken(old);
+        if(old != off) store.writeToken(off, value);
+        last = old;
+        moved = off;
+        off += value.length + Num.length(value.length);
+      }
+      if(moved != old) textRef(pre, moved | textRef(pre) & Compress.COMPRESS);
+    }
+    store.length(off);
+    slots.clear();
+    final Compressor comp = text ? textCompressor : valueCompressor;
+    if(comp != null) comp.clear();
+    meta.dirty = true;
+  }
 }
@@ -163,7 +163,13 @@ public final class MemData extends Data {
   // UPDATE OPERATIONS ============================================================================
 
   @Override
-  protected void delete(final int pre, final boolean text) { }
+  protected void deleteTexts(final int pre, final int size) { }
+
+  @Override
+  public void compact() { }
+
+  @Override
+  public void compress() { }
 
   @Override
   protected void updateText(final int pre, final byte[] value, final int kind) {
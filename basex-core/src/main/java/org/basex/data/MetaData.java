@@ -47,11 +47,15 @@ public final class MetaData {
   public boolean tokenindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if the full-text index stores ids instead of pre values (and can be updated). */
+  public boolean ftids;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for compressing texts and attribute values with a shared dictionary. */
+  public boolean compression;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -140,6 +144,7 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    compression = options.get(MainOptions.COMPRESSION);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -403,10 +408,12 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
+        case DBCOMPR:    compression = toBoolean(v); break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
         case DBFTXIDX:   ftindex = toBoolean(v); break;
+        case DBFTIDS:    ftids = toBoolean(v); break;
         case DBTXTINC:   textinclude = v; break;
         case DBATVINC:   attrinclude = v; break;
         case DBTOKINC:   tokeninclude = v; break;
@@ -446,10 +453,12 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBCOMPR,    compression);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBFTIDS,    ftids);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
@@ -484,7 +493,8 @@ public final class MetaData {
       attrindex = false;
       tokenindex = false;
     }
-    ftindex = false;
+    // full-text indexes with pre values (built without UPDINDEX, or by older versions)
+    if(!ftids) ftindex = false;
   }
 
   /**
@@ -63,6 +63,11 @@ public enum MetaProp {
     @Override
     public String value(final MetaData meta) { return DateTime.format(new Date(meta.time)); }
   },
+  /** Property. */
+  COMPRESSION(false) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compression; }
+  },
 
   /** Property. */
   TEXTINDEX(true) {
@@ -38,13 +38,7 @@ public final class FTBuilder extends IndexBuilder {
     final MetaData meta = data.meta;
     tree = new FTIndexTrees(data.meta.maxlen);
 
-    final FTOpt fto = new FTOpt();
-    fto.set(FTFlag.DC, meta.diacritics);
-    fto.set(FTFlag.ST, meta.stemming);
-    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
-    fto.sw = new StopWords(data, meta.stopwords);
-    fto.ln = data.meta.language;
-
+    final FTOpt fto = options(meta, new StopWords(data, meta.stopwords));
     if(!Tokenizer.supportFor(fto.ln))
       throw new BaseXException(NO_TOKENIZER_X, fto.ln);
     if(meta.stemming && !Stemmer.supportFor(fto.ln))
@@ -53,11 +47,32 @@ public final class FTBuilder extends IndexBuilder {
     lexer = new FTLexer(fto);
   }
 
+  /**
+   * Returns the full-text options of the specified database.
+   * @param meta meta data
+   * @param sw stop words
+   * @return options
+   */
+  static FTOpt options(final MetaData meta, final StopWords sw) {
+    final FTOpt fto = new FTOpt();
+    fto.set(FTFlag.DC, meta.diacritics);
+    fto.set(FTFlag.ST, meta.stemming);
+    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
+    fto.sw = sw;
+    fto.ln = meta.language;
+    return fto;
+  }
+
   @Override
   public FTIndex build() throws IOException {
     Util.debug(detailedInfo());
 
     try {
+      // updatable index: store ids instead of pre values, drop obsolete updates
+      final boolean updindex = data.meta.updindex;
+      data.meta.dbFile(DATAFTX + 'd').delete();
+      data.meta.ftids = updindex;
+
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
         if(!indexEntry()) continue;
@@ -76,7 +91,7 @@ public final class FTBuilder extends IndexBuilder {
               writeIndex(true);
               clean();
             }
-            tree.index(tok, pre, pos, splits);
+            tree.index(tok, updindex ? data.id(pre) : pre, pos, splits);
             count++;
           }
         }
@@ -86,7 +101,7 @@ public final class FTBuilder extends IndexBuilder {
       write(splits > 0);
 
       finishIndex();
-      return new FTIndex(data);
+      return updindex ? new UpdatableFTIndex(data) : new FTIndex(data);
 
     } catch(final Throwable th) {
       // drop index files
@@ -158,7 +173,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
+  static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
       throws IOException {
 
     final int is = il.size();
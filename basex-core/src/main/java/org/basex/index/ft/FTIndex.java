@@ -47,30 +47,34 @@ import org.basex.util.similarity.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the database is updatable ({@link MetaData#updindex}), ids are stored instead of
+ * pre values (see {@link UpdatableFTIndex}). This is indicated by {@link MetaData#ftids}:
+ * indexes of older versions with pre values are opened read-only and invalidated by updates.</p>
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
-public final class FTIndex extends ValueIndex {
+public class FTIndex extends ValueIndex {
   /** Entry size. */
-  private static final int ENTRY = 9;
+  static final int ENTRY = 9;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Levenshtein reference. */
-  private final Levenshtein ls = new Levenshtein();
+  final Levenshtein ls = new Levenshtein();
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess inX;
+  private DataAccess inX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess inY;
+  DataAccess inY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess inZ;
+  DataAccess inZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
-  private final int[] tp;
+  int[] tp;
 
   /**
    * Constructor, initializing the index structure.
@@ -79,6 +83,16 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
+    open();
+  }
+
+  /**
+   * Opens the index files and resets all caches.
+   * @throws IOException I/O Exception
+   */
+  final void open() throws IOException {
+    ctext.clear();
+    cache = new IndexCache();
     // cache token length index
     inY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
     inZ = new DataAccess(data.meta.dbFile(DATAFTX + 'z'));
@@ -118,7 +132,7 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    return e.size > 0 ? iter(e.offset, e.size, tok) : FTIndexIterator.FTEMPTY;
   }
 
   /**
@@ -305,7 +319,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return int pointer on ftdata
    */
-  private long pointer(final long pt, final int lt) {
+  final long pointer(final long pt, final int lt) {
     return inY.read5(pt + lt);
   }
 
@@ -315,7 +329,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return size of the ftdata
    */
-  private int size(final long pt, final int lt) {
+  final int size(final long pt, final int lt) {
     return inY.read4(pt + lt + 5);
   }
 
@@ -338,7 +352,7 @@ public final class FTIndex extends ValueIndex {
       while(t < tl && r == -1) r = tp[t++];
       while(p < r) {
         if(ls.similar(inY.readBytes(p, s), token, k)) {
-          iter = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), iter);
+          iter = FTIndexIterator.union(iter(pointer(p, s), size(p, s), token), iter);
         }
         p += s + ENTRY;
       }
@@ -376,42 +390,57 @@ public final class FTIndex extends ValueIndex {
           inZ.cursor(pointer(i, ti));
           final int s = size(i, ti);
           for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
+            final int pre = pre(inZ.readNum()), pos = inZ.readNum();
+            if(pre != -1) {
+              pr.add(pre);
+              ps.add(pos);
+            }
           }
         }
         i += ti + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps), token);
+    return iter(pr, ps, token);
   }
 
   /**
    * Returns an iterator for an index entry.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
+  private FTIndexIterator iter(final long off, final int size, final byte[] token) {
+    inZ.cursor(off);
     final IntList pr = new IntList(size), ps = new IntList(size);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      final int pre = pre(inZ.readNum()), pos = inZ.readNum();
+      if(pre != -1) {
+        pr.add(pre);
+        ps.add(pos);
+      }
     }
-    return iter(new FTCache(pr, ps), token);
+    return iter(pr, ps, token);
   }
 
   /**
-   * Returns an iterator for an index entry.
-   * @param ftc id cache
+   * Returns the {@code pre} value for the specified id.
+   * @param id id value
+   * @return pre value, or {@code -1} if the entry is obsolete
+   */
+  protected int pre(final int id) {
+    return id;
+  }
+
+  /**
+   * Returns an iterator for the specified pre and pos values.
+   * @param pr pre values
+   * @param ps pos values
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
+  static FTIndexIterator iter(final IntList pr, final IntList ps, final byte[] token) {
+    final FTCache ftc = new FTCache(pr, ps);
     final int size = ftc.pre.size();
 
     return new FTIndexIterator() {
@@ -0,0 +1,343 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+import static org.basex.util.ft.FTFlag.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.query.*;
+import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.expr.ft.*;
+import org.basex.query.util.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides access and update functions to a full-text index structure stored on disk.
+ *
+ * The main index is immutable. Updates are absorbed by a delta: new entries are cached in main
+ * memory, and the ids of deleted nodes are recorded and skipped when the main index is accessed.
+ * Query results of both structures are merged. The delta is written to disk whenever the database
+ * is flushed, and it is merged with the main index if it exceeds a certain size.
+ *
+ * The delta file and the merged index files are not written to the write-ahead log. If an
+ * incomplete update is discarded when a database is recovered, the index will be dropped.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableFTIndex extends FTIndex {
+  /** Number of delta entries that will trigger a merge. */
+  private static final int MERGE = 1 << 16;
+
+  /** Lexer for tokenizing updated texts. */
+  private final FTLexer lexer;
+  /** Delta: tokens with their ids and positions ({@code id1, pos1, id2, pos2, ...}). */
+  private final TokenObjMap<IntList> delta = new TokenObjMap<>();
+  /** Ids of nodes whose entries in the main index are obsolete. */
+  private IntSet deleted = new IntSet();
+  /** Number of cached delta entries. */
+  private int entries;
+  /** Indicates if the delta has been changed. */
+  private boolean dirty;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public UpdatableFTIndex(final Data data) throws IOException {
+    super(data);
+    final StopWords sw = new StopWords();
+    sw.compile(data);
+    lexer = new FTLexer(FTBuilder.options(data.meta, sw));
+
+    final IOFile file = deltaFile();
+    if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        for(int t = in.readNum(); --t >= 0;) {
+          final byte[] token = in.readToken();
+          final IntList list = new IntList(in.readNums());
+          delta.put(token, list);
+          entries += list.size() >> 1;
+        }
+        for(final int id : in.readNums()) deleted.add(id);
+      }
+    }
+  }
+
+  @Override
+  protected int pre(final int id) {
+    return deleted.contains(id) ? -1 : data.pre(id);
+  }
+
+  @Override
+  public synchronized IndexCosts costs(final IndexToken it) {
+    final IndexCosts costs = super.costs(it);
+    final IntList list = delta.get(it.get());
+    return costs == null || list == null ? costs :
+      IndexCosts.get(costs.results() + (list.size() >> 1));
+  }
+
+  @Override
+  public synchronized IndexIterator iter(final IndexToken it) {
+    final FTIndexIterator iter = (FTIndexIterator) super.iter(it);
+    if(delta.isEmpty()) return iter;
+
+    final byte[] tok = it.get();
+    final FTLexer lex = (FTLexer) it;
+    final FTOpt opt = lex.ftOpt();
+    final IntList pr = new IntList(), ps = new IntList();
+    if(opt.is(WC)) {
+      final FTWildcard wc = new FTWildcard(tok);
+      if(!wc.parse()) return iter;
+      for(final byte[] token : delta) {
+        if(wc.match(token)) add(token, pr, ps);
+      }
+    } else if(opt.is(FZ)) {
+      final int k = lex.lserror(tok);
+      for(final byte[] token : delta) {
+        if(ls.similar(token, tok, k)) add(token, pr, ps);
+      }
+    } else {
+      add(tok, pr, ps);
+    }
+    return pr.isEmpty() ? iter : FTIndexIterator.union(iter, iter(pr, ps, tok));
+  }
+
+  @Override
+  public synchronized void add(final ValueCache vc) {
+    for(final byte[] text : vc) {
+      final IntList ids = vc.ids(text);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) {
+        final int id = ids.get(i);
+        tokenize(text, (token, pos) -> {
+          IntList list = delta.get(token);
+          if(list == null) {
+            list = new IntList(2);
+            delta.put(token, list);
+          }
+          list.add(id).add(pos);
+          entries++;
+        });
+      }
+    }
+    dirty = true;
+  }
+
+  @Override
+  public synchronized void delete(final ValueCache vc) {
+    for(final byte[] text : vc) {
+      final IntList ids = vc.ids(text);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) {
+        final int id = ids.get(i);
+        deleted.add(id);
+        // remove entries from the delta
+        tokenize(text, (token, pos) -> {
+          final IntList list = delta.get(token);
+          if(list == null) return;
+          final IntList tmp = new IntList(list.size());
+          final int ls = list.size();
+          for(int l = 0; l < ls; l += 2) {
+            if(list.get(l) != id) tmp.add(list.get(l)).add(list.get(l + 1));
+          }
+          entries -= ls - tmp.size() >> 1;
+          delta.put(token, tmp);
+        });
+      }
+    }
+    dirty = true;
+  }
+
+  @Override
+  public synchronized void flush() {
+    if(!dirty) return;
+    try {
+      if(entries + deleted.size() > MERGE) {
+        merge();
+      } else {
+        try(DataOutput out = new DataOutput(deltaFile())) {
+          out.writeNum(delta.size());
+          for(final byte[] token : delta) {
+            out.writeToken(token);
+            out.writeNums(delta.get(token).toArray());
+          }
+          out.writeNums(deleted.toArray());
+        }
+      }
+      dirty = false;
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    flush();
+    super.close();
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + "[delta: " + entries + ", deleted: " + deleted.size() + ']';
+  }
+
+  /**
+   * Adds the pre values and positions of a delta token.
+   * @param token token
+   * @param pr pre values
+   * @param ps positions
+   */
+  private void add(final byte[] token, final IntList pr, final IntList ps) {
+    final IntList list = delta.get(token);
+    if(list == null) return;
+    final int ls = list.size();
+    for(int l = 0; l < ls; l += 2) {
+      pr.add(data.pre(list.get(l)));
+      ps.add(list.get(l + 1));
+    }
+  }
+
+  /**
+   * Tokenizes a text in the same way as the index builder.
+   * @param text text
+   * @param consumer consumer for tokens and positions
+   */
+  private void tokenize(final byte[] text, final TokenConsumer consumer) {
+    final StopWords sw = lexer.ftOpt().sw;
+    lexer.init(text);
+    int pos = -1;
+    while(lexer.hasNext()) {
+      final byte[] token = lexer.nextToken();
+      ++pos;
+      if(token.length <= data.meta.maxlen && !sw.contains(token)) consumer.accept(token, pos);
+    }
+  }
+
+  /**
+   * Merges the delta with the main index and writes a new main index.
+   * Tokens are written in the order of the main index (by length, then lexicographically).
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    final byte[][] tokens = new TokenList(delta).finish();
+    Arrays.sort(tokens, (t1, t2) -> t1.length != t2.length ? t1.length - t2.length :
+      diff(t1, t2));
+
+    final IOFile fileX = data.meta.dbFile(DATAFTX + "mx");
+    final IOFile fileY = data.meta.dbFile(DATAFTX + "my");
+    final IOFile fileZ = data.meta.dbFile(DATAFTX + "mz");
+    try(DataOutput outX = new DataOutput(fileX); DataOutput outY = new DataOutput(fileY);
+        DataOutput outZ = new DataOutput(fileZ)) {
+
+      final IntList ind = new IntList();
+      final IntList list = new IntList();
+      final int tl = tp.length, ts = tokens.length;
+      int t = 0, len = 0;
+      for(int ti = 1; ti < tl - 1; ti++) {
+        // main index: range of tokens with the current length (empty if p == e)
+        int p = tp[ti], e = p;
+        if(p != -1) {
+          e = -1;
+          for(int n = ti + 1; e == -1; n++) e = tp[n];
+        }
+
+        while(p < e || t < ts && tokens[t].length == ti) {
+          // choose next token of main index or delta
+          final byte[] main = p < e ? inY.readBytes(p, ti) : null;
+          final byte[] dlt = t < ts && tokens[t].length == ti ? tokens[t] : null;
+          final int d = main == null ? 1 : dlt == null ? -1 : diff(main, dlt);
+          final byte[] token = d <= 0 ? main : dlt;
+
+          list.reset();
+          if(d <= 0) {
+            inZ.cursor(pointer(p, ti));
+            for(int s = size(p, ti); --s >= 0;) {
+              final int id = inZ.readNum(), pos = inZ.readNum();
+              if(!deleted.contains(id)) list.add(id).add(pos);
+            }
+            p += ti + ENTRY;
+          }
+          if(d >= 0) {
+            list.add(delta.get(dlt).toArray());
+            t++;
+          }
+          len = write(token, list, ind, len, outY, outZ);
+        }
+      }
+      FTBuilder.writeInd(outX, ind, len + 1, (int) outY.size());
+    }
+
+    // replace main index
+    super.close();
+    for(final IOFile file : new IOFile[] { fileX, fileY, fileZ }) {
+      final String name = file.name();
+      final IOFile target = data.meta.dbFile(DATAFTX + name.charAt(DATAFTX.length() + 1));
+      target.delete();
+      if(!file.rename(target)) throw new IOException("Could not rename " + file);
+    }
+    open();
+    delta.clear();
+    deleted = new IntSet();
+    entries = 0;
+    deltaFile().delete();
+  }
+
+  /**
+   * Writes an index entry.
+   * @param token token
+   * @param list ids and positions
+   * @param ind token lengths and offsets
+   * @param len length of the last token
+   * @param outY token output
+   * @param outZ data output
+   * @return length of the written token
+   * @throws IOException I/O exception
+   */
+  private static int write(final byte[] token, final IntList list, final IntList ind,
+      final int len, final DataOutput outY, final DataOutput outZ) throws IOException {
+
+    final int ls = list.size();
+    if(ls == 0) return len;
+    final int tl = token.length;
+    if(len < tl) {
+      ind.add(tl);
+      ind.add((int) outY.size());
+    }
+    outY.writeBytes(token);
+    outY.write5(outZ.size());
+    outY.write4(ls >> 1);
+    for(int l = 0; l < ls; l++) outZ.writeNum(list.get(l));
+    return tl;
+  }
+
+  /**
+   * Returns the file storing the delta.
+   * @return file
+   */
+  private IOFile deltaFile() {
+    return data.meta.dbFile(DATAFTX + 'd');
+  }
+
+  /**
+   * Consumer for tokens and their positions.
+   */
+  private interface TokenConsumer {
+    /**
+     * Consumes a token.
+     * @param token token
+     * @param pos position
+     */
+    void accept(byte[] token, int pos);
+  }
+}
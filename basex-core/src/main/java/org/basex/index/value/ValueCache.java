@@ -46,6 +46,7 @@ public final class ValueCache implements Iterable<byte[]> {
 
   /**
    * Caches texts of the specified pre values.
+   * Full-text entries are cached as complete texts and tokenized by the index.
    * @param pres pre values
    * @param type index type
    * @param data data reference
@@ -54,7 +55,7 @@ public final class ValueCache implements Iterable<byte[]> {
     pos = type == IndexType.TOKEN ? new ArrayList<>() : null;
 
     final IndexNames in = new IndexNames(type, data);
-    final boolean text = type == IndexType.TEXT;
+    final boolean text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
     final int pl = pres.size(), kind = text ? Data.TEXT : Data.ATTR;
     for(int p = 0; p < pl; p++) {
       final int pre = pres.get(p);
@@ -64,7 +65,7 @@ public final class ValueCache implements Iterable<byte[]> {
           for(final byte[] token : distinctTokens(data.text(pre, false))) {
             addId(token, pre, ps++, data);
           }
-        } else if(data.textLen(pre, text) <= data.meta.maxlen) {
+        } else if(type == IndexType.FULLTEXT || data.textLen(pre, text) <= data.meta.maxlen) {
           addId(data.text(pre, text), pre, 0, data);
         }
       }
@@ -129,7 +130,7 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return id list
    */
-  IntList ids(final byte[] key) {
+  public IntList ids(final byte[] key) {
     return ids.get(keys.id(key) - 1);
   }
 
@@ -0,0 +1,421 @@
+package org.basex.io;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.core.jobs.*;
+import org.basex.io.in.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Creates and restores database backups.
+ *
+ * A backup is a ZIP archive. Next to the database files, it contains a manifest with the lengths
+ * of all files and the checksums of their pages. An incremental backup references a base backup
+ * and only contains the pages that have changed since this backup was created: each file entry
+ * consists of page numbers, followed by the page contents. Incremental backups are restored by
+ * restoring their base backups first.
+ *
+ * If a snapshot directory is specified, the database files are copied to this directory first.
+ * The archive can then be created without access to the original files.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Backup extends Job {
+  /** Page size. */
+  public static final int PAGE = IO.BLOCKSIZE << 4;
+  /** Name of the manifest entry. */
+  private static final String MANIFEST = ".manifest";
+
+  /** Archive. */
+  private final IOFile file;
+  /** Database directory. */
+  private IOFile dir;
+  /** Snapshot directory (can be {@code null}). */
+  private IOFile snapshot;
+  /** Manifest of the archive. */
+  private Manifest manifest;
+  /** Chain of archives to be restored, ending with a full backup (assigned by {@link #check}). */
+  private ArrayList<IOFile> archives;
+  /** Manifests of the archives to be restored. */
+  private ArrayList<Manifest> manifests;
+  /** Total size of the processed data. */
+  private long total;
+  /** Size of the data that has already been processed. */
+  private long curr;
+
+  /**
+   * Constructor.
+   * @param file archive file
+   */
+  public Backup(final IOFile file) {
+    this.file = file;
+  }
+
+  /**
+   * Backs up database files. If a snapshot directory is specified, the files will be copied to
+   * this directory, and the archive will be created by {@link #finish()}.
+   * @param db database directory
+   * @param files files to be backed up
+   * @param base name of the base backup (can be {@code null})
+   * @param snap snapshot directory (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public void create(final IOFile db, final StringList files, final String base,
+      final IOFile snap) throws IOException {
+
+    // incremental backup: retrieve manifest of base backup
+    final Manifest old = base != null ? Manifest.read(new IOFile(file.parent(),
+        base + IO.ZIPSUFFIX)) : null;
+    manifest = new Manifest(old != null ? base : "");
+    dir = db;
+    snapshot = snap;
+    total = 0;
+    curr = 0;
+    for(final String f : files) total += new IOFile(db, f).length();
+
+    if(snap == null) {
+      try(ZipOutput out = new ZipOutput(new BufferOutput(file))) {
+        // use simple, fast compression
+        out.level(1);
+        for(final String f : files) {
+          out.putNextEntry(new ZipEntry(entry(f)));
+          copy(db, f, old, out);
+          out.closeEntry();
+        }
+        out.putNextEntry(new ZipEntry(entry(MANIFEST)));
+        manifest.write(out);
+        out.closeEntry();
+      }
+    } else {
+      try {
+        for(final String f : files) {
+          final IOFile trg = new IOFile(snap, f);
+          trg.parent().md();
+          try(BufferOutput out = new BufferOutput(trg)) {
+            copy(db, f, old, out);
+          }
+        }
+      } catch(final IOException ex) {
+        // delete incomplete snapshot
+        snap.delete();
+        snapshot = null;
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Creates the archive from the snapshot directory and deletes the snapshot.
+   * @throws IOException I/O exception
+   */
+  public void finish() throws IOException {
+    if(snapshot == null) return;
+    curr = 0;
+    try(ZipOutput out = new ZipOutput(new BufferOutput(file))) {
+      out.level(1);
+      final byte[] data = new byte[IO.BLOCKSIZE];
+      for(final String f : snapshot.descendants()) {
+        out.putNextEntry(new ZipEntry(entry(f)));
+        try(FileInputStream in = new IOFile(snapshot, f).inputStream()) {
+          for(int c; (c = in.read(data)) != -1;) {
+            out.write(data, 0, c);
+            curr += c;
+          }
+        }
+        out.closeEntry();
+      }
+      out.putNextEntry(new ZipEntry(entry(MANIFEST)));
+      manifest.write(out);
+      out.closeEntry();
+    } finally {
+      snapshot.delete();
+      snapshot = null;
+    }
+  }
+
+  /**
+   * Checks if the archive and all its base backups exist and can be read.
+   * @throws IOException I/O exception
+   */
+  public void check() throws IOException {
+    // collect the chain of incremental backups, ending with a full backup
+    final ArrayList<IOFile> zips = new ArrayList<>();
+    final ArrayList<Manifest> mfs = new ArrayList<>();
+    for(IOFile zip = file;;) {
+      if(!zip.exists()) throw new FileNotFoundException(zip.path());
+      final Manifest mf = Manifest.read(zip);
+      zips.add(zip);
+      mfs.add(mf);
+      if(mf == null || mf.base.isEmpty()) break;
+      zip = new IOFile(zip.parent(), mf.base + IO.ZIPSUFFIX);
+    }
+    archives = zips;
+    manifests = mfs;
+  }
+
+  /**
+   * Restores the archive and its base backups to the specified directory.
+   * @param target target directory
+   * @throws IOException I/O exception
+   */
+  public void restore(final IOFile target) throws IOException {
+    if(archives == null) check();
+
+    total = archives.size();
+    for(int a = archives.size() - 1; a >= 0; a--) {
+      curr = total - a - 1;
+      final Manifest mf = manifests.get(a);
+      final boolean full = mf == null || mf.base.isEmpty();
+      String root = null;
+      try(ZipInputStream in = new ZipInputStream(archives.get(a).inputStream())) {
+        for(ZipEntry ze; (ze = in.getNextEntry()) != null;) {
+          final String name = ze.getName();
+          final int i = name.indexOf('/');
+          root = name.substring(0, i);
+          final String path = name.substring(i + 1);
+          if(path.equals(MANIFEST)) continue;
+
+          final IOFile trg = new IOFile(target, name);
+          if(ze.isDirectory()) {
+            trg.md();
+          } else {
+            trg.parent().md();
+            if(full) {
+              trg.write(in);
+            } else {
+              patch(trg, in, mf.files.get(path).length);
+            }
+          }
+        }
+      }
+      if(!full && root != null) mf.apply(new IOFile(target, root));
+    }
+  }
+
+  /**
+   * Returns the name of the base backup of an archive.
+   * @param zip archive
+   * @return name of base backup, or an empty string for full backups
+   * @throws IOException I/O exception
+   */
+  public static String base(final IOFile zip) throws IOException {
+    final Manifest mf = Manifest.read(zip);
+    return mf != null ? mf.base : "";
+  }
+
+  @Override
+  public double progressInfo() {
+    return total == 0 ? 0 : (double) curr / total;
+  }
+
+  /**
+   * Returns the name of an archive entry.
+   * @param path relative path
+   * @return entry name
+   */
+  private String entry(final String path) {
+    return dir.name() + '/' + path(path);
+  }
+
+  /**
+   * Copies a file, or the pages that have been changed since the last backup, and adds the
+   * checksums of all pages to the manifest.
+   * @param db database directory
+   * @param path relative path to the file
+   * @param old manifest of the base backup (can be {@code null})
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void copy(final IOFile db, final String path, final Manifest old,
+      final OutputStream out) throws IOException {
+
+    final String name = path(path);
+    final Pages pages = old != null ? old.files.get(name) : null;
+    final IntList checksums = new IntList();
+    final CRC32 crc = new CRC32();
+    final byte[] page = new byte[PAGE];
+    long length = 0;
+    try(FileInputStream in = new IOFile(db, path).inputStream()) {
+      for(int p = 0;; p++) {
+        int n = 0;
+        for(int c; n < PAGE && (c = in.read(page, n, PAGE - n)) != -1;) n += c;
+        if(n == 0) break;
+
+        crc.reset();
+        crc.update(page, 0, n);
+        final int cs = (int) crc.getValue();
+        checksums.add(cs);
+        if(old == null) {
+          out.write(page, 0, n);
+        } else if(pages == null || !pages.equal(p, n, cs)) {
+          out.write(p >>> 24);
+          out.write(p >>> 16);
+          out.write(p >>> 8);
+          out.write(p);
+          out.write(page, 0, n);
+        }
+        length += n;
+        curr += n;
+        if(n < PAGE) break;
+      }
+    }
+    manifest.files.put(name, new Pages(length, checksums.finish()));
+  }
+
+  /**
+   * Writes changed pages to a file.
+   * @param trg target file
+   * @param in input stream
+   * @param length length of the file
+   * @throws IOException I/O exception
+   */
+  private static void patch(final IOFile trg, final InputStream in, final long length)
+      throws IOException {
+
+    final byte[] page = new byte[PAGE];
+    try(RandomAccessFile raf = new RandomAccessFile(trg.file(), "rw")) {
+      for(int b; (b = in.read()) != -1;) {
+        final long p = (long) (b << 24 | in.read() << 16 | in.read() << 8 | in.read()) * PAGE;
+        final int n = (int) Math.min(PAGE, length - p);
+        for(int o = 0, c; o < n; o += c) {
+          c = in.read(page, o, n - o);
+          if(c == -1) throw new EOFException(trg.path());
+        }
+        raf.seek(p);
+        raf.write(page, 0, n);
+      }
+    }
+  }
+
+  /**
+   * Normalizes the separators of a relative path.
+   * @param path path
+   * @return normalized path
+   */
+  private static String path(final String path) {
+    return Prop.WIN ? path.replace('\\', '/') : path;
+  }
+
+  /**
+   * Lengths and page checksums of all files of a backup.
+   */
+  private static final class Pages {
+    /** File length. */
+    private final long length;
+    /** Checksums of the pages. */
+    private final int[] checksums;
+
+    /**
+     * Constructor.
+     * @param length file length
+     * @param checksums checksums of the pages
+     */
+    private Pages(final long length, final int[] checksums) {
+      this.length = length;
+      this.checksums = checksums;
+    }
+
+    /**
+     * Checks if the specified page is unchanged.
+     * @param page page number
+     * @param size size of the page
+     * @param checksum checksum of the page
+     * @return result of check
+     */
+    private boolean equal(final int page, final int size, final int checksum) {
+      return page < checksums.length && checksums[page] == checksum &&
+          Math.min(PAGE, length - (long) page * PAGE) == size;
+    }
+  }
+
+  /**
+   * Manifest of a backup.
+   */
+  private static final class Manifest {
+    /** Name of the base backup (empty string for full backups). */
+    private final String base;
+    /** Files. */
+    private final HashMap<String, Pages> files = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param base name of the base backup
+     */
+    private Manifest(final String base) {
+      this.base = base;
+    }
+
+    /**
+     * Reads the manifest of an archive.
+     * @param zip archive
+     * @return manifest, or {@code null} if the archive contains no manifest
+     * @throws IOException I/O exception
+     */
+    private static Manifest read(final IOFile zip) throws IOException {
+      try(ZipFile zf = new ZipFile(zip.file())) {
+        for(final ZipEntry ze : Collections.list(zf.entries())) {
+          if(!ze.getName().endsWith('/' + MANIFEST)) continue;
+          final byte[] content;
+          try(BufferInput bi = new BufferInput(zf.getInputStream(ze))) {
+            content = bi.content();
+          }
+          try(DataInput in = new DataInput(new IOContent(content))) {
+            final Manifest mf = new Manifest(string(in.readToken()));
+            for(int f = in.readNum(); --f >= 0;) {
+              final String name = string(in.readToken());
+              mf.files.put(name, new Pages(in.readLongs(1)[0], in.readNums()));
+            }
+            return mf;
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Writes the manifest.
+     * @param os output stream
+     * @throws IOException I/O exception
+     */
+    private void write(final OutputStream os) throws IOException {
+      final DataOutput out = new DataOutput(os);
+      out.writeToken(token(base));
+      out.writeNum(files.size());
+      for(final Map.Entry<String, Pages> entry : files.entrySet()) {
+        final Pages pages = entry.getValue();
+        out.writeToken(token(entry.getKey()));
+        out.write8(pages.length);
+        out.writeNums(pages.checksums);
+      }
+      out.flush();
+    }
+
+    /**
+     * Adjusts the lengths of the restored files and deletes files that are not referenced.
+     * @param db database directory
+     * @throws IOException I/O exception
+     */
+    private void apply(final IOFile db) throws IOException {
+      for(final String path : db.descendants()) {
+        final IOFile trg = new IOFile(db, path);
+        final Pages pages = files.get(path(path));
+        if(pages == null) {
+          trg.delete();
+        } else {
+          try(RandomAccessFile raf = new RandomAccessFile(trg.file(), "rw")) {
+            raf.setLength(pages.length);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package org.basex.io;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.out.*;
+import org.basex.util.http.*;
+
+/**
+ * In-process cache for the contents of local files and HTTP resources.
+ * The cache is bounded by the total size of the cached contents. Cached entries are
+ * validated before they are returned: files via their timestamp and size, HTTP resources via
+ * conditional requests ({@code If-None-Match}, {@code If-Modified-Since}). HTTP resources
+ * that cannot be validated or exceed the cache size are streamed.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class IOCache {
+  /** Cached entries, in the order in which they were accessed. */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  /** Maximum size of all entries (bytes). */
+  private final long capacity;
+  /** Current size of all entries (bytes). */
+  private long size;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public IOCache(final StaticOptions sopts) {
+    capacity = (long) sopts.get(StaticOptions.FETCHCACHE) << 10;
+  }
+
+  /**
+   * Returns a reference to the contents of the specified input. If the cache is enabled,
+   * and if the input is a local file or an HTTP resource, the contents are returned
+   * from the cache, or cached for subsequent requests. Otherwise, the input is returned.
+   * @param io input
+   * @return cached contents or input reference
+   * @throws IOException I/O exception
+   */
+  public IO get(final IO io) throws IOException {
+    if(capacity == 0) return io;
+    if(io instanceof IOFile) return file((IOFile) io);
+    if(io instanceof IOUrl) return url((IOUrl) io);
+    return io;
+  }
+
+  /**
+   * Returns the contents of a local file.
+   * @param io file reference
+   * @return cached contents or input reference
+   * @throws IOException I/O exception
+   */
+  private IO file(final IOFile io) throws IOException {
+    final String path = io.path();
+    final long time = io.timeStamp(), length = io.length();
+    // file does not exist, or cannot be cached
+    if(time == 0 || io.isDir() || length > capacity) return io;
+
+    final Entry entry = entry(path);
+    if(entry != null && entry.time == time && entry.content.length == length)
+      return new IOContent(entry.content, path);
+
+    final byte[] content = io.read();
+    add(path, new Entry(content, time, null));
+    return new IOContent(content, path);
+  }
+
+  /**
+   * Returns the contents of a URL.
+   * @param io URL reference
+   * @return cached contents or input reference
+   * @throws IOException I/O exception
+   */
+  private IO url(final IOUrl io) throws IOException {
+    final String path = io.path();
+    final URLConnection conn = io.connection();
+    if(!(conn instanceof HttpURLConnection)) return io;
+
+    final HttpURLConnection hc = (HttpURLConnection) conn;
+    final Entry entry = entry(path);
+    if(entry != null) {
+      if(entry.etag != null) hc.setRequestProperty(HttpText.IF_NONE_MATCH, entry.etag);
+      if(entry.time != 0) hc.setIfModifiedSince(entry.time);
+    }
+    try {
+      final int code = hc.getResponseCode();
+      if(code == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+        hc.getInputStream().close();
+        return new IOContent(entry.content, path);
+      }
+      // errors and other status codes will be handled by the default implementation
+      if(code != HttpURLConnection.HTTP_OK) {
+        hc.disconnect();
+        return io;
+      }
+      // only cache resources that can be validated, and that do not exceed the cache size
+      final InputStream is = hc.getInputStream();
+      final String etag = hc.getHeaderField(HttpText.ETAG);
+      final long time = hc.getLastModified();
+      if(etag == null && time == 0 || hc.getContentLengthLong() > capacity) {
+        return new IOUrl(path, is);
+      }
+
+      final ArrayOutput ao = new ArrayOutput();
+      final byte[] buffer = new byte[IO.BLOCKSIZE];
+      for(int r; (r = is.read(buffer)) != -1;) {
+        ao.write(buffer, 0, r);
+        // resource of unknown size exceeds the cache size: stream remaining contents
+        if(ao.size() > capacity) {
+          final InputStream read = new ByteArrayInputStream(ao.finish());
+          return new IOUrl(path, new SequenceInputStream(read, is));
+        }
+      }
+      is.close();
+      final byte[] content = ao.finish();
+      add(path, new Entry(content, time, etag));
+      return new IOContent(content, path);
+    } catch(final IOException ex) {
+      hc.disconnect();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns a cached entry.
+   * @param path path
+   * @return entry or {@code null}
+   */
+  private synchronized Entry entry(final String path) {
+    return entries.get(path);
+  }
+
+  /**
+   * Adds an entry and removes the least recently used entries if the cache is full.
+   * @param path path
+   * @param entry entry
+   */
+  private synchronized void add(final String path, final Entry entry) {
+    final long length = entry.content.length;
+    if(length > capacity) return;
+    final Entry old = entries.put(path, entry);
+    if(old != null) size -= old.content.length;
+    size += length;
+
+    final Iterator<Entry> iter = entries.values().iterator();
+    while(size > capacity && iter.hasNext()) {
+      size -= iter.next().content.length;
+      iter.remove();
+    }
+  }
+
+  /**
+   * Returns the current size of all cached entries.
+   * @return size (bytes)
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  /**
+   * Invalidates all entries.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    size = 0;
+  }
+
+  /** Cache entry. */
+  private static final class Entry {
+    /** Contents. */
+    private final byte[] content;
+    /** Timestamp of last modification ({@code 0}: unknown). */
+    private final long time;
+    /** Entity tag (can be {@code null}). */
+    private final String etag;
+
+    /**
+     * Constructor.
+     * @param content contents
+     * @param time timestamp of last modification
+     * @param etag entity tag (can be {@code null})
+     */
+    private Entry(final byte[] content, final long time, final String etag) {
+      this.content = content;
+      this.time = time;
+      this.etag = etag;
+    }
+  }
+}
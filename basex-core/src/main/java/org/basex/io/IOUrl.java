@@ -28,6 +28,9 @@ public final class IOUrl extends IO {
   /** Timeout for connecting to a resource (seconds). */
   private static final int TIMEOUT = 10;
 
+  /** Body of a response that has already been requested (can be {@code null}). */
+  private InputStream response;
+
   /**
    * Constructor.
    * @param url url
@@ -36,6 +39,18 @@ public final class IOUrl extends IO {
     super(url);
   }
 
+  /**
+   * Constructor for a resource whose response has already been requested.
+   * The first input stream will return the specified body, subsequent input streams
+   * will request the resource again.
+   * @param url url
+   * @param response body of the response
+   */
+  IOUrl(final String url, final InputStream response) {
+    super(url);
+    this.response = response;
+  }
+
   @Override
   public byte[] read() throws IOException {
     return BufferInput.get(this).content();
@@ -53,6 +68,11 @@ public final class IOUrl extends IO {
 
   @Override
   public InputStream inputStream() throws IOException {
+    final InputStream is = response;
+    if(is != null) {
+      response = null;
+      return is;
+    }
     URLConnection conn = null;
     try {
       conn = connection();
@@ -89,17 +89,20 @@ public final class Zip extends Job {
     if(!(file instanceof IOFile)) throw new FileNotFoundException(file.path());
 
     curr = 0;
-    try(ZipOutputStream out = new ZipOutputStream(new BufferOutput((IOFile) file))) {
+    try(ZipOutput out = new ZipOutput(new BufferOutput((IOFile) file))) {
       // use simple, fast compression
-      out.setLevel(1);
+      out.level(1);
       // loop through all files
       total = files.size();
       final byte[] data = new byte[IO.BLOCKSIZE];
       for(final String f : files) {
         curr++;
-        try(FileInputStream in = new FileInputStream(new File(root.file(), f))) {
+        final File source = new File(root.file(), f);
+        try(FileInputStream in = new FileInputStream(source)) {
           final String fl = Prop.WIN ? f.replace('\\', '/') : f;
-          out.putNextEntry(new ZipEntry(root.name() + '/' + fl));
+          final ZipEntry ze = new ZipEntry(root.name() + '/' + fl);
+          ze.setSize(source.length());
+          out.putNextEntry(ze);
           for(int c; (c = in.read(data)) != -1;) out.write(data, 0, c);
           out.closeEntry();
         }
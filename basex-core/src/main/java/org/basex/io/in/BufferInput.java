@@ -90,6 +90,21 @@ public class BufferInput extends InputStream {
     in = null;
   }
 
+  /**
+   * Constructor with a fixed range of an array.
+   * @param array array input
+   * @param start start position
+   * @param end end position
+   */
+  BufferInput(final byte[] array, final int start, final int end) {
+    this.array = array;
+    bpos = start;
+    bmark = start;
+    bsize = end;
+    length = end;
+    in = null;
+  }
+
   /**
    * Returns the IO reference or {@code null}.
    * @return file reference
@@ -120,6 +135,7 @@ public class BufferInput extends InputStream {
     final int blen = array.length;
     final byte[] buf = array;
     if(bpos >= bsize) {
+      if(in == null) return -1;
       read += bsize;
       if(bsize == blen) {
         // reset mark if buffer is full
@@ -45,6 +45,17 @@ public final class NewlineInput extends TextInput {
     super(token);
   }
 
+  /**
+   * Constructor for a range of UTF-8 encoded bytes.
+   * @param token token
+   * @param start start position
+   * @param end end position
+   * @throws IOException I/O exception
+   */
+  public NewlineInput(final byte[] token, final int start, final int end) throws IOException {
+    super(token, start, end);
+  }
+
   @Override
   public NewlineInput encoding(final String encoding) throws IOException {
     super.encoding(encoding);
@@ -65,6 +76,15 @@ public final class NewlineInput extends TextInput {
     return '\n';
   }
 
+  /**
+   * {@inheritDoc}
+   * Carriage returns must be included in the stop characters.
+   */
+  @Override
+  public int copy(final TokenBuilder tb, final boolean[] stop) {
+    return next == -2 ? super.copy(tb, stop) : 0;
+  }
+
   /**
    * Reads and returns a single line.
    * @return line or {@code null}
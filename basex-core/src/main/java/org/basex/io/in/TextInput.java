@@ -51,6 +51,19 @@ public class TextInput extends BufferInput {
     this(new IOContent(token));
   }
 
+  /**
+   * Constructor for a range of UTF-8 encoded bytes. The encoding will not be guessed,
+   * and the positions returned by {@link #size()} will refer to the specified array.
+   * @param token token
+   * @param start start position
+   * @param end end position
+   * @throws IOException I/O exception
+   */
+  public TextInput(final byte[] token, final int start, final int end) throws IOException {
+    super(token, start, end);
+    decoder = TextDecoder.get(UTF8);
+  }
+
   /**
    * Reads the first bytes of the input stream to guess the text encoding.
    * @throws IOException I/O exception
@@ -136,6 +149,27 @@ public class TextInput extends BufferInput {
     return cp;
   }
 
+  /**
+   * Fast path for UTF-8 input: copies a run of ASCII characters from the buffer to the specified
+   * token builder, bypassing the decoder. The run ends before the first non-ASCII character,
+   * before a stop character, or at the end of the buffer.
+   * @param tb token builder
+   * @param stop stop characters (indexed by ASCII character)
+   * @return number of copied characters
+   */
+  public int copy(final TokenBuilder tb, final boolean[] stop) {
+    if(decoder.encoding != UTF8) return 0;
+    final byte[] buf = array;
+    final int s = bpos, e = bsize;
+    int p = s;
+    for(byte b; p < e && (b = buf[p]) >= 0 && !stop[b]; p++);
+    if(p != s) {
+      tb.add(buf, s, p);
+      bpos = p;
+    }
+    return p - s;
+  }
+
   @Override
   public final byte[] content() throws IOException {
     return cache().finish();
@@ -72,6 +72,29 @@ public class XMLInput extends InputStream {
     return ch;
   }
 
+  /**
+   * Copies a run of ASCII characters to the specified token builder.
+   * See {@link TextInput#copy(TokenBuilder, boolean[])} for more details.
+   * @param tb token builder
+   * @param stop stop characters (indexed by ASCII character, must include carriage returns)
+   * @return number of copied characters
+   */
+  public int copy(final TokenBuilder tb, final boolean[] stop) {
+    if(pp != 0) return 0;
+    final int s = tb.size(), n = inputs[ip].copy(tb, stop), e = s + n;
+    // update line counter and buffer with most recent characters
+    if(ip == 0) {
+      for(int i = s; i < e; i++) {
+        if(tb.get(i) == '\n') ++line;
+      }
+    }
+    for(int i = Math.max(s, e - last.length); i < e; i++) {
+      last[lp++] = tb.get(i);
+      lp &= 0x0F;
+    }
+    return n;
+  }
+
   /**
    * Inserts some bytes in the input stream.
    * @param value values to insert
@@ -8,6 +8,7 @@ import java.nio.*;
 import java.nio.charset.*;
 
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * This class is a wrapper for outputting texts with specific encodings.
@@ -16,12 +17,17 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class EncoderOutput extends PrintOutput {
+  /** Maximum number of cached names. */
+  private static final int MAXNAMES = 1 << 12;
+
   /** Encoding. */
   private final Charset encoding;
   /** Charset encoder. */
   private final CharsetEncoder encoder;
   /** Encoding buffer. */
   private final TokenBuilder encbuffer;
+  /** Cached encoded names. */
+  private final TokenObjMap<byte[]> names = new TokenObjMap<>();
 
   /**
    * Constructor, given an output stream.
@@ -53,6 +59,16 @@ public final class EncoderOutput extends PrintOutput {
     print(string(token));
   }
 
+  @Override
+  public void printName(final byte[] name) throws IOException {
+    byte[] encoded = names.get(name);
+    if(encoded == null) {
+      encoded = string(name).getBytes(encoding);
+      if(names.size() < MAXNAMES) names.put(name, encoded);
+    }
+    write(encoded);
+  }
+
   @Override
   public void print(final String string) throws IOException {
     write(string.getBytes(encoding));
@@ -34,6 +34,11 @@ public final class NewlineOutput extends PrintOutput {
     }
   }
 
+  @Override
+  public void printName(final byte[] name) throws IOException {
+    po.printName(name);
+  }
+
   @Override
   public boolean finished() {
     return po.finished();
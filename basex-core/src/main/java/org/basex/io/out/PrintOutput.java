@@ -63,6 +63,16 @@ public class PrintOutput extends OutputStream {
     if(size++ < max) os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if(max - size >= len) {
+      os.write(b, off, len);
+      size += len;
+    } else {
+      for(int l = off; l < off + len; l++) write(b[l]);
+    }
+  }
+
   /**
    * Prints a single codepoint.
    * @param cp codepoint to be printed
@@ -96,6 +106,16 @@ public class PrintOutput extends OutputStream {
     for(int t = 0; t < tl; t += cl(token, t)) print(cp(token, t));
   }
 
+  /**
+   * Prints a name (element name, attribute name, namespace prefix) to the output stream.
+   * As names are valid UTF-8 tokens, the bytes are written without being decoded.
+   * @param name name to be written
+   * @throws IOException I/O exception
+   */
+  public void printName(final byte[] name) throws IOException {
+    write(name, 0, name.length);
+  }
+
   /**
    * Prints a string to the output stream.
    * @param string string to be written
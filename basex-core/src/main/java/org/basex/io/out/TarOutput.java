@@ -0,0 +1,155 @@
+package org.basex.io.out;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.util.*;
+
+/**
+ * Output stream for TAR archives. As the size of an entry is written before its contents,
+ * it must be known in advance. Names with more than 100 bytes are written as GNU long names.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class TarOutput extends OutputStream {
+  /** Block size. */
+  private static final int BLOCK = 512;
+  /** Maximum length of a name. */
+  private static final int NAME = 100;
+  /** Maximum size that can be represented by an octal number. */
+  private static final long MAXOCTAL = 077777777777L;
+  /** Name of a GNU tar entry with a long name. */
+  private static final byte[] LONGNAME = token("././@LongLink");
+
+  /** Output stream. */
+  private final OutputStream out;
+  /** Size of the current entry. */
+  private long size;
+  /** Remaining bytes of the current entry ({@code -1}: no entry has been opened). */
+  private long remaining = -1;
+  /** Closed flag. */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * @param out output stream
+   */
+  public TarOutput(final OutputStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Starts a new entry. The current entry will be closed.
+   * @param name name of the entry
+   * @param sz size of the entry
+   * @param time modification time (milliseconds since the epoch)
+   * @throws IOException I/O exception
+   */
+  public void putNextEntry(final String name, final long sz, final long time) throws IOException {
+    closeEntry();
+    final byte[] nm = token(name);
+    if(nm.length > NAME) {
+      // GNU extension: write the name as contents of a preceding entry
+      header(LONGNAME, nm.length + 1, 0, 'L');
+      write(nm, 0, nm.length);
+      write(0);
+      closeEntry();
+    }
+    header(nm, sz, time / 1000, '0');
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if(remaining == -1) throw new IOException("No entry has been opened.");
+    if(len > remaining) throw new IOException("Entry size exceeded: " + size + " bytes.");
+    out.write(b, off, len);
+    remaining -= len;
+  }
+
+  /**
+   * Closes the current entry.
+   * @throws IOException I/O exception
+   */
+  public void closeEntry() throws IOException {
+    if(remaining == -1) return;
+    if(remaining != 0) throw new IOException(remaining + " bytes of entry are missing.");
+    final int pad = (int) (-size & BLOCK - 1);
+    if(pad != 0) out.write(new byte[pad]);
+    remaining = -1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if(closed) return;
+    closed = true;
+    try {
+      closeEntry();
+      // end of archive: two empty blocks
+      out.write(new byte[BLOCK << 1]);
+      out.flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Writes the header of an entry.
+   * @param name name of the entry (will be truncated to 100 bytes)
+   * @param sz size of the entry
+   * @param time modification time (seconds since the epoch)
+   * @param type type flag
+   * @throws IOException I/O exception
+   */
+  private void header(final byte[] name, final long sz, final long time, final char type)
+      throws IOException {
+
+    final byte[] header = new byte[BLOCK];
+    Array.copy(name, Math.min(name.length, NAME), header);
+    octal(header, 100, 8, 0644);
+    octal(header, 108, 8, 0);
+    octal(header, 116, 8, 0);
+    if(sz <= MAXOCTAL) {
+      octal(header, 124, 12, sz);
+    } else {
+      // GNU extension: binary representation
+      header[124] = (byte) 0x80;
+      for(int i = 135, s = 0; i > 124; i--, s += 8) header[i] = (byte) (sz >>> s);
+    }
+    octal(header, 136, 12, time);
+    header[156] = (byte) type;
+    Array.copyFromStart(token("ustar  "), 7, header, 257);
+
+    // checksum: computed with spaces in the checksum field
+    for(int i = 148; i < 156; i++) header[i] = ' ';
+    long sum = 0;
+    for(final byte b : header) sum += b & 0xFF;
+    octal(header, 148, 7, sum);
+
+    out.write(header);
+    size = sz;
+    remaining = sz;
+  }
+
+  /**
+   * Writes a zero-terminated octal number with leading zeroes.
+   * @param header header
+   * @param off offset
+   * @param len length of the field (including the terminating zero byte)
+   * @param value value
+   */
+  private static void octal(final byte[] header, final int off, final int len, final long value) {
+    long v = value;
+    for(int i = off + len - 2; i >= off; i--) {
+      header[i] = (byte) ('0' + (v & 7));
+      v >>>= 3;
+    }
+    header[off + len - 1] = 0;
+  }
+}
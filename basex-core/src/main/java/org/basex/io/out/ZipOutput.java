@@ -0,0 +1,447 @@
+package org.basex.io.out;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import org.basex.util.*;
+
+/**
+ * Output stream for ZIP archives with parallel compression.
+ *
+ * The contents of an entry are split into chunks, which are compressed by multiple threads and
+ * written in their original order. Each chunk is compressed with the last bytes of its preceding
+ * chunk as dictionary and terminated with a sync flush, such that the compressed chunks can be
+ * concatenated to a single deflate stream. Entries that are smaller than a chunk, and all entries
+ * on single-core machines, are compressed by the calling thread. Chunks of all archives are
+ * compressed by a shared thread pool. The sizes and checksums of entries are written after the
+ * compressed data.
+ *
+ * As sizes are unknown when the local header is written, the ZIP64 format is chosen for this
+ * header if the size of the {@link ZipEntry} is known to exceed 32 bits. If a larger entry
+ * without this hint is written, its data descriptor will contain 64-bit sizes nonetheless
+ * (in accordance with the JDK). The central directory contains the actual sizes.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ZipOutput extends OutputStream {
+  /** Size of a chunk. */
+  private static final int CHUNK = 1 << 17;
+  /** Size of a dictionary (maximum distance of the deflate algorithm). */
+  private static final int DICTIONARY = 1 << 15;
+  /** Maximum value of a 32-bit field. */
+  private static final long MAX32 = 0xFFFFFFFFL;
+  /** Maximum value of a 16-bit field. */
+  private static final int MAX16 = 0xFFFF;
+  /** Flags: sizes and checksum are written after the data, names are UTF-8 encoded. */
+  private static final int FLAGS = 0x0808;
+  /** Shared thread pool (created on demand). */
+  private static ExecutorService pool;
+
+  /** Output stream. */
+  private final OutputStream out;
+  /** Number of threads. */
+  private final int threads;
+  /** Written entries. */
+  private final ArrayList<Entry> entries = new ArrayList<>();
+  /** Chunks that are currently compressed. */
+  private final ArrayDeque<Future<byte[]>> queue = new ArrayDeque<>();
+  /** Checksum of the current entry. */
+  private final CRC32 crc = new CRC32();
+
+  /** Current entry ({@code null} if no entry has been opened). */
+  private Entry entry;
+  /** Current chunk. */
+  private byte[] chunk = new byte[CHUNK];
+  /** Number of bytes in the current chunk. */
+  private int size;
+  /** Previous chunk (serves as dictionary, can be {@code null}). */
+  private byte[] previous;
+  /** Compression level. */
+  private int level = Deflater.DEFAULT_COMPRESSION;
+  /** Number of written bytes. */
+  private long written;
+  /** Closed flag. */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * @param out output stream
+   */
+  public ZipOutput(final OutputStream out) {
+    this(out, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor.
+   * @param out output stream
+   * @param threads number of threads
+   */
+  ZipOutput(final OutputStream out, final int threads) {
+    this.out = out;
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * Sets the compression level for the subsequent entries.
+   * @param lvl compression level (0-9, or -1 for the default level)
+   */
+  public void level(final int lvl) {
+    if(lvl < Deflater.DEFAULT_COMPRESSION || lvl > Deflater.BEST_COMPRESSION)
+      throw new IllegalArgumentException("Invalid compression level: " + lvl);
+    level = lvl;
+  }
+
+  /**
+   * Starts a new entry. The current entry will be closed.
+   * @param ze zip entry
+   * @throws IOException I/O exception
+   */
+  public void putNextEntry(final ZipEntry ze) throws IOException {
+    closeEntry();
+    final long time = ze.getTime();
+    final String comment = ze.getComment();
+    final boolean zip64 = ze.getSize() >= MAX32 || ze.getCompressedSize() >= MAX32;
+    entry = new Entry(token(ze.getName()), comment != null ? token(comment) : EMPTY,
+        dosTime(time != -1 ? time : System.currentTimeMillis()), written, zip64);
+    crc.reset();
+    previous = null;
+    size = 0;
+
+    // local file header (sizes are written to the data descriptor)
+    write4(0x04034b50);
+    write2(zip64 ? 45 : 20);
+    write2(FLAGS);
+    write2(ZipEntry.DEFLATED);
+    write4(entry.time);
+    write4(0);
+    write4(zip64 ? MAX32 : 0);
+    write4(zip64 ? MAX32 : 0);
+    write2(entry.name.length);
+    write2(zip64 ? 20 : 0);
+    writeBytes(entry.name);
+    if(zip64) {
+      write2(1);
+      write2(16);
+      write8(0);
+      write8(0);
+    }
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if(entry == null) throw new IOException("No entry has been opened.");
+    crc.update(b, off, len);
+    entry.size += len;
+    for(int o = off, l = len; l > 0;) {
+      final int n = Math.min(l, CHUNK - size);
+      System.arraycopy(b, o, chunk, size, n);
+      size += n;
+      o += n;
+      l -= n;
+      if(size == CHUNK) submit(false);
+    }
+  }
+
+  /**
+   * Closes the current entry.
+   * @throws IOException I/O exception
+   */
+  public void closeEntry() throws IOException {
+    if(entry == null) return;
+    submit(true);
+    while(!queue.isEmpty()) drain();
+
+    // data descriptor
+    final boolean zip64 = entry.zip64 || entry.size >= MAX32 || entry.csize >= MAX32;
+    entry.crc = crc.getValue();
+    write4(0x08074b50);
+    write4(entry.crc);
+    if(zip64) {
+      write8(entry.csize);
+      write8(entry.size);
+    } else {
+      write4(entry.csize);
+      write4(entry.size);
+    }
+    entries.add(entry);
+    entry = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if(closed) return;
+    closed = true;
+    try {
+      closeEntry();
+
+      // central directory
+      final long offset = written;
+      for(final Entry e : entries) {
+        final boolean sz = e.size >= MAX32, csz = e.csize >= MAX32, off = e.offset >= MAX32;
+        final int extra = (sz ? 8 : 0) + (csz ? 8 : 0) + (off ? 8 : 0);
+        final int version = extra == 0 ? 20 : 45;
+        write4(0x02014b50);
+        write2(version);
+        write2(version);
+        write2(FLAGS);
+        write2(ZipEntry.DEFLATED);
+        write4(e.time);
+        write4(e.crc);
+        write4(csz ? MAX32 : e.csize);
+        write4(sz ? MAX32 : e.size);
+        write2(e.name.length);
+        write2(extra == 0 ? 0 : extra + 4);
+        write2(e.comment.length);
+        write2(0);
+        write2(0);
+        write4(0);
+        write4(off ? MAX32 : e.offset);
+        writeBytes(e.name);
+        if(extra != 0) {
+          write2(1);
+          write2(extra);
+          if(sz) write8(e.size);
+          if(csz) write8(e.csize);
+          if(off) write8(e.offset);
+        }
+        writeBytes(e.comment);
+      }
+
+      // end of central directory
+      final long length = written - offset, count = entries.size();
+      if(count >= MAX16 || length >= MAX32 || offset >= MAX32) {
+        final long end = written;
+        write4(0x06064b50);
+        write8(44);
+        write2(45);
+        write2(45);
+        write4(0);
+        write4(0);
+        write8(count);
+        write8(count);
+        write8(length);
+        write8(offset);
+        write4(0x07064b50);
+        write4(0);
+        write8(end);
+        write4(1);
+      }
+      write4(0x06054b50);
+      write2(0);
+      write2(0);
+      write2((int) Math.min(count, MAX16));
+      write2((int) Math.min(count, MAX16));
+      write4(Math.min(length, MAX32));
+      write4(Math.min(offset, MAX32));
+      write2(0);
+      out.flush();
+    } finally {
+      for(final Future<byte[]> future : queue) future.cancel(true);
+      queue.clear();
+      out.close();
+    }
+  }
+
+  /**
+   * Compresses the current chunk.
+   * @param last last chunk of the entry
+   * @throws IOException I/O exception
+   */
+  private void submit(final boolean last) throws IOException {
+    final byte[] input = chunk, dict = previous;
+    final int lvl = level, n = size;
+    if(threads == 1 || last && queue.isEmpty()) {
+      // compress chunk in the calling thread
+      writeChunk(deflate(input, n, dict, lvl, last));
+      if(!last) {
+        previous = input;
+        chunk = dict != null ? dict : new byte[CHUNK];
+      }
+    } else {
+      queue.add(pool().submit(() -> deflate(input, n, dict, lvl, last)));
+      while(queue.size() > threads << 1) drain();
+      if(!last) {
+        previous = input;
+        chunk = new byte[CHUNK];
+      }
+    }
+    size = 0;
+  }
+
+  /**
+   * Returns the shared thread pool. Its threads are daemon threads and will not prevent the
+   * JVM from shutting down.
+   * @return thread pool
+   */
+  private static synchronized ExecutorService pool() {
+    if(pool == null) {
+      pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        final Thread thread = new Thread(r, "ZipOutput");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return pool;
+  }
+
+  /**
+   * Writes the first compressed chunk of the queue.
+   * @throws IOException I/O exception
+   */
+  private void drain() throws IOException {
+    try {
+      writeChunk(queue.poll().get());
+    } catch(final InterruptedException ex) {
+      throw new InterruptedIOException(ex.getMessage());
+    } catch(final ExecutionException ex) {
+      throw new IOException(ex.getCause());
+    }
+  }
+
+  /**
+   * Writes a compressed chunk.
+   * @param bytes compressed bytes
+   * @throws IOException I/O exception
+   */
+  private void writeChunk(final byte[] bytes) throws IOException {
+    writeBytes(bytes);
+    entry.csize += bytes.length;
+  }
+
+  /**
+   * Compresses a chunk.
+   * @param input input
+   * @param length number of bytes to be compressed
+   * @param dict previous chunk (can be {@code null})
+   * @param lvl compression level
+   * @param last last chunk of the entry
+   * @return compressed bytes
+   */
+  private static byte[] deflate(final byte[] input, final int length, final byte[] dict,
+      final int lvl, final boolean last) {
+
+    final Deflater deflater = new Deflater(lvl, true);
+    try {
+      if(dict != null) deflater.setDictionary(dict, CHUNK - DICTIONARY, DICTIONARY);
+      deflater.setInput(input, 0, length);
+      if(last) deflater.finish();
+      final int mode = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+
+      byte[] buffer = new byte[length + (length >>> 4) + 64];
+      int size = 0;
+      while(true) {
+        size += deflater.deflate(buffer, size, buffer.length - size, mode);
+        if(last ? deflater.finished() : size < buffer.length) break;
+        buffer = Arrays.copyOf(buffer, Array.newSize(buffer.length));
+      }
+      return Arrays.copyOf(buffer, size);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Converts a time to the MS-DOS format.
+   * @param time time in milliseconds
+   * @return MS-DOS time
+   */
+  private static long dosTime(final long time) {
+    final LocalDateTime ldt = LocalDateTime.ofInstant(Instant.ofEpochMilli(time),
+        ZoneId.systemDefault());
+    final int year = ldt.getYear();
+    if(year < 1980) return 1 << 21 | 1 << 16;
+    return (long) (year - 1980) << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16 |
+        ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1;
+  }
+
+  /**
+   * Writes bytes.
+   * @param bytes bytes
+   * @throws IOException I/O exception
+   */
+  private void writeBytes(final byte[] bytes) throws IOException {
+    out.write(bytes);
+    written += bytes.length;
+  }
+
+  /**
+   * Writes a 16-bit value in little-endian order.
+   * @param v value
+   * @throws IOException I/O exception
+   */
+  private void write2(final int v) throws IOException {
+    out.write(v);
+    out.write(v >>> 8);
+    written += 2;
+  }
+
+  /**
+   * Writes a 32-bit value in little-endian order.
+   * @param v value
+   * @throws IOException I/O exception
+   */
+  private void write4(final long v) throws IOException {
+    write2((int) v);
+    write2((int) (v >>> 16));
+  }
+
+  /**
+   * Writes a 64-bit value in little-endian order.
+   * @param v value
+   * @throws IOException I/O exception
+   */
+  private void write8(final long v) throws IOException {
+    write4(v);
+    write4(v >>> 32);
+  }
+
+  /**
+   * Archive entry.
+   */
+  private static final class Entry {
+    /** Name. */
+    private final byte[] name;
+    /** Comment. */
+    private final byte[] comment;
+    /** MS-DOS time. */
+    private final long time;
+    /** Offset of the local header. */
+    private final long offset;
+    /** Indicates if the local header is in the ZIP64 format. */
+    private final boolean zip64;
+    /** Checksum. */
+    private long crc;
+    /** Uncompressed size. */
+    private long size;
+    /** Compressed size. */
+    private long csize;
+
+    /**
+     * Constructor.
+     * @param name name
+     * @param comment comment
+     * @param time MS-DOS time
+     * @param offset offset of the local header
+     * @param zip64 indicates if the local header is in the ZIP64 format
+     */
+    private Entry(final byte[] name, final byte[] comment, final long time, final long offset,
+        final boolean zip64) {
+      this.name = name;
+      this.comment = comment;
+      this.time = time;
+      this.offset = offset;
+      this.zip64 = zip64;
+    }
+  }
+}
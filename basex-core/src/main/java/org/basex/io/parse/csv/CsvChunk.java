@@ -0,0 +1,120 @@
+package org.basex.io.parse.csv;
+
+import java.io.*;
+
+import org.basex.build.csv.*;
+import org.basex.query.value.item.*;
+import org.basex.util.list.*;
+
+/**
+ * Buffers the records of a parsed chunk of CSV input. Entries are stored in a single list,
+ * and the number of entries of each record is stored in a second list.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class CsvChunk extends CsvConverter {
+  /** Input buffer. */
+  final byte[] buffer;
+  /** Start position. */
+  final int start;
+  /** Entries. */
+  private final TokenList entries = new TokenList();
+  /** Number of entries per record. */
+  private final IntList records = new IntList();
+
+  /** End position (after the last complete record). */
+  int end;
+  /** Indicates if the chunk was parsed until the end of the input buffer. */
+  boolean last;
+  /** Number of records at the end position. */
+  private int markRecords;
+  /** Number of entries at the end position. */
+  private int markEntries;
+  /** Number of headers at the end position. */
+  private int markHeaders;
+
+  /**
+   * Constructor.
+   * @param copts options
+   * @param buffer input buffer
+   * @param start start position
+   */
+  CsvChunk(final CsvParserOptions copts, final byte[] buffer, final int start) {
+    super(copts);
+    this.buffer = buffer;
+    this.start = start;
+    end = start;
+  }
+
+  /**
+   * Parses the chunk.
+   * @param copts options
+   * @param stop stop position ({@code -1}: parse all input)
+   * @param size size of the input buffer
+   * @param eof indicates if the buffer contains the end of the input
+   * @param header header flag
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  CsvChunk parse(final CsvParserOptions copts, final int stop, final int size, final boolean eof,
+      final boolean header) throws IOException {
+    last = !CsvParser.parse(this, size, stop, header, copts);
+    if(last && eof) {
+      end = size;
+    } else {
+      // discard incomplete record
+      records.size(markRecords);
+      entries.size(markEntries);
+      headers.size(markHeaders);
+    }
+    return this;
+  }
+
+  /**
+   * Marks the end of a complete record.
+   * @param pos position after the record
+   */
+  void mark(final int pos) {
+    end = pos;
+    markRecords = records.size();
+    markEntries = entries.size();
+    markHeaders = headers.size();
+  }
+
+  /**
+   * Passes on the buffered headers and records to the specified converter.
+   * @param conv converter
+   * @throws IOException I/O exception
+   */
+  void replay(final CsvConverter conv) throws IOException {
+    for(final byte[] header : headers) conv.header(header);
+    final int rs = records.size();
+    for(int r = 0, e = 0; r < rs; r++) {
+      conv.record();
+      for(final int el = e + records.get(r); e < el; e++) conv.entry(entries.get(e));
+    }
+  }
+
+  @Override
+  protected void header(final byte[] string) {
+    headers.add(string);
+  }
+
+  @Override
+  protected void record() {
+    records.add(0);
+  }
+
+  @Override
+  protected void entry(final byte[] value) {
+    final int r = records.size() - 1;
+    records.set(r, records.get(r) + 1);
+    entries.add(value);
+  }
+
+  @Override
+  protected Item finish() {
+    return null;
+  }
+}
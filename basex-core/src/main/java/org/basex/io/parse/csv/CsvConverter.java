@@ -40,6 +40,10 @@ public abstract class CsvConverter extends Job {
   private final CsvParserOptions copts;
   /** Current input. */
   protected NewlineInput nli;
+  /** Number of bytes processed by the parallel parser. */
+  long read;
+  /** Input length, as determined by the parallel parser. */
+  long length;
 
   /**
    * Constructor.
@@ -58,13 +62,24 @@ public abstract class CsvConverter extends Job {
    * @throws IOException I/O exception
    */
   public final Item convert(final IO input) throws IOException {
-    try(NewlineInput in = new NewlineInput(input)) {
-      nli = in;
-      CsvParser.parse(in.encoding(copts.get(CsvParserOptions.ENCODING)), copts, this);
+    if(!CsvParallelParser.parse(input, copts, this)) {
+      try(NewlineInput in = new NewlineInput(input)) {
+        nli = in;
+        CsvParser.parse(in.encoding(copts.get(CsvParserOptions.ENCODING)), copts, this);
+      }
     }
     return finish();
   }
 
+  /**
+   * Returns the progress of the conversion.
+   * @return progress (between 0 and 1)
+   */
+  protected final double progress() {
+    return nli != null ? (double) nli.size() / nli.length() :
+      length > 0 ? (double) read / length : 0;
+  }
+
   /**
    * Returns a CSV converter for the given configuration.
    * @param copts options
@@ -0,0 +1,241 @@
+package org.basex.io.parse.csv;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.build.csv.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Parses large CSV input on multiple cores. The input is read in segments, which are split
+ * into chunks at the first newline after a nominal offset. As newlines may also occur in quoted
+ * entries, these boundaries are speculative: a chunk is parsed again if the preceding chunk ended
+ * at a different position. The buffered records of each chunk are passed on to the converter
+ * in their original order as soon as the chunk has been parsed. The number of threads can be
+ * set via {@link CsvParserOptions#THREADS}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class CsvParallelParser {
+  /** Minimum size of a chunk. */
+  static final int CHUNK = 1 << 20;
+
+  /** CSV options. */
+  private final CsvParserOptions copts;
+  /** Converter. */
+  private final CsvConverter conv;
+  /** Number of threads. */
+  private final int threads;
+  /** Thread pool (created on demand). */
+  private ExecutorService pool;
+  /** Header flag (invalidated after the first line has been parsed). */
+  private boolean header;
+
+  /**
+   * Constructor.
+   * @param copts options
+   * @param conv converter
+   * @param threads number of threads
+   */
+  private CsvParallelParser(final CsvParserOptions copts, final CsvConverter conv,
+      final int threads) {
+    this.copts = copts;
+    this.conv = conv;
+    this.threads = threads;
+    header = copts.get(CsvOptions.HEADER);
+  }
+
+  /**
+   * Parses the input in parallel if it is large enough, if it can be read more than once,
+   * and if it is UTF-8 encoded.
+   * @param input input
+   * @param copts options
+   * @param conv converter
+   * @return {@code true} if the input was parsed, {@code false} if it must be parsed sequentially
+   * @throws IOException I/O exception
+   */
+  static boolean parse(final IO input, final CsvParserOptions copts, final CsvConverter conv)
+      throws IOException {
+    final int threads = copts.get(CsvParserOptions.THREADS);
+    return parse(input, copts, conv, threads > 0 ? threads :
+      Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Parses the input in parallel if it is large enough, if it can be read more than once,
+   * and if it is UTF-8 encoded.
+   * @param input input
+   * @param copts options
+   * @param conv converter
+   * @param threads number of threads
+   * @return {@code true} if the input was parsed, {@code false} if it must be parsed sequentially
+   * @throws IOException I/O exception
+   */
+  static boolean parse(final IO input, final CsvParserOptions copts, final CsvConverter conv,
+      final int threads) throws IOException {
+    final String encoding = copts.get(CsvParserOptions.ENCODING);
+    if(threads < 2 || input.length() < CHUNK << 1 ||
+      !(input instanceof IOContent || input instanceof IOFile) ||
+      encoding != null && !encoding.isEmpty() && Strings.normEncoding(encoding) != Strings.UTF8)
+      return false;
+
+    final CsvParallelParser parser = new CsvParallelParser(copts, conv, threads);
+    try {
+      if(input instanceof IOContent) return parser.parse(input.read());
+      try(InputStream is = input.inputStream()) {
+        return parser.parse(is, input.length());
+      }
+    } finally {
+      if(parser.pool != null) parser.pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Parses the input buffer in segments.
+   * @param buffer input buffer
+   * @return {@code true} if the input was parsed, {@code false} if it is not UTF-8 encoded
+   * @throws IOException I/O exception
+   */
+  private boolean parse(final byte[] buffer) throws IOException {
+    final int start = bom(buffer);
+    if(start == -1) return false;
+
+    final int length = buffer.length;
+    conv.length = length;
+    long segment = (long) CHUNK * threads;
+    for(int pos = start; pos < length;) {
+      // parse segment; enlarge segment if it does not contain a complete record
+      final int size = (int) Math.min(length, pos + segment);
+      final boolean eof = size == length;
+      final int end = segment(buffer, pos, size, eof);
+      if(end == pos && !eof) segment <<= 1;
+      conv.read = end;
+      pos = end;
+      if(eof) break;
+    }
+    return true;
+  }
+
+  /**
+   * Parses the input stream in segments.
+   * @param is input stream
+   * @param length input length
+   * @return {@code true} if the input was parsed, {@code false} if it is not UTF-8 encoded
+   * @throws IOException I/O exception
+   */
+  private boolean parse(final InputStream is, final long length) throws IOException {
+    byte[] buffer = new byte[(int) Math.min(length, (long) CHUNK * threads)];
+    int size = 0, start = -1;
+    boolean eof = false;
+    conv.length = length;
+    while(!eof) {
+      while(size < buffer.length) {
+        final int r = is.read(buffer, size, buffer.length - size);
+        if(r == -1) {
+          eof = true;
+          break;
+        }
+        size += r;
+      }
+      if(start == -1) {
+        start = bom(buffer);
+        if(start == -1) return false;
+      }
+
+      // parse segment, keep the bytes of an incomplete record for the next segment
+      final int end = segment(buffer, start, size, eof);
+      conv.read += end;
+      size -= end;
+      System.arraycopy(buffer, end, buffer, 0, size);
+      start = 0;
+      if(size == buffer.length) buffer = Arrays.copyOf(buffer, size << 1);
+    }
+    return true;
+  }
+
+  /**
+   * Parses a segment of the input.
+   * @param buffer input buffer
+   * @param start start position
+   * @param size size of the input buffer
+   * @param eof indicates if the buffer contains the end of the input
+   * @return position after the last complete record
+   * @throws IOException I/O exception
+   */
+  private int segment(final byte[] buffer, final int start, final int size, final boolean eof)
+      throws IOException {
+
+    // choose speculative chunk boundaries
+    final int chunks = Math.max(1, Math.min(threads, (size - start) / CHUNK));
+    final IntList bounds = new IntList(chunks + 1);
+    bounds.add(start);
+    for(int c = 1; c < chunks; c++) {
+      int p = Math.max(start + (int) ((long) (size - start) * c / chunks), bounds.peek());
+      while(p < size && buffer[p] != '\n') p++;
+      if(++p >= size) break;
+      bounds.add(p);
+    }
+    bounds.add(-1);
+
+    // parse all chunks except for the first one in parallel
+    final int bl = bounds.size() - 1;
+    final ArrayList<Future<CsvChunk>> futures = new ArrayList<>(bl);
+    if(bl > 1 && pool == null) pool = Executors.newFixedThreadPool(threads - 1);
+    for(int b = 1; b < bl; b++) {
+      final int s = bounds.get(b), stop = bounds.get(b + 1);
+      futures.add(pool.submit(() ->
+        new CsvChunk(copts, buffer, s).parse(copts, stop, size, eof, false)));
+    }
+
+    // validate chunk boundaries and pass on records
+    int pos = start;
+    for(int b = 0; b < bl; b++) {
+      final int stop = bounds.get(b + 1);
+      CsvChunk chunk = b == 0 ? new CsvChunk(copts, buffer, start).parse(
+          copts, stop, size, eof, header) : get(futures.get(b - 1));
+      if(chunk.start != pos) {
+        // the preceding chunk ended at a different position: skip or parse chunk again
+        if(stop != -1 && pos >= stop) continue;
+        chunk = new CsvChunk(copts, buffer, pos).parse(copts, stop, size, eof, header);
+      }
+      chunk.replay(conv);
+      if(chunk.end > pos) header = false;
+      pos = chunk.end;
+      if(chunk.last) break;
+    }
+    for(final Future<CsvChunk> future : futures) future.cancel(true);
+    return pos;
+  }
+
+  /**
+   * Returns the result of a parsed chunk.
+   * @param future future
+   * @return chunk
+   * @throws IOException I/O exception
+   */
+  private static CsvChunk get(final Future<CsvChunk> future) throws IOException {
+    try {
+      return future.get();
+    } catch(final InterruptedException ex) {
+      throw new InterruptedIOException(ex.getMessage());
+    } catch(final ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+  }
+
+  /**
+   * Skips a UTF-8 byte order mark and rejects input that may be encoded otherwise.
+   * @param buffer input buffer
+   * @return start position, or {@code -1} if the input may not be UTF-8 encoded
+   */
+  private static int bom(final byte[] buffer) {
+    final int a = buffer[0] & 0xFF, b = buffer[1] & 0xFF, c = buffer[2] & 0xFF;
+    if(a == 0xFF && b == 0xFE || a == 0xFE && b == 0xFF || a == 0 || b == 0) return -1;
+    return a == 0xEF && b == 0xBB && c == 0xBF ? 3 : 0;
+  }
+}
@@ -25,6 +25,10 @@ final class CsvParser {
   private final int separator;
   /** Parse quotes.  */
   private final boolean quotes;
+  /** Chunk converter (only assigned if a chunk is parsed). */
+  private CsvChunk chunk;
+  /** Position after which the parsing of a chunk is stopped ({@code -1}: parse all input). */
+  private int stop = -1;
 
   /** First entry of a line. */
   private boolean first = true;
@@ -36,11 +40,13 @@ final class CsvParser {
    * @param input input
    * @param opts options
    * @param conv converter
+   * @param header header flag
    */
-  private CsvParser(final TextInput input, final CsvParserOptions opts, final CsvConverter conv) {
+  private CsvParser(final TextInput input, final CsvParserOptions opts, final CsvConverter conv,
+      final boolean header) {
     this.input = input;
     this.conv = conv;
-    header = opts.get(CsvOptions.HEADER);
+    this.header = header;
     separator = opts.separator();
     quotes = opts.get(CsvOptions.QUOTES);
     backslashes = opts.get(CsvOptions.BACKSLASHES);
@@ -56,14 +62,36 @@ final class CsvParser {
    */
   static void parse(final TextInput input, final CsvParserOptions opts, final CsvConverter conv)
       throws IOException {
-    new CsvParser(input, opts, conv).parse();
+    new CsvParser(input, opts, conv, opts.get(CsvOptions.HEADER)).parse();
+  }
+
+  /**
+   * Parses a chunk of UTF-8 encoded input, which must start at a record boundary.
+   * Parsing is stopped after the first record that ends with a newline byte at or after the
+   * specified stop position.
+   * @param chunk chunk converter, which references the input buffer and the start position
+   * @param end end position
+   * @param stop stop position ({@code -1}: parse all input)
+   * @param header header flag
+   * @param opts options
+   * @return {@code true} if parsing was stopped before the end of the input was reached
+   * @throws IOException I/O exception
+   */
+  static boolean parse(final CsvChunk chunk, final int end, final int stop, final boolean header,
+      final CsvParserOptions opts) throws IOException {
+    final TextInput input = new NewlineInput(chunk.buffer, chunk.start, end);
+    final CsvParser parser = new CsvParser(input, opts, chunk, header);
+    parser.chunk = chunk;
+    parser.stop = stop;
+    return parser.parse();
   }
 
   /**
    * Parses a CSV expression.
+   * @return {@code true} if parsing of a chunk was stopped before the end of the input
    * @throws IOException query I/O exception
    */
-  private void parse() throws IOException {
+  private boolean parse() throws IOException {
     final TokenBuilder entry = new TokenBuilder();
     boolean quoted = false;
     data = !header;
@@ -101,6 +129,7 @@ final class CsvParser {
         record(entry, !entry.isEmpty());
         first = true;
         data = true;
+        if(chunk != null && boundary()) return true;
       } else {
         if(ch == '\\' && backslashes) ch = bs();
         add(entry, ch);
@@ -108,6 +137,19 @@ final class CsvParser {
       ch = input.read();
     }
     record(entry, !entry.isEmpty());
+    return false;
+  }
+
+  /**
+   * Registers a record boundary of a chunk. Only newline bytes are considered, as a
+   * carriage return may be followed by a newline that has not been consumed yet.
+   * @return {@code true} if parsing is to be stopped
+   */
+  private boolean boundary() {
+    final int pos = input.size();
+    if(chunk.buffer[pos - 1] != '\n') return false;
+    chunk.mark(pos);
+    return stop != -1 && pos >= stop;
   }
 
   /**
@@ -25,12 +25,12 @@ public final class JsonAttsConverter extends JsonXmlConverter {
   }
 
   @Override
-  void openObject() {
+  protected void openObject() {
     addType(OBJECT);
   }
 
   @Override
-  void openPair(final byte[] name, final boolean add) {
+  protected void openPair(final byte[] name, final boolean add) {
     if(add) {
       final FElem elem = new FElem(PAIR).add(NAME, name);
       curr.add(elem);
@@ -40,34 +40,34 @@ public final class JsonAttsConverter extends JsonXmlConverter {
   }
 
   @Override
-  void closePair(final boolean add) {
+  protected void closePair(final boolean add) {
     if(add) curr = (FElem) curr.parent();
   }
 
   @Override
-  void closeObject() {
+  protected void closeObject() {
   }
 
   @Override
-  void openArray() {
+  protected void openArray() {
     addType(ARRAY);
     nm = null;
   }
 
   @Override
-  void openItem() {
+  protected void openItem() {
     final FElem elem = new FElem(ITEM);
     curr.add(elem);
     curr = elem;
   }
 
   @Override
-  void closeItem() {
+  protected void closeItem() {
     curr = (FElem) curr.parent();
   }
 
   @Override
-  void closeArray() {
+  protected void closeArray() {
   }
 
   @Override
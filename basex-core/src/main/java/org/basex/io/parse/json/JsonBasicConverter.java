@@ -39,39 +39,39 @@ public final class JsonBasicConverter extends JsonXmlConverter {
   }
 
   @Override
-  void openObject() {
+  protected void openObject() {
     open(MAP);
   }
 
   @Override
-  void openPair(final byte[] key, final boolean add) {
+  protected void openPair(final byte[] key, final boolean add) {
     name = key;
     addPairs.add(add() && add);
   }
 
   @Override
-  void closePair(final boolean add) {
+  protected void closePair(final boolean add) {
     addPairs.pop();
   }
 
   @Override
-  void closeObject() {
+  protected void closeObject() {
     close();
   }
 
   @Override
-  void openArray() {
+  protected void openArray() {
     open(ARRAY);
   }
 
   @Override
-  void openItem() { }
+  protected void openItem() { }
 
   @Override
-  void closeItem() { }
+  protected void closeItem() { }
 
   @Override
-  void closeArray() {
+  protected void closeArray() {
     close();
   }
 
@@ -1,5 +1,7 @@
 package org.basex.io.parse.json;
 
+import static org.basex.query.QueryError.*;
+
 import java.io.*;
 
 import org.basex.build.json.*;
@@ -20,12 +22,14 @@ public abstract class JsonConverter {
   final JsonParserOptions jopts;
   /** Fallback function. */
   JsonFallback fallback;
+  /** Current input. */
+  protected NewlineInput nli;
 
   /**
    * Constructor.
    * @param jopts json options
    */
-  JsonConverter(final JsonParserOptions jopts) {
+  protected JsonConverter(final JsonParserOptions jopts) {
     this.jopts = jopts;
   }
 
@@ -40,16 +44,18 @@ public abstract class JsonConverter {
   }
 
   /**
-   * Converts the specified input to XML.
+   * Converts the specified input to XML. The input is parsed incrementally.
    * @param input input stream
    * @throws IOException I/O exception
    * @return result
    */
   public final Item convert(final IO input) throws IOException {
-    final String encoding = jopts.get(JsonParserOptions.ENCODING);
-    try(NewlineInput ni = new NewlineInput(input)) {
-      return convert(ni.encoding(encoding).content(), input.path());
+    try(NewlineInput in = new NewlineInput(input)) {
+      nli = in;
+      JsonParser.parse(in.encoding(jopts.get(JsonParserOptions.ENCODING)), input.path(), jopts,
+          this);
     }
+    return finish();
   }
 
   /**
@@ -60,8 +66,14 @@ public abstract class JsonConverter {
    * @return result
    */
   public final Item convert(final byte[] input, final String path) throws QueryIOException {
-    JsonParser.parse(Token.string(input), path, jopts, this);
-    return finish();
+    try {
+      JsonParser.parse(new TextInput(input), path, jopts, this);
+      return finish();
+    } catch(final QueryIOException ex) {
+      throw ex;
+    } catch(final IOException ex) {
+      throw JSON_PARSE_X.getIO(ex);
+    }
   }
 
   /**
@@ -82,82 +94,86 @@ public abstract class JsonConverter {
 
   /**
    * Called when a JSON object is opened.
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void openObject() throws QueryIOException;
+  protected abstract void openObject() throws IOException;
 
   /**
    * Called when a pair of a JSON object is opened.
    * @param key the key of the entry
    * @param add add pair
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void openPair(byte[] key, boolean add) throws QueryIOException;
+  protected abstract void openPair(byte[] key, boolean add) throws IOException;
 
   /**
    * Called when a pair of a JSON object is closed.
    * @param add add pair
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void closePair(boolean add) throws QueryIOException;
+  protected abstract void closePair(boolean add) throws IOException;
 
   /**
    * Called when a JSON object is closed.
+   * @throws IOException I/O exception
    */
-  abstract void closeObject();
+  protected abstract void closeObject() throws IOException;
 
   /**
    * Called when a JSON array is opened.
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void openArray() throws QueryIOException;
+  protected abstract void openArray() throws IOException;
 
   /**
    * Called when an item of a JSON array is opened.
+   * @throws IOException I/O exception
    */
-  abstract void openItem();
+  protected abstract void openItem() throws IOException;
 
   /**
    * Called when an item of a JSON array is closed.
+   * @throws IOException I/O exception
    */
-  abstract void closeItem();
+  protected abstract void closeItem() throws IOException;
 
   /**
    * Called when a JSON array is closed.
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void closeArray() throws QueryIOException;
+  protected abstract void closeArray() throws IOException;
 
   /**
    * Called when a number literal is encountered.
    * @param value string representation of the number literal
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void numberLit(byte[] value) throws QueryIOException;
+  protected abstract void numberLit(byte[] value) throws IOException;
 
   /**
    * Called when a string literal is encountered.
    * @param bs the string
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void stringLit(byte[] bs) throws QueryIOException;
+  protected abstract void stringLit(byte[] bs) throws IOException;
 
   /**
    * Called when a {@code null} literal is encountered.
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void nullLit() throws QueryIOException;
+  protected abstract void nullLit() throws IOException;
 
   /**
    * Called when a boolean literal is encountered.
    * @param b the boolean
-   * @throws QueryIOException query exception
+   * @throws IOException I/O exception
    */
-  abstract void booleanLit(byte[] b) throws QueryIOException;
+  protected abstract void booleanLit(byte[] b) throws IOException;
 
   /**
    * Returns the resulting XQuery value.
    * @return result
+   * @throws IOException I/O exception
    */
-  abstract Item finish();
+  protected abstract Item finish() throws IOException;
 }
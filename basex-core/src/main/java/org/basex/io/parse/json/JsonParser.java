@@ -3,20 +3,25 @@ package org.basex.io.parse.json;
 import static org.basex.query.QueryError.*;
 import static org.basex.util.Token.*;
 
+import java.io.*;
+
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
 import org.basex.build.json.JsonParserOptions.JsonDuplicates;
+import org.basex.core.*;
+import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
 
 /**
  * A JSON parser generating parse events similar to a SAX XML parser.
+ * The input is read incrementally: only the current token is kept in main memory.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Leo Woerteler
  */
-final class JsonParser extends InputParser {
+final class JsonParser {
   /** Names of control characters not allowed in string literals. */
   private static final String[] CTRL = {
     // U+0000 -- U+001F
@@ -26,8 +31,12 @@ final class JsonParser extends InputParser {
     "CAN", "EM",  "SUB", "ESC", "FS",  "GS",  "RS",  "US",
   };
 
+  /** Input. */
+  private final TextInput input;
+  /** Input path (can be {@code null}). */
+  private final String path;
   /** Converter. */
-  private final JsonConverter conv;
+  private JsonConverter conv;
   /** Spec. */
   private final boolean liberal;
   /** Escape flag. */
@@ -36,61 +45,99 @@ final class JsonParser extends InputParser {
   private final JsonDuplicates duplicates;
   /** Token builder for string literals. */
   private final TokenBuilder tb = new TokenBuilder();
+  /** Original representation of the current character of a string literal. */
+  private final StringBuilder raw = new StringBuilder();
+
+  /** Current codepoint ({@code -1}: end of input). */
+  private int curr;
+  /** Current line. */
+  private int line = 1;
+  /** Current column. */
+  private int col;
 
   /**
-   * Constructor taking the input string and the spec according to which it is parsed.
-   * @param in input string
+   * Constructor.
+   * @param input input
+   * @param path input path (can be {@code null)}
    * @param opts options
-   * @param conv converter
+   * @throws IOException I/O exception
    */
-  private JsonParser(final String in, final JsonParserOptions opts, final JsonConverter conv) {
-    super(in);
+  JsonParser(final TextInput input, final String path, final JsonParserOptions opts)
+      throws IOException {
+    this.input = input;
+    this.path = path;
     liberal = opts.get(JsonParserOptions.LIBERAL);
     escape = opts.get(JsonParserOptions.ESCAPE);
     final JsonDuplicates dupl = opts.get(JsonParserOptions.DUPLICATES);
     duplicates = dupl != null ? dupl : opts.get(JsonOptions.FORMAT) == JsonFormat.BASIC ?
       JsonDuplicates.RETAIN : JsonDuplicates.USE_FIRST;
-    this.conv = conv;
+    consume();
+    consume('\uFEFF');
+    skipWs();
   }
 
   /**
-   * Parses the input string, directs the parse events to the given handler and returns
-   * the resulting value.
-   * @param input input string
+   * Parses the input, directs the parse events to the given converter.
+   * @param input input
    * @param path input path (can be {@code null)}
    * @param opts options
    * @param conv converter
-   * @throws QueryIOException parse exception
+   * @throws IOException I/O exception
    */
-  static void parse(final String input, final String path, final JsonParserOptions opts,
-      final JsonConverter conv) throws QueryIOException {
-    final JsonParser parser = new JsonParser(input, opts, conv);
-    parser.file = path;
-    parser.parse();
+  static void parse(final TextInput input, final String path, final JsonParserOptions opts,
+      final JsonConverter conv) throws IOException {
+    final JsonParser parser = new JsonParser(input, path, opts);
+    parser.value(conv);
+    parser.end();
   }
 
   /**
-   * Parses a JSON expression.
-   * @throws QueryIOException query I/O exception
+   * Checks if the input has been completely parsed.
+   * @throws IOException I/O exception
    */
-  private void parse() throws QueryIOException {
-    consume('\uFEFF');
-    skipWs();
+  void end() throws IOException {
+    if(more()) throw error("Unexpected trailing content: %", remaining());
+  }
+
+  /**
+   * Checks if more characters are found.
+   * @return result of check
+   */
+  boolean more() {
+    return curr != -1;
+  }
+
+  /**
+   * Checks if the current character equals the specified one.
+   * @param ch character
+   * @return result of check
+   */
+  boolean curr(final int ch) {
+    return curr == ch;
+  }
+
+  /**
+   * Parses a JSON value, directs the parse events to the given converter.
+   * @param converter converter
+   * @throws IOException I/O exception
+   */
+  void value(final JsonConverter converter) throws IOException {
+    conv = converter;
     try {
-      value();
+      parseValue();
     } catch(final StackOverflowError er) {
       throw error("Input is too deeply nested");
     }
-    if(more()) throw error("Unexpected trailing content: %", remaining());
   }
 
   /**
    * Parses a JSON value.
-   * @throws QueryIOException query I/O exception
+   * @throws IOException I/O exception
    */
-  private void value() throws QueryIOException {
-    if(pos >= length) throw eof(", expected JSON value.");
-    switch(curr()) {
+  private void parseValue() throws IOException {
+    switch(curr) {
+      case -1:
+        throw eof(", expected JSON value.");
       case '[':
         array();
         break;
@@ -127,15 +174,15 @@ final class JsonParser extends InputParser {
 
   /**
    * Parses a JSON object.
-   * @throws QueryIOException query I/O exception
+   * @throws IOException I/O exception
    */
-  private void object() throws QueryIOException {
+  private void object() throws IOException {
     consumeWs('{', true);
     conv.openObject();
     if(!consumeWs('}', false)) {
       final TokenSet set = new TokenSet();
       do {
-        final byte[] key = !liberal || curr() == '"' ? string() : unquoted();
+        final byte[] key = !liberal || curr == '"' ? string() : unquoted();
         final boolean dupl = set.contains(key);
         if(dupl && duplicates == JsonDuplicates.REJECT)
           throw error(JSON_DUPL_X_X_X, "Key \"%\" occurs more than once", key);
@@ -143,10 +190,10 @@ final class JsonParser extends InputParser {
         final boolean add = !(dupl && duplicates == JsonDuplicates.USE_FIRST);
         conv.openPair(key, add);
         consumeWs(':', true);
-        value();
+        parseValue();
         conv.closePair(add);
         set.put(key);
-      } while(consumeWs(',', false) && !(liberal && curr() == '}'));
+      } while(consumeWs(',', false) && !(liberal && curr == '}'));
       consumeWs('}', true);
     }
     conv.closeObject();
@@ -154,17 +201,17 @@ final class JsonParser extends InputParser {
 
   /**
    * Parses a JSON array.
-   * @throws QueryIOException query I/O exception
+   * @throws IOException I/O exception
    */
-  private void array() throws QueryIOException {
+  private void array() throws IOException {
     consumeWs('[', true);
     conv.openArray();
     if(!consumeWs(']', false)) {
       do {
         conv.openItem();
-        value();
+        parseValue();
         conv.closeItem();
-      } while(consumeWs(',', false) && !(liberal && curr() == ']'));
+      } while(consumeWs(',', false) && !(liberal && curr == ']'));
       consumeWs(']', true);
     }
     conv.closeArray();
@@ -173,17 +220,15 @@ final class JsonParser extends InputParser {
   /**
    * Reads an unquoted string literal.
    * @return the string
-   * @throws QueryIOException query I/O exception
+   * @throws IOException I/O exception
    */
-  private byte[] unquoted() throws QueryIOException {
-    int cp = more() ? input.codePointAt(pos) : -1;
-    if(cp < 0 || !Character.isJavaIdentifierStart(cp))
+  private byte[] unquoted() throws IOException {
+    if(curr == -1 || !Character.isJavaIdentifierStart(curr))
       throw error("Expected unquoted string, found %", remaining());
     tb.reset();
     do {
-      tb.add(cp);
-      cp = input.codePointAt(pos += cp < 0x10000 ? 1 : 2);
-    } while(Character.isJavaIdentifierPart(cp));
+      tb.add(consume());
+    } while(curr != -1 && Character.isJavaIdentifierPart(curr));
     skipWs();
     return tb.toArray();
   }
@@ -191,9 +236,9 @@ final class JsonParser extends InputParser {
   /**
    * Parses a number literal.
    * @return string representation
-   * @throws QueryIOException query I/O exception
+   * @throws IOException I/O exception
    */
-  private byte[] number() throws QueryIOException {
+  private byte[] number() throws IOException {
     tb.reset();
 
     // integral part
@@ -206,83 +251,55 @@ final class JsonParser extends InputParser {
     }
 
     final boolean zero = ch == '0';
-    ch = curr();
-    if(zero && ch >= '0' && ch <= '9') throw error("No digit allowed after '0'");
+    if(zero && digit()) throw error("No digit allowed after '0'");
+    while(digit()) tb.add(consume());
 
-    LOOP:
-    while(true) {
-      switch(ch) {
-        case '0':
-        case '1':
-        case '2':
-        case '3':
-        case '4':
-        case '5':
-        case '6':
-        case '7':
-        case '8':
-        case '9':
-          tb.add(ch);
-          pos++;
-          ch = curr();
-          break;
-        case '.':
-        case 'e':
-        case 'E':
-          break LOOP;
-        default:
-          skipWs();
-          return tb.toArray();
-      }
-    }
-
-    if(consume('.')) {
-      tb.add('.');
-      ch = curr();
-      if(ch < '0' || ch > '9') throw error("Number expected after '.'");
-      do {
-        tb.add(ch);
-        pos++;
-        ch = curr();
-      } while(ch >= '0' && ch <= '9');
-      if(ch != 'e' && ch != 'E') {
-        skipWs();
-        return tb.toArray();
-      }
+    if(curr == '.') {
+      tb.add(consume());
+      if(!digit()) throw error("Number expected after '.'");
+      do tb.add(consume());
+      while(digit());
     }
 
-    // 'e' or 'E'
-    tb.add(consume());
-    ch = curr();
-    if(ch == '-' || ch == '+') {
+    if(curr == 'e' || curr == 'E') {
       tb.add(consume());
-      ch = curr();
+      if(curr == '-' || curr == '+') tb.add(consume());
+      if(!digit()) throw error("Exponent expected");
+      do tb.add(consume());
+      while(digit());
     }
-
-    if(ch < '0' || ch > '9') throw error("Exponent expected");
-    do tb.add(consume());
-    while((ch = curr()) >= '0' && ch <= '9');
     skipWs();
     return tb.toArray();
   }
 
+  /**
+   * Checks if the current character is a digit.
+   * @return result of check
+   */
+  private boolean digit() {
+    return curr >= '0' && curr <= '9';
+  }
+
   /**
    * Parses a string literal.
    * @return the string
-   * @throws QueryIOException query I/O exception
+   * @throws IOException I/O exception
    */
-  private byte[] string() throws QueryIOException {
-    if(!consume('"')) throw error("Expected string, found '%'", curr());
+  private byte[] string() throws IOException {
+    if(!consume('"')) throw error("Expected string, found '%'", found());
     tb.reset();
-    char high = 0; // cached high surrogate
-    while(pos < length) {
-      final int p = pos;
+    // cached high surrogate, and its original representation
+    char high = 0;
+    String highRaw = null;
+    while(curr != -1) {
+      raw.setLength(0);
       int ch = consume();
+      raw.appendCodePoint(ch);
 
       // string is closed..
       if(ch == '"') {
         // unpaired surrogate?
-        if(high != 0) add(high, pos - 7, p);
+        if(high != 0) add(high, highRaw);
         skipWs();
         return tb.toArray();
       }
@@ -290,6 +307,7 @@ final class JsonParser extends InputParser {
       // escape sequence
       if(ch == '\\') {
         ch = consume();
+        raw.appendCodePoint(ch);
         switch(ch) {
           case '\\':
           case '/':
@@ -311,19 +329,21 @@ final class JsonParser extends InputParser {
             ch = '\t';
             break;
           case 'u':
-            if(pos + 4 >= length) throw eof(", expected four-digit hex value");
             ch = 0;
             for(int i = 0; i < 4; i++) {
-              final char x = consume();
+              if(curr == -1) throw eof(", expected four-digit hex value");
+              final int x = consume();
+              raw.appendCodePoint(x);
               if(x >= '0' && x <= '9')      ch = 16 * ch + x      - '0';
               else if(x >= 'a' && x <= 'f') ch = 16 * ch + x + 10 - 'a';
               else if(x >= 'A' && x <= 'F') ch = 16 * ch + x + 10 - 'A';
-              else throw error("Illegal hexadecimal digit: '%'", x);
+              else throw error("Illegal hexadecimal digit: '%'", (char) x);
             }
             break;
-
+          case -1:
+            throw eof(" in string literal");
           default:
-            throw error("Unknown character escape: '\\%'", ch);
+            throw error("Unknown character escape: '\\%'", new TokenBuilder().add(ch));
         }
       } else if(!liberal && ch <= 0x1F) {
         throw error("Non-escaped control character: '\\%'", CTRL[ch]);
@@ -333,9 +353,10 @@ final class JsonParser extends InputParser {
         if(ch >= 0xDC00 && ch <= 0xDFFF) {
           // compute resulting codepoint
           ch = (high - 0xD800 << 10) + ch - 0xDC00 + 0x10000;
+          raw.insert(0, highRaw);
         } else {
           // add invalid high surrogate, treat expected low surrogate as new character
-          add(high, p, pos);
+          add(high, highRaw);
         }
         high = 0;
       }
@@ -343,8 +364,9 @@ final class JsonParser extends InputParser {
       if(ch >= 0xD800 && ch <= 0xDBFF) {
         // remember high surrogate
         high = (char) ch;
+        highRaw = raw.toString();
       } else {
-        add(ch, p, pos);
+        add(ch, raw.toString());
       }
     }
     throw eof(" in string literal");
@@ -353,10 +375,9 @@ final class JsonParser extends InputParser {
   /**
    * Adds the specified character.
    * @param ch character
-   * @param s start position of invalid unicode sequence
-   * @param e end position
+   * @param original original representation of the character
    */
-  private void add(final int ch, final int s, final int e) {
+  private void add(final int ch, final String original) {
     if(escape) {
       if(ch == '\\') {
         tb.add("\\\\");
@@ -381,20 +402,23 @@ final class JsonParser extends InputParser {
     } else if(conv.fallback == null) {
       tb.add(REPLACEMENT);
     } else {
-      tb.add(conv.fallback.convert(input.substring(s, e)));
+      tb.add(conv.fallback.convert(original));
     }
   }
 
-  /** Consumes all whitespace characters from the remaining query. */
-  private void skipWs() {
-    while(pos < length) {
-      switch(input.charAt(pos)) {
+  /**
+   * Consumes all whitespace characters from the remaining input.
+   * @throws IOException I/O exception
+   */
+  private void skipWs() throws IOException {
+    while(true) {
+      switch(curr) {
         case ' ':
         case '\t':
         case '\r':
         case '\n':
         case '\u00A0': // non-breaking space
-          pos++;
+          consume();
           break;
         default:
           return;
@@ -402,23 +426,94 @@ final class JsonParser extends InputParser {
     }
   }
 
+  /**
+   * Consumes the current character and reads the next one.
+   * @return consumed character, or {@code -1} if the input is exhausted
+   * @throws IOException I/O exception
+   */
+  private int consume() throws IOException {
+    final int ch = curr;
+    if(ch == '\n') {
+      line++;
+      col = 1;
+    } else {
+      col++;
+    }
+    curr = input.read();
+    return ch;
+  }
+
+  /**
+   * Consumes the current character if it equals the specified one.
+   * @param ch character to consume
+   * @return if the character was consumed
+   * @throws IOException I/O exception
+   */
+  private boolean consume(final int ch) throws IOException {
+    if(curr != ch) return false;
+    consume();
+    return true;
+  }
+
+  /**
+   * Consumes the specified string if the current character equals its first character.
+   * @param string string to consume
+   * @return {@code false} if the first character is different
+   * @throws IOException I/O exception
+   */
+  private boolean consume(final String string) throws IOException {
+    if(curr != string.charAt(0)) return false;
+    final int sl = string.length();
+    for(int s = 0; s < sl; s++) {
+      if(curr != string.charAt(s))
+        throw error("Unexpected JSON value: '%'", string.substring(0, s) + remaining());
+      consume();
+    }
+    return true;
+  }
+
   /**
    * Tries to consume the given character. If successful, following whitespace is skipped.
    * Otherwise if the error flag is set a parse error is thrown.
    * @param ch character to be consumed
    * @param err error flag
    * @return if the character was consumed
-   * @throws QueryIOException parse error
+   * @throws IOException I/O exception
    */
-  private boolean consumeWs(final char ch, final boolean err) throws QueryIOException {
+  boolean consumeWs(final char ch, final boolean err) throws IOException {
     if(consume(ch)) {
       skipWs();
       return true;
     }
-    if(err) throw error("Expected '%', found '%'", ch, curr());
+    if(err) throw error("Expected '%', found '%'", ch, found());
     return false;
   }
 
+  /**
+   * Returns the current character as string.
+   * @return string
+   */
+  private String found() {
+    return curr == -1 ? "" : new TokenBuilder().add(curr).toString();
+  }
+
+  /**
+   * Returns a maximum of 15 remaining characters. As the characters will be consumed,
+   * this function must only be called if an error is raised.
+   * @return remaining characters
+   * @throws IOException I/O exception
+   */
+  private String remaining() throws IOException {
+    // preserve the position of the error
+    final int l = line, c = col;
+    final TokenBuilder sb = new TokenBuilder();
+    for(int i = 0; i < 15 && curr != -1 && curr != '\n'; i++) sb.add(consume());
+    if(curr != -1) sb.add(Text.DOTS);
+    line = l;
+    col = c;
+    return sb.toString();
+  }
+
   /**
    * Throws an end-of-input error.
    * @param desc description
@@ -447,7 +542,7 @@ final class JsonParser extends InputParser {
    * @return build exception
    */
   private QueryIOException error(final QueryError err, final String msg, final Object... ext) {
-    final InputInfo ii = new InputInfo(this);
+    final InputInfo ii = new InputInfo(path, line, Math.max(1, col));
     return new QueryIOException(err.get(ii, ii.line(), ii.column(), Util.inf(msg, ext)));
   }
 }
@@ -0,0 +1,84 @@
+package org.basex.io.parse.json;
+
+import java.io.*;
+
+import org.basex.build.json.*;
+import org.basex.build.json.JsonParserOptions.JsonStreamMode;
+import org.basex.io.in.*;
+import org.basex.query.value.item.*;
+
+/**
+ * This class parses a stream of JSON values and converts them one by one.
+ * By default, the input is parsed as a sequence of values that are separated by whitespaces
+ * (e.g., JSON Lines). In the array mode, the input must be a single array, and its members
+ * will be returned.
+ * The input is read incrementally: only the current value is kept in main memory.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class JsonStreamParser implements Closeable {
+  /** Input. */
+  private final TextInput input;
+  /** Options. */
+  private final JsonParserOptions jopts;
+  /** Parser (assigned when the first value is requested). */
+  private JsonParser parser;
+  /** Members of a top-level array are parsed. */
+  private boolean array;
+  /** Indicates if all values have been parsed. */
+  private boolean finished;
+
+  /**
+   * Constructor.
+   * @param input input
+   * @param jopts options
+   */
+  public JsonStreamParser(final TextInput input, final JsonParserOptions jopts) {
+    this.input = input;
+    this.jopts = jopts;
+  }
+
+  /**
+   * Returns the next converted value.
+   * @return value, or {@code null} if the input is exhausted
+   * @throws IOException I/O exception
+   */
+  public Item next() throws IOException {
+    if(finished) return null;
+    if(parser == null) {
+      parser = new JsonParser(input, null, jopts);
+      array = jopts.get(JsonParserOptions.MODE) == JsonStreamMode.ARRAY;
+      if(array && parser.consumeWs('[', true) && parser.consumeWs(']', false)) return finish();
+    }
+    if(!parser.more()) return finish();
+
+    final JsonConverter conv = JsonConverter.get(jopts);
+    parser.value(conv);
+    final Item item = conv.finish();
+    if(array && !(parser.consumeWs(',', false) &&
+        !(jopts.get(JsonParserOptions.LIBERAL) && parser.curr(']')))) {
+      parser.consumeWs(']', true);
+      finish();
+    }
+    return item;
+  }
+
+  /**
+   * Finishes parsing.
+   * @return {@code null}
+   * @throws IOException I/O exception
+   */
+  private Item finish() throws IOException {
+    finished = true;
+    parser.end();
+    close();
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    finished = true;
+    input.close();
+  }
+}
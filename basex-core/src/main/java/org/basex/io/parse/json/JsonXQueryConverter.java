@@ -7,10 +7,10 @@ import java.util.*;
 import org.basex.build.json.*;
 import org.basex.build.json.JsonParserOptions.JsonDuplicates;
 import org.basex.query.*;
-import org.basex.query.util.list.*;
 import org.basex.query.value.*;
+import org.basex.query.value.array.*;
 import org.basex.query.value.item.*;
-import org.basex.query.value.map.XQMap;
+import org.basex.query.value.map.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
 
@@ -35,11 +35,11 @@ import org.basex.util.*;
  */
 public final class JsonXQueryConverter extends JsonConverter {
   /** Stack for intermediate values. */
-  private final Stack<Value> stack = new Stack<>();
-  /** Stack for intermediate array values. */
-  private final Stack<ValueList> arrays = new Stack<>();
-  /** Stack for intermediate maps values. */
-  private final Stack<XQMap> maps = new Stack<>();
+  private final ArrayDeque<Value> stack = new ArrayDeque<>();
+  /** Stack for intermediate arrays. */
+  private final ArrayDeque<ArrayBuilder> arrays = new ArrayDeque<>();
+  /** Stack for intermediate maps. */
+  private final ArrayDeque<MapBuilder> maps = new ArrayDeque<>();
 
   /**
    * Constructor.
@@ -60,22 +60,22 @@ public final class JsonXQueryConverter extends JsonConverter {
   }
 
   @Override
-  void openObject() {
-    maps.push(XQMap.EMPTY);
+  protected void openObject() {
+    maps.push(new MapBuilder());
   }
 
   @Override
-  void openPair(final byte[] key, final boolean add) {
+  protected void openPair(final byte[] key, final boolean add) {
     stack.push(Str.get(key));
   }
 
   @Override
-  void closePair(final boolean add) throws QueryIOException {
+  protected void closePair(final boolean add) throws QueryIOException {
     final Value value = stack.pop();
     final Item key = (Item) stack.pop();
     if(add) {
       try {
-        maps.push(maps.pop().put(key, value, null));
+        maps.peek().put(key, value);
       } catch(final QueryException ex) {
         throw new QueryIOException(ex);
       }
@@ -83,27 +83,27 @@ public final class JsonXQueryConverter extends JsonConverter {
   }
 
   @Override
-  void closeObject() {
-    stack.push(maps.pop());
+  protected void closeObject() {
+    stack.push(maps.pop().finish());
   }
 
   @Override
-  void openArray() {
-    arrays.push(new ValueList());
+  protected void openArray() {
+    arrays.push(new ArrayBuilder());
   }
 
   @Override
-  void openItem() {
+  protected void openItem() {
   }
 
   @Override
-  void closeItem() {
-    arrays.peek().add(stack.pop());
+  protected void closeItem() {
+    arrays.peek().append(stack.pop());
   }
 
   @Override
-  void closeArray() {
-    stack.push(arrays.pop().array());
+  protected void closeArray() {
+    stack.push(arrays.pop().freeze());
   }
 
   @Override
@@ -16,6 +16,10 @@ public final class DataAccess implements Closeable {
   private final Buffers bm = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** File name. */
+  private final String name;
+  /** Journal (can be {@code null}). */
+  private Journal journal;
   /** File length. */
   private long length;
   /** Changed flag. */
@@ -34,6 +38,7 @@ public final class DataAccess implements Closeable {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
       raf = f;
+      name = file.name();
       cursor(0);
     } catch(final IOException ex) {
       if(f != null) f.close();
@@ -50,7 +55,8 @@ public final class DataAccess implements Closeable {
         if(b.dirty) writeBlock(b);
       }
       if(changed) {
-        raf.setLength(length);
+        if(journal != null) journal.length(name, length);
+        else raf.setLength(length);
         changed = false;
       }
     } catch(final IOException ex) {
@@ -58,6 +64,16 @@ public final class DataAccess implements Closeable {
     }
   }
 
+  /**
+   * Assigns a journal. If a journal is assigned, modified blocks will be written to the
+   * journal instead of the original file.
+   * @param jrnl journal (can be {@code null})
+   */
+  public synchronized void journal(final Journal jrnl) {
+    journal = jrnl;
+    if(jrnl != null) jrnl.register(name, raf);
+  }
+
   @Override
   public synchronized void close() {
     flush();
@@ -166,6 +182,23 @@ public final class DataAccess implements Closeable {
     return readToken();
   }
 
+  /**
+   * Reads a token from disk and adds it to the specified token builder.
+   * In contrast to {@link #readToken(long)}, the bytes are directly copied from the buffers.
+   * @param p text position
+   * @param tb token builder
+   */
+  public synchronized void readToken(final long p, final TokenBuilder tb) {
+    cursor(p);
+    for(int l = readNum(); l > 0;) {
+      final Buffer bf = buffer();
+      final int n = Math.min(l, IO.BLOCKSIZE - off);
+      tb.add(bf.data, off, off + n);
+      off += n;
+      l -= n;
+    }
+  }
+
   /**
    * Reads the next token from disk.
    * @return text as byte array
@@ -221,6 +254,7 @@ public final class DataAccess implements Closeable {
     try {
       if(bf.dirty) writeBlock(bf);
       bf.pos = b;
+      if(journal != null && journal.read(name, b, bf.data)) return;
       raf.seek(bf.pos);
       if(bf.pos < raf.length())
         raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
@@ -333,48 +367,33 @@ public final class DataAccess implements Closeable {
   }
 
   /**
-   * Returns the offset to a free slot for writing an entry with the specified length.
-   * Fills the original space with 0xFF to facilitate future write operations.
-   * @param pos original offset
-   * @param size size of new text entry
-   * @return new offset to store text
+   * Releases the space of the token at the specified offset.
+   * If the token is placed last, the file will be truncated. Otherwise, its space will be
+   * registered as free slot.
+   * @param pos offset of the token
+   * @param slots free slots
    */
-  public long free(final long pos, final int size) {
-    // old text size (available space)
-    int os = readNum(pos) + (int) (cursor() - pos);
-
-    // extend available space by subsequent zero-bytes
-    cursor(pos + os);
-    for(; pos + os < length && os < size && read() == 0xFF; os++);
+  public synchronized void free(final long pos, final FreeSlots slots) {
+    final int size = readNum(pos) + (int) (cursor() - pos);
+    if(pos + size == length) length(pos);
+    else slots.add(size, pos);
+  }
 
-    long o = pos;
-    if(pos + os == length) {
-      // entry is placed last: reset file length (discard last entry)
-      length(pos);
-    } else {
-      int t = size;
-      if(os < size) {
-        // gap is too small for new entry...
-        // reset cursor to overwrite entry
-        cursor(pos);
-        t = 0;
-        // place new entry after last entry
-        o = length;
-      } else {
-        // gap is large enough: set cursor to overwrite remaining bytes
-        cursor(pos + size);
-      }
-      // fill gap with 0xFF for future updates
-      while(t++ < os) write(0xFF);
-    }
-    return o;
+  /**
+   * Returns the offset for writing a token with the specified length.
+   * @param size size of the token (including its length)
+   * @param slots free slots
+   * @return offset of a free slot, or file length
+   */
+  public synchronized long offset(final int size, final FreeSlots slots) {
+    return slots.get(size, length);
   }
 
   /**
    * Sets the file length.
    * @param len file length
    */
-  private synchronized void length(final long len) {
+  public synchronized void length(final long len) {
     if(len != length) {
       changed = true;
       length = len;
@@ -422,8 +441,12 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
+    if(journal != null) {
+      if(len > 0) journal.page(name, pos, buffer.data, (int) len);
+    } else {
+      raf.seek(pos);
+      raf.write(buffer.data, 0, (int) len);
+    }
     buffer.dirty = false;
   }
 
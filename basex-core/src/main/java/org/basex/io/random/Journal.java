@@ -0,0 +1,414 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+import java.util.Map.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * Write-ahead log (journal) for database updates.
+ *
+ * While a transaction is running, modified pages of the registered files are appended to
+ * the journal instead of being written to their original position. Files that are
+ * completely rewritten (such as meta data) are appended as a whole. If a transaction is
+ * committed, a commit record is appended, the journal is synchronized with disk, and all
+ * changes are applied to the original files, which are not synchronized. The journal is
+ * truncated if it exceeds a certain size ({@link #checkpoint()}).
+ *
+ * If a database is opened and a journal exists, all committed transactions are redone
+ * ({@link #recover(IOFile)}). As each transaction starts with a begin record, an incomplete
+ * transaction can be detected even if no pages have been journaled yet.
+ *
+ * Each record is stored as {@code {type}{name}{content}{checksum}}:
+ * <ul>
+ * <li>{@link #PAGE}: {@code {position (5 bytes)}{length (num)}{bytes}}</li>
+ * <li>{@link #FILE}: {@code {length (num)}{bytes}}</li>
+ * <li>{@link #LENGTH}: {@code {file length (5 bytes)}}</li>
+ * <li>{@link #COMMIT}: no name, no content</li>
+ * <li>{@link #BEGIN}: no name, no content</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Journal implements Closeable {
+  /** Record type: page. */
+  private static final int PAGE = 1;
+  /** Record type: file. */
+  private static final int FILE = 2;
+  /** Record type: file length. */
+  private static final int LENGTH = 3;
+  /** Record type: commit. */
+  private static final int COMMIT = 4;
+  /** Record type: begin of transaction. */
+  private static final int BEGIN = 5;
+  /** Size of the journal that will trigger a checkpoint. */
+  private static final long CHECKPOINT = 1 << 24;
+
+  /** Journal file. */
+  private final IOFile file;
+  /** Journal access. */
+  private final RandomAccessFile raf;
+  /** Registered files (original files that will be updated after a commit). */
+  private final HashMap<String, RandomAccessFile> targets = new HashMap<>();
+  /** Journaled pages of the current transaction: file names, positions, offsets and lengths. */
+  private final HashMap<String, HashMap<Long, long[]>> pages = new HashMap<>();
+  /** Journaled file lengths of the current transaction. */
+  private final HashMap<String, Long> lengths = new HashMap<>();
+  /** Journaled files of the current transaction. */
+  private final HashMap<String, byte[]> files = new HashMap<>();
+  /** Names of all files that have been updated since the last checkpoint. */
+  private final HashSet<String> updated = new HashSet<>();
+  /** Size of the journal. */
+  private long size;
+
+  /**
+   * Constructor.
+   * @param file journal file
+   * @throws IOException I/O exception
+   */
+  public Journal(final IOFile file) throws IOException {
+    this.file = file;
+    raf = new RandomAccessFile(file.file(), "rw");
+    size = raf.length();
+  }
+
+  /**
+   * Starts a new transaction.
+   * @throws IOException I/O exception
+   */
+  public synchronized void begin() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    ao.write(BEGIN);
+    append(ao, Token.EMPTY, 0);
+  }
+
+  /**
+   * Registers a file whose pages will be journaled.
+   * @param name name of file
+   * @param target file access
+   */
+  synchronized void register(final String name, final RandomAccessFile target) {
+    targets.put(name, target);
+  }
+
+  /**
+   * Journals a page.
+   * @param name name of file
+   * @param pos position of the page in the file
+   * @param data page data
+   * @param len number of bytes to be written
+   * @throws IOException I/O exception
+   */
+  synchronized void page(final String name, final long pos, final byte[] data, final int len)
+      throws IOException {
+
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      out.write(PAGE);
+      out.writeToken(Token.token(name));
+      out.write5(pos);
+      out.writeNum(len);
+    }
+    final long offset = size + ao.size();
+    append(ao, data, len);
+    pages.computeIfAbsent(name, k -> new HashMap<>()).put(pos, new long[] { offset, len });
+  }
+
+  /**
+   * Reads a page that has been journaled in the current transaction.
+   * @param name name of file
+   * @param pos position of the page in the file
+   * @param data page data
+   * @return {@code true} if the page was found
+   * @throws IOException I/O exception
+   */
+  synchronized boolean read(final String name, final long pos, final byte[] data)
+      throws IOException {
+
+    final HashMap<Long, long[]> map = pages.get(name);
+    final long[] entry = map != null ? map.get(pos) : null;
+    if(entry == null) return false;
+    raf.seek(entry[0]);
+    raf.readFully(data, 0, (int) entry[1]);
+    return true;
+  }
+
+  /**
+   * Journals a new file length.
+   * @param name name of file
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final String name, final long length) throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      out.write(LENGTH);
+      out.writeToken(Token.token(name));
+      out.write5(length);
+    }
+    append(ao, Token.EMPTY, 0);
+    lengths.put(name, length);
+  }
+
+  /**
+   * Returns an output stream for a file that will be journaled as a whole when the stream
+   * is closed.
+   * @param target file
+   * @return output stream
+   */
+  public OutputStream output(final IOFile target) {
+    final ArrayOutput content = new ArrayOutput();
+    return new OutputStream() {
+      @Override
+      public void write(final int b) {
+        content.write(b);
+      }
+
+      @Override
+      public void close() throws IOException {
+        file(target.name(), content.finish());
+      }
+    };
+  }
+
+  /**
+   * Commits the current transaction: appends a commit record, synchronizes the journal with
+   * disk and applies all changes to the original files.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    ao.write(COMMIT);
+    append(ao, Token.EMPTY, 0);
+    raf.getFD().sync();
+
+    // apply changes
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    for(final Entry<String, HashMap<Long, long[]>> entry : pages.entrySet()) {
+      final RandomAccessFile target = targets.get(entry.getKey());
+      for(final Entry<Long, long[]> page : entry.getValue().entrySet()) {
+        final long[] value = page.getValue();
+        final int len = (int) value[1];
+        raf.seek(value[0]);
+        raf.readFully(data, 0, len);
+        target.seek(page.getKey());
+        target.write(data, 0, len);
+      }
+      updated.add(entry.getKey());
+    }
+    for(final Entry<String, Long> entry : lengths.entrySet()) {
+      targets.get(entry.getKey()).setLength(entry.getValue());
+      updated.add(entry.getKey());
+    }
+    for(final Entry<String, byte[]> entry : files.entrySet()) {
+      new IOFile(file.dir(), entry.getKey()).write(entry.getValue());
+      updated.add(entry.getKey());
+    }
+    pages.clear();
+    lengths.clear();
+    files.clear();
+
+    if(size > CHECKPOINT) checkpoint();
+  }
+
+  /**
+   * Synchronizes all updated files with disk and truncates the journal.
+   * @throws IOException I/O exception
+   */
+  public synchronized void checkpoint() throws IOException {
+    sync(file.dir(), updated);
+    updated.clear();
+    raf.setLength(0);
+    size = 0;
+  }
+
+  /**
+   * Creates a checkpoint, closes and deletes the journal.
+   * Must only be called if no transaction is running.
+   * @throws IOException I/O exception
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    checkpoint();
+    raf.close();
+    file.delete();
+  }
+
+  /**
+   * Redoes all committed transactions of the specified journal and deletes the journal.
+   * Must be called before the database files are opened, and only if the journal is not
+   * used by another process.
+   * @param file journal file
+   * @return {@code true} if an incomplete transaction was found and discarded
+   * @throws IOException I/O exception
+   */
+  public static boolean recover(final IOFile file) throws IOException {
+    if(!file.exists()) return false;
+
+    final String dir = file.dir();
+    final HashMap<String, RandomAccessFile> rafs = new HashMap<>();
+    // names of all files that have been redone
+    final HashSet<String> redone = new HashSet<>();
+    // end of the last committed transaction, length of the journal
+    long committed = 0, length = 0;
+    try(DataAccess in = new DataAccess(file)) {
+      final ArrayList<long[]> records = new ArrayList<>();
+      final ArrayList<String> names = new ArrayList<>();
+      length = in.length();
+      while(in.cursor() < length) {
+        // parse record, stop at incomplete or invalid records
+        final long start = in.cursor();
+        final int type = in.read1();
+        if(type < PAGE || type > BEGIN) break;
+
+        if(type == BEGIN) {
+          if(!valid(in, start, length)) break;
+          in.cursor(in.cursor() + 4);
+          continue;
+        }
+        if(type == COMMIT) {
+          if(!valid(in, start, length)) break;
+          final long next = in.cursor() + 4;
+          // redo transaction
+          for(int r = 0; r < records.size(); r++) {
+            final long[] record = records.get(r);
+            final String name = names.get(r);
+            final IOFile target = new IOFile(dir, name);
+            redone.add(name);
+            if(record[0] == FILE) {
+              target.write(in.readBytes(record[1], (int) record[2]));
+            } else {
+              RandomAccessFile raf = rafs.get(name);
+              if(raf == null) {
+                raf = new RandomAccessFile(target.file(), "rw");
+                rafs.put(name, raf);
+              }
+              if(record[0] == PAGE) {
+                raf.seek(record[3]);
+                raf.write(in.readBytes(record[1], (int) record[2]));
+              } else {
+                raf.setLength(record[1]);
+              }
+            }
+          }
+          records.clear();
+          names.clear();
+          in.cursor(next);
+          committed = next;
+          continue;
+        }
+
+        final int nl = in.readNum();
+        if(nl < 0 || in.cursor() + nl > length) break;
+        final String name = Token.string(in.readBytes(nl));
+        final long[] record;
+        if(type == LENGTH) {
+          record = new long[] { type, in.read5() };
+        } else {
+          final long pos = type == PAGE ? in.read5() : 0;
+          final int len = in.readNum();
+          if(len < 0 || in.cursor() + len > length) break;
+          record = new long[] { type, in.cursor(), len, pos };
+          in.cursor(in.cursor() + len);
+        }
+        if(!valid(in, start, length)) break;
+        in.cursor(in.cursor() + 4);
+        records.add(record);
+        names.add(name);
+      }
+    } finally {
+      for(final RandomAccessFile raf : rafs.values()) raf.close();
+    }
+    sync(dir, redone);
+    file.delete();
+    return committed < length;
+  }
+
+  /**
+   * Appends a record and its checksum.
+   * @param header record header
+   * @param data record data
+   * @param len length of record data
+   * @throws IOException I/O exception
+   */
+  private void append(final ArrayOutput header, final byte[] data, final int len)
+      throws IOException {
+
+    final int hl = (int) header.size(), rl = hl + len;
+    final byte[] record = new byte[rl + 4];
+    Array.copyToStart(header.buffer(), 0, hl, record);
+    Array.copy(data, 0, len, record, hl);
+    final CRC32 crc = new CRC32();
+    crc.update(record, 0, rl);
+    final int c = (int) crc.getValue();
+    record[rl] = (byte) (c >>> 24);
+    record[rl + 1] = (byte) (c >>> 16);
+    record[rl + 2] = (byte) (c >>> 8);
+    record[rl + 3] = (byte) c;
+
+    raf.seek(size);
+    raf.write(record);
+    size += record.length;
+  }
+
+  /**
+   * Checks the checksum of a record. The cursor will be reset to the end of the record.
+   * @param in journal access
+   * @param start start of the record
+   * @param length length of the journal
+   * @return result of check
+   */
+  private static boolean valid(final DataAccess in, final long start, final long length) {
+    final long end = in.cursor();
+    if(end + 4 > length) return false;
+    final CRC32 crc = new CRC32();
+    crc.update(in.readBytes(start, (int) (end - start)));
+    final boolean valid = (int) crc.getValue() == in.read4();
+    in.cursor(end);
+    return valid;
+  }
+
+  /**
+   * Journals a file.
+   * @param name name of file
+   * @param content file content
+   * @throws IOException I/O exception
+   */
+  private synchronized void file(final String name, final byte[] content) throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      out.write(FILE);
+      out.writeToken(Token.token(name));
+      out.writeNum(content.length);
+    }
+    append(ao, content, content.length);
+    files.put(name, content);
+  }
+
+  /**
+   * Synchronizes the specified files with disk.
+   * @param dir directory
+   * @param names names of files
+   * @throws IOException I/O exception
+   */
+  private static void sync(final String dir, final Set<String> names) throws IOException {
+    for(final String name : names) {
+      final IOFile target = new IOFile(dir, name);
+      if(!target.exists()) continue;
+      try(RandomAccessFile raf = new RandomAccessFile(target.file(), "rw")) {
+        raf.getFD().sync();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + '[' + file + ']';
+  }
+}
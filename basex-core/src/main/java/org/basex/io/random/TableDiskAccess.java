@@ -25,15 +25,23 @@ public final class TableDiskAccess extends TableAccess {
   private final Buffers buffers = new Buffers();
   /** File storing all pages. */
   private final RandomAccessFile file;
+  /** Name of the file storing all pages. */
+  private final String name;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock lock;
+  /** Journal (can be {@code null}). */
+  private Journal journal;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
   /** Page index; will be initialized with the first update. */
   private int[] pageIndex;
+  /** Pending shift of the first pre values of all pages after {@link #shiftPage}. */
+  private int shiftPre;
+  /** Index of the last page whose first pre value is up-to-date (if shifts are pending). */
+  private int shiftPage;
   /** Total number of pages. */
   private int pages;
   /** Number of used pages. */
@@ -75,7 +83,9 @@ public final class TableDiskAccess extends TableAccess {
     }
 
     // initialize data file
-    file = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw");
+    final IOFile table = meta.dbFile(DATATBL);
+    file = new RandomAccessFile(table.file(), "rw");
+    name = table.name();
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
   }
 
@@ -102,12 +112,15 @@ public final class TableDiskAccess extends TableAccess {
     for(final Buffer b : buffers.all()) write(b);
     if(!dirty || !all) return;
 
-    try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
+    final IOFile index = meta.dbFile(DATATBL + 'i');
+    try(DataOutput out = journal != null ? new DataOutput(journal.output(index)) :
+      new DataOutput(index)) {
       final int p = pages;
       boolean regular = true;
 
       // check if page mapping is regular (are all pages used and in ascending order?)
       if(fPreIndex != null) {
+        settle();
         regular = p == used;
         for(int i = 0; i < p; i++) regular &= fPreIndex[i] == i * IO.ENTRIES;
         for(int i = 0; i < p; i++) regular &= pageIndex[i] == i;
@@ -131,6 +144,16 @@ public final class TableDiskAccess extends TableAccess {
     dirty = false;
   }
 
+  /**
+   * Assigns a journal. If a journal is assigned, modified pages and the page index will be
+   * written to the journal instead of the original files.
+   * @param jrnl journal (can be {@code null})
+   */
+  public synchronized void journal(final Journal jrnl) {
+    journal = jrnl;
+    if(jrnl != null) jrnl.register(name, file);
+  }
+
   @Override
   public synchronized void close() throws IOException {
     flush(true);
@@ -262,6 +285,7 @@ public final class TableDiskAccess extends TableAccess {
       }
     } else {
       // handle pages whose entries are to be deleted entirely
+      settle();
 
       // first count them
       int unused = 0;
@@ -318,6 +342,7 @@ public final class TableDiskAccess extends TableAccess {
     int split = 0;
     if(used == 0) {
       // special case: insert new data into first page if database is empty
+      settle();
       readPage(0);
       usedPages.set(0);
       ++used;
@@ -338,7 +363,7 @@ public final class TableDiskAccess extends TableAccess {
       bf.dirty = true;
 
       // increment first pre-values of pages after the last modified page
-      for(int i = page + 1; i < used; ++i) fPreIndex[i] += nr;
+      shift(nr);
       // update cached variables (fpre is not changed)
       nextPre += nr;
       meta.size += nr;
@@ -388,6 +413,9 @@ public final class TableDiskAccess extends TableAccess {
       }
     }
 
+    // apply pending shifts before pages are added to the index
+    if(needed > 0) settle();
+
     // number of expected pages: existing pages + needed page - empty pages
     final int exp = pages + needed - (pages - used);
     if(exp > fPreIndex.length) {
@@ -414,13 +442,13 @@ public final class TableDiskAccess extends TableAccess {
     }
 
     // increment all fpre values after the last modified page
-    for(int i = page + 1; i < used; ++i) fPreIndex[i] += nr;
+    shift(nr);
 
     meta.size += nr;
 
     // update cached variables
-    firstPre = fPreIndex[page];
-    nextPre = page + 1 < used && fPreIndex[page + 1] < meta.size ? fPreIndex[page + 1] : meta.size;
+    firstPre = fpre(page);
+    nextPre = page + 1 < used && fpre(page + 1) < meta.size ? fpre(page + 1) : meta.size;
   }
 
   @Override
@@ -504,7 +532,8 @@ public final class TableDiskAccess extends TableAccess {
    * @return pre value
    */
   private int fpre(final int pre) {
-    return fPreIndex == null ? pre * IO.ENTRIES : fPreIndex[pre];
+    return fPreIndex == null ? pre * IO.ENTRIES :
+      pre > shiftPage ? fPreIndex[pre] + shiftPre : fPreIndex[pre];
   }
 
   /**
@@ -520,7 +549,7 @@ public final class TableDiskAccess extends TableAccess {
       bf.pos = pre;
       if(pre >= pages) {
         pages = pre + 1;
-      } else {
+      } else if(journal == null || !journal.read(name, bf.pos * IO.BLOCKSIZE, bf.data)) {
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
       }
@@ -537,8 +566,13 @@ public final class TableDiskAccess extends TableAccess {
   private void write(final Buffer buffer) throws IOException {
     if(!buffer.dirty) return;
 
-    file.seek(buffer.pos * IO.BLOCKSIZE);
-    file.write(buffer.data);
+    final long pos = buffer.pos * IO.BLOCKSIZE;
+    if(journal != null) {
+      journal.page(name, pos, buffer.data, IO.BLOCKSIZE);
+    } else {
+      file.seek(pos);
+      file.write(buffer.data);
+    }
     buffer.dirty = false;
   }
 
@@ -547,6 +581,7 @@ public final class TableDiskAccess extends TableAccess {
    * @param nr number of pages to delete
    */
   private void deletePages(final int nr) {
+    settle();
     Array.remove(fPreIndex, page, nr, used);
     Array.remove(pageIndex, page, nr, used);
     used -= nr;
@@ -558,9 +593,39 @@ public final class TableDiskAccess extends TableAccess {
    */
   private void decreasePre(final int nr) {
     final int nextPage = page + 1;
-    for(int i = nextPage; i < used; ++i) fPreIndex[i] -= nr;
+    shift(-nr);
     meta.size -= nr;
-    nextPre = nextPage < used && fPreIndex[nextPage] < meta.size ? fPreIndex[nextPage] : meta.size;
+    nextPre = nextPage < used && fpre(nextPage) < meta.size ? fpre(nextPage) : meta.size;
+  }
+
+  /**
+   * Shifts the first pre values of all pages after the current page.
+   * If updates are performed from the highest to the lowest pre value (as done by the
+   * atomic update cache), shifts are accumulated and only applied once to each page.
+   * @param nr number of entries to shift
+   */
+  private void shift(final int nr) {
+    if(shiftPre != 0) {
+      if(page > shiftPage) {
+        settle();
+      } else {
+        // pages between the current and the last modified page are not affected by pending shifts
+        final int last = Math.min(shiftPage, used - 1);
+        for(int i = page + 1; i <= last; ++i) fPreIndex[i] -= shiftPre;
+      }
+    }
+    shiftPage = page;
+    shiftPre += nr;
+  }
+
+  /**
+   * Applies all pending shifts of first pre values.
+   */
+  private void settle() {
+    if(shiftPre != 0) {
+      for(int i = shiftPage + 1; i < used; ++i) fPreIndex[i] += shiftPre;
+      shiftPre = 0;
+    }
   }
 
   /**
@@ -597,7 +662,7 @@ public final class TableDiskAccess extends TableAccess {
    * @return occupied space in number of records
    */
   private int occSpace(final int index) {
-    return (index + 1 < used ? fPreIndex[index + 1] : meta.size) - fPreIndex[index];
+    return (index + 1 < used ? fpre(index + 1) : meta.size) - fpre(index);
   }
 
   /**
@@ -606,6 +671,7 @@ public final class TableDiskAccess extends TableAccess {
   private void removeMapping() {
     fPreIndex = null;
     pageIndex = null;
+    shiftPre = 0;
     usedPages = null;
   }
 }
@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 
+import org.basex.data.*;
 import org.basex.query.value.item.*;
 import org.basex.util.hash.*;
 import org.basex.util.list.*;
@@ -39,12 +40,17 @@ final class HTMLSerializer extends MarkupSerializer {
     super(os, sopts, V40, V401, V50);
   }
 
+  @Override
+  protected void attribute(final byte[] name, final Data data, final int pre) throws IOException {
+    attribute(name, data.text(pre, false), false);
+  }
+
   @Override
   protected void attribute(final byte[] name, final byte[] value, final boolean standalone)
       throws IOException {
 
     if(!standalone) out.print(' ');
-    out.print(name);
+    out.printName(name);
 
     // don't append value for boolean attributes
     byte[] val = value;
@@ -104,7 +110,7 @@ final class HTMLSerializer extends MarkupSerializer {
     if(elems.isEmpty()) checkRoot(HTML);
     if(sep) indent();
     out.print(ELEM_O);
-    out.print(name.string());
+    out.printName(name.string());
     sep = indent;
     script = SCRIPTS.contains(lc(name.local()));
     if(content && eq(lc(elem.local()), HEAD)) ct++;
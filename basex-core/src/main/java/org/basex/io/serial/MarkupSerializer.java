@@ -8,6 +8,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.util.*;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.util.ft.*;
 import org.basex.query.value.item.*;
@@ -25,6 +26,18 @@ import org.basex.util.options.*;
  * @author Christian Gruen
  */
 abstract class MarkupSerializer extends StandardSerializer {
+  /** Printable ASCII characters that are written unchanged in texts. */
+  private static final boolean[] TEXT = new boolean[0x80];
+  /** Printable ASCII characters that are written unchanged in attribute values. */
+  private static final boolean[] ATTVALUE = new boolean[0x80];
+
+  static {
+    for(int c = ' '; c < 0x7F; c++) {
+      TEXT[c] = c != '&' && c != '<' && c != '>';
+      ATTVALUE[c] = TEXT[c] && c != '"';
+    }
+  }
+
   /** System document type. */
   String docsys;
   /** Public document type. */
@@ -50,6 +63,10 @@ abstract class MarkupSerializer extends StandardSerializer {
 
   /** Media type. */
   private final String media;
+  /** Buffer for texts and attribute values of database nodes. */
+  private final TokenBuilder buffer = new TokenBuilder();
+  /** Indicates if runs of printable ASCII characters can be written without further checks. */
+  private final boolean runs;
 
   /**
    * Constructor.
@@ -77,6 +94,7 @@ abstract class MarkupSerializer extends StandardSerializer {
     escuri  = sopts.yes(ESCAPE_URI_ATTRIBUTES);
     content = sopts.yes(INCLUDE_CONTENT_TYPE);
     undecl  = sopts.yes(UNDECLARE_PREFIXES);
+    runs    = encoding == Strings.UTF8 && sopts.get(USE_CHARACTER_MAPS).isEmpty();
 
     if(docsys.isEmpty()) docsys = null;
     if(docpub.isEmpty()) docpub = null;
@@ -119,34 +137,35 @@ abstract class MarkupSerializer extends StandardSerializer {
       throws IOException {
 
     if(!standalone) out.print(' ');
-    out.print(name);
+    out.printName(name);
     out.print(ATT1);
     final byte[] val = norm(value);
-    final int vl = val.length;
-    for(int k = 0; k < vl; k += cl(val, k)) {
-      final int cp = cp(val, k);
-      if(cp == '"') {
-        out.print(E_QUOT);
-      } else if(cp == 0x9 || cp == 0xA) {
-        printHex(cp);
-      } else {
-        printChar(cp);
-      }
-    }
+    printValue(val, val.length, true);
     out.print(ATT2);
   }
 
+  @Override
+  protected void attribute(final byte[] name, final Data data, final int pre) throws IOException {
+    if(form != null) {
+      super.attribute(name, data, pre);
+    } else {
+      out.print(' ');
+      out.printName(name);
+      out.print(ATT1);
+      final TokenBuilder tb = value(data, pre, false);
+      printValue(tb.buffer(), tb.size(), true);
+      out.print(ATT2);
+    }
+  }
+
   @Override
   protected void text(final byte[] value, final FTPos ftp) throws IOException {
     if(elems.isEmpty()) checkRoot(null);
     final byte[] val = norm(value);
     if(ftp == null) {
-      final ArrayList<QNm> qnames = cdata();
       final int vl = val.length;
-      if(qnames.isEmpty() || elems.isEmpty() || !qnames.contains(elems.peek())) {
-        for(int k = 0; k < vl; k += cl(val, k)) {
-          printChar(cp(val, k));
-        }
+      if(!cdataElem()) {
+        printValue(val, vl, false);
       } else {
         out.print(CDATA_O);
         int c = 0;
@@ -178,6 +197,18 @@ abstract class MarkupSerializer extends StandardSerializer {
     sep = false;
   }
 
+  @Override
+  protected void text(final Data data, final int pre, final FTPos ftp) throws IOException {
+    if(ftp != null || form != null || cdataElem()) {
+      super.text(data, pre, ftp);
+    } else {
+      if(elems.isEmpty()) checkRoot(null);
+      final TokenBuilder tb = value(data, pre, true);
+      printValue(tb.buffer(), tb.size(), false);
+      sep = false;
+    }
+  }
+
   @Override
   protected void comment(final byte[] value) throws IOException {
     if(sep) indent();
@@ -208,7 +239,7 @@ abstract class MarkupSerializer extends StandardSerializer {
     if(elems.isEmpty()) checkRoot(name.string());
     if(sep) indent();
     out.print(ELEM_O);
-    out.print(name.string());
+    out.printName(name.string());
     sep = true;
   }
 
@@ -240,7 +271,7 @@ abstract class MarkupSerializer extends StandardSerializer {
   protected void finishClose() throws IOException {
     if(sep) indent();
     out.print(ELEM_OS);
-    out.print(elem.string());
+    out.printName(elem.string());
     out.print(ELEM_C);
     sep = true;
   }
@@ -375,6 +406,70 @@ abstract class MarkupSerializer extends StandardSerializer {
     throw SERNOTSUPP_X.getIO(Options.allowed(option, string, (Object[]) allowed));
   }
 
+  /**
+   * Returns the value of a database node. The returned buffer will be reused by the next call.
+   * @param data data reference
+   * @param pre pre value
+   * @param text text/attribute flag
+   * @return buffer
+   */
+  private TokenBuilder value(final Data data, final int pre, final boolean text) {
+    final TokenBuilder tb = buffer.reset();
+    data.text(pre, text, tb);
+    return tb;
+  }
+
+  /**
+   * Prints a text or attribute value.
+   * @param value value
+   * @param vl number of bytes to be printed
+   * @param att attribute flag
+   * @throws IOException I/O exception
+   */
+  private void printValue(final byte[] value, final int vl, final boolean att) throws IOException {
+    final boolean[] plain = att ? ATTVALUE : TEXT;
+    for(int v = 0; v < vl;) {
+      if(runs) {
+        int r = v;
+        while(r < vl && value[r] >= 0 && plain[value[r]]) r++;
+        if(r > v) {
+          out.write(value, v, r - v);
+          v = r;
+          continue;
+        }
+      }
+      final int cp = cp(value, v);
+      if(att) printAttChar(cp);
+      else printChar(cp);
+      v += cl(value, v);
+    }
+  }
+
+  /**
+   * Prints a character of an attribute value.
+   * @param cp codepoint
+   * @throws IOException I/O exception
+   */
+  private void printAttChar(final int cp) throws IOException {
+    if(cp == '"') {
+      out.print(E_QUOT);
+    } else if(cp == 0x9 || cp == 0xA) {
+      printHex(cp);
+    } else {
+      printChar(cp);
+    }
+  }
+
+  /**
+   * Checks if the text of the current element is to be output as CDATA section.
+   * @return result of check
+   * @throws QueryIOException query I/O exception
+   */
+  private boolean cdataElem() throws QueryIOException {
+    final ArrayList<QNm> qnames = cdata();
+    return !qnames.isEmpty() && !elems.isEmpty() && qnames.contains(elems.peek());
+  }
+
   /** CData elements. */
   private ArrayList<QNm> cdata;
 
@@ -50,6 +50,12 @@ public abstract class Serializer implements Closeable {
   protected boolean more;
   /** Indicates if an element is currently being opened. */
   private boolean opening;
+  /** Data reference of the cached element names. */
+  private Data namesData;
+  /** Cached element names, indexed by their name ID. */
+  private QNm[] names;
+  /** Namespace URI IDs of the cached element names. */
+  private int[] namesUris;
 
   /**
    * Returns a default serializer.
@@ -294,6 +300,30 @@ public abstract class Serializer implements Closeable {
   @SuppressWarnings("unused")
   protected void text(final byte[] value, final FTPos ftp) throws IOException { }
 
+  /**
+   * Serializes the text of a database node.
+   * Can be overwritten to read the text without creating intermediate arrays.
+   * @param data data reference
+   * @param pre pre value
+   * @param ftp full-text positions, used for visualization highlighting
+   * @throws IOException I/O exception
+   */
+  protected void text(final Data data, final int pre, final FTPos ftp) throws IOException {
+    text(data.text(pre, true), ftp);
+  }
+
+  /**
+   * Serializes an attribute of a database node.
+   * Can be overwritten to read the value without creating intermediate arrays.
+   * @param name name
+   * @param data data reference
+   * @param pre pre value
+   * @throws IOException I/O exception
+   */
+  protected void attribute(final byte[] name, final Data data, final int pre) throws IOException {
+    attribute(name, data.text(pre, false), false);
+  }
+
   /**
    * Serializes a comment.
    * @param value value
@@ -367,7 +397,8 @@ public abstract class Serializer implements Closeable {
       }
 
       if(kind == Data.TEXT) {
-        prepareText(data.text(pre, true), ft != null ? ft.get(data, pre) : null);
+        prepare();
+        text(data, pre, ft != null ? ft.get(data, pre) : null);
         pre++;
       } else if(kind == Data.COMM) {
         prepareComment(data.text(pre++, true));
@@ -375,15 +406,10 @@ public abstract class Serializer implements Closeable {
         preparePi(data.name(pre, Data.PI), data.atom(pre++));
       } else {
         // element node:
-        final byte[] name = data.name(pre, kind);
-        byte[] nsPrefix = EMPTY, nsUri = null;
-        if(nsExist) {
-          nsPrefix = prefix(name);
-          nsUri = data.nspaces.uri(data.uriId(pre, kind));
-        }
+        final QNm name = name(data, pre, kind, nsExist);
+        byte[] nsPrefix = nsExist ? name.prefix() : EMPTY, nsUri = name.uri();
         // open element, serialize namespace declaration if it's new
-        openElement(new QNm(name, nsUri));
-        if(nsUri == null) nsUri = EMPTY;
+        openElement(name);
         namespace(nsPrefix, nsUri, false);
 
         // database contains namespaces: add declarations
@@ -412,9 +438,13 @@ public abstract class Serializer implements Closeable {
         final int as = pre + data.attSize(pre, kind);
         while(++pre != as) {
           final byte[] n = data.name(pre, Data.ATTR);
-          final byte[] v = data.text(pre, false);
-          attribute(n, v, false);
-          if(eq(n, XML_SPACE) && indent) indent = !eq(v, PRESERVE);
+          if(eq(n, XML_SPACE)) {
+            final byte[] v = data.text(pre, false);
+            attribute(n, v, false);
+            if(indent) indent = !eq(v, PRESERVE);
+          } else {
+            attribute(n, data, pre);
+          }
         }
         parentStack.push(par);
       }
@@ -428,6 +458,34 @@ public abstract class Serializer implements Closeable {
     }
   }
 
+  /**
+   * Returns the name of an element of a database node. Names are cached by their name ID.
+   * @param data data reference
+   * @param pre pre value
+   * @param kind node kind
+   * @param ns consider namespaces
+   * @return name
+   */
+  private QNm name(final Data data, final int pre, final int kind, final boolean ns) {
+    if(data != namesData) {
+      namesData = data;
+      names = new QNm[data.elemNames.size() + 1];
+      namesUris = new int[names.length];
+    }
+    final int id = data.nameId(pre), uriId = ns ? data.uriId(pre, kind) : 0;
+    if(id >= names.length) {
+      names = Arrays.copyOf(names, id + 1);
+      namesUris = Arrays.copyOf(namesUris, id + 1);
+    }
+    QNm name = names[id];
+    if(name == null || namesUris[id] != uriId) {
+      name = new QNm(data.name(pre, kind), ns ? data.nspaces.uri(uriId) : null);
+      names[id] = name;
+      namesUris[id] = uriId;
+    }
+    return name;
+  }
+
   /**
    * Serializes a node fragment.
    * @param node database node
@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 
+import org.basex.data.*;
 import org.basex.query.value.item.*;
 
 /**
@@ -24,6 +25,11 @@ final class XHTMLSerializer extends MarkupSerializer {
     super(os, sopts, V10, V11);
   }
 
+  @Override
+  protected void attribute(final byte[] name, final Data data, final int pre) throws IOException {
+    attribute(name, data.text(pre, false), false);
+  }
+
   @Override
   protected void attribute(final byte[] name, final byte[] value, final boolean standalone)
       throws IOException {
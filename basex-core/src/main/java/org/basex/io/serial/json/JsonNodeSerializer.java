@@ -39,8 +39,8 @@ public final class JsonNodeSerializer extends JsonSerializer {
   private final boolean lax;
   /** Attributes flag. */
   private final boolean atts;
-  /** Node output cache. */
-  private final ArrayOutput cache = new ArrayOutput();
+  /** Node output cache (only required if the output is normalized). */
+  private ArrayOutput cache;
 
   /** Current name of a pair. */
   private byte[] key;
@@ -75,11 +75,15 @@ public final class JsonNodeSerializer extends JsonSerializer {
       super.node(node);
       custom = c;
     } else {
+      // without normalization, the node is directly written as escaped string
+      final boolean stream = form == null;
+      if(stream) out.print('"');
       try(Serializer ser = nodeSerializer()) {
         ser.serialize(node);
         ser.reset();
       }
-      string(cache.next());
+      if(stream) out.print('"');
+      else string(cache.next());
     }
   }
 
@@ -231,8 +235,28 @@ public final class JsonNodeSerializer extends JsonSerializer {
       so.set(SerializerOptions.METHOD, sopts.get(SerializerOptions.JSON_NODE_OUTPUT_METHOD));
       so.set(SerializerOptions.OMIT_XML_DECLARATION, YesNo.YES);
       so.set(SerializerOptions.INDENT, YesNo.NO);
-      nodeSerializer = Serializer.get(cache, so);
+      if(form != null) cache = new ArrayOutput();
+      nodeSerializer = Serializer.get(form != null ? cache : new StringOutput(), so);
     }
     return nodeSerializer;
   }
+
+  /**
+   * Output stream that writes UTF-8 encoded bytes as escaped characters of a JSON string.
+   */
+  private final class StringOutput extends OutputStream {
+    /** Bytes of the current character. */
+    private final byte[] bytes = new byte[4];
+    /** Number of bytes. */
+    private int size;
+
+    @Override
+    public void write(final int b) throws IOException {
+      bytes[size++] = (byte) b;
+      if(size == cl(bytes, 0)) {
+        printChar(cp(bytes, 0));
+        size = 0;
+      }
+    }
+  }
 }
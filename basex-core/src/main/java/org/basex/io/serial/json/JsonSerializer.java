@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 
 import org.basex.build.json.*;
+import org.basex.io.in.*;
 import org.basex.io.parse.json.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
@@ -77,11 +78,12 @@ public abstract class JsonSerializer extends StandardSerializer {
         out.print('{');
 
         boolean s = false;
-        final TokenSet set = nodups ? new TokenSet() : null;
         final XQMap m = (XQMap) item;
-        for(final Item key : m.keys()) {
+        final Value keys = m.keys();
+        final TokenSet set = nodups && !unique(keys) ? new TokenSet() : null;
+        for(final Item key : keys) {
           final byte[] name = key.string(null);
-          if(nodups) {
+          if(set != null) {
             if(set.contains(name)) throw SERDUPL_X.getIO(name);
             set.put(name);
           }
@@ -132,6 +134,14 @@ public abstract class JsonSerializer extends StandardSerializer {
         out.print(str);
       } else if(item.type == AtomType.BLN) {
         out.print(item.string(null));
+      } else if(item instanceof StrLazy && !((StrLazy) item).isCached() && form == null) {
+        // stream lazy strings (e.g. file contents); cached strings are returned as UTF-8 bytes
+        out.print('"');
+        final BufferInput bi = item.input(null);
+        try(TextInput ti = bi instanceof TextInput ? (TextInput) bi : new TextInput(bi)) {
+          for(int cp; (cp = ti.read()) != -1;) printChar(cp);
+        }
+        out.print('"');
       } else {
         string(item.string(null));
       }
@@ -140,6 +150,19 @@ public abstract class JsonSerializer extends StandardSerializer {
     }
   }
 
+  /**
+   * Checks if the string representations of the specified map keys are unique.
+   * This is the case if all keys are strings or untyped atomics.
+   * @param keys map keys
+   * @return result of check
+   */
+  private static boolean unique(final Value keys) {
+    for(final Item key : keys) {
+      if(!key.type.isStringOrUntyped()) return false;
+    }
+    return true;
+  }
+
   /**
    * Serializes a JSON string.
    * @param string string
@@ -373,6 +373,7 @@ public final class QueryContext extends Job implements Closeable {
        ctxItem != null && !ctxItem.databases(locks, this)) {
       (updating ? write : read).addGlobal();
     }
+    locks.updating = updating;
   }
 
   /**
@@ -674,6 +675,12 @@ public final class QueryContext extends Job implements Closeable {
       // only perform updates if no parent context exists
       if(updates == null || parent != null) return value;
 
+      // document locks: parse new documents in parallel, lock database before accessing it
+      if(context.locking.documents()) {
+        updates.parse();
+        context.locking.upgrade();
+      }
+
       // create copies of results that will be modified by an update operation
       final HashSet<Data> datas = updates.prepare(this);
       final StringList dbs = updates.databases();
@@ -696,7 +703,8 @@ public final class QueryContext extends Job implements Closeable {
         vb.add(materialize.apply(item));
       }
 
-      // invalidate current node set in context, apply updates
+      // acquire deferred write locks, invalidate current node set in context, apply updates
+      context.locking.upgrade();
       if(context.data() != null) context.invalidate();
       updates.apply(this);
 
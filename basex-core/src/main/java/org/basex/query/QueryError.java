@@ -209,6 +209,8 @@ public enum QueryError {
   /** Error code. */
   DB_CONFLICT4_X(DB, "conflict", "Name of source and target database is equal: %."),
   /** Error code. */
+  DB_CONFLICT5_X(DB, "conflict", "Backup '%' is based on a backup that would be dropped."),
+  /** Error code. */
   DB_LOCK1_X(DB, "lock", "Database '%' cannot be updated, it is opened by another process."),
   /** Error code. */
   DB_LOCK2_X(DB, "lock", "%"),
@@ -243,6 +245,8 @@ public enum QueryError {
   FETCH_OPEN_X(FETCH, "open", "%"),
   /** Error code. */
   FETCH_ENCODING_X(FETCH, "encoding", "Unknown encoding '%'."),
+  /** Error code. */
+  FETCH_PATH_X(FETCH, "path", "Invalid path: '%'."),
 
   // File Module
 
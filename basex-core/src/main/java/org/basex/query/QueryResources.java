@@ -442,10 +442,11 @@ public final class QueryResources {
     // overwrite parsing options with default values
     final boolean mem = !context.options.get(MainOptions.FORCECREATE);
     final MainOptions opts = new MainOptions(context.options, true);
-    final Parser parser = new DirParser(io, opts);
 
     final Data data;
     try {
+      // single documents: use contents from the resource cache
+      final Parser parser = new DirParser(single ? context.cache.get(io) : io, opts);
       data = CreateDB.create(io.dbName(), parser, context, opts, mem);
     } catch(final IOException ex) {
       throw IOERR_X.get(ii, ex);
@@ -847,6 +847,9 @@ public enum Function implements AFunction {
   /** XQuery function. */
   _FETCH_BINARY(FetchBinary.class, "binary(uri)", arg(STR_O), B64_O, flag(NDT), FETCH_URI),
   /** XQuery function. */
+  _FETCH_BINARIES(FetchBinaries.class, "binaries(uris[,parallel])", arg(STR_ZM, ITR_O), B64_ZM,
+      flag(NDT), FETCH_URI),
+  /** XQuery function. */
   _FETCH_CONTENT_TYPE(FetchContentType.class, "content-type(uri)", arg(STR_O), STR_O, flag(NDT),
       FETCH_URI),
   /** XQuery function. */
@@ -857,6 +860,9 @@ public enum Function implements AFunction {
   /** XQuery function. */
   _FETCH_XML_BINARY(FetchXmlBinary.class, "xml-binary(binary[,options])",
       arg(B64_O, MAP_ZO), DOC_O, flag(NDT), FETCH_URI),
+  /** XQuery function. */
+  _FETCH_XML_STREAM(FetchXmlStream.class, "xml-stream(uri,path[,options])",
+      arg(STR_O, STR_O, MAP_ZO), ELM_ZM, flag(NDT), FETCH_URI),
 
   // File Module
 
@@ -1034,6 +1040,9 @@ public enum Function implements AFunction {
   /** XQuery function. */
   _HTTP_SEND_REQUEST(HttpSendRequest.class, "send-request(request[,href[,bodies]])",
       arg(NOD_O, STR_ZO, ITEM_ZM), ITEM_ZM, flag(NDT), HTTP_URI),
+  /** XQuery function. */
+  _HTTP_SEND_REQUESTS(HttpSendRequests.class, "send-requests(requests[,parallel])",
+      arg(NOD_ZM, ITR_O), ARRAY_ZM, flag(NDT), HTTP_URI),
 
   // Index Module
 
@@ -1107,6 +1116,9 @@ public enum Function implements AFunction {
   /** XQuery function. */
   _JSON_PARSE(JsonParse.class, "parse(string[,options])", arg(STR_ZO, MAP_ZO), ITEM_ZO, JSON_URI),
   /** XQuery function. */
+  _JSON_PARSE_STREAM(JsonParseStream.class, "parse-stream(string[,options])",
+      arg(STR_ZO, MAP_ZO), ITEM_ZM, JSON_URI),
+  /** XQuery function. */
   _JSON_SERIALIZE(JsonSerialize.class, "serialize(items[,options])",
       arg(ITEM_ZO, MAP_ZO), STR_O, JSON_URI),
 
@@ -293,6 +293,23 @@ public abstract class StandardFunc extends Arr {
     throw WHICHRES_X.get(info, normalize(uri, info));
   }
 
+  /**
+   * Returns the cached contents of the specified input, or the input itself if it is not cached.
+   * @param io input
+   * @param error error to be thrown if the input cannot be read
+   * @param qc query context
+   * @return input reference
+   * @throws QueryException query exception
+   */
+  protected final IO cached(final IO io, final QueryError error, final QueryContext qc)
+      throws QueryException {
+    try {
+      return qc.context.cache.get(io);
+    } catch(final IOException ex) {
+      throw error.get(info, ex);
+    }
+  }
+
   /**
    * Evaluates the specified URI.
    * @param i index of input argument
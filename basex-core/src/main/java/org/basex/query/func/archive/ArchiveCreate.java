@@ -9,6 +9,7 @@ import java.nio.charset.*;
 import java.util.*;
 import java.util.zip.*;
 
+import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.item.*;
@@ -125,16 +126,26 @@ public class ArchiveCreate extends ArchiveFn {
       }
     }
 
-    // data to be compressed
-    byte[] val = toBytes(content);
-    if(!(content instanceof Bin) && encoding != Strings.UTF8) val = encode(val, encoding, qc);
-
     try {
       out.level(lvl == null ? level : toInt(lvl));
     } catch(final IllegalArgumentException ex) {
       Util.debug(ex);
       throw ARCHIVE_DESCRIPTOR2_X.get(info, lvl);
     }
-    out.write(ze, val);
+
+    // data to be compressed: binary data is streamed
+    final InputStream in;
+    if(content instanceof Bin) {
+      in = ((Bin) content).input(info);
+    } else {
+      byte[] val = toBytes(content);
+      if(encoding != Strings.UTF8) val = encode(val, encoding, qc);
+      in = new ArrayInput(val);
+    }
+    try {
+      out.write(ze, in);
+    } finally {
+      in.close();
+    }
   }
 }
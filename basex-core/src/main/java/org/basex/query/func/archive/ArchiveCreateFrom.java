@@ -60,7 +60,7 @@ public class ArchiveCreateFrom extends ArchiveCreate {
           final IOFile file = new IOFile(root, string(en.string(info)));
           if(!file.exists()) throw FILE_NOT_FOUND_X.get(info, file);
           if(file.isDir()) throw FILE_IS_DIR_X.get(info, file);
-          add(en, B64.get(file.read()), out, level, dir, qc);
+          add(en, new B64Lazy(file, FILE_IO_ERROR_X), out, level, dir, qc);
         }
       } catch(final IOException ex) {
         throw ARCHIVE_ERROR_X.get(info, ex);
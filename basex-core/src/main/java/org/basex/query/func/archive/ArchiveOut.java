@@ -56,10 +56,10 @@ abstract class ArchiveOut implements Closeable {
   /**
    * Writes the specified entry.
    * @param entry zip entry
-   * @param value value to be written
+   * @param in input stream with the value to be written
    * @throws IOException I/O exception
    */
-  public abstract void write(ZipEntry entry, byte[] value) throws IOException;
+  public abstract void write(ZipEntry entry, InputStream in) throws IOException;
 
   @Override
   public abstract void close();
@@ -34,8 +34,8 @@ final class GZIPOut extends ArchiveOut {
   }
 
   @Override
-  public void write(final ZipEntry entry, final byte[] value) throws IOException {
-    zos.write(value);
+  public void write(final ZipEntry entry, final InputStream in) throws IOException {
+    for(int c; (c = in.read(data)) != -1;) zos.write(data, 0, c);
   }
 
   @Override
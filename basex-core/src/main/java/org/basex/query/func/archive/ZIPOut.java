@@ -3,6 +3,7 @@ package org.basex.query.func.archive;
 import java.io.*;
 import java.util.zip.*;
 
+import org.basex.io.out.*;
 import org.basex.util.*;
 
 /**
@@ -13,18 +14,18 @@ import org.basex.util.*;
  */
 final class ZIPOut extends ArchiveOut {
   /** ZIP output stream. */
-  private final ZipOutputStream zos;
+  private final ZipOutput zos;
 
   /**
    * Writing constructor.
    */
   ZIPOut() {
-    zos = new ZipOutputStream(ao);
+    zos = new ZipOutput(ao);
   }
 
   @Override
   public void level(final int l) {
-    zos.setLevel(l);
+    zos.level(l);
   }
 
   @Override
@@ -39,9 +40,9 @@ final class ZIPOut extends ArchiveOut {
   }
 
   @Override
-  public void write(final ZipEntry entry, final byte[] value) throws IOException {
+  public void write(final ZipEntry entry, final InputStream in) throws IOException {
     zos.putNextEntry(entry);
-    zos.write(value);
+    for(int c; (c = in.read(data)) != -1;) zos.write(data, 0, c);
     zos.closeEntry();
   }
 
@@ -81,6 +81,15 @@ abstract class DbAccess extends DbFn {
 
   @Override
   public boolean accept(final ASTVisitor visitor) {
-    return dataLock(visitor, 0) && super.accept(visitor);
+    return lock(visitor) && super.accept(visitor);
+  }
+
+  /**
+   * Marks the accessed database for locking.
+   * @param visitor visitor
+   * @return result of check
+   */
+  boolean lock(final ASTVisitor visitor) {
+    return dataLock(visitor, 0);
   }
 }
@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 import static org.basex.util.Token.*;
 
 import org.basex.core.*;
+import org.basex.core.cmd.*;
 import org.basex.query.*;
 import org.basex.query.up.*;
 import org.basex.query.up.primitives.name.*;
@@ -26,6 +27,8 @@ public final class DbDropBackup extends DbAccess {
 
     final StringList backups = qc.context.databases.backups(name);
     if(backups.isEmpty()) throw DB_NOBACKUP_X.get(info, name);
+    final String dependent = DropBackup.dependent(backups, qc.context);
+    if(dependent != null) throw DB_CONFLICT5_X.get(info, dependent);
 
     final Updates updates = qc.updates();
     for(final String backup : backups) updates.add(new BackupDrop(backup, qc, info), qc);
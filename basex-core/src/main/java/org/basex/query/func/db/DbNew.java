@@ -7,6 +7,7 @@ import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.query.*;
 import org.basex.query.up.primitives.*;
+import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
@@ -18,6 +19,18 @@ import org.basex.query.value.type.*;
  * @author Christian Gruen
  */
 abstract class DbNew extends DbAccess {
+  /**
+   * Marks the addressed documents of the accessed database for locking.
+   * @param visitor visitor
+   * @param i index of path argument
+   * @return result of check
+   */
+  final boolean docLock(final ASTVisitor visitor, final int i) {
+    return exprs[0] instanceof Str && i < exprs.length && exprs[i] instanceof Str ?
+      visitor.lock(string(((Str) exprs[0]).string()), string(((Str) exprs[i]).string())) :
+      dataLock(visitor, 0);
+  }
+
   /**
    * Creates a {@link Data} instance for the specified document.
    * @param input input item (node or string)
@@ -10,6 +10,7 @@ import org.basex.query.up.*;
 import org.basex.query.up.primitives.*;
 import org.basex.query.up.primitives.db.*;
 import org.basex.query.up.primitives.node.*;
+import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
@@ -31,7 +32,9 @@ public final class DbReplace extends DbNew {
     final Options opts = toOptions(3, new Options(), qc);
 
     final Updates updates = qc.updates();
-    final IntList docs = data.resources.docs(path);
+    // document locks: existing documents will be resolved when the updates are prepared
+    final boolean resolve = qc.context.locking.documents();
+    final IntList docs = resolve ? null : data.resources.docs(path);
     int d = 0;
 
     // delete binary resources
@@ -39,20 +42,31 @@ public final class DbReplace extends DbNew {
     final boolean disk = !data.inMemory();
     if(disk && (bin == null || bin.isDir())) throw DB_TARGET_X.get(info, path);
 
+    NewInput input = null;
     if(disk && item instanceof Bin) {
       updates.add(new DBStore(data, path, item, info), qc);
     } else {
       if(disk && bin.exists()) updates.add(new DBDelete(data, path, info), qc);
-      final NewInput input = checkInput(item, token(path));
-      final Update update = docs.isEmpty() ?
-        new DBAdd(data, input, opts, true, qc, info) :
-        new ReplaceDoc(docs.get(d++), data, input, opts, qc, info);
-      updates.add(update, qc);
+      input = checkInput(item, token(path));
+      if(!resolve) {
+        final Update update = docs.isEmpty() ?
+          new DBAdd(data, input, opts, true, qc, info) :
+          new ReplaceDoc(docs.get(d++), data, input, opts, qc, info);
+        updates.add(update, qc);
+      }
+    }
+    if(resolve) {
+      updates.add(new DBReplace(data, path, input, opts, qc, info), qc);
+    } else {
+      // delete old documents
+      final int ds = docs.size();
+      for(; d < ds; d++) updates.add(new DeleteNode(docs.get(d), data, info), qc);
     }
-
-    // delete old documents
-    final int ds = docs.size();
-    for(; d < ds; d++) updates.add(new DeleteNode(docs.get(d), data, info), qc);
     return Empty.VALUE;
   }
+
+  @Override
+  boolean lock(final ASTVisitor visitor) {
+    return docLock(visitor, 1);
+  }
 }
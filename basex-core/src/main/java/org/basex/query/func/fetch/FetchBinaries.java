@@ -0,0 +1,74 @@
+package org.basex.query.func.fetch;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class FetchBinaries extends StandardFunc {
+  /** Default number of parallel requests. */
+  private static final int PARALLEL = 8;
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    // get resource references
+    final ArrayList<IO> inputs = new ArrayList<>();
+    final Iter iter = exprs[0].iter(qc);
+    for(Item item; (item = qc.next(iter)) != null;) inputs.add(IO.get(Token.string(toToken(item))));
+    final int il = inputs.size();
+    if(il == 0) return Empty.VALUE;
+
+    // get maximum number of parallel requests
+    final long parallel = exprs.length > 1 ? toLong(exprs[1], qc) : PARALLEL;
+    final int threads = (int) Math.max(1, Math.min(il, parallel));
+
+    // retrieve resources in parallel, return results in the order of the input
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      final ArrayList<Future<Item>> futures = new ArrayList<>(il);
+      for(final IO io : inputs) futures.add(pool.submit(() -> fetch(io, qc)));
+      final ValueBuilder vb = new ValueBuilder(qc);
+      for(final Future<Item> future : futures) vb.add(future.get());
+      return vb.value();
+    } catch(final ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if(cause instanceof QueryException) throw (QueryException) cause;
+      throw FETCH_OPEN_X.get(info, Util.rootException(cause));
+    } catch(final InterruptedException ex) {
+      throw FETCH_OPEN_X.get(info, ex);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Retrieves the contents of a resource.
+   * @param io resource reference
+   * @param qc query context
+   * @return binary item
+   * @throws QueryException query exception
+   */
+  private Item fetch(final IO io, final QueryContext qc) throws QueryException {
+    try {
+      return B64.get(cached(io, FETCH_OPEN_X, qc).read());
+    } catch(final IOException ex) {
+      throw FETCH_OPEN_X.get(info, ex);
+    }
+  }
+}
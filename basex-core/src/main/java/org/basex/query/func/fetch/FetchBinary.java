@@ -18,6 +18,6 @@ public final class FetchBinary extends StandardFunc {
   @Override
   public B64Lazy item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final byte[] uri = toToken(exprs[0], qc);
-    return new B64Lazy(IO.get(Token.string(uri)), FETCH_OPEN_X);
+    return new B64Lazy(cached(IO.get(Token.string(uri)), FETCH_OPEN_X, qc), FETCH_OPEN_X);
   }
 }
@@ -20,6 +20,7 @@ public final class FetchText extends StandardFunc {
     final byte[] uri = toToken(exprs[0], qc);
     final String encoding = toEncoding(1, FETCH_ENCODING_X, qc);
     final boolean validate = exprs.length < 3 || !toBoolean(exprs[2], qc);
-    return new StrLazy(IO.get(Token.string(uri)), encoding, FETCH_OPEN_X, validate);
+    final IO io = cached(IO.get(Token.string(uri)), FETCH_OPEN_X, qc);
+    return new StrLazy(io, encoding, FETCH_OPEN_X, validate);
   }
 }
@@ -27,7 +27,7 @@ public class FetchXml extends StandardFunc {
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final byte[] in = toToken(exprs[0], qc);
     if(!Uri.uri(in).isValid()) throw INVDOC_X.get(info, in);
-    return fetch(IO.get(string(in)), qc);
+    return fetch(cached(IO.get(string(in)), FETCH_OPEN_X, qc), qc);
   }
 
   /**
@@ -0,0 +1,119 @@
+package org.basex.query.func.fetch;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.build.xml.*;
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.up.primitives.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+import org.basex.util.options.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class FetchXmlStream extends StandardFunc {
+  /** Descendant separator. */
+  private static final byte[] SLASHES = token("//");
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final byte[] in = toToken(exprs[0], qc);
+    if(!Uri.uri(in).isValid()) throw INVDOC_X.get(info, in);
+    final byte[] path = toToken(exprs[1], qc);
+    if(path.length == 0 || endsWith(path, '/') || contains(path, SLASHES)) {
+      throw FETCH_PATH_X.get(info, path);
+    }
+    final byte[][] steps = split(startsWith(path, '/') ? substring(path, 1) : path, '/');
+    final byte[][] uris = uris(steps, path);
+    final Options opts = toOptions(2, new Options(), qc);
+
+    final MainOptions mo = MainOptions.get();
+    new DBOptions(opts, DBOptions.PARSING, info).assignTo(mo);
+    final IO io = IO.get(string(in));
+    final InputStream is;
+    final XMLParser parser;
+    try {
+      // the input will be closed after the last subtree has been parsed or the query is finished
+      is = io.inputStream();
+      parser = new XMLParser(new IOStream(is, io.path()), mo).stream(steps, uris);
+    } catch(final IOException ex) {
+      throw FETCH_OPEN_X.get(info, ex);
+    }
+    qc.resources.add(is);
+
+    return new Iter() {
+      @Override
+      public Item next() throws QueryException {
+        try {
+          final Data data = parser.next();
+          if(data != null) return new DBNode(data);
+          qc.resources.remove(is);
+          return null;
+        } catch(final IOException ex) {
+          throw FETCH_OPEN_X.get(info, ex);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return iter(qc).value(qc, this);
+  }
+
+  /**
+   * Replaces the steps of a path with their local names and returns their namespace URIs.
+   * Unprefixed names are bound to the default element namespace.
+   * @param steps steps (e.g. {@code record}, {@code p:record}, {@code *:record}, {@code *})
+   * @param path path (e.g. {@code /root/record})
+   * @return namespace URIs ({@code null} for wildcards)
+   * @throws QueryException query exception
+   */
+  private byte[][] uris(final byte[][] steps, final byte[] path) throws QueryException {
+    final int sl = steps.length;
+    final byte[][] uris = new byte[sl][];
+    for(int s = 0; s < sl; s++) {
+      final byte[] step = steps[s];
+      final int c = indexOf(step, ':');
+      final byte[] prefix = c == -1 ? null : substring(step, 0, c);
+      final byte[] local = substring(step, c + 1);
+      if(!wildcard(local) && !XMLToken.isNCName(local) ||
+          prefix != null && !wildcard(prefix) && !XMLToken.isNCName(prefix)) {
+        throw FETCH_PATH_X.get(info, path);
+      }
+
+      steps[s] = wildcard(local) ? null : local;
+      if(prefix == null) {
+        uris[s] = wildcard(local) ? null : sc.elemNS != null ? sc.elemNS : EMPTY;
+      } else if(!wildcard(prefix)) {
+        uris[s] = sc.ns.uri(prefix);
+        if(uris[s] == null) throw NOURI_X.get(info, step);
+      }
+    }
+    return uris;
+  }
+
+  /**
+   * Checks if the specified name is a wildcard.
+   * @param name name
+   * @return result of check
+   */
+  private static boolean wildcard(final byte[] name) {
+    return name.length == 1 && name[0] == '*';
+  }
+}
@@ -66,7 +66,7 @@ public abstract class Parse extends StandardFunc {
         if(rp.length > 1) enc = rp[1];
       }
 
-      try(InputStream is = io.inputStream(); TextInput ti = new TextInput(io)) {
+      try(TextInput ti = new TextInput(qc.context.cache.get(io))) {
         ti.encoding(enc).validate(true);
         if(!check) return Str.get(ti.content());
 
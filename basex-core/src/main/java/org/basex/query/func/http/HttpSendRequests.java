@@ -0,0 +1,46 @@
+package org.basex.query.func.http;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.array.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.util.http.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class HttpSendRequests extends StandardFunc {
+  /** Default number of parallel requests. */
+  private static final int PARALLEL = 8;
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    checkCreate(qc);
+
+    // get request nodes
+    final ArrayList<ANode> requests = new ArrayList<>();
+    final Iter iter = exprs[0].iter(qc);
+    for(Item item; (item = qc.next(iter)) != null;) requests.add(toNode(item));
+    // get maximum number of parallel requests
+    final long parallel = exprs.length > 1 ? toLong(exprs[1], qc) : PARALLEL;
+
+    // send HTTP requests, return each response (response element, bodies) as array
+    final Value[] responses = new HttpClient(info, qc.context).sendRequests(
+        requests.toArray(new ANode[0]), (int) Math.max(1, Math.min(Integer.MAX_VALUE, parallel)));
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final Value response : responses) {
+      final ArrayBuilder ab = new ArrayBuilder();
+      for(final Item item : response) ab.append(item);
+      vb.add(ab.freeze());
+    }
+    return vb.value();
+  }
+}
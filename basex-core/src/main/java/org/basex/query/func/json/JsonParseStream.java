@@ -0,0 +1,61 @@
+package org.basex.query.func.json;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+
+import org.basex.build.json.*;
+import org.basex.io.in.*;
+import org.basex.io.parse.json.*;
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class JsonParseStream extends StandardFunc {
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final Item item = exprs[0].atomItem(qc, info);
+    final JsonParserOptions opts = toOptions(1, new JsonParserOptions(), qc);
+    if(item == Empty.VALUE) return Empty.ITER;
+
+    // lazy strings (e.g., results of file:read-text) will be read incrementally
+    final BufferInput bi = item instanceof StrLazy ? item.input(info) : null;
+    final TextInput ti;
+    try {
+      ti = bi instanceof TextInput ? (TextInput) bi : new TextInput(toToken(item));
+    } catch(final IOException ex) {
+      throw JSON_PARSE_X.get(info, ex);
+    }
+    final JsonStreamParser parser = new JsonStreamParser(ti, opts);
+    qc.resources.add(ti);
+
+    return new Iter() {
+      @Override
+      public Item next() throws QueryException {
+        try {
+          final Item it = parser.next();
+          if(it == null) qc.resources.remove(ti);
+          return it;
+        } catch(final QueryIOException ex) {
+          throw ex.getCause(info);
+        } catch(final IOException ex) {
+          throw JSON_PARSE_X.get(info, ex);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return iter(qc).value(qc, this);
+  }
+}
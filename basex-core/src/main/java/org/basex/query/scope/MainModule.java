@@ -2,7 +2,9 @@ package org.basex.query.scope;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.core.locks.*;
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
@@ -176,6 +178,8 @@ public final class MainModule extends AModule {
     private final Locks locks;
     /** Updating flag. */
     private final boolean updating;
+    /** Document locks. */
+    private final boolean docs;
     /** Focus level. */
     private int level;
 
@@ -187,6 +191,7 @@ public final class MainModule extends AModule {
     private LockVisitor(final Locks locks, final QueryContext qc) {
       this.locks = locks;
       updating = qc.updating;
+      docs = qc.context.soptions.get(StaticOptions.DOCLOCK);
       level = qc.ctxItem == null ? 0 : 1;
     }
 
@@ -201,6 +206,16 @@ public final class MainModule extends AModule {
       return true;
     }
 
+    @Override
+    public boolean lock(final String db, final String path) {
+      // lock database if path cannot be locked
+      String norm = docs && updating && db != null ? MetaData.normPath(path) : null;
+      if(norm == null || norm.isEmpty() || norm.equals("/")) return lock(db, false);
+      if(norm.endsWith("/")) norm = norm.substring(0, norm.length() - 1);
+      locks.docs.add(db + '/' + (Prop.CASE ? norm : norm.toLowerCase(Locale.ENGLISH)));
+      return true;
+    }
+
     @Override
     public void enterFocus() {
       level++;
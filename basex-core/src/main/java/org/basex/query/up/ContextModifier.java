@@ -74,6 +74,15 @@ abstract class ContextModifier {
     }
   }
 
+  /**
+   * Parses the documents that will be added to databases. Called by a single thread after query
+   * evaluation, before the updated databases are locked for writing.
+   * @throws QueryException query exception
+   */
+  final synchronized void parse() throws QueryException {
+    for(final DataUpdates up : dbUpdates.values()) up.parse();
+  }
+
   /**
    * Prepares the update operations and adds all databases to be updated to the specified list.
    * Called by a single thread after query evaluation.
@@ -98,6 +98,14 @@ final class DataUpdates {
     }
   }
 
+  /**
+   * Parses the documents that will be added. The database will not be accessed.
+   * @throws QueryException query exception
+   */
+  void parse() throws QueryException {
+    for(final DBUpdate update : dbUpdates) update.parse();
+  }
+
   /**
    * Checks updates for violations. If a violation is found, the complete update process is aborted.
    * @param tmp temporary mem data
@@ -105,6 +113,17 @@ final class DataUpdates {
    * @throws QueryException query exception
    */
   void prepare(final MemData tmp, final QueryContext qc) throws QueryException {
+    // Resolve documents to be replaced
+    DBAdd add = null;
+    DBReplace replace = null;
+    for(final DBUpdate update : dbUpdates) {
+      if(update instanceof DBAdd) add = (DBAdd) update;
+      else if(update instanceof DBReplace) replace = (DBReplace) update;
+    }
+    if(replace != null) {
+      for(final NodeUpdate update : replace.resolve(add)) add(update, tmp);
+    }
+
     // Prepare/check database operations
     for(final DBUpdate update : dbUpdates) update.prepare();
 
@@ -157,6 +157,14 @@ public final class Updates {
     return new DBNode(data, pre);
   }
 
+  /**
+   * Parses documents to be added. Called after query evaluation.
+   * @throws QueryException query exception
+   */
+  public void parse() throws QueryException {
+    mod.parse();
+  }
+
   /**
    * Prepares update operations. Called after query evaluation.
    * @param qc query context
@@ -76,8 +76,9 @@ public final class DBNew {
    * @throws QueryException query exception
    */
   public void prepare(final String name, final boolean create) throws QueryException {
+    // skip preparation if inputs have already been parsed
     final long is = inputs.size();
-    if(is == 0) return;
+    if(is == 0 || data != null) return;
 
     // check if new resources will be cached on disk
     final boolean cache = cache(create);
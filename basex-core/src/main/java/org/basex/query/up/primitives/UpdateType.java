@@ -44,6 +44,7 @@ public enum UpdateType {
   // Operations on resources of existing databases
 
   /** Add document.         */ DBADD,
+  /** Replace document.     */ DBREPLACE,
   /** Add binary resource.  */ DBSTORE,
   /** Rename resource.      */ DBRENAME,
   /** Delete resource.      */ DBDELETE,
@@ -6,6 +6,7 @@ import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.up.primitives.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 import org.basex.util.options.*;
 
 /**
@@ -17,6 +18,8 @@ import org.basex.util.options.*;
 public final class DBAdd extends DBUpdate {
   /** Container for new database documents. */
   private final DBNew newDocs;
+  /** Target paths of the new documents. */
+  private final StringList paths = new StringList(1);
   /** Replace flag. */
   private final boolean replace;
   /** Size. */
@@ -40,25 +43,38 @@ public final class DBAdd extends DBUpdate {
 
     final DBOptions options = new DBOptions(opts, DBOptions.PARSING, info);
     newDocs = new DBNew(qc, options, info, input);
+    paths.add(input.io != null ? input.path.isEmpty() ? input.io.name() :
+      input.path + '/' + input.io.name() : input.path);
   }
 
   @Override
   public void merge(final Update update) throws QueryException {
     final DBAdd add = (DBAdd) update;
     if(replace || add.replace) {
-      final NewInput input = newDocs.inputs.get(0), addInput = add.newDocs.inputs.get(0);
-      String path = input.path, addPath = addInput.path;
-      if(input.io != null) path += '/' + input.io.name();
-      if(addInput.io != null) addPath += '/' + addInput.io.name();
-      if(path.equals(addPath)) throw UPMULTDOC_X_X.get(info, data.meta.name, addPath);
+      for(final String path : add.paths) check(path);
     }
     newDocs.merge(add.newDocs);
+    paths.add(add.paths);
+  }
+
+  /**
+   * Checks if a document with the specified path will be added.
+   * @param path target path
+   * @throws QueryException query exception
+   */
+  void check(final String path) throws QueryException {
+    if(paths.contains(path)) throw UPMULTDOC_X_X.get(info, data.meta.name, path);
+  }
+
+  @Override
+  public void parse() throws QueryException {
+    newDocs.prepare(data.meta.name, false);
   }
 
   @Override
   public void prepare() throws QueryException {
     size = newDocs.inputs.size();
-    newDocs.prepare(data.meta.name, false);
+    parse();
   }
 
   @Override
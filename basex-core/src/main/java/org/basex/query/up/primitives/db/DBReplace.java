@@ -0,0 +1,123 @@
+package org.basex.query.up.primitives.db;
+
+import static org.basex.query.QueryError.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.up.primitives.*;
+import org.basex.query.up.primitives.node.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.basex.util.options.*;
+
+/**
+ * Replace primitive. The documents to be replaced are resolved when the updates are prepared.
+ * As a result, the database need not be accessed while the query is evaluated.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class DBReplace extends DBUpdate {
+  /** Target paths. */
+  private final StringList paths = new StringList(1);
+  /** New documents ({@code null} entries: documents will only be deleted). */
+  private final List<DBNew> newDocs = new ArrayList<>(1);
+  /** New documents that will be added to the database (assigned when resolved). */
+  private final List<DBNew> adds = new ArrayList<>(0);
+
+  /**
+   * Constructor.
+   * @param data target database
+   * @param path target path
+   * @param input new document (if {@code null}, existing documents will only be deleted)
+   * @param opts database options
+   * @param qc query context
+   * @param info input info
+   * @throws QueryException query exception
+   */
+  public DBReplace(final Data data, final String path, final NewInput input, final Options opts,
+      final QueryContext qc, final InputInfo info) throws QueryException {
+
+    super(UpdateType.DBREPLACE, data, info);
+    paths.add(path);
+    newDocs.add(input == null ? null :
+      new DBNew(qc, new DBOptions(opts, DBOptions.PARSING, info), info, input));
+  }
+
+  @Override
+  public void merge(final Update update) throws QueryException {
+    final DBReplace replace = (DBReplace) update;
+    final int ps = replace.paths.size();
+    for(int p = 0; p < ps; p++) {
+      final String path = replace.paths.get(p);
+      final DBNew nd = replace.newDocs.get(p);
+      if(nd != null) {
+        final int s = paths.size();
+        for(int i = 0; i < s; i++) {
+          if(newDocs.get(i) != null && paths.get(i).equals(path))
+            throw UPMULTDOC_X_X.get(info, data.meta.name, path);
+        }
+      }
+      paths.add(path);
+      newDocs.add(nd);
+    }
+  }
+
+  @Override
+  public void parse() throws QueryException {
+    for(final DBNew nd : newDocs) {
+      if(nd != null) nd.prepare(data.meta.name, false);
+    }
+  }
+
+  /**
+   * Resolves the documents to be replaced. Returns the primitives for replacing and deleting
+   * existing documents; documents that do not exist yet will be added by this update.
+   * @param add pending add operation (can be {@code null})
+   * @return node updates
+   * @throws QueryException query exception
+   */
+  public List<NodeUpdate> resolve(final DBAdd add) throws QueryException {
+    final List<NodeUpdate> updates = new ArrayList<>();
+    final int ps = paths.size();
+    for(int p = 0; p < ps; p++) {
+      final String path = paths.get(p);
+      final IntList docs = data.resources.docs(path);
+      final DBNew nd = newDocs.get(p);
+      int d = 0;
+      if(nd != null) {
+        if(!docs.isEmpty()) {
+          updates.add(new ReplaceDoc(docs.get(d++), data, nd, info));
+        } else {
+          if(add != null) add.check(path);
+          adds.add(nd);
+        }
+      }
+      final int ds = docs.size();
+      for(; d < ds; d++) updates.add(new DeleteNode(docs.get(d), data, info));
+    }
+    return updates;
+  }
+
+  @Override
+  public void prepare() throws QueryException {
+    for(final DBNew nd : adds) nd.prepare(data.meta.name, false);
+  }
+
+  @Override
+  public void apply() throws QueryException {
+    for(final DBNew nd : adds) nd.add(data);
+  }
+
+  @Override
+  public int size() {
+    return adds.size();
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + '[' + paths + ']';
+  }
+}
@@ -40,4 +40,10 @@ public abstract class DBUpdate extends DataUpdate implements Comparable<DBUpdate
    * @throws QueryException exception
    */
   public abstract void prepare() throws QueryException;
+
+  /**
+   * Parses new documents. Can be called before the database is locked for writing.
+   * @throws QueryException exception
+   */
+  public void parse() throws QueryException { }
 }
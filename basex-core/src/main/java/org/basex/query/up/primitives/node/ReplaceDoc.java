@@ -33,9 +33,20 @@ public final class ReplaceDoc extends NodeUpdate {
   public ReplaceDoc(final int pre, final Data data, final NewInput input, final Options opts,
       final QueryContext qc, final InputInfo info) throws QueryException {
 
+    this(pre, data, new DBNew(qc, new DBOptions(opts, DBOptions.PARSING, info), info, input),
+        info);
+  }
+
+  /**
+   * Constructor.
+   * @param pre target node pre value
+   * @param data target data instance
+   * @param newDocs new document
+   * @param info input info
+   */
+  public ReplaceDoc(final int pre, final Data data, final DBNew newDocs, final InputInfo info) {
     super(UpdateType.REPLACENODE, pre, data, info);
-    final DBOptions options = new DBOptions(opts, DBOptions.PARSING, info);
-    newDocs = new DBNew(qc, options, info, input);
+    this.newDocs = newDocs;
   }
 
   @Override
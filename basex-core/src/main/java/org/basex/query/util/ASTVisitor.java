@@ -96,6 +96,18 @@ public abstract class ASTVisitor {
     return true;
   }
 
+  /**
+   * Notifies the visitor of a document that will be added or replaced.
+   * Overwritten by {@link MainModule}.
+   * @param db name of database
+   * @param path path to the document or directory
+   * @return if more expressions should be visited ({@code true} by default)
+   */
+  @SuppressWarnings("unused")
+  public boolean lock(final String db, final String path) {
+    return true;
+  }
+
   /**
    * Notifies the visitor of an expression entering a focus. Overwritten by {@link MainModule}.
    */
@@ -1,29 +1,83 @@
 package org.basex.query.value.map;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
+import org.basex.util.*;
 
 /**
- * A convenience class for building new maps.
+ * A builder for creating new maps. Entries are collected in mutable arrays, and the trie of the
+ * resulting map is created in a single pass when the builder is finished. This is much cheaper
+ * than inserting each entry into a persistent map.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
 public final class MapBuilder {
-  /** Map. */
-  private XQMap map = XQMap.EMPTY;
+  /** Hash values of the keys. */
+  private int[] hashes;
+  /** Keys. */
+  private Item[] keys;
+  /** Values. */
+  private Value[] values;
+  /** Hash index: positions of the entries, incremented by one ({@code 0}: empty slot). */
+  private int[] index;
+  /** Number of entries. */
+  private int size;
 
   /**
-   * Adds a key/value pair to the map.
+   * Constructor.
+   */
+  public MapBuilder() {
+    this(Array.CAPACITY);
+  }
+
+  /**
+   * Constructor.
+   * @param capacity initial capacity
+   */
+  public MapBuilder(final int capacity) {
+    final int c = Math.max(1, capacity);
+    hashes = new int[c];
+    keys = new Item[c];
+    values = new Value[c];
+    index = new int[Integer.highestOneBit(c) << 2];
+  }
+
+  /**
+   * Adds a key/value pair to the map. An existing value will be replaced.
    * @param key key
    * @param value value
    * @return self reference
    * @throws QueryException query exception
    */
   public MapBuilder put(final Item key, final Value value) throws QueryException {
-    map = map.put(key, value, null);
+    final int hash = key.hash(null);
+    final int mask = index.length - 1;
+    int slot = spread(hash) & mask;
+    for(int e; (e = index[slot]) != 0; slot = slot + 1 & mask) {
+      final int i = e - 1;
+      if(hashes[i] == hash && keys[i].sameKey(key, null)) {
+        keys[i] = key;
+        values[i] = value;
+        return this;
+      }
+    }
+
+    if(size == keys.length) {
+      final int s = Array.newSize(size);
+      hashes = Arrays.copyOf(hashes, s);
+      keys = Arrays.copyOf(keys, s);
+      values = Arrays.copyOf(values, s);
+    }
+    hashes[size] = hash;
+    keys[size] = key;
+    values[size] = value;
+    index[slot] = ++size;
+    if(size << 1 > index.length) rehash();
     return this;
   }
 
@@ -50,12 +104,96 @@ public final class MapBuilder {
   }
 
   /**
-   * Returns and invalidates the resulting map.
+   * Returns the resulting map and invalidates the builder.
    * @return map
    */
   public XQMap finish() {
-    final XQMap m = map;
-    map = null;
-    return m;
+    final XQMap map;
+    if(size == 0) {
+      map = XQMap.EMPTY;
+    } else {
+      final int[] ids = new int[size], tmp = new int[size];
+      for(int i = 0; i < size; i++) ids[i] = i;
+      map = new XQMap(node(ids, tmp, 0, size, 0));
+    }
+    hashes = null;
+    keys = null;
+    values = null;
+    index = null;
+    return map;
+  }
+
+  /**
+   * Creates a trie node for the specified entries.
+   * @param ids entry positions (ordered by insertion)
+   * @param tmp temporary array
+   * @param start start position
+   * @param end end position
+   * @param level level
+   * @return node
+   */
+  private TrieNode node(final int[] ids, final int[] tmp, final int start, final int end,
+      final int level) {
+
+    final int first = ids[start], hash = hashes[first];
+    if(end - start == 1) return new TrieLeaf(hash, keys[first], values[first]);
+
+    boolean same = true;
+    for(int i = start + 1; same && i < end; i++) same = hashes[ids[i]] == hash;
+    if(same) {
+      // hash collisions: create list
+      final int n = end - start;
+      final Item[] ks = new Item[n];
+      final Value[] vs = new Value[n];
+      for(int i = 0; i < n; i++) {
+        ks[i] = keys[ids[start + i]];
+        vs[i] = values[ids[start + i]];
+      }
+      return new TrieList(hash, ks, vs);
+    }
+
+    // distribute entries to child nodes (counting sort, insertion order is preserved)
+    final int[] offsets = new int[TrieNode.KIDS + 1];
+    for(int i = start; i < end; i++) offsets[TrieNode.key(hashes[ids[i]], level) + 1]++;
+    for(int k = 0; k < TrieNode.KIDS; k++) offsets[k + 1] += offsets[k];
+    final int[] pos = offsets.clone();
+    for(int i = start; i < end; i++) {
+      tmp[start + pos[TrieNode.key(hashes[ids[i]], level)]++] = ids[i];
+    }
+
+    final TrieNode[] kids = new TrieNode[TrieNode.KIDS];
+    int used = 0;
+    for(int k = 0; k < TrieNode.KIDS; k++) {
+      final int s = start + offsets[k], e = start + offsets[k + 1];
+      if(s < e) {
+        kids[k] = node(tmp, ids, s, e, level + 1);
+        used |= 1 << k;
+      }
+    }
+    return new TrieBranch(kids, used, end - start);
+  }
+
+  /**
+   * Doubles the size of the hash index.
+   */
+  private void rehash() {
+    final int[] idx = new int[index.length << 1];
+    final int mask = idx.length - 1;
+    for(int i = 0; i < size; i++) {
+      int slot = spread(hashes[i]) & mask;
+      while(idx[slot] != 0) slot = slot + 1 & mask;
+      idx[slot] = i + 1;
+    }
+    index = idx;
+  }
+
+  /**
+   * Spreads the bits of a hash value.
+   * @param hash hash value
+   * @return spread hash value
+   */
+  private static int spread(final int hash) {
+    final int h = hash * 0x9E3779B9;
+    return h ^ h >>> 16;
   }
 }
@@ -36,7 +36,7 @@ public final class XQMap extends XQData {
    * Constructor.
    * @param root map
    */
-  private XQMap(final TrieNode root) {
+  XQMap(final TrieNode root) {
     super(SeqType.ANY_MAP);
     this.root = root;
   }
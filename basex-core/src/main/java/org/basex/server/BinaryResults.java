@@ -0,0 +1,164 @@
+package org.basex.server;
+
+import java.io.*;
+
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.serial.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.Type.ID;
+import org.basex.util.*;
+
+/**
+ * This class encodes and decodes query results in a binary format.
+ * Each item is sent as {@code {type}{size}{value}}:
+ * <ul>
+ * <li>{@code type} is the type id of the item (see {@link ID})</li>
+ * <li>{@code size} is the length of the value, encoded as compressed integer (see {@link Num})
+ * </li>
+ * <li>{@code value} contains 8 bytes for integers and doubles, 4 bytes for floats,
+ *   1 byte for booleans, and the raw bytes of binary items.
+ *   All other items are serialized.</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class BinaryResults {
+  /** Private constructor. */
+  private BinaryResults() { }
+
+  /**
+   * Writes an item in the binary format.
+   * @param item item to be written
+   * @param ser serializer, which writes to the specified buffer
+   * @param buffer buffer for serialized items
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  static void write(final Item item, final Serializer ser, final ArrayOutput buffer,
+      final DataOutput out) throws IOException {
+
+    final ID id = item.typeId();
+    out.write(id.asByte());
+    try {
+      if(integer(id)) {
+        out.writeNum(8);
+        out.write8(item.itr(null));
+      } else if(id == ID.DBL) {
+        out.writeNum(8);
+        out.write8(Double.doubleToRawLongBits(item.dbl(null)));
+      } else if(id == ID.FLT) {
+        out.writeNum(4);
+        out.write4(Float.floatToRawIntBits(item.flt(null)));
+      } else if(id == ID.BLN) {
+        out.writeNum(1);
+        out.writeBool(item.bool(null));
+      } else if(id == ID.B64 || id == ID.HEX) {
+        final byte[] value = ((Bin) item).binary(null);
+        out.writeNum(value.length);
+        out.writeBytes(value);
+      } else {
+        ser.reset();
+        ser.serialize(item);
+        final byte[] value = buffer.next();
+        out.writeNum(value.length);
+        out.writeBytes(value);
+      }
+    } catch(final QueryException ex) {
+      throw new QueryIOException(ex);
+    }
+  }
+
+  /**
+   * Reads the value of an item in the binary format.
+   * @param in input stream
+   * @return value
+   * @throws IOException I/O exception
+   */
+  public static byte[] read(final InputStream in) throws IOException {
+    final int b = in.read();
+    final int size;
+    switch((b & 0xC0) >>> 6) {
+      case 0:
+        size = b;
+        break;
+      case 1:
+        size = ((b & 0x3F) << 8) + in.read();
+        break;
+      case 2:
+        size = ((b & 0x3F) << 24) + (in.read() << 16) + (in.read() << 8) + in.read();
+        break;
+      default:
+        size = (in.read() << 24) + (in.read() << 16) + (in.read() << 8) + in.read();
+    }
+    final byte[] value = new byte[size];
+    for(int v = 0; v < size; v++) {
+      final int r = in.read();
+      if(r == -1) throw new EOFException();
+      value[v] = (byte) r;
+    }
+    return value;
+  }
+
+  /**
+   * Converts a binary value to a Java object.
+   * @param type type id
+   * @param value value
+   * @return {@link Long}, {@link Double}, {@link Float}, {@link Boolean}, byte array, or string
+   */
+  public static Object object(final int type, final byte[] value) {
+    final ID id = ID.get(type);
+    if(integer(id)) return toLong(value);
+    if(id == ID.DBL) return Double.longBitsToDouble(toLong(value));
+    if(id == ID.FLT) return Float.intBitsToFloat((int) toLong(value));
+    if(id == ID.BLN) return value[0] != 0;
+    if(id == ID.B64 || id == ID.HEX) return value;
+    return Token.string(value);
+  }
+
+  /**
+   * Converts a binary value to its string representation.
+   * @param type type id
+   * @param value value
+   * @return string
+   */
+  public static byte[] string(final int type, final byte[] value) {
+    final ID id = ID.get(type);
+    if(integer(id)) return Token.token(toLong(value));
+    if(id == ID.DBL) return Token.token(Double.longBitsToDouble(toLong(value)));
+    if(id == ID.FLT) return Token.token(Float.intBitsToFloat((int) toLong(value)));
+    if(id == ID.BLN) return Token.token(value[0] != 0);
+    if(id == ID.B64) return Base64.encode(value);
+    if(id == ID.HEX) return Token.hex(value, true);
+    return value;
+  }
+
+  /**
+   * Checks if the specified type is encoded as 64-bit integer.
+   * @param id type id
+   * @return result of check
+   */
+  private static boolean integer(final ID id) {
+    if(id == null) return false;
+    switch(id) {
+      case ITR: case NPI: case NIN: case LNG: case INT: case SHR: case BYT:
+      case NNI: case UIN: case USH: case UBY: case PIN:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Converts bytes in big-endian order to a long value.
+   * @param value bytes
+   * @return long value
+   */
+  private static long toLong(final byte[] value) {
+    long l = 0;
+    for(final byte v : value) l = l << 8 | v & 0xFF;
+    return l;
+  }
+}
@@ -9,6 +9,7 @@ import java.util.*;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.users.*;
 import org.basex.io.in.*;
@@ -69,6 +70,31 @@ public final class ClientListener extends Thread implements ClientInfo {
     setDaemon(true);
   }
 
+  /**
+   * Releases the cursors of paged queries whose locks conflict with the locks of a job that will
+   * be run by this session. This way, the job will not be blocked by them.
+   * @param locks finalized locks of the job (will be reset afterwards)
+   * @param query query to be skipped (can be {@code null})
+   */
+  private void release(final Locks locks, final ServerQuery query) {
+    for(final ServerQuery qp : queries.values()) {
+      if(qp != query) qp.release(locks);
+    }
+    locks.reset();
+  }
+
+  /**
+   * Releases the cursors of paged queries whose locks conflict with the locks of a command.
+   * @param cmd command to be run
+   */
+  private void release(final Command cmd) {
+    cmd.updating(context);
+    cmd.addLocks();
+    final Locks locks = cmd.jc().locks;
+    locks.finish(context);
+    release(locks, null);
+  }
+
   @Override
   public void run() {
     if(!authenticate()) return;
@@ -137,6 +163,7 @@ public final class ClientListener extends Thread implements ClientInfo {
         String info;
         try {
           // run command
+          release(command);
           command.execute(context, new ServerOutput(out));
           info = command.info();
         } catch(final BaseXException ex) {
@@ -227,6 +254,8 @@ public final class ClientListener extends Thread implements ClientInfo {
       do Performance.sleep(1); while(command != null);
     }
     context.sessions.remove(this);
+    for(final ServerQuery qp : queries.values()) qp.close();
+    queries.clear();
 
     try {
       if(context.user() != null) Close.close(context);
@@ -340,6 +369,7 @@ public final class ClientListener extends Thread implements ClientInfo {
     final ServerInput si = new ServerInput(in);
     try {
       cmd.setInput(si);
+      release(cmd);
       cmd.execute(context);
       success(cmd.info());
     } catch(final BaseXException ex) {
@@ -392,11 +422,24 @@ public final class ClientListener extends Thread implements ClientInfo {
           info.append(val);
           if(!typ.isEmpty()) info.append(" as ").append(typ);
         } else if(sc == ServerCmd.RESULTS) {
+          release(qp.locks(), qp);
           qp.execute(out, true, true, false);
         } else if(sc == ServerCmd.EXEC) {
+          release(qp.locks(), qp);
           qp.execute(out, false, true, false);
         } else if(sc == ServerCmd.FULL) {
+          release(qp.locks(), qp);
           qp.execute(out, true, true, true);
+        } else if(sc == ServerCmd.BINARY) {
+          release(qp.locks(), qp);
+          qp.binary(out);
+        } else if(sc == ServerCmd.PAGE) {
+          // format: code of the command for retrieving all results
+          final int count = Strings.toInt(in.readString());
+          final ServerCmd format = ServerCmd.get(Strings.toInt(in.readString()));
+          // locks of the query are only determined when its first page is requested
+          if(!qp.paged()) release(qp.locks(), qp);
+          qp.page(out, count, format == ServerCmd.FULL, format == ServerCmd.BINARY);
         } else if(sc == ServerCmd.INFO) {
           out.print(qp.info());
         } else if(sc == ServerCmd.OPTIONS) {
@@ -404,7 +447,7 @@ public final class ClientListener extends Thread implements ClientInfo {
         } else if(sc == ServerCmd.UPDATING) {
           out.print(Boolean.toString(qp.updating()));
         } else if(sc == ServerCmd.CLOSE) {
-          queries.remove(arg);
+          queries.remove(arg).close();
         } else if(sc == ServerCmd.NEXT) {
           throw new Exception("Protocol for query iteration is out-of-date.");
         }
@@ -421,7 +464,8 @@ public final class ClientListener extends Thread implements ClientInfo {
       error = ex instanceof RuntimeException ? Util.bug(ex) : Util.message(ex);
       log(LogType.REQUEST, sc + "[" + arg + ']');
       log(LogType.ERROR, error);
-      queries.remove(arg);
+      final ServerQuery qp = queries.remove(arg);
+      if(qp != null) qp.close();
     }
     if(error != null) {
       // send 0 as end marker, 1 as error flag, and {MSG}0
@@ -41,6 +41,10 @@ public final class Log {
 
   /** Current log file. */
   private LogFile file;
+  /** Asynchronous log writer (can be {@code null}). */
+  private volatile LogWriter writer;
+  /** Closed flag (guarded by the static options; no new writer will be started). */
+  private boolean closed;
 
   /**
    * Constructor.
@@ -56,6 +60,8 @@ public final class Log {
    * @return log file, or {@code null} if it does not exist
    */
   public LogFile file(final String name) {
+    final LogWriter lw = writer;
+    if(lw != null) lw.drain();
     LogFile lf = file;
     if(lf == null || !lf.valid(name)) lf = new LogFile(name, dir());
     return lf.exists() ? lf : null;
@@ -120,17 +126,41 @@ public final class Log {
     if(perf != null) tb.add('\t').add(perf);
     tb.add(Prop.NL);
 
-    try {
-      synchronized(sopts) {
-        // create new log file and write log entry
-        final String name = DateTime.format(date, DateTime.DATE);
-        if(file != null && !file.valid(name)) close();
-        if(file == null) file = LogFile.create(name, dir());
-        // write log entry
-        file.write(tb.finish());
+    final String name = DateTime.format(date, DateTime.DATE);
+    final LogWriter lw = writer();
+    if(lw != null) {
+      lw.add(name, tb.finish());
+    } else {
+      try {
+        write(name, tb.finish());
+      } catch(final IOException ex) {
+        Util.stack(ex);
       }
-    } catch(final IOException ex) {
-      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Writes entries to the specified log file.
+   * @param name name of log file
+   * @param entries entries
+   * @throws IOException I/O exception
+   */
+  void write(final String name, final byte[] entries) throws IOException {
+    synchronized(sopts) {
+      // create new log file and write log entries
+      if(file != null && !file.valid(name)) closeFile();
+      if(file == null) file = LogFile.create(name, dir());
+      file.write(entries);
+    }
+  }
+
+  /**
+   * Synchronizes the current log file with disk.
+   * @throws IOException I/O exception
+   */
+  void sync() throws IOException {
+    synchronized(sopts) {
+      if(file != null) file.sync();
     }
   }
 
@@ -138,18 +168,56 @@ public final class Log {
    * Closes the log file.
    */
   public void close() {
+    final LogWriter lw;
+    synchronized(sopts) {
+      lw = writer;
+      writer = null;
+      closed = true;
+    }
+    if(lw != null) lw.close();
     try {
       synchronized(sopts) {
-        if(file != null) {
-          file.close();
-          file = null;
-        }
+        closeFile();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Closes the current log file.
+   * @throws IOException I/O exception
+   */
+  private void closeFile() throws IOException {
+    if(file != null) {
+      file.close();
+      file = null;
+    }
+  }
+
+  /**
+   * Returns the asynchronous log writer. A new writer is started if required and if the log
+   * has not been closed yet.
+   * @return writer, or {@code null} if entries are to be written synchronously
+   */
+  private LogWriter writer() {
+    final int queue = sopts.get(StaticOptions.LOGQUEUE);
+    if(queue <= 0) return null;
+    LogWriter lw = writer;
+    if(lw == null) {
+      synchronized(sopts) {
+        lw = writer;
+        if(lw == null && !closed) {
+          lw = new LogWriter(this, queue, sopts.get(StaticOptions.LOGDROP),
+              sopts.get(StaticOptions.LOGSYNC));
+          lw.start();
+          writer = lw;
+        }
+      }
+    }
+    return lw;
+  }
+
   /**
    * Returns all log files.
    * @return log directory
@@ -85,8 +85,8 @@ public final class LogFile {
   }
 
   /**
-   * Writes new line to the log file.
-   * @param line line to be written
+   * Writes new lines to the log file.
+   * @param line lines to be written
    * @throws IOException I/O exception
    */
   void write(final byte[] line) throws IOException {
@@ -96,6 +96,16 @@ public final class LogFile {
     }
   }
 
+  /**
+   * Synchronizes the log file with disk.
+   * @throws IOException I/O exception
+   */
+  void sync() throws IOException {
+    synchronized(file) {
+      if(fos != null) fos.getFD().sync();
+    }
+  }
+
   /**
    * Closes the current log file.
    * @throws IOException I/O exception
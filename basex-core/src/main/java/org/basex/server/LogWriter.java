@@ -0,0 +1,176 @@
+package org.basex.server;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.server.Log.LogType;
+import org.basex.util.*;
+
+/**
+ * Asynchronous log writer. Log entries are added to a lock-free queue and written to disk
+ * in batches by a dedicated thread.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class LogWriter extends Thread {
+  /** Maximum size of a batch of entries (bytes). */
+  private static final int BATCH = 1 << 16;
+  /** Time to wait for new entries (nanoseconds). */
+  private static final long WAIT = 10000000L;
+  /** Time to wait for a free slot in the queue (nanoseconds). */
+  private static final long PAUSE = 100000L;
+
+  /** Queued entries (log file names and entries). */
+  private final Queue<Pair<String, byte[]>> queue = new ConcurrentLinkedQueue<>();
+  /** Number of queued entries. */
+  private final AtomicInteger size = new AtomicInteger();
+  /** Number of entries that have been added to the queue. */
+  private final AtomicLong added = new AtomicLong();
+  /** Number of entries that have been discarded. */
+  private final AtomicLong dropped = new AtomicLong();
+  /** Log. */
+  private final Log log;
+  /** Maximum number of queued entries. */
+  private final int capacity;
+  /** Discard entries if the queue is full. */
+  private final boolean drop;
+  /** Interval for synchronizing the log file with disk (nanoseconds; 0: never). */
+  private final long sync;
+
+  /** Number of entries that have been written. */
+  private volatile long written;
+  /** Running flag. */
+  private volatile boolean running = true;
+
+  /**
+   * Constructor.
+   * @param log log
+   * @param capacity maximum number of queued entries
+   * @param drop discard entries if the queue is full
+   * @param sync interval for synchronizing the log file with disk (milliseconds; 0: never)
+   */
+  LogWriter(final Log log, final int capacity, final boolean drop, final long sync) {
+    super("LogWriter");
+    this.log = log;
+    this.capacity = capacity;
+    this.drop = drop;
+    this.sync = sync * 1000000L;
+    setDaemon(true);
+  }
+
+  /**
+   * Adds an entry to the queue. If the queue is full, the entry will either be discarded,
+   * or the call will be blocked until the entry can be added.
+   * @param name name of log file
+   * @param entry entry
+   */
+  void add(final String name, final byte[] entry) {
+    int s;
+    while(true) {
+      s = size.get();
+      if(s < capacity) {
+        if(size.compareAndSet(s, s + 1)) break;
+      } else if(drop || !running) {
+        dropped.incrementAndGet();
+        return;
+      } else {
+        LockSupport.parkNanos(PAUSE);
+      }
+    }
+    queue.add(new Pair<>(name, entry));
+    added.incrementAndGet();
+    if(s == 0) LockSupport.unpark(this);
+  }
+
+  /**
+   * Waits until all entries that have been added so far have been written.
+   */
+  void drain() {
+    final long target = added.get();
+    while(written < target && isAlive()) {
+      LockSupport.unpark(this);
+      LockSupport.parkNanos(PAUSE);
+    }
+  }
+
+  /**
+   * Writes all remaining entries and stops the writer.
+   */
+  void close() {
+    running = false;
+    LockSupport.unpark(this);
+    try {
+      join();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  @Override
+  public void run() {
+    final TokenBuilder tb = new TokenBuilder();
+    long synced = System.nanoTime();
+    boolean dirty = false;
+    long count = 0;
+    while(running || !queue.isEmpty()) {
+      Pair<String, byte[]> entry = queue.poll();
+      if(entry == null) {
+        // synchronize log file with disk, or wait for new entries
+        if(dirty && sync > 0 && System.nanoTime() - synced >= sync) {
+          try {
+            log.sync();
+          } catch(final IOException ex) {
+            Util.stack(ex);
+          }
+          synced = System.nanoTime();
+          dirty = false;
+        }
+        if(running) LockSupport.parkNanos(this, WAIT);
+        continue;
+      }
+
+      // write batch of entries with identical file name
+      String name = entry.name();
+      while(entry != null) {
+        if(!entry.name().equals(name)) {
+          write(name, tb.next());
+          name = entry.name();
+        }
+        tb.add(entry.value());
+        size.decrementAndGet();
+        count++;
+        entry = tb.size() < BATCH ? queue.poll() : null;
+      }
+      write(name, tb.next());
+      written = count;
+      dirty = true;
+
+      final long d = dropped.getAndSet(0);
+      if(d > 0) log.writeServer(LogType.ERROR, d + " log entries were discarded.");
+    }
+    if(dirty && sync > 0) {
+      try {
+        log.sync();
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
+  }
+
+  /**
+   * Writes entries to the specified log file.
+   * @param name name of log file
+   * @param entries entries
+   */
+  private void write(final String name, final byte[] entries) {
+    try {
+      log.write(name, entries);
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+}
@@ -37,6 +37,10 @@ public enum ServerCmd {
   UPDATING(30),
   /** Code for executing a query and returning all information relevant for XQJ: {id}0. */
   FULL(31),
+  /** Code for returning the next results of a query: {id}0{count}0{format}0. */
+  PAGE(32),
+  /** Code for executing a query and returning typed results in a binary format: {id}0. */
+  BINARY(33),
   /** Code for running a database command: {path}0{input}0. */
   COMMAND(-1);
 
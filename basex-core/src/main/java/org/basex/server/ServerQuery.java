@@ -4,11 +4,14 @@ import static org.basex.core.Text.*;
 import static org.basex.query.QueryError.*;
 
 import java.io.*;
+import java.util.concurrent.*;
 
 import org.basex.api.client.*;
 import org.basex.core.*;
 import org.basex.core.jobs.*;
+import org.basex.core.locks.*;
 import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
 import org.basex.io.serial.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
@@ -27,12 +30,16 @@ public final class ServerQuery extends Job {
   /** Database context. */
   private final Context ctx;
 
-  /** Query processor. */
-  private QueryProcessor qp;
-  /** Parsing flag. */
-  private boolean parsed;
+  /** Query processor (also accessed by the thread of the cursor). */
+  private volatile QueryProcessor qp;
+  /** Parsing flag (also accessed by the thread of the cursor). */
+  private volatile boolean parsed;
+  /** Serialization parameters (assigned when the query is parsed for the first time). */
+  private volatile String parameters;
   /** Query info. */
   private final StringBuilder info = new StringBuilder();
+  /** Cursor for paged result retrieval (can be {@code null}). */
+  private Cursor cursor;
 
   /**
    * Constructor.
@@ -52,6 +59,7 @@ public final class ServerQuery extends Job {
    * @throws IOException query exception
    */
   public void bind(final String name, final Object value, final String type) throws IOException {
+    close();
     try {
       qp().bind(name, value, type);
     } catch(final QueryException ex) {
@@ -67,6 +75,7 @@ public final class ServerQuery extends Job {
    * @throws IOException query exception
    */
   public void context(final Object value, final String type) throws IOException {
+    close();
     try {
       qp().context(value, type);
     } catch(final QueryException ex) {
@@ -79,7 +88,9 @@ public final class ServerQuery extends Job {
    * @return query info
    */
   public String info() {
-    return info.toString();
+    synchronized(info) {
+      return info.toString();
+    }
   }
 
   /**
@@ -88,8 +99,8 @@ public final class ServerQuery extends Job {
    * @throws IOException I/O Exception
    */
   public String parameters() throws IOException {
-    parse();
-    return qp.qc.serParams().toString();
+    if(parameters == null) parse();
+    return parameters;
   }
 
   /**
@@ -98,8 +109,24 @@ public final class ServerQuery extends Job {
    * @throws IOException I/O Exception
    */
   public boolean updating() throws IOException {
+    if(parameters == null) parse();
+    return updating;
+  }
+
+  /**
+   * Returns the locks that will be acquired when the query is evaluated.
+   * An open cursor will be closed before. The locks must be reset before the query is evaluated.
+   * @return locks
+   * @throws IOException I/O Exception
+   */
+  public Locks locks() throws IOException {
+    close();
     parse();
-    return qp.updating;
+    final Locks locks = jc().locks;
+    locks.reset();
+    qp.addLocks();
+    locks.finish(ctx);
+    return locks;
   }
 
   /**
@@ -112,6 +139,81 @@ public final class ServerQuery extends Job {
    */
   public void execute(final OutputStream out, final boolean iterative, final boolean encode,
       final boolean full) throws IOException {
+    close();
+    execute(out, iterative, encode, full, false, null);
+  }
+
+  /**
+   * Executes the query and returns the results in a binary format (see {@link BinaryResults}).
+   * @param out output stream
+   * @throws IOException I/O Exception
+   */
+  public void binary(final OutputStream out) throws IOException {
+    close();
+    execute(out, true, true, false, true, null);
+  }
+
+  /**
+   * Serializes the next results of the query. When called for the first time, the query is
+   * evaluated in a separate thread, which keeps its locks until all results have been retrieved,
+   * the query is closed, the session runs a conflicting job (see {@link #release(Locks)}), or
+   * no new results are requested within the {@link StaticOptions#KEEPALIVE} timeout.
+   * @param out output stream
+   * @param count maximum number of results to be returned
+   * @param full return full type information
+   * @param binary return results in a binary format
+   * @throws IOException I/O Exception
+   */
+  public void page(final OutputStream out, final int count, final boolean full,
+      final boolean binary) throws IOException {
+    if(cursor == null) {
+      cursor = new Cursor(full, binary);
+      cursor.start();
+    }
+    cursor.next(out, count);
+  }
+
+  /**
+   * Indicates if results of the query are retrieved in pages.
+   * @return result of check
+   */
+  public boolean paged() {
+    return cursor != null;
+  }
+
+  /**
+   * Releases an open cursor if its locks conflict with the locks of another job that will be
+   * run by the session. Further requests for results of this cursor will raise an error.
+   * @param locks locks of the job (see {@link Locks#finish(Context)})
+   */
+  public void release(final Locks locks) {
+    final Cursor c = cursor;
+    if(c != null && jc().locks.conflicts(locks)) c.abort();
+  }
+
+  /**
+   * Closes an open cursor and waits until its locks have been released.
+   */
+  public void close() {
+    final Cursor c = cursor;
+    if(c != null) {
+      cursor = null;
+      c.close();
+    }
+  }
+
+  /**
+   * Executes the query.
+   * @param out output stream
+   * @param iterative iterative evaluation
+   * @param encode encode results (client/server communication, iterative processing)
+   * @param full return full type information (only applicable to iterative evaluation)
+   * @param binary return results in a binary format (only applicable to iterative evaluation)
+   * @param crs cursor (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  private void execute(final OutputStream out, final boolean iterative, final boolean encode,
+      final boolean full, final boolean binary, final Cursor crs) throws IOException {
 
     final boolean compplan = ctx.options.get(MainOptions.COMPPLAN);
 
@@ -135,17 +237,26 @@ public final class ServerQuery extends Job {
 
       // iterate through results
       int hits = 0;
-      final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out) : out);
+      final ArrayOutput buffer = binary ? new ArrayOutput() : null;
+      final DataOutput bout = binary ? new DataOutput(out) : null;
+      final PrintOutput po = binary ? buffer :
+        PrintOutput.get(encode ? new ServerOutput(out) : out);
       final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.serParams();
       try(Serializer ser = Serializer.get(po, sopts)) {
-        for(Item item; (item = qc.next(iter)) != null;) {
-          if(iterative) {
+        while(crs == null || crs.acquire()) {
+          final Item item = qc.next(iter);
+          if(item == null) break;
+          if(binary) {
+            BinaryResults.write(item, ser, buffer, bout);
+            if(crs != null) crs.release();
+          } else if(iterative) {
             if(full) po.write(item.xdmInfo());
             else po.write(item.typeId().asByte());
             ser.reset();
             ser.serialize(item);
             po.flush();
             out.write(0);
+            if(crs != null) crs.release();
           } else {
             ser.serialize(item);
           }
@@ -155,7 +266,10 @@ public final class ServerQuery extends Job {
       qi.serializing = perf.ns();
 
       // generate query info
-      info.append(qi.toString(qp, po.size(), hits, jc().locks));
+      final String string = qi.toString(qp, binary ? bout.size() : po.size(), hits, jc().locks);
+      synchronized(info) {
+        info.append(string);
+      }
 
     } catch(final QueryException | JobException ex) {
       throw new BaseXException(ex);
@@ -182,8 +296,10 @@ public final class ServerQuery extends Job {
    */
   private void queryPlan() throws QueryIOException {
     if(ctx.options.get(MainOptions.XMLPLAN)) {
-      info.append(NL).append(QUERY_PLAN).append(COL).append(NL);
-      info.append(qp.plan().serialize()).append(NL);
+      synchronized(info) {
+        info.append(NL).append(QUERY_PLAN).append(COL).append(NL);
+        info.append(qp.plan().serialize()).append(NL);
+      }
     }
   }
 
@@ -202,6 +318,10 @@ public final class ServerQuery extends Job {
     }
     qp.qc.info.parsing = perf.ns();
     parsed = true;
+    if(parameters == null) {
+      updating = qp.updating;
+      parameters = qp.qc.serParams().toString();
+    }
   }
 
   /**
@@ -215,4 +335,136 @@ public final class ServerQuery extends Job {
     }
     return qp;
   }
+
+  /**
+   * Cursor, evaluating a query and returning its results in pages.
+   * New results are only generated if they have been requested by the client.
+   */
+  private final class Cursor extends Thread {
+    /** End marker. */
+    private final byte[] end = {};
+    /** Results that have been requested, but not been generated yet. */
+    private final Semaphore credit = new Semaphore(0);
+    /** Generated results. */
+    private final BlockingQueue<byte[]> results = new LinkedBlockingQueue<>();
+    /** Buffer for the currently generated result. */
+    private final ArrayOutput buffer = new ArrayOutput();
+    /** Timeout for waiting for new requests (milliseconds; deactivated if set to 0). */
+    private final long timeout;
+    /** Return full type information. */
+    private final boolean full;
+    /** Return results in a binary format. */
+    private final boolean binary;
+
+    /** Error (can be {@code null}). */
+    private volatile IOException error;
+    /** Indicates if all results have been returned. */
+    private boolean done;
+    /** Indicates if the cursor has been closed. */
+    private volatile boolean closed;
+    /** Indicates if the cursor has been released before all results were returned. */
+    private boolean aborted;
+
+    /**
+     * Constructor.
+     * @param full return full type information
+     * @param binary return results in a binary format
+     */
+    Cursor(final boolean full, final boolean binary) {
+      this.full = full;
+      this.binary = binary;
+      timeout = ctx.soptions.get(StaticOptions.KEEPALIVE) * 1000L;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        execute(buffer, true, true, full, binary, this);
+      } catch(final IOException ex) {
+        if(error == null) error = ex;
+      } finally {
+        results.add(end);
+      }
+    }
+
+    /**
+     * Waits until a new result has been requested.
+     * @return {@code true} if the next result is to be generated
+     */
+    boolean acquire() {
+      try {
+        if(timeout == 0) credit.acquire();
+        else if(!credit.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+          error = new BaseXException(TIMEOUT_EXCEEDED);
+          return false;
+        }
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+        return false;
+      }
+      return !closed;
+    }
+
+    /**
+     * Passes on the generated result.
+     */
+    void release() {
+      results.add(buffer.next());
+    }
+
+    /**
+     * Writes the requested number of results to the specified output stream.
+     * @param out output stream
+     * @param count maximum number of results
+     * @throws IOException I/O exception
+     */
+    void next(final OutputStream out, final int count) throws IOException {
+      if(done) {
+        if(aborted) throw error;
+        return;
+      }
+      credit.release(count);
+      try {
+        for(int c = 0; c < count; c++) {
+          final byte[] result = results.take();
+          if(result == end) {
+            done = true;
+            if(error != null) throw error;
+            break;
+          }
+          out.write(result);
+        }
+      } catch(final InterruptedException ex) {
+        throw new BaseXException(ex);
+      }
+    }
+
+    /**
+     * Stops the evaluation, as another command is run by the session.
+     */
+    void abort() {
+      if(done) return;
+      close();
+      error = new BaseXException("Query was closed to run another command.");
+      aborted = true;
+    }
+
+    /**
+     * Stops the evaluation and waits until the thread has been terminated.
+     */
+    void close() {
+      if(done) return;
+      done = true;
+      closed = true;
+      final QueryProcessor proc = qp;
+      if(proc != null) proc.stop();
+      credit.release();
+      try {
+        join();
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
 }
@@ -0,0 +1,196 @@
+package org.basex.util;
+
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class compresses and decompresses tokens with the Deflate algorithm and a dictionary that
+ * is shared by all tokens of a database. As each token is compressed separately, tokens can still
+ * be accessed and updated individually. Tokens are only compressed with the dictionary if the
+ * result is shorter than the one returned by {@link Compress#pack}.
+ *
+ * Compressed tokens start with the length of the original token, followed by a byte in which
+ * the lowest bit is set (see the packer version bit in {@link Compress#pack}).
+ *
+ * Recently decompressed tokens are cached.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Compressor {
+  /** Maximum size of a dictionary. */
+  public static final int DICTIONARY = 1 << 12;
+  /** Maximum number of bytes of a single token that will be added to a dictionary. */
+  private static final int SAMPLE = 64;
+  /** Size of the cache (must be a power of two). */
+  private static final int CACHE = 1 << 10;
+
+  /** Dictionary. */
+  private final byte[] dictionary;
+  /** Inflater. */
+  private final Inflater inflater = new Inflater(true);
+  /** Deflater (created on demand). */
+  private Deflater deflater;
+  /** Buffer for compressed and decompressed bytes. */
+  private byte[] buffer = new byte[256];
+
+  /** Offsets of cached tokens. */
+  private final long[] offsets = new long[CACHE];
+  /** Cached tokens. */
+  private final byte[][] tokens = new byte[CACHE][];
+
+  /**
+   * Constructor.
+   * @param dictionary dictionary
+   */
+  public Compressor(final byte[] dictionary) {
+    this.dictionary = dictionary;
+    clear();
+  }
+
+  /**
+   * Compresses the specified text. Returns the original text if the packed text is not shorter.
+   * @param text text to be packed
+   * @return packed or original text
+   */
+  public synchronized byte[] pack(final byte[] text) {
+    final byte[] packed = Compress.pack(text);
+    final int tl = text.length;
+    if(tl < 4) return packed;
+
+    if(deflater == null) deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.reset();
+    deflater.setDictionary(dictionary);
+    deflater.setInput(text);
+    deflater.finish();
+
+    // stop compression if result is not shorter than the currently best result
+    final int nl = Num.length(tl), max = packed.length - nl - 1;
+    if(buffer.length < max) buffer = new byte[max];
+    final int size = deflater.deflate(buffer, 0, max);
+    if(!deflater.finished() || size >= max) return packed;
+
+    final byte[] bytes = new byte[nl + 1 + size];
+    Num.set(bytes, tl);
+    bytes[nl] = 1;
+    System.arraycopy(buffer, 0, bytes, nl + 1, size);
+    return bytes;
+  }
+
+  /**
+   * Decompresses the specified text and caches the result.
+   * @param text compressed text
+   * @param offset offset of the text in the heap file
+   * @return unpacked text
+   */
+  public synchronized byte[] unpack(final byte[] text, final long offset) {
+    final int nl = Num.length(text, 0);
+    final byte[] unpacked;
+    if((text[nl] & 1) == 0) {
+      unpacked = Compress.unpack(text);
+    } else {
+      final int size = Num.get(text, 0);
+      unpacked = new byte[size];
+      inflater.reset();
+      inflater.setDictionary(dictionary);
+      inflater.setInput(text, nl + 1, text.length - nl - 1);
+      try {
+        if(inflater.inflate(unpacked) != size) throw Util.notExpected("Corrupt token.");
+      } catch(final DataFormatException ex) {
+        throw Util.notExpected(ex);
+      }
+    }
+    final int i = index(offset);
+    offsets[i] = offset;
+    tokens[i] = unpacked;
+    return unpacked;
+  }
+
+  /**
+   * Returns a cached token.
+   * @param offset offset of the text in the heap file
+   * @return token or {@code null}
+   */
+  public synchronized byte[] cached(final long offset) {
+    final int i = index(offset);
+    return offsets[i] == offset ? tokens[i] : null;
+  }
+
+  /**
+   * Removes a token from the cache.
+   * @param offset offset of the text in the heap file
+   */
+  public synchronized void invalidate(final long offset) {
+    final int i = index(offset);
+    if(offsets[i] == offset) {
+      offsets[i] = -1;
+      tokens[i] = null;
+    }
+  }
+
+  /**
+   * Clears the cache.
+   */
+  public synchronized void clear() {
+    Arrays.fill(offsets, -1);
+    Arrays.fill(tokens, null);
+  }
+
+  /**
+   * Releases the native resources of the inflater and deflater.
+   */
+  public synchronized void close() {
+    inflater.end();
+    if(deflater != null) deflater.end();
+  }
+
+  /**
+   * Returns the dictionary.
+   * @return dictionary
+   */
+  public byte[] dictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Returns the cache index for the specified offset.
+   * @param offset offset
+   * @return index
+   */
+  private static int index(final long offset) {
+    return (int) (offset ^ offset >>> 13) & CACHE - 1;
+  }
+
+  /**
+   * Builder for a dictionary. The dictionary is composed of the starts of distinct tokens.
+   */
+  public static final class Builder {
+    /** Distinct tokens. */
+    private final TokenSet set = new TokenSet();
+    /** Dictionary. */
+    private final ByteList list = new ByteList(DICTIONARY);
+
+    /**
+     * Adds a token to the dictionary.
+     * @param token token
+     * @return {@code true} if the dictionary is complete
+     */
+    public boolean add(final byte[] token) {
+      final int tl = Math.min(token.length, Math.min(SAMPLE, DICTIONARY - list.size()));
+      final byte[] tok = tl == token.length ? token : Arrays.copyOf(token, tl);
+      if(set.add(tok)) list.add(tok);
+      return list.size() == DICTIONARY;
+    }
+
+    /**
+     * Returns the dictionary.
+     * @return dictionary
+     */
+    public byte[] finish() {
+      return list.finish();
+    }
+  }
+}
@@ -1,12 +1,17 @@
 package org.basex.util;
 
+import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
 
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
 import org.basex.util.list.*;
 
 /**
  * Organizes free slots in heap files.
+ * Slots are binned by their byte size; a request is served by the smallest sufficient slot.
+ * Adjacent slots are merged before they are requested or written to disk.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
@@ -16,6 +21,48 @@ public final class FreeSlots {
   private final TreeMap<Integer, LongList> free = new TreeMap<>();
   /** Number of slots. */
   private int slots;
+  /** Indicates if slots have been added since they were last merged. */
+  private boolean dirty;
+
+  /**
+   * Default constructor.
+   */
+  public FreeSlots() { }
+
+  /**
+   * Constructor, reading free slots from disk.
+   * @param in input stream
+   * @param length file length (slots exceeding this length will be ignored)
+   * @throws IOException I/O exception
+   */
+  public FreeSlots(final DataInput in, final long length) throws IOException {
+    final int[] sizes = in.readNums();
+    final long[] offsets = in.readLongs(in.readNum());
+    final int sl = sizes.length;
+    for(int s = 0; s < sl; s++) {
+      if(offsets[s] + sizes[s] <= length) add(sizes[s], offsets[s], false);
+    }
+  }
+
+  /**
+   * Writes the free slots to disk.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  public void write(final DataOutput out) throws IOException {
+    optimize();
+    final IntList sizes = new IntList(slots);
+    final LongList offsets = new LongList(slots);
+    free.forEach((size, list) -> {
+      final int ll = list.size();
+      for(int l = 0; l < ll; l++) {
+        sizes.add(size);
+        offsets.add(list.get(l));
+      }
+    });
+    out.writeNums(sizes.finish());
+    out.writeLongs(offsets.finish());
+  }
 
   /**
    * Adds a value for the specified slot size.
@@ -26,6 +73,23 @@ public final class FreeSlots {
     add(size, offset, true);
   }
 
+  /**
+   * Indicates if no free slots exist.
+   * @return result of check
+   */
+  public boolean isEmpty() {
+    return slots == 0;
+  }
+
+  /**
+   * Removes all slots.
+   */
+  public void clear() {
+    free.clear();
+    slots = 0;
+    dirty = false;
+  }
+
   /**
    * Returns the offset of a slot that is greater than or equal to the specified size.
    * @param size ideal (minimum) slot size
@@ -34,7 +98,12 @@ public final class FreeSlots {
    */
   public long get(final int size, final long offset) {
     long off = -1;
-    final Entry<Integer, LongList> entry = free.ceilingEntry(size);
+    Entry<Integer, LongList> entry = free.ceilingEntry(size);
+    if(entry == null && dirty) {
+      // merge adjacent slots and try again
+      optimize();
+      entry = free.ceilingEntry(size);
+    }
     if(entry != null) {
       final int slotSize = entry.getKey();
       if(slotSize < size) throw Util.notExpected("Free slot is too small: % < %", slotSize, size);
@@ -58,19 +127,20 @@ public final class FreeSlots {
    * Adds a value for the specified slot size.
    * @param size byte size
    * @param offset file offset
-   * @param opt optimize
+   * @param merge merge adjacent slots later on
    */
-  private void add(final int size, final long offset, final boolean opt) {
+  private void add(final int size, final long offset, final boolean merge) {
     free.computeIfAbsent(size, k -> new LongList()).add(offset);
     slots++;
-    if(opt) optimize();
+    if(merge) dirty = true;
   }
 
   /**
    * Optimizes the free slot list structure by merging adjacent entries.
-   * Currently, this function is called after every addition of a new slot value.
+   * This function is called if no sufficient slot is found, or before slots are written to disk.
    */
   private void optimize() {
+    dirty = false;
     if(free.isEmpty()) return;
 
     // sort all entries by their offset (use native arrays; faster than TreeMap)
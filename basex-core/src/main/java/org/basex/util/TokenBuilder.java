@@ -182,6 +182,14 @@ public final class TokenBuilder {
     return Token.cl(chars, pos);
   }
 
+  /**
+   * Returns the internal buffer. Only the first {@link #size()} bytes are valid.
+   * @return buffer
+   */
+  public byte[] buffer() {
+    return chars;
+  }
+
   /**
    * Returns the byte stored at the specified position.
    * @param pos position
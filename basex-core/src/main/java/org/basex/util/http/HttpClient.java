@@ -11,6 +11,7 @@ import java.lang.reflect.*;
 import java.net.*;
 import java.util.*;
 import java.util.Map.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.StaticOptions.*;
@@ -23,6 +24,7 @@ import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
 import org.basex.util.Base64;
@@ -37,19 +39,56 @@ import org.basex.util.options.Options.*;
  * @author Michael Seiferle
  */
 public final class HttpClient {
+  /** Permits for parallel connections, indexed by host and port. */
+  private static final Map<String, Semaphore> PERMITS = new ConcurrentHashMap<>();
+
   /** Input information. */
   private final InputInfo info;
   /** Database options. */
   private final MainOptions options;
+  /** Maximum number of parallel connections per host (0: unlimited). */
+  private final int connections;
 
   /**
    * Constructor.
    * @param info input info
-   * @param options database options
+   * @param ctx database context
    */
-  public HttpClient(final InputInfo info, final MainOptions options) {
+  public HttpClient(final InputInfo info, final Context ctx) {
     this.info = info;
-    this.options = options;
+    options = ctx.options;
+    connections = ctx.soptions.get(StaticOptions.HTTPCONNECTIONS);
+  }
+
+  /**
+   * Sends HTTP requests in parallel and returns the responses in the order of the requests.
+   * @param requests request elements
+   * @param parallel maximum number of requests to be sent in parallel
+   * @return HTTP responses
+   * @throws QueryException query exception
+   */
+  public Value[] sendRequests(final ANode[] requests, final int parallel) throws QueryException {
+    final int rl = requests.length;
+    final Value[] responses = new Value[rl];
+    if(rl == 0) return responses;
+
+    final ExecutorService pool = Executors.newFixedThreadPool(Math.min(rl, parallel));
+    try {
+      final ArrayList<Future<Value>> futures = new ArrayList<>(rl);
+      for(final ANode request : requests) {
+        futures.add(pool.submit(() -> sendRequest(null, request, Empty.VALUE)));
+      }
+      for(int r = 0; r < rl; r++) responses[r] = futures.get(r).get();
+      return responses;
+    } catch(final ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if(cause instanceof QueryException) throw (QueryException) cause;
+      throw HC_ERROR_X.get(info, Util.rootException(cause));
+    } catch(final InterruptedException ex) {
+      throw HC_ERROR_X.get(info, ex);
+    } finally {
+      pool.shutdownNow();
+    }
   }
 
   /**
@@ -76,22 +115,47 @@ public final class HttpClient {
       final String url = href == null || href.length == 0 ? req.attribute(HREF) : string(href);
 
       if(url == null || url.isEmpty()) throw HC_URL.get(info);
-      conn = connect(url, req, challenge);
-
-      if(!req.payload.isEmpty() || !req.parts.isEmpty()) {
-        setContentType(conn, req);
-        writePayload(conn.getOutputStream(), req);
+      final Semaphore permit = permit(url);
+      if(permit != null) permit.acquire();
+      try {
+        conn = connect(url, req, challenge);
+        if(!req.payload.isEmpty() || !req.parts.isEmpty()) {
+          setContentType(conn, req);
+          writePayload(conn.getOutputStream(), req);
+        }
+        // the input stream will be closed after the response has been read;
+        // the connection will then be kept alive and reused for subsequent requests
+        final Value response = new HttpResponse(info, options).getResponse(conn, body, mediaType);
+        conn = null;
+        return response;
+      } finally {
+        if(permit != null) permit.release();
       }
-
-      return new HttpResponse(info, options).getResponse(conn, body, mediaType);
-
-    } catch(final IOException ex) {
+    } catch(final IOException | InterruptedException ex) {
       throw HC_ERROR_X.get(info, ex);
     } finally {
       if(conn != null) conn.disconnect();
     }
   }
 
+  /**
+   * Returns the permits for parallel connections to the host of the specified URL.
+   * @param url URL
+   * @return permits, or {@code null} if the number of connections is unlimited
+   */
+  private Semaphore permit(final String url) {
+    if(connections <= 0) return null;
+    try {
+      final URL u = new URL(url);
+      return PERMITS.computeIfAbsent(u.getHost() + ':' + u.getPort(),
+          k -> new Semaphore(connections, true));
+    } catch(final MalformedURLException ex) {
+      // invalid URL: will be rejected when the connection is opened
+      Util.debug(ex);
+      return null;
+    }
+  }
+
   /**
    * Opens an HTTP connection.
    * @param url HTTP URL to open connection to
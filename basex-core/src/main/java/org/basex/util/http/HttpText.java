@@ -34,6 +34,10 @@ public interface HttpText {
   String LOCATION = "Location";
   /** HTTP header string. */
   String ACCEPT = "Accept";
+  /** HTTP header string. */
+  String ETAG = "ETag";
+  /** HTTP header string. */
+  String IF_NONE_MATCH = "If-None-Match";
 
   /** Content-Disposition. */
   byte[] CONTENT_DISPOSITION = token("Content-Disposition");
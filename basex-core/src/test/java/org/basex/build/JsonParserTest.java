@@ -0,0 +1,115 @@
+package org.basex.build;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.build.json.*;
+import org.basex.build.json.JsonOptions.*;
+import org.basex.core.*;
+import org.basex.core.MainOptions.MainParser;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * JSON Parser Test.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class JsonParserTest extends SandboxTest {
+  /** Temporary JSON file. */
+  private static final String TEMP = Prop.TEMPDIR + NAME + IO.JSONSUFFIX;
+  /** Test input. */
+  private static final String JSON = "{ \"a\": [ 1, \"b\", true, null, {}, [] ], "
+      + "\"_ c\": \"\\\\\", \"d\": { \"e\\\\\": -1.5e3, \"d\": false }, \"\": \"\\u0001\" }";
+
+  /** JSON options. */
+  private JsonParserOptions jopts;
+
+  /**
+   * Creates the initial database.
+   */
+  @BeforeClass public static void before() {
+    set(MainOptions.PARSER, MainParser.JSON);
+  }
+
+  /**
+   * Removes the temporary JSON file.
+   */
+  @AfterClass public static void after() {
+    new IOFile(TEMP).delete();
+  }
+
+  /**
+   * Sets initial options.
+   */
+  @Before public void init() {
+    jopts = new JsonParserOptions();
+    context.options.set(MainOptions.JSONPARSER, jopts);
+  }
+
+  /**
+   * Drops the database.
+   */
+  @After public void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Compares the databases with the results of the main-memory conversion.
+   */
+  @Test public void formats() {
+    write(new IOFile(TEMP), JSON);
+    for(final JsonFormat format : new JsonFormat[] {
+      JsonFormat.DIRECT, JsonFormat.ATTRIBUTES, JsonFormat.BASIC, JsonFormat.JSONML }) {
+      if(format == JsonFormat.JSONML) write(new IOFile(TEMP), "[\"a\", { \"b\": \"c\" }, \"d\"]");
+      for(final boolean merge : new boolean[] { false, true }) {
+        for(final boolean strings : new boolean[] { false, true }) {
+          jopts.set(JsonOptions.FORMAT, format);
+          jopts.set(JsonOptions.MERGE, merge);
+          jopts.set(JsonOptions.STRINGS, strings);
+          jopts.set(JsonParserOptions.ESCAPE, strings);
+          execute(new CreateDB(NAME, TEMP));
+          assertEquals(query("json:parse(file:read-text('" + TEMP + "'), map { 'format': '" +
+              format + "', 'merge': " + merge + "(), 'strings': " + strings + "(), 'escape': " +
+              strings + "() })"), query("."));
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks texts with whitespaces.
+   */
+  @Test public void chop() {
+    write(new IOFile(TEMP), "[\" a \", \" \"]");
+    execute(new CreateDB(NAME, TEMP));
+    assertEquals("a", query("string(/json/_[1])"));
+    assertEquals("false", query("exists(/json/_[2]/text())"));
+
+    set(MainOptions.CHOP, false);
+    try {
+      execute(new CreateDB(NAME, TEMP));
+      assertEquals(" a ", query("string(/json/_[1])"));
+      assertEquals(" ", query("string(/json/_[2])"));
+    } finally {
+      set(MainOptions.CHOP, true);
+    }
+  }
+
+  /**
+   * Checks invalid input.
+   */
+  @Test public void error() {
+    write(new IOFile(TEMP), "{ \"a\": [ 1, 2 }");
+    try {
+      new CreateDB(NAME, TEMP).execute(context);
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("(1:15)"));
+    }
+  }
+}
@@ -75,6 +75,44 @@ public final class XMLParserTest extends SandboxTest {
     if(sb.length() != 0) fail(sb.toString());
   }
 
+  /**
+   * Compares texts and attribute values of the internal parser with the default parser.
+   */
+  @Test public void runs() {
+    set(MainOptions.CHOP, false);
+    set(MainOptions.SERIALIZER, SerializerMode.NOINDENT.get());
+
+    final StringBuilder large = new StringBuilder("<x a='");
+    for(int i = 0; i < 20000; i++) large.append(i % 7 == 0 ? "ä" : "ab ").append(i);
+    large.append("'>");
+    for(int i = 0; i < 20000; i++) large.append(i % 5 == 0 ? "\r\n" : "c]").append(i);
+    large.append("</x>");
+
+    final String[] docs = {
+        "<x>abc</x>", "<x a='abc'/>", "<x a=\"a'b\" b='a\"b'/>", "<x a='a\nb c\r\nd'/>",
+        "<x>a&amp;b&lt;c&#x20;d&#228;e</x>", "<x a='a&amp;b&#10;c&apos;d'/>",
+        "<x>a]b]]c]]]</x>", "<x>äböc€d😀e</x>", "<x>a\r\nb\rc\nd</x>",
+        "<x>a<![CDATA[b<c]]>d</x>", "<!DOCTYPE x [<!ENTITY e 'b<y>c</y>d'>]><x>a&e;e</x>",
+        large.toString()
+    };
+    for(final String doc : docs) {
+      set(MainOptions.INTPARSE, false);
+      execute(new CreateDB(NAME, doc));
+      final String expected = query(".");
+      set(MainOptions.INTPARSE, true);
+      execute(new CreateDB(NAME, doc));
+      assertEquals(expected, query("."));
+    }
+
+    // line numbers
+    try {
+      new CreateDB(NAME, "<x a='\n\n'>\n\n\n\n<</x>").execute(context);
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("(Line 7)"));
+    }
+  }
+
   /**
    * Empty elements with 31 attributes.
    * @throws Exception exception
@@ -0,0 +1,167 @@
+package org.basex.core;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for incremental and hot backups.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class BackupTest extends SandboxTest {
+  /**
+   * Finalizes the test.
+   */
+  @After public void after() {
+    execute(new DropBackup(NAME));
+    execute(new DropDB(NAME));
+    context.soptions.set(StaticOptions.HOTBACKUP, false);
+  }
+
+  /**
+   * Creates and restores incremental backups.
+   * @throws Exception exception
+   */
+  @Test public void incremental() throws Exception {
+    execute(new CreateDB(NAME, "<X/>"));
+    query("insert node (1 to 10000) ! <A a='{ . }'>{ . }</A> into /X");
+    execute(new CreateIndex("text"));
+    execute(new CreateBackup(NAME));
+
+    // update single node, drop index
+    Thread.sleep(1000);
+    query("replace value of node //A[1] with 'A'");
+    execute(new DropIndex("text"));
+    execute(new CreateBackup(NAME, true));
+
+    // add node
+    Thread.sleep(1000);
+    query("insert node <B/> into /X");
+    execute(new CreateBackup(NAME, true));
+
+    // incremental backups are smaller than the full backup
+    final StringList backups = context.databases.backups(NAME);
+    assertEquals(3, backups.size());
+    final long full = size(backups.get(2));
+    assertTrue(size(backups.get(1)) < full);
+    assertTrue(size(backups.get(0)) < full);
+
+    execute(new DropDB(NAME));
+    execute(new Restore(NAME));
+    execute(new Open(NAME));
+    query("count(//A)", 10000);
+    query("//A[1] ! string()", "A");
+    query("count(//B)", 1);
+    assertFalse(context.data().meta.textindex);
+
+    // restore base backup
+    execute(new Close());
+    execute(new Restore(backups.get(2)));
+    execute(new Open(NAME));
+    query("//A[1] ! string()", 1);
+    query("count(//B)", 0);
+    assertTrue(context.data().meta.textindex);
+
+    // base backup is referenced by incremental backups
+    execute(new Close());
+    assertFalse(new DropBackup(backups.get(2)).run(context));
+    error(_DB_DROP_BACKUP.args(backups.get(1)), DB_CONFLICT5_X);
+    assertTrue(size(backups.get(2)) > 0);
+
+    // missing base backup: existing database is not dropped
+    assertTrue(DropBackup.drop(backups.get(2), context.soptions));
+    assertFalse(new Restore(NAME).run(context));
+    execute(new Open(NAME));
+    query("//A[1] ! string()", 1);
+    query("count(//B)", 0);
+  }
+
+  /**
+   * Creates hot backups.
+   */
+  @Test public void hot() {
+    context.soptions.set(StaticOptions.HOTBACKUP, true);
+    execute(new CreateDB(NAME, "<X>A</X>"));
+    execute(new CreateBackup(NAME));
+    for(final IOFile file : context.soptions.dbPath().children()) {
+      assertFalse(file.name().startsWith('.' + NAME));
+    }
+    query("replace value of node /X with 'B'");
+    execute(new Close());
+    execute(new Restore(NAME));
+    execute(new Open(NAME));
+    query("/X ! string()", "A");
+  }
+
+  /**
+   * Updates a database while the archive of a hot backup is written.
+   * @throws Exception exception
+   */
+  @Test public void hotUpdate() throws Exception {
+    context.soptions.set(StaticOptions.HOTBACKUP, true);
+    execute(new CreateDB(NAME, "<X/>"));
+    query("insert node (1 to 200000) ! <A>{ random:uuid() }</A> into /X");
+    final String first = query("/X/A[1] ! string()");
+    execute(new Close());
+
+    final Context ctx = new Context(context);
+    ctx.user(context.user());
+    final Thread backup = new Thread(() -> {
+      try {
+        new CreateBackup(NAME).execute(ctx);
+      } catch(final BaseXException ex) {
+        Util.stack(ex);
+      }
+    });
+    backup.start();
+    // wait until the database files have been copied and the archive is being written
+    while(backup.isAlive() && context.databases.backups(NAME).isEmpty()) Thread.sleep(1);
+
+    // database can be updated before the backup is completed
+    execute(new Open(NAME));
+    query("replace value of node /X/A[1] with 'B'");
+    execute(new Close());
+    assertTrue(backup.isAlive());
+
+    backup.join();
+    execute(new Restore(NAME));
+    execute(new Open(NAME));
+    query("/X/A[1] ! string()", first);
+  }
+
+  /**
+   * Deletes the snapshot if the database files cannot be copied.
+   */
+  @Test public void snapshotError() {
+    final IOFile db = context.soptions.dbPath(NAME), snapshot = context.soptions.dbPath('.' + NAME);
+    final Backup backup = new Backup(context.soptions.dbPath(NAME + IO.ZIPSUFFIX));
+    try {
+      backup.create(db, new StringList("unknown"), null, snapshot);
+      fail("Error expected.");
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+    assertFalse(snapshot.exists());
+  }
+
+  /**
+   * Returns the size of a backup.
+   * @param backup name of backup
+   * @return size
+   */
+  private static long size(final String backup) {
+    return context.soptions.dbPath(backup + IO.ZIPSUFFIX).length();
+  }
+}
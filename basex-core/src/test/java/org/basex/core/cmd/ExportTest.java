@@ -0,0 +1,111 @@
+package org.basex.core.cmd;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.*;
+import org.basex.io.serial.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link Export} command.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ExportTest extends SandboxTest {
+  /** Export directory. */
+  private static final IOFile DIR = new IOFile(sandbox(), "export/");
+
+  /**
+   * Creates a database with many small and a large document.
+   */
+  @Before public void before() {
+    query("db:create('" + NAME + "', ("
+        + "for $i in 1 to 2000 return <x a='{ $i }'>{ $i }</x>, "
+        + "<x>{ for $i in 1 to 40000 return <y>{ $i }</y> }</x>, <a/>, <b/>), ("
+        + "for $i in 1 to 2000 return 'd/' || $i || '.xml', 'large.xml', 'dup.xml', 'dup.xml'))");
+    query("db:store('" + NAME + "', 'raw/file.bin', 'abc')");
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Cleans up.
+   */
+  @After public void after() {
+    DIR.delete();
+  }
+
+  /**
+   * Compares sequential and parallel exports to directories and archives.
+   * @throws IOException I/O exception
+   */
+  @Test public void export() throws IOException {
+    final SerializerOptions sopts = context.options.get(MainOptions.EXPORTER);
+    final HashMap<String, String> expected = new HashMap<>();
+    final IOFile seq = new IOFile(DIR, "seq/");
+    Export.export(context.data(), seq.path(), sopts, null, 1);
+    for(final String path : seq.descendants()) {
+      expected.put(path, Token.string(new IOFile(seq, path).read()));
+    }
+    assertEquals(2004, expected.size());
+    assertEquals("<b/>", expected.get("dup(2).xml"));
+    assertEquals("abc", expected.get("raw/file.bin"));
+
+    final int temp = temp();
+    for(final int threads : new int[] { 1, 4 }) {
+      // directory
+      final IOFile dir = new IOFile(DIR, "dir" + threads + '/');
+      Export.export(context.data(), dir.path(), sopts, null, threads);
+      final HashMap<String, String> files = new HashMap<>();
+      for(final String path : dir.descendants()) {
+        files.put(path, Token.string(new IOFile(dir, path).read()));
+      }
+      assertEquals(expected, files);
+
+      // ZIP archive
+      final IOFile zip = new IOFile(DIR, threads + IO.ZIPSUFFIX);
+      Export.export(context.data(), zip.path(), sopts, null, threads);
+      final HashMap<String, String> zipped = new HashMap<>();
+      try(ZipFile zf = new ZipFile(zip.file())) {
+        for(final ZipEntry ze : Collections.list(zf.entries())) {
+          try(InputStream is = zf.getInputStream(ze)) {
+            zipped.put(ze.getName(), Token.string(new BufferInput(is).content()));
+          }
+        }
+      }
+      assertEquals(expected, zipped);
+
+      // TAR archive
+      final IOFile tar = new IOFile(DIR, threads + IO.TARSUFFIX);
+      Export.export(context.data(), tar.path(), sopts, null, threads);
+      final HashMap<String, String> tarred = new HashMap<>();
+      try(TarInputStream tis = new TarInputStream(tar.inputStream())) {
+        for(TarEntry te; (te = tis.getNextEntry()) != null;) {
+          tarred.put(te.getName(), Token.string(new BufferInput(tis).content()));
+        }
+      }
+      assertEquals(expected, tarred);
+    }
+    // large documents that have been spooled to temporary files are deleted
+    assertEquals(temp, temp());
+  }
+
+  /**
+   * Returns the number of temporary files created by the export.
+   * @return number of files
+   */
+  private static int temp() {
+    final File[] files = new File(Prop.TEMPDIR).listFiles((dir, name) ->
+      name.startsWith(Prop.NAME + '-') && name.endsWith(IO.TMPSUFFIX));
+    return files == null ? 0 : files.length;
+  }
+}
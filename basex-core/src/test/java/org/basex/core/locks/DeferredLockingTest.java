@@ -0,0 +1,252 @@
+package org.basex.core.locks;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for deferred write locks of updating queries.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class DeferredLockingTest extends SandboxTest {
+  /** How many milliseconds to wait for threads to finish. */
+  private static final long WAIT = 200L;
+
+  /** Locking instance used for testing. */
+  private Locking locking;
+  /** Thread pool. */
+  private ExecutorService pool;
+
+  /**
+   * Initializes the test.
+   */
+  @Before public void before() {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DEFERLOCK, true);
+    locking = new Locking(sopts);
+    pool = Executors.newCachedThreadPool();
+  }
+
+  /**
+   * Finalizes the test.
+   */
+  @After public void after() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Readers are not blocked by an updating query until its write lock is upgraded.
+   * @throws Exception exception
+   */
+  @Test public void readers() throws Exception {
+    final CountDownLatch locked = new CountDownLatch(1), read = new CountDownLatch(1);
+    final CountDownLatch upgrade = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Future<?> updater = pool.submit(() -> {
+      lock(locks(true, NAME));
+      locked.countDown();
+      await(upgrade);
+      locking.upgrade();
+      locking.release();
+      return null;
+    });
+
+    await(locked);
+
+    // reader is not blocked while the updating query is evaluated
+    final Future<?> reader = pool.submit(() -> {
+      lock(readLocks(NAME));
+      read.countDown();
+      await(release);
+      locking.release();
+      return null;
+    });
+    await(read);
+
+    // upgrade waits for the reader
+    upgrade.countDown();
+    Thread.sleep(WAIT);
+    assertFalse(updater.isDone());
+    release.countDown();
+    updater.get(WAIT, TimeUnit.MILLISECONDS);
+    reader.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Writers are blocked by an updating query with deferred locks.
+   * @throws Exception exception
+   */
+  @Test public void writers() throws Exception {
+    final CountDownLatch locked = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Future<?> updater = pool.submit(() -> {
+      lock(locks(true, NAME));
+      locked.countDown();
+      await(release);
+      locking.upgrade();
+      locking.release();
+      return null;
+    });
+    await(locked);
+
+    final Future<?> writer = pool.submit(() -> {
+      lock(locks(false, NAME));
+      locking.release();
+      return null;
+    });
+    Thread.sleep(WAIT);
+    assertFalse(writer.isDone());
+    release.countDown();
+    updater.get(WAIT, TimeUnit.MILLISECONDS);
+    writer.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Write locks are not deferred if more than one database is accessed.
+   * @throws Exception exception
+   */
+  @Test public void multiple() throws Exception {
+    final CountDownLatch locked = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Future<?> updater = pool.submit(() -> {
+      lock(locks(true, NAME, NAME + '2'));
+      locked.countDown();
+      await(release);
+      locking.release();
+      return null;
+    });
+    await(locked);
+
+    final Future<?> reader = pool.submit(() -> {
+      lock(readLocks(NAME));
+      locking.release();
+      return null;
+    });
+    Thread.sleep(WAIT);
+    assertFalse(reader.isDone());
+    release.countDown();
+    updater.get(WAIT, TimeUnit.MILLISECONDS);
+    reader.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Readers are not blocked while OPTIMIZE ALL rebuilds the database.
+   * @throws Exception exception
+   */
+  @Test public void optimizeAll() throws Exception {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DEFERLOCK, true);
+    final Context ctx = new Context(sopts);
+    try {
+      new CreateDB(NAME, "<x>A</x>").execute(ctx);
+      new Close().execute(ctx);
+
+      // hold read lock and pin database while database is optimized
+      ctx.locking.acquire(readLocks(NAME));
+      final Data data = Open.open(NAME, ctx, ctx.options);
+      final Future<?> optimizer = pool.submit(() -> {
+        final Context client = new Context(ctx);
+        client.user(ctx.user());
+        new Open(NAME).execute(client);
+        new OptimizeAll().execute(client);
+        new Close().execute(client);
+        return null;
+      });
+
+      // database is rebuilt, but not replaced yet
+      final IOFile tmp = sopts.dbPath(NAME + ".0");
+      for(int w = 0; w < 50 && !tmp.exists(); w++) Thread.sleep(WAIT / 10);
+      Thread.sleep(WAIT);
+      assertTrue(tmp.exists());
+      assertFalse(optimizer.isDone());
+
+      Close.close(data, ctx);
+      ctx.locking.release();
+      optimizer.get(5, TimeUnit.SECONDS);
+      assertFalse(tmp.exists());
+      assertEquals("A", new XQuery("db:open('" + NAME + "')/x/text()").execute(ctx));
+      new DropDB(NAME).execute(ctx);
+    } finally {
+      ctx.close();
+    }
+  }
+
+  /**
+   * OPTIMIZE ALL is rejected before the database is rebuilt if it is opened by another user.
+   */
+  @Test public void optimizeAllPinned() {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DEFERLOCK, true);
+    final Context ctx = new Context(sopts);
+    try {
+      final Context client = new Context(ctx);
+      client.user(ctx.user());
+      new CreateDB(NAME, "<x>A</x>").execute(ctx);
+      new Open(NAME).execute(client);
+      final Data data = client.data();
+      final OptimizeAll optimize = new OptimizeAll();
+      assertFalse(optimize.run(client));
+      assertTrue(optimize.info().contains(NAME));
+      assertFalse(sopts.dbPath(NAME + ".0").exists());
+      // the database reference of the client has been reset
+      Close.close(data, client);
+      new Close().execute(ctx);
+      new DropDB(NAME).execute(ctx);
+    } catch(final BaseXException ex) {
+      fail(ex.getMessage());
+    } finally {
+      ctx.close();
+    }
+  }
+
+  /**
+   * Returns write locks.
+   * @param updating updating flag
+   * @param names names of databases
+   * @return locks
+   */
+  private static Locks locks(final boolean updating, final String... names) {
+    final Locks locks = new Locks();
+    for(final String name : names) locks.writes.add(name);
+    locks.updating = updating;
+    locks.finish(context);
+    return locks;
+  }
+
+  /**
+   * Returns read locks.
+   * @param names names of databases
+   * @return locks
+   */
+  private static Locks readLocks(final String... names) {
+    final Locks locks = new Locks();
+    for(final String name : names) locks.reads.add(name);
+    locks.finish(context);
+    return locks;
+  }
+
+  /**
+   * Acquires the specified locks.
+   * @param locks locks
+   * @throws InterruptedException interrupted exception
+   */
+  private void lock(final Locks locks) throws InterruptedException {
+    locking.acquire(locks);
+  }
+
+  /**
+   * Waits for a latch.
+   * @param latch latch
+   * @throws InterruptedException interrupted exception
+   */
+  private static void await(final CountDownLatch latch) throws InterruptedException {
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+  }
+}
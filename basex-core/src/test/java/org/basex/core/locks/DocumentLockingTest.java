@@ -0,0 +1,270 @@
+package org.basex.core.locks;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for document locks of updating queries.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class DocumentLockingTest extends SandboxTest {
+  /** How many milliseconds to wait for threads to finish. */
+  private static final long WAIT = 200L;
+
+  /** Locking instance used for testing. */
+  private Locking locking;
+  /** Thread pool. */
+  private ExecutorService pool;
+
+  /**
+   * Initializes the test.
+   */
+  @Before public void before() {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DOCLOCK, true);
+    locking = new Locking(sopts);
+    pool = Executors.newCachedThreadPool();
+  }
+
+  /**
+   * Finalizes the test.
+   */
+  @After public void after() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Updates of different documents are evaluated in parallel.
+   * @throws Exception exception
+   */
+  @Test public void documents() throws Exception {
+    final CountDownLatch locked = new CountDownLatch(2), release = new CountDownLatch(1);
+    final Future<?> first = pool.submit(() -> update(locked, release, "a.xml"));
+    final Future<?> second = pool.submit(() -> update(locked, release, "b.xml"));
+    await(locked);
+    release.countDown();
+    first.get(WAIT, TimeUnit.MILLISECONDS);
+    second.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Updates of the same document or of a directory and its documents block each other.
+   * @throws Exception exception
+   */
+  @Test public void conflicts() throws Exception {
+    blocked("a.xml", docLocks("a.xml"));
+    blocked("dir", docLocks("dir/a.xml"));
+    blocked("dir/a.xml", docLocks("dir"));
+    blocked("a.xml", locks(true));
+  }
+
+  /**
+   * Document locks do not conflict with other locks that have the same name.
+   * @throws Exception exception
+   */
+  @Test public void prefix() throws Exception {
+    final Locks docs = new Locks();
+    docs.docs.add("Q/a.xml");
+    docs.updating = true;
+    docs.finish(context);
+    final Locks query = new Locks();
+    query.writes.add(Locking.QUERY_PREFIX + "a.xml");
+    query.finish(context);
+
+    final CountDownLatch locked = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Future<?> updater = pool.submit(() -> {
+      locking.acquire(docs);
+      locked.countDown();
+      await(release);
+      locking.upgrade();
+      locking.release();
+      return null;
+    });
+    await(locked);
+
+    final Future<?> writer = pool.submit(() -> {
+      locking.acquire(query);
+      locking.release();
+      return null;
+    });
+    writer.get(WAIT, TimeUnit.MILLISECONDS);
+    release.countDown();
+    updater.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Readers are not blocked before the updates are applied.
+   * @throws Exception exception
+   */
+  @Test public void readers() throws Exception {
+    final CountDownLatch locked = new CountDownLatch(1), read = new CountDownLatch(1);
+    final CountDownLatch upgrade = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Future<?> updater = pool.submit(() -> {
+      locking.acquire(docLocks("a.xml"));
+      locked.countDown();
+      await(upgrade);
+      locking.upgrade();
+      locking.release();
+      return null;
+    });
+    await(locked);
+
+    final Future<?> reader = pool.submit(() -> {
+      locking.acquire(locks(false));
+      read.countDown();
+      await(release);
+      locking.release();
+      return null;
+    });
+    await(read);
+
+    // upgrade waits for the reader
+    upgrade.countDown();
+    Thread.sleep(WAIT);
+    assertFalse(updater.isDone());
+    release.countDown();
+    updater.get(WAIT, TimeUnit.MILLISECONDS);
+    reader.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Derives document locks from queries.
+   */
+  @Test public void query() {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DOCLOCK, true);
+    final Context ctx = new Context(sopts);
+    try {
+      final String db = "db:replace('" + NAME + "', ";
+      assertEquals(NAME + "/a.xml", docs(db + "'a.xml', <a/>)", ctx));
+      assertEquals(NAME + "/dir", docs(db + "'dir/', <a/>)", ctx));
+      assertEquals(NAME + "/a.xml," + NAME + "/b.xml",
+          docs(db + "'a.xml', <a/>), db:add('" + NAME + "', <b/>, 'b.xml')", ctx));
+      // database locks: unknown path, additional database access
+      assertEquals("(none)", docs(db + "<x/>/text(), <a/>)", ctx));
+      assertEquals("(none)", docs(db + "'a.xml', db:open('" + NAME + "'))", ctx));
+      assertEquals("(none)", docs(db + "'a.xml', <a/>), db:add('" + NAME + "2', <a/>)", ctx));
+
+      new CreateDB(NAME, "<x/>").execute(ctx);
+      new XQuery(db + "'" + NAME + ".xml', <a/>), " + db + "'b.xml', <b/>)").execute(ctx);
+      new XQuery("db:add('" + NAME + "', <c/>, 'c.xml')").execute(ctx);
+      assertEquals("a\nb\nc", new XQuery("db:open('" + NAME + "')/* ! name()").execute(ctx));
+      new XQuery(db + "'b.xml', <b2/>)").execute(ctx);
+      assertEquals("a\nb2\nc", new XQuery("db:open('" + NAME + "')/* ! name()").execute(ctx));
+      new DropDB(NAME).execute(ctx);
+    } catch(final BaseXException ex) {
+      fail(ex.getMessage());
+    } finally {
+      ctx.close();
+    }
+  }
+
+  /**
+   * Checks that a document update is blocked by other locks.
+   * @param path path of the document
+   * @param locks locks to be held by another job
+   * @throws Exception exception
+   */
+  private void blocked(final String path, final Locks locks) throws Exception {
+    final CountDownLatch locked = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Future<?> holder = pool.submit(() -> {
+      locking.acquire(locks);
+      locked.countDown();
+      await(release);
+      locking.upgrade();
+      locking.release();
+      return null;
+    });
+    await(locked);
+
+    final Future<?> updater = pool.submit(() -> {
+      locking.acquire(docLocks(path));
+      locking.upgrade();
+      locking.release();
+      return null;
+    });
+    Thread.sleep(WAIT);
+    assertFalse(updater.isDone());
+    release.countDown();
+    holder.get(WAIT, TimeUnit.MILLISECONDS);
+    updater.get(WAIT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Updates a document and waits until the locks of all updates have been acquired.
+   * @param locked locked latch
+   * @param release release latch
+   * @param path path of the document
+   * @return {@code null}
+   * @throws Exception exception
+   */
+  private Void update(final CountDownLatch locked, final CountDownLatch release,
+      final String path) throws Exception {
+    locking.acquire(docLocks(path));
+    locked.countDown();
+    await(locked);
+    await(release);
+    locking.upgrade();
+    locking.release();
+    return null;
+  }
+
+  /**
+   * Returns the document locks of a query.
+   * @param query query
+   * @param ctx database context
+   * @return string representation of the document locks
+   */
+  private static String docs(final String query, final Context ctx) {
+    final XQuery cmd = new XQuery(query);
+    cmd.updating(ctx);
+    cmd.addLocks();
+    final Locks locks = cmd.jc().locks;
+    locks.finish(ctx);
+    return locks.docs.toString();
+  }
+
+  /**
+   * Returns document locks.
+   * @param path path of the document
+   * @return locks
+   */
+  private static Locks docLocks(final String path) {
+    final Locks locks = new Locks();
+    locks.docs.add(NAME + '/' + path);
+    locks.updating = true;
+    locks.finish(context);
+    return locks;
+  }
+
+  /**
+   * Returns database locks.
+   * @param write write lock
+   * @return locks
+   */
+  private static Locks locks(final boolean write) {
+    final Locks locks = new Locks();
+    (write ? locks.writes : locks.reads).add(NAME);
+    locks.updating = write;
+    locks.finish(context);
+    return locks;
+  }
+
+  /**
+   * Waits for a latch.
+   * @param latch latch
+   * @throws InterruptedException interrupted exception
+   */
+  private static void await(final CountDownLatch latch) throws InterruptedException {
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.io.*;
 import java.lang.reflect.*;
+import java.util.*;
 
 import org.basex.*;
 import org.basex.build.*;
@@ -313,6 +314,75 @@ public final class DiskTableTest extends SandboxTest {
     assertEntrysEqual(nodes, 2 * nodes, size - nodes);
   }
 
+  /**
+   * Performs many scattered inserts and deletes from the last to the first entry,
+   * as done by the atomic update cache.
+   */
+  @Test public void scatteredUpdatesDescending() {
+    scatteredUpdates(true);
+  }
+
+  /**
+   * Performs many scattered inserts and deletes in random order.
+   */
+  @Test public void scatteredUpdatesRandom() {
+    scatteredUpdates(false);
+  }
+
+  /**
+   * Performs many scattered inserts and deletes and compares the table with
+   * the result of sequentially applying the same updates to a list of entries.
+   * @param descending apply updates from the last to the first entry
+   */
+  private void scatteredUpdates(final boolean descending) {
+    final ArrayList<byte[]> entries = new ArrayList<>();
+    for(int pre = 0; pre < size; pre++) {
+      final int off = pre << IO.NODEPOWER;
+      entries.add(Arrays.copyOfRange(storage, off, off + (1 << IO.NODEPOWER)));
+    }
+
+    final Random rnd = new Random(size);
+    int pre = size;
+    for(int u = 1; u < 1000; u++) {
+      pre = descending ? pre - 1 - rnd.nextInt(Math.max(1, size / 500)) :
+        rnd.nextInt(entries.size());
+      if(pre < 0) break;
+      // occasionally insert or delete more entries than fit into a page
+      final int nr = u % 50 == 0 ? nodes * 2 + rnd.nextInt(nodes) : 1 + rnd.nextInt(3);
+      if(rnd.nextBoolean()) {
+        final byte[] ins = new byte[nr << IO.NODEPOWER];
+        for(int i = 0; i < ins.length; i++) ins[i] = (byte) (u + i);
+        tda.insert(pre, ins);
+        for(int i = 0; i < nr; i++) {
+          final int off = i << IO.NODEPOWER;
+          entries.add(pre + i, Arrays.copyOfRange(ins, off, off + (1 << IO.NODEPOWER)));
+        }
+      } else {
+        final int del = Math.min(nr, entries.size() - pre);
+        tda.delete(pre, del);
+        entries.subList(pre, pre + del).clear();
+      }
+    }
+    assertEntriesEqual(entries);
+    closeAndReload();
+    assertEntriesEqual(entries);
+  }
+
+  /**
+   * Compares the table with the specified entries.
+   * @param entries expected entries
+   */
+  private void assertEntriesEqual(final ArrayList<byte[]> entries) {
+    final int es = entries.size();
+    assertEquals(es, tdaSize());
+    for(int pre = 0; pre < es; pre++) {
+      final byte[] entry = entries.get(pre);
+      for(int e = 0; e < entry.length; e++) {
+        assertEquals("Entry " + pre + " (byte " + e + ')', entry[e], (byte) tda.read1(pre, e));
+      }
+    }
+  }
+
   /**
    * Asserts that the chosen entries are inserted by a test case.
    * @param startNum first entry
@@ -1,6 +1,7 @@
 package org.basex.data;
 
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
 import java.util.*;
 import java.util.List;
@@ -8,6 +9,8 @@ import java.util.List;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.index.*;
+import org.basex.index.ft.*;
 import org.junit.*;
 import org.junit.Test;
 import org.junit.runner.*;
@@ -51,6 +54,7 @@ public final class IndexTest extends SandboxTest {
   @After public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
     set(MainOptions.MAINMEM, false);
@@ -138,6 +142,86 @@ public final class IndexTest extends SandboxTest {
     query(_DB_INFO.args(NAME) + "//tokenindex/text()", true);
   }
 
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltext() {
+    // full-text index is not available in main memory
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>hello world</a><a>old text</a></x>"));
+
+    query("insert node <a>new text</a> into /x");
+    query("replace value of node /x/a[1] with 'hello universe'");
+    query("delete node /x/a[2]");
+    for(int i = 0; i < 2; i++) {
+      query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+      query("count(//a[text() contains text 'text'])", 1);
+      query("//a[text() contains text 'new'] ! string()", "new text");
+      query("//a[text() contains text 'old']", "");
+      query("//a[text() contains text 'world']", "");
+      query("//a[text() contains text 'universe'] ! string()", "hello universe");
+      query("//a[text() contains text 'univ.*' using wildcards] ! string()", "hello universe");
+      query("//a[text() contains text 'universo' using fuzzy] ! string()", "hello universe");
+      query(_FT_SEARCH.args(NAME, "hello") + " ! string()", "hello universe");
+      execute(new Close());
+      execute(new Open(NAME));
+    }
+  }
+
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltextMerge() {
+    // full-text index is not available in main memory
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>a b</a></x>"));
+
+    // exceed size of delta
+    query("insert node (1 to 20000) ! <a>{ . } b c d</a> into /x");
+    query("delete node /x/a[. = '2 b c d']");
+    query("count(//a[text() contains text 'b'])", 20000);
+    query("count(//a[text() contains text { '1', '2', '3' } any])", 2);
+    query(_FT_TOKENS.args(NAME, "20000") + " ! string()", "20000");
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(//a[text() contains text 'd'])", 19999);
+    query("//a[text() contains text 'a'] ! string()", "a b");
+  }
+
+  /**
+   * Full-text index of an older version with pre values.
+   */
+  @Test public void updindexFulltextPre() {
+    // full-text index is not available in main memory
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>hello world</a><a>old text</a></x>"));
+    assertTrue(context.data().meta.ftids);
+
+    // simulate index without ids (ids and pre values are identical after the creation)
+    context.data().meta.ftids = false;
+    context.data().meta.dirty = true;
+    execute(new Close());
+    execute(new Open(NAME));
+    assertFalse(context.data().ftIndex instanceof UpdatableFTIndex);
+    query("//a[text() contains text 'old'] ! string()", "old text");
+
+    // index will be invalidated by updates
+    query("insert node <a>new text</a> as first into /x");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", false);
+    query("//a[text() contains text 'old'] ! string()", "old text");
+
+    // rebuilt index will store ids
+    execute(new CreateIndex(IndexType.FULLTEXT));
+    assertTrue(context.data().meta.ftids);
+    query("//a[text() contains text 'new'] ! string()", "new text");
+  }
+
   /**
    * Test.
    */
@@ -73,6 +73,130 @@ public final class StoreTest extends SandboxTest {
     check(size);
   }
 
+  /**
+   * Reuses the space of deleted texts in a new session.
+   */
+  @Test public void reuse() {
+    execute(new CreateDB(NAME, "<X/>"));
+    query("insert node (1 to 100) ! <A a='attribute{ . }'>text{ . }</A> into /X");
+    execute(new Close());
+    execute(new Open(NAME));
+    final long txt = context.data().meta.dbFile(DataText.DATATXT).length();
+    final long atv = context.data().meta.dbFile(DataText.DATAATV).length();
+
+    query("delete node //A[position() <= 50]");
+    execute(new Close());
+    execute(new Open(NAME));
+    query("insert node (1 to 50) ! <A a='attribute{ . }'>text{ . }</A> into /X");
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(//A)", 100);
+    query("sum(//A/text() ! number(substring-after(., 'text')))", 5050);
+    query("sum(//A/@a ! number(substring-after(., 'attribute')))", 5050);
+    check(txt);
+    assertEquals(atv, context.data().meta.dbFile(DataText.DATAATV).length());
+  }
+
+  /**
+   * Compacts the text store.
+   */
+  @Test public void compact() {
+    execute(new CreateDB(NAME, "<X/>"));
+    query("insert node (1 to 100) ! <A>text{ . }</A> into /X");
+    query("delete node //A[. = 'text1']");
+    query("replace value of node //A[. = 'text2'] with 'text'");
+    execute(new Close());
+    execute(new Open(NAME));
+    final long size = context.data().meta.dbFile(DataText.DATATXT).length();
+
+    execute(new Optimize());
+    execute(new Close());
+    execute(new Open(NAME));
+    assertTrue(context.data().meta.dbFile(DataText.DATATXT).length() < size);
+    query("count(//A)", 99);
+    query("string-join(//A[position() <= 3], ',')", "text,text3,text4");
+    query("//A[last()] ! string()", "text100");
+  }
+
+  /**
+   * Compresses texts and attribute values with a dictionary.
+   */
+  @Test public void compression() {
+    final StringBuilder sb = new StringBuilder("<X>");
+    for(int i = 0; i < 2000; i++) {
+      sb.append("<A a='shipping address ").append(i).append("'>customer order ").append(i);
+      sb.append(", delivered to London</A>");
+    }
+    final String input = sb.append("</X>").toString();
+    final String query = "string-join(//A ! (@a || .), ',')";
+
+    execute(new CreateDB(NAME, input));
+    final long txt = context.data().meta.dbFile(DataText.DATATXT).length();
+    final long atv = context.data().meta.dbFile(DataText.DATAATV).length();
+    final String result = query(query);
+    try {
+      set(MainOptions.COMPRESSION, true);
+      execute(new CreateDB(NAME, input));
+    } finally {
+      set(MainOptions.COMPRESSION, false);
+    }
+    assertTrue(context.data().meta.dbFile(DataText.DATATXT).length() < txt / 2);
+    assertTrue(context.data().meta.dbFile(DataText.DATAATV).length() < atv * 3 / 4);
+    assertEquals(result, query(query));
+
+    // updates and optimizations
+    query("replace value of node //A[1] with 'customer order 1, delivered to Berlin'");
+    query("insert node <A a='shipping address 2000'>customer order 2000</A> into /X");
+    execute(new Close());
+    execute(new Open(NAME));
+    query("//A[1] ! string()", "customer order 1, delivered to Berlin");
+    query("//A[last()] ! (@a || .)", "shipping address 2000customer order 2000");
+    execute(new OptimizeAll());
+    assertTrue(context.data().meta.compression);
+    query("//A[1] ! string()", "customer order 1, delivered to Berlin");
+    query("count(//A)", 2001);
+  }
+
+  /**
+   * Creates a compression dictionary for databases that have been created empty.
+   */
+  @Test public void compressionAdd() {
+    final StringBuilder sb = new StringBuilder("<X>");
+    for(int i = 0; i < 2000; i++) {
+      sb.append("<A a='shipping address ").append(i).append("'>customer order ").append(i);
+      sb.append(", delivered to London</A>");
+    }
+    final String input = sb.append("</X>").toString();
+    final String query = "string-join(//A ! (@a || .), ',')";
+    try {
+      set(MainOptions.COMPRESSION, true);
+      // dictionary is created by updates
+      execute(new CreateDB(NAME));
+      assertFalse(context.data().meta.dbFile(DataText.DATADIC).exists());
+      execute(new Add("a.xml", input));
+      execute(new Add("b.xml", input));
+      execute(new Close());
+      execute(new Open(NAME));
+      assertTrue(context.data().meta.dbFile(DataText.DATADIC).exists());
+      final String last = "shipping address 1999customer order 1999, delivered to London";
+      assertTrue(query(query).contains(last));
+
+      // dictionary is created by OPTIMIZE
+      execute(new CreateDB(NAME));
+      execute(new Add("a.xml", "<A a='shipping address'>customer order</A>"));
+      execute(new Optimize());
+      execute(new Close());
+      execute(new Open(NAME));
+      assertTrue(context.data().meta.dbFile(DataText.DATADIC).exists());
+      execute(new Add("b.xml", input));
+      query("count(//A)", 2001);
+      query(Function._DB_OPEN.args(NAME, "b.xml") + "//A[1] ! (@a || .)",
+          "shipping address 0customer order 0, delivered to London");
+    } finally {
+      set(MainOptions.COMPRESSION, false);
+    }
+  }
+
   /**
    * Tests the {@link MainOptions#UPDINDEX} and {@link MainOptions#AUTOFLUSH} flags in combination.
    * Reaction on a bug (incremental value index was not correctly closed)
@@ -3,8 +3,10 @@ package org.basex.data;
 import static org.junit.Assert.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.io.*;
+import org.basex.util.*;
 import org.junit.*;
 import org.junit.Test;
 
@@ -24,6 +26,13 @@ public final class TableTest extends SandboxTest {
   /** Re-insert Germany. */
   private static final String INSERT = "insert node %1$s "
       + "after //country[@name='France']";
+  /** Scattered inserts and deletes, spanning multiple table pages. */
+  private static final String UPDATE = "for $a at $p in /X/A return "
+      + "if($p mod 3 = 0) then delete node $a "
+      + "else if($p mod 5 = 0) then insert node <C><D/>{ $p }</C> into $a "
+      + "else if($p mod 7 = 0) then (insert node <E/> before $a, delete node $a/B) "
+      + "else if($p mod 500 = 1) then insert node (1 to 300) ! <F/> after $a "
+      + "else ()";
 
   /** Table file. */
   private IOFile tbl;
@@ -57,4 +66,52 @@ public final class TableTest extends SandboxTest {
 
     assertEquals("Database size changed: ", s, tbl.length());
   }
+
+  /**
+   * Applies many scattered inserts and deletes in a single transaction, and compares
+   * the resulting table with the one of a main-memory database.
+   */
+  @Test public void scatteredUpdates() {
+    final StringBuilder xml = new StringBuilder("<X>");
+    for(int i = 0; i < 5000; i++) xml.append("<A n='").append(i).append("'><B>").
+      append(i).append("</B></A>");
+    final String input = xml.append("</X>").toString();
+
+    set(MainOptions.MAINMEM, true);
+    try {
+      execute(new CreateDB(NAME, input));
+      query(UPDATE);
+    } finally {
+      set(MainOptions.MAINMEM, false);
+    }
+    final String expected = table(context.data());
+
+    execute(new CreateDB(NAME, input));
+    assertTrue("Table has too few pages", context.data().meta.size > IO.ENTRIES * 16);
+    query(UPDATE);
+    assertEquals(expected, table(context.data()));
+    execute(new Close());
+    execute(new Open(NAME));
+    assertEquals(expected, table(context.data()));
+  }
+
+  /**
+   * Returns a string representation of the pre, size, distance and name or text
+   * of all nodes of a database.
+   * @param data data reference
+   * @return string
+   */
+  private static String table(final Data data) {
+    final StringBuilder sb = new StringBuilder();
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      sb.append(pre).append(' ').append(kind).append(' ').append(data.size(pre, kind)).
+        append(' ').append(data.dist(pre, kind)).append(' ');
+      if(kind == Data.ELEM || kind == Data.ATTR) sb.append(Token.string(data.name(pre, kind)));
+      if(kind != Data.ELEM) sb.append(Token.string(data.text(pre, kind != Data.ATTR)));
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
 }
@@ -0,0 +1,149 @@
+package org.basex.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.*;
+
+import com.sun.net.httpserver.*;
+
+/**
+ * Test class for the resource cache.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class IOCacheTest extends SandboxTest {
+  /**
+   * Returns cached file contents and detects modifications.
+   * @throws IOException I/O exception
+   */
+  @Test public void file() throws IOException {
+    final IOCache cache = cache(1);
+    final IOFile file = new IOFile(sandbox(), "cache.txt");
+    write(file, "abc");
+
+    final IO io = cache.get(file);
+    assertTrue(io instanceof IOContent);
+    assertEquals("abc", io.string());
+    assertEquals(file.path(), io.path());
+    assertEquals(3, cache.size());
+    assertSame(io.read(), cache.get(file).read());
+
+    // modified file: contents will be read again
+    write(file, "abcd");
+    assertTrue(file.file().setLastModified(file.timeStamp() + 2000));
+    assertEquals("abcd", cache.get(file).string());
+    assertEquals(4, cache.size());
+    file.delete();
+  }
+
+  /**
+   * Evicts least recently used entries.
+   * @throws IOException I/O exception
+   */
+  @Test public void evict() throws IOException {
+    final IOCache cache = cache(1);
+    final IOFile file1 = new IOFile(sandbox(), "cache1.txt");
+    final IOFile file2 = new IOFile(sandbox(), "cache2.txt");
+    file1.write(new byte[600]);
+    file2.write(new byte[600]);
+
+    cache.get(file1);
+    assertEquals(600, cache.size());
+    cache.get(file2);
+    assertEquals(600, cache.size());
+
+    // entries exceeding the cache size will not be cached
+    file1.write(new byte[2000]);
+    assertFalse(cache.get(file1) instanceof IOContent);
+    assertEquals(600, cache.size());
+    file1.delete();
+    file2.delete();
+  }
+
+  /**
+   * Caches HTTP resources that can be validated, streams all other resources.
+   * @throws IOException I/O exception
+   */
+  @Test public void url() throws IOException {
+    final AtomicInteger requests = new AtomicInteger();
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      requests.incrementAndGet();
+      final String path = exchange.getRequestURI().getPath();
+      final byte[] body = path.startsWith("/small") ? Token.token("abc") : new byte[2048];
+      final boolean validate = !path.endsWith("plain");
+      if(validate) exchange.getResponseHeaders().add("ETag", "\"1\"");
+      if(validate && exchange.getRequestHeaders().containsKey("If-None-Match")) {
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+      } else {
+        // unknown size: chunked response
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK,
+            path.endsWith("chunked") ? 0 : body.length);
+        try(OutputStream os = exchange.getResponseBody()) {
+          os.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+    try {
+      final String url = "http://localhost:" + server.getAddress().getPort();
+      final IOCache cache = cache(1);
+
+      // resource with validator: cached, validated via conditional request
+      final IO io = cache.get(new IOUrl(url + "/small"));
+      assertTrue(io instanceof IOContent);
+      assertEquals("abc", io.string());
+      assertEquals(3, cache.size());
+      assertSame(io.read(), cache.get(new IOUrl(url + "/small")).read());
+      assertEquals(2, requests.get());
+
+      // resources without validator: streamed, requested again if read twice
+      IO stream = cache.get(new IOUrl(url + "/small-plain"));
+      assertFalse(stream instanceof IOContent);
+      assertEquals("abc", stream.string());
+      assertEquals("abc", stream.string());
+      assertEquals(4, requests.get());
+
+      // resources that exceed the cache size: streamed
+      for(final String path : new String[] { "/large", "/large-chunked" }) {
+        stream = cache.get(new IOUrl(url + path));
+        assertFalse(stream instanceof IOContent);
+        assertEquals(2048, stream.read().length);
+      }
+      assertEquals(3, cache.size());
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  /**
+   * Returns the input if the cache is disabled.
+   * @throws IOException I/O exception
+   */
+  @Test public void disabled() throws IOException {
+    final IOFile file = new IOFile(sandbox(), "cache.txt");
+    write(file, "abc");
+    assertSame(file, cache(0).get(file));
+    file.delete();
+  }
+
+  /**
+   * Creates a cache.
+   * @param kb size of cache (KB)
+   * @return cache
+   */
+  private static IOCache cache(final int kb) {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.FETCHCACHE, kb);
+    return new IOCache(sopts);
+  }
+}
@@ -0,0 +1,73 @@
+package org.basex.io.out;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.in.*;
+import org.junit.*;
+
+/**
+ * Test class for the {@link TarOutput}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class TarOutputTest {
+  /**
+   * Writes entries and reads them with a TAR input stream.
+   * @throws IOException I/O exception
+   */
+  @Test public void stream() throws IOException {
+    final StringBuilder name = new StringBuilder();
+    while(name.length() < 200) name.append("dir/");
+    final String[] names = { "empty", "small", "large/entry.txt", name + "long.xml" };
+    final byte[] large = new byte[1000000];
+    new Random(0).nextBytes(large);
+    final byte[][] contents = { new byte[0], "abc".getBytes(), large, "<x/>".getBytes() };
+
+    final ArrayOutput ao = new ArrayOutput();
+    try(TarOutput out = new TarOutput(ao)) {
+      for(int n = 0; n < names.length; n++) {
+        out.putNextEntry(names[n], contents[n].length, System.currentTimeMillis());
+        out.write(contents[n]);
+      }
+    }
+    final byte[] tar = ao.finish();
+    assertEquals(0, tar.length % 512);
+
+    try(TarInputStream tis = new TarInputStream(new ArrayInput(tar))) {
+      for(int n = 0; n < names.length; n++) {
+        final TarEntry te = tis.getNextEntry();
+        assertEquals(names[n], te.getName());
+        assertEquals(contents[n].length, te.getSize());
+        assertArrayEquals(contents[n], new BufferInput(tis).content());
+      }
+      assertNull(tis.getNextEntry());
+    }
+  }
+
+  /**
+   * Rejects entries with a wrong size.
+   * @throws IOException I/O exception
+   */
+  @Test public void size() throws IOException {
+    try(TarOutput out = new TarOutput(new ArrayOutput())) {
+      out.putNextEntry("a", 1, 0);
+      try {
+        out.write(new byte[2]);
+        fail("Error expected.");
+      } catch(final IOException ex) {
+        assertTrue(ex.getMessage().contains("exceeded"));
+      }
+      try {
+        out.putNextEntry("b", 0, 0);
+        fail("Error expected.");
+      } catch(final IOException ex) {
+        assertTrue(ex.getMessage().contains("missing"));
+      }
+      out.write(1);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.basex.io.out;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.in.*;
+import org.junit.*;
+
+/**
+ * Test class for the {@link ZipOutput}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ZipOutputTest {
+  /** Names of the test entries. */
+  private static final String[] NAMES = { "empty", "small", "large/ä.txt", "random" };
+
+  /**
+   * Writes entries and reads them with a ZIP input stream.
+   * @throws IOException I/O exception
+   */
+  @Test public void stream() throws IOException {
+    final byte[][] contents = contents();
+    for(final int threads : new int[] { 1, 4 }) {
+      final byte[] zip = zip(contents, threads);
+      try(ZipInputStream zis = new ZipInputStream(new ArrayInput(zip))) {
+        for(int n = 0; n < NAMES.length; n++) {
+          final ZipEntry ze = zis.getNextEntry();
+          assertEquals(NAMES[n], ze.getName());
+          assertArrayEquals(new BufferInput(zis).content(), contents[n]);
+        }
+        assertNull(zis.getNextEntry());
+      }
+    }
+  }
+
+  /**
+   * Writes entries and reads them via the central directory.
+   * @throws IOException I/O exception
+   */
+  @Test public void file() throws IOException {
+    final byte[][] contents = contents();
+    final File file = File.createTempFile("zip", ".zip");
+    try {
+      try(FileOutputStream fos = new FileOutputStream(file)) {
+        fos.write(zip(contents, 4));
+      }
+      try(ZipFile zf = new ZipFile(file)) {
+        assertEquals(NAMES.length, zf.size());
+        for(int n = 0; n < NAMES.length; n++) {
+          final ZipEntry ze = zf.getEntry(NAMES[n]);
+          assertEquals(contents[n].length, ze.getSize());
+          assertEquals(n == 1 ? "comment" : null, ze.getComment());
+          try(InputStream in = zf.getInputStream(ze)) {
+            assertArrayEquals(new BufferInput(in).content(), contents[n]);
+          }
+        }
+      }
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+
+  /**
+   * Writes a local header in the ZIP64 format if the entry size is known to exceed 32 bits.
+   * @throws IOException I/O exception
+   */
+  @Test public void zip64() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(ZipOutput out = new ZipOutput(ao, 1)) {
+      final ZipEntry ze = new ZipEntry("a");
+      ze.setSize(1L << 32);
+      out.putNextEntry(ze);
+      out.write("abc".getBytes());
+    }
+    final byte[] zip = ao.finish();
+    // version, length of extra field, ZIP64 header id
+    assertEquals(45, zip[4]);
+    assertEquals(20, zip[28]);
+    assertEquals(1, zip[31]);
+
+    final File file = File.createTempFile("zip", ".zip");
+    try {
+      try(FileOutputStream fos = new FileOutputStream(file)) {
+        fos.write(zip);
+      }
+      try(ZipFile zf = new ZipFile(file); InputStream in = zf.getInputStream(zf.getEntry("a"))) {
+        assertArrayEquals("abc".getBytes(), new BufferInput(in).content());
+      }
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+
+  /**
+   * Creates an archive.
+   * @param contents contents of the entries
+   * @param threads number of threads
+   * @return archive
+   * @throws IOException I/O exception
+   */
+  private static byte[] zip(final byte[][] contents, final int threads) throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(ZipOutput out = new ZipOutput(ao, threads)) {
+      for(int n = 0; n < NAMES.length; n++) {
+        final ZipEntry ze = new ZipEntry(NAMES[n]);
+        if(n == 1) ze.setComment("comment");
+        out.level(n == 3 ? 0 : 6);
+        out.putNextEntry(ze);
+        // write large entries in uneven portions
+        final byte[] content = contents[n];
+        for(int o = 0, c; o < content.length; o += c) {
+          c = Math.min(content.length - o, 100000);
+          out.write(content, o, c);
+        }
+        out.closeEntry();
+      }
+    }
+    return ao.finish();
+  }
+
+  /**
+   * Returns the contents of the test entries.
+   * @return contents
+   */
+  private static byte[][] contents() {
+    final StringBuilder sb = new StringBuilder();
+    for(int i = 0; sb.length() < 3000000; i++) sb.append("<entry id='").append(i).append("'/>");
+    final byte[] random = new byte[1000000];
+    new Random(0).nextBytes(random);
+    return new byte[][] { new byte[0], "abc".getBytes(), sb.toString().getBytes(), random };
+  }
+}
@@ -0,0 +1,132 @@
+package org.basex.io.parse.csv;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.build.csv.*;
+import org.basex.build.csv.CsvOptions.*;
+import org.basex.io.*;
+import org.basex.io.in.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Test class for the {@link CsvParallelParser}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class CsvParallelParserTest {
+  /**
+   * Compares the results of the parallel and the sequential parser.
+   * @throws IOException I/O exception
+   */
+  @Test public void parse() throws IOException {
+    final byte[] csv = csv();
+    final File file = File.createTempFile("csv", IO.CSVSUFFIX);
+    try {
+      try(FileOutputStream fos = new FileOutputStream(file)) {
+        fos.write(csv);
+      }
+      for(final boolean header : new boolean[] { false, true }) {
+        for(final CsvFormat format : new CsvFormat[] { CsvFormat.DIRECT, CsvFormat.XQUERY }) {
+          final CsvParserOptions copts = new CsvParserOptions();
+          copts.set(CsvOptions.HEADER, header);
+          copts.set(CsvOptions.FORMAT, format);
+          final String expected = sequential(csv, copts);
+          for(final int threads : new int[] { 2, 4 }) {
+            assertEquals(expected, parallel(new IOContent(csv), copts, threads));
+            assertEquals(expected, parallel(new IOFile(file), copts, threads));
+          }
+        }
+      }
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+
+  /**
+   * Rejects input that may not be UTF-8 encoded.
+   * @throws IOException I/O exception
+   */
+  @Test public void encoding() throws IOException {
+    final byte[] csv = csv();
+    final CsvParserOptions copts = new CsvParserOptions();
+    final CsvConverter conv = CsvConverter.get(copts);
+    assertTrue(CsvParallelParser.parse(new IOContent(csv), copts, conv, 4));
+
+    copts.set(CsvParserOptions.ENCODING, "ISO-8859-1");
+    assertFalse(CsvParallelParser.parse(new IOContent(csv), copts, conv, 4));
+    copts.set(CsvParserOptions.ENCODING, "");
+    csv[0] = (byte) 0xFF;
+    csv[1] = (byte) 0xFE;
+    assertFalse(CsvParallelParser.parse(new IOContent(csv), copts, conv, 4));
+    assertFalse(CsvParallelParser.parse(new IOContent(Token.token("a,b")), copts, conv, 4));
+  }
+
+  /**
+   * Parses the input sequentially if a single thread is requested.
+   * @throws IOException I/O exception
+   */
+  @Test public void threads() throws IOException {
+    final byte[] csv = csv();
+    final CsvParserOptions copts = new CsvParserOptions();
+    copts.set(CsvParserOptions.THREADS, 1);
+    assertFalse(CsvParallelParser.parse(new IOContent(csv), copts, CsvConverter.get(copts)));
+    copts.set(CsvParserOptions.THREADS, 2);
+    assertTrue(CsvParallelParser.parse(new IOContent(csv), copts, CsvConverter.get(copts)));
+  }
+
+  /**
+   * Parses the input sequentially.
+   * @param csv input
+   * @param copts options
+   * @return serialized result
+   * @throws IOException I/O exception
+   */
+  private static String sequential(final byte[] csv, final CsvParserOptions copts)
+      throws IOException {
+    final CsvConverter conv = CsvConverter.get(copts);
+    try(NewlineInput in = new NewlineInput(csv)) {
+      CsvParser.parse(in, copts, conv);
+    }
+    return conv.finish().serialize().toString();
+  }
+
+  /**
+   * Parses the input in parallel.
+   * @param io input
+   * @param copts options
+   * @param threads number of threads
+   * @return serialized result
+   * @throws IOException I/O exception
+   */
+  private static String parallel(final IO io, final CsvParserOptions copts, final int threads)
+      throws IOException {
+    final CsvConverter conv = CsvConverter.get(copts);
+    assertTrue(CsvParallelParser.parse(io, copts, conv, threads));
+    return conv.finish().serialize().toString();
+  }
+
+  /**
+   * Creates CSV input with quoted newlines, various line endings and a large quoted entry
+   * that spans several chunks.
+   * @return input
+   */
+  private static byte[] csv() {
+    final TokenBuilder tb = new TokenBuilder().add("\uFEFFid,text,value\n");
+    for(int i = 0; tb.size() < CsvParallelParser.CHUNK * 5; i++) {
+      tb.addInt(i).add(',');
+      if(i % 3 == 0) tb.add("\"quoted\nä ").addInt(i).add("\r\n,\"\"x\"\"\"");
+      else tb.add("plain ").addInt(i);
+      tb.add(',').add(i % 7 == 0 ? "" : "v").add(i % 5 == 0 ? "\r\n" : i % 11 == 0 ? "\r" : "\n");
+      if(i == 20000) {
+        tb.add("large,\"");
+        for(int l = 0; l < CsvParallelParser.CHUNK * 2; l += 10) tb.add("\nline\n\"\"\n");
+        tb.add("\",end\n");
+      }
+    }
+    return tb.add("last,\"incomplete").finish();
+  }
+}
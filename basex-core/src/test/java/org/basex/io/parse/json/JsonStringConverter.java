@@ -1,6 +1,9 @@
 package org.basex.io.parse.json;
 
+import java.io.*;
+
 import org.basex.build.json.*;
+import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -43,7 +46,14 @@ final class JsonStringConverter extends JsonConverter {
     jopts.set(JsonParserOptions.LIBERAL, liberal);
     jopts.set(JsonParserOptions.ESCAPE, escape);
     final TokenBuilder tb = new TokenBuilder();
-    JsonParser.parse(json, null, jopts, new JsonStringConverter(jopts, tb));
+    try {
+      JsonParser.parse(new TextInput(Token.token(json)), null, jopts,
+          new JsonStringConverter(jopts, tb));
+    } catch(final QueryIOException ex) {
+      throw ex;
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
     return tb.toString();
   }
 
@@ -97,7 +107,7 @@ final class JsonStringConverter extends JsonConverter {
   }
 
   @Override
-  void stringLit(final byte[] value) {
+  public void stringLit(final byte[] value) {
     tb.add('"');
     final int vl = value.length;
     for(int v = 0; v < vl; v += Token.cl(value, v)) {
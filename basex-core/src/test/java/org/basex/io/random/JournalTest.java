@@ -0,0 +1,230 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link Journal}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends SandboxTest {
+  /** Number of blocks of the test file. */
+  private static final int BLOCKS = 64;
+
+  /** Test file. */
+  private IOFile file;
+  /** Journal file. */
+  private IOFile wal;
+
+  /**
+   * Creates the test files.
+   * @throws IOException I/O exception
+   */
+  @Before public void before() throws IOException {
+    file = new IOFile(sandbox(), "file" + IO.BASEXSUFFIX);
+    wal = new IOFile(sandbox(), DataText.DATAWAL + IO.BASEXSUFFIX);
+    file.write(new byte[BLOCKS * IO.BLOCKSIZE]);
+    wal.delete();
+  }
+
+  /**
+   * Deletes the test files.
+   */
+  @After public void after() {
+    file.delete();
+    wal.delete();
+  }
+
+  /**
+   * Writes pages to the journal and reads them back before they are committed.
+   * @throws IOException I/O exception
+   */
+  @Test public void commit() throws IOException {
+    try(DataAccess da = new DataAccess(file); Journal journal = new Journal(wal)) {
+      da.journal(journal);
+      // more blocks than buffers: modified blocks will be written to the journal
+      for(int b = 0; b < BLOCKS; b++) da.write4(b * IO.BLOCKSIZE + 8, b + 1);
+      for(int b = 0; b < BLOCKS; b++) assertEquals(b + 1, da.read4(b * IO.BLOCKSIZE + 8));
+      da.flush();
+      // original file is unchanged
+      assertEquals(0, read(0));
+
+      journal.commit();
+      da.journal(null);
+      for(int b = 0; b < BLOCKS; b++) assertEquals(b + 1, read(b));
+    }
+    // journal is deleted after checkpoint
+    assertFalse(wal.exists());
+  }
+
+  /**
+   * Redoes committed transactions.
+   * @throws IOException I/O exception
+   */
+  @Test public void recover() throws IOException {
+    final byte[] original = file.read();
+    final byte[] log;
+    try(DataAccess da = new DataAccess(file); Journal journal = new Journal(wal)) {
+      da.journal(journal);
+      for(int b = 0; b < BLOCKS; b++) da.write4(b * IO.BLOCKSIZE + 8, b + 1);
+      // grow file
+      da.write4(BLOCKS * IO.BLOCKSIZE + 8, -1);
+      da.flush();
+      journal.commit();
+      da.journal(null);
+      log = wal.read();
+    }
+
+    // simulate lost writes: restore original file and journal
+    file.write(original);
+    wal.write(log);
+    // no incomplete transaction was found
+    assertFalse(Journal.recover(wal));
+    assertFalse(wal.exists());
+    for(int b = 0; b < BLOCKS; b++) assertEquals(b + 1, read(b));
+    assertEquals(BLOCKS * IO.BLOCKSIZE + 12, file.length());
+    assertEquals(-1, read(BLOCKS));
+  }
+
+  /**
+   * Redoes committed transactions with completely rewritten files.
+   * @throws IOException I/O exception
+   */
+  @Test public void recoverFile() throws IOException {
+    final IOFile target = new IOFile(sandbox(), "target" + IO.BASEXSUFFIX);
+    final byte[] log;
+    try(DataAccess da = new DataAccess(file); Journal journal = new Journal(wal)) {
+      da.journal(journal);
+      da.write4(8, 1);
+      da.flush();
+      try(OutputStream out = journal.output(target)) {
+        out.write(Token.token("ABC"));
+      }
+      journal.commit();
+      da.journal(null);
+      log = wal.read();
+    }
+    assertEquals("ABC", Token.string(target.read()));
+
+    // simulate lost writes: delete rewritten file, restore original file and journal
+    target.delete();
+    file.write(new byte[BLOCKS * IO.BLOCKSIZE]);
+    wal.write(log);
+    assertFalse(Journal.recover(wal));
+    assertFalse(wal.exists());
+    assertEquals(1, read(0));
+    assertEquals("ABC", Token.string(target.read()));
+    target.delete();
+  }
+
+  /**
+   * Redoes committed transactions and reports a transaction that has only been started.
+   * @throws IOException I/O exception
+   */
+  @Test public void begin() throws IOException {
+    final byte[] log;
+    try(DataAccess da = new DataAccess(file); Journal journal = new Journal(wal)) {
+      journal.begin();
+      da.journal(journal);
+      da.write4(8, 1);
+      da.flush();
+      journal.commit();
+      journal.begin();
+      log = wal.read();
+      da.journal(null);
+    }
+    file.write(new byte[BLOCKS * IO.BLOCKSIZE]);
+    wal.write(log);
+    assertTrue(Journal.recover(wal));
+    assertEquals(1, read(0));
+  }
+
+  /**
+   * Ignores incomplete transactions.
+   * @throws IOException I/O exception
+   */
+  @Test public void incomplete() throws IOException {
+    final byte[] log;
+    try(DataAccess da = new DataAccess(file); Journal journal = new Journal(wal)) {
+      da.journal(journal);
+      for(int b = 0; b < BLOCKS; b++) da.write4(b * IO.BLOCKSIZE + 8, b + 1);
+      da.flush();
+      log = wal.read();
+      da.journal(null);
+    }
+    // recover partial journal
+    wal.write(log);
+    assertTrue(Journal.recover(wal));
+    for(int b = 0; b < BLOCKS; b++) assertEquals(0, read(b));
+
+    // recover truncated transaction
+    wal.write(Arrays.copyOf(log, log.length / 2));
+    assertTrue(Journal.recover(wal));
+    for(int b = 0; b < BLOCKS; b++) assertEquals(0, read(b));
+  }
+
+  /**
+   * Performs database updates with a write-ahead log.
+   */
+  @Test public void updates() {
+    set(MainOptions.WAL, true);
+    try {
+      execute(new CreateDB(NAME, "<X/>"));
+      final IOFile log = context.data().meta.dbFile(DataText.DATAWAL);
+      for(int i = 0; i < 100; i++) {
+        query("insert node <A a='" + i + "'>{ (1 to 100) ! string() }</A> into /X");
+      }
+      query("for $a in //A[@a mod 2 = 0] return delete node $a");
+      query("for $a in //A return replace value of node $a/@a with $a/@a * 2");
+      assertTrue(log.exists());
+
+      // the journal is in use and must not be recovered by another context
+      final Context ctx = new Context();
+      try {
+        new Open(NAME).execute(ctx);
+        fail("Database should be locked.");
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+      } finally {
+        ctx.close();
+      }
+      assertTrue(log.exists());
+      query("count(//A)", 50);
+
+      execute(new Close());
+      assertFalse(log.exists());
+      execute(new Open(NAME));
+      query("count(//A)", 50);
+      query("sum(//A/@a)", 5000);
+      query("string-length(//A[1])", 291);
+      execute(new DropDB(NAME));
+    } finally {
+      set(MainOptions.WAL, false);
+    }
+  }
+
+  /**
+   * Reads an integer from the specified block of the test file.
+   * @param block block
+   * @return integer
+   * @throws IOException I/O exception
+   */
+  private int read(final int block) throws IOException {
+    try(DataAccess da = new DataAccess(file)) {
+      return da.read4(block * IO.BLOCKSIZE + 8);
+    }
+  }
+}
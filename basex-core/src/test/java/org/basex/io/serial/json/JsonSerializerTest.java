@@ -1,11 +1,13 @@
 package org.basex.io.serial.json;
 
 import static org.basex.query.QueryError.*;
+import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
 import org.basex.*;
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
+import org.basex.io.*;
 import org.basex.io.out.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
@@ -147,6 +149,35 @@ public final class JsonSerializerTest extends SandboxTest {
     serialize("1", "1", format);
   }
 
+  /**
+   * Tests for values that are streamed or checked without additional buffers.
+   */
+  @Test public void stream() {
+    final JsonFormat format = JsonFormat.XQUERY;
+
+    // keys: strings and untyped atomics cannot have duplicate names
+    serialize("map { 'A': 1, xs:untypedAtomic('B'): 2 }", "{'A':1,'B':2}", format);
+    error("map { 1: 1, '1': 2 }", format, SERDUPL_X);
+    error("map { true(): 1, xs:untypedAtomic('true'): 2 }", format, SERDUPL_X);
+
+    // nodes
+    serialize("map { 'A': <a b='\"'>\\</a> }", "{'A':'<a b=\\'&quot;\\'>\\\\<\\/a>'}",
+        format);
+    serialize("[ <a>\u00e4\u20ac\ud83d\ude00</a>, <b/> ]",
+        "['<a>\u00e4\u20ac\ud83d\ude00<\\/a>','<b\\/>']", format);
+    query(SERIALIZE.args(" <a>a\u0308</a>", " map { 'method': 'json', "
+        + "'normalization-form': 'NFC' }"), "\"<a>\u00e4<\\/a>\"");
+
+    // lazy strings
+    final String file = new IOFile(sandbox(), "lazy.txt").path();
+    query(_FILE_WRITE_TEXT.args(file, "a\"b\nc\u00e4"));
+    serialize("map { 'A': " + _FILE_READ_TEXT.args(file) + " }", "{'A':'a\\'b\\nc\u00e4'}",
+        format);
+    // cached lazy string
+    serialize("let $s := " + _FILE_READ_TEXT.args(file) + " return map { 'A': $s, "
+        + "'B': string-length($s) }", "{'A':'a\\'b\\nc\u00e4','B':6}", format);
+  }
+
 
   /**
    * Serializes the specified input as JSON.
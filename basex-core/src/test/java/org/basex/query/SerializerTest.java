@@ -2,9 +2,17 @@ package org.basex.query;
 
 import static org.basex.query.QueryError.*;
 
+import static org.junit.Assert.*;
+
+import java.io.*;
+
 import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.io.out.*;
 import org.basex.io.serial.*;
+import org.basex.query.value.item.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * This class tests the serializers.
@@ -101,4 +109,71 @@ public final class SerializerTest extends SandboxTest {
     query(option + "<a xml:space='default'>T<b/></a>", "<a xml:space=\"default\">T<b/></a>");
     query(option + "<a xml:space='x'>T<b/></a>", "<a xml:space=\"x\">T<b/></a>");
   }
+
+  /** Serializes database nodes with texts and attribute values that are read from disk. */
+  @Test public void database() {
+    final StringBuilder large = new StringBuilder();
+    for(int i = 0; i < 2000; i++) large.append("ab\"<&\u00e9\t").append(i);
+    final StringBuilder words = new StringBuilder();
+    for(int i = 0; i < 2000; i++) words.append("some lowercase words ");
+
+    execute(new CreateDB(NAME, "<x xml:space='default'>" +
+      "<a b='" + large.toString().replace("&", "&amp;").replace("<", "&lt;") + "'>" +
+      large.toString().replace("&", "&amp;").replace("<", "&lt;") + "</a>" +
+      "<a>" + words + "</a><a b='123'>456</a><a b='\t&#10;\"&#xa0;'>]]&gt;</a>" +
+      "<p:a xmlns:p='P'>P</p:a><p:a xmlns:p='Q'>Q</p:a><a xmlns='R'><b/></a>" +
+      "<a xml:space='preserve'> <b/> </a></x>"));
+
+    final String db = "db:open('" + NAME + "')";
+    for(final String options : new String[] { "", "'indent':'no'", "'method':'html'",
+        "'method':'xhtml'", "'cdata-section-elements':'a'" }) {
+      final String streamed = query("serialize(" + db + ", map { " + options + " })");
+      final String norm = options.isEmpty() ? "" : options + ", ";
+      assertEquals(query("serialize(" + db + ", map { " + norm +
+          "'normalization-form':'NFC' })"), streamed);
+    }
+    final String result = query("serialize(" + db + ")");
+    assertTrue(result.contains("<p:a xmlns:p=\"P\">P</p:a>"));
+    assertTrue(result.contains("<p:a xmlns:p=\"Q\">Q</p:a>"));
+    assertTrue(result.contains("<a b=\" &#xA;&quot;\u00a0\">]]&gt;</a>"));
+  }
+
+  /**
+   * Serializes names, texts and attribute values with different encodings.
+   * @throws Exception exception
+   */
+  @Test public void encodings() throws Exception {
+    final String query = "<\u00e4:x xmlns:\u00e4='U' a='1\"2&lt;3&#9;\u00e9'>abc&amp;&lt;&gt;" +
+        "d\u00e9\u2028e<y b='{ string-join(1 to 1000) }'/></\u00e4:x>";
+    try(QueryProcessor qp = new QueryProcessor(query, context)) {
+      final Item item = qp.value().itemAt(0);
+      final String expected = serialize(item, "UTF-8", "");
+      assertTrue(expected.startsWith("<\u00e4:x xmlns:\u00e4=\"U\" " +
+          "a=\"1&quot;2&lt;3&#x9;\u00e9\">abc&amp;&lt;&gt;d\u00e9&#x2028;e<y b=\"12345"));
+      // character maps disable the direct output of ASCII characters
+      assertEquals(expected, serialize(item, "UTF-8", "\u00a7=\u00a7"));
+      assertEquals(expected, serialize(item, "UTF-16", ""));
+      assertEquals(expected, serialize(item, "ISO-8859-1", ""));
+    }
+  }
+
+  /**
+   * Serializes an item.
+   * @param item item
+   * @param encoding encoding
+   * @param maps character maps
+   * @return string
+   * @throws IOException I/O exception
+   */
+  private static String serialize(final Item item, final String encoding, final String maps)
+      throws IOException {
+    final SerializerOptions sopts = new SerializerOptions();
+    sopts.set(SerializerOptions.ENCODING, encoding);
+    sopts.set(SerializerOptions.USE_CHARACTER_MAPS, maps);
+    final ArrayOutput ao = new ArrayOutput();
+    try(Serializer ser = Serializer.get(ao, sopts)) {
+      ser.serialize(item);
+    }
+    return new String(ao.finish(), encoding);
+  }
 }
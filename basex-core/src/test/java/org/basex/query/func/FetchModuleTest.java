@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
 import org.basex.*;
+import org.basex.io.*;
 import org.junit.*;
 
 /**
@@ -65,6 +66,47 @@ public final class FetchModuleTest extends SandboxTest {
     query(func.args(_CONVERT_STRING_TO_BASE64.args(" '" + data + '\'', encoding)), xml);
   }
 
+  /** Test method. */
+  @Test public void xmlStream() {
+    final Function func = _FETCH_XML_STREAM;
+    final String file = new IOFile(sandbox(), "stream.xml").path();
+    query(_FILE_WRITE_TEXT.args(file, "<root xmlns:p='urn:p'><!-- c -->"
+        + "<record id='1'><a>A</a></record><skip><record id='x'/></skip><p:record id='2'/>"
+        + "<record id='3'>t<record id='4'/></record></root>"));
+
+    query(COUNT.args(func.args(file, "/root/record")), 2);
+    query(func.args(file, "root/record") + "/@id ! string()", "1\n3");
+    query(SERIALIZE.args(func.args(file, "/root/record") + "[1]", " map { 'indent': 'no' }"),
+        "<record xmlns:p=\"urn:p\" id=\"1\"><a>A</a></record>");
+    query(func.args(file, "/root/record") + "[1]/..", "");
+    query(func.args(file, "/root/*:record") + "/@id ! string()", "1\n2\n3");
+    query(func.args(file, "/root/*:record") + "[2] ! namespace-uri()", "urn:p");
+    query("declare namespace q = 'urn:p'; " + func.args(file, "/root/q:record") + "/@id ! string()",
+        "2");
+    query("declare namespace q = 'urn:p'; " + COUNT.args(func.args(file, "/root/q:*")), 1);
+    query(COUNT.args(func.args(file, "/*/*")), 4);
+    query(COUNT.args(func.args(file, "/*:root/*:*/*")), 3);
+    query(COUNT.args(func.args(file, "/x")), 0);
+    query(HEAD.args(func.args(file, "/root/record")) + "/a/string()", "A");
+    query(DEEP_EQUAL.args(func.args(file, "/root/*:record"),
+        _FETCH_XML.args(file) + "/root/*:record"), true);
+
+    // default element namespace
+    query(_FILE_WRITE_TEXT.args(file, "<root xmlns='urn:x'><record/><record xmlns=''/></root>"));
+    query(COUNT.args(func.args(file, "/root/record")), 0);
+    query("declare default element namespace 'urn:x'; "
+        + COUNT.args(func.args(file, "/root/record")), 1);
+    query(func.args(file, "/*:root/record") + " ! namespace-uri()", "");
+
+    error(func.args(file, "/root/"), FETCH_PATH_X);
+    error(func.args(file, "a b"), FETCH_PATH_X);
+    error(func.args(file, "/a//b"), FETCH_PATH_X);
+    error(func.args(file, "/q:a"), NOURI_X);
+    error(func.args(XML + 'x', "a"), FETCH_OPEN_X);
+    query(_FILE_WRITE_TEXT.args(file, "<root><record/>"));
+    error(COUNT.args(func.args(file, "/root/record")), FETCH_OPEN_X);
+  }
+
   /** Test method. */
   @Test public void binary() {
     final Function func = _FETCH_BINARY;
@@ -73,6 +115,17 @@ public final class FetchModuleTest extends SandboxTest {
     error(func.args(XML + 'x'), FETCH_OPEN_X);
   }
 
+  /** Test method. */
+  @Test public void binaries() {
+    final Function func = _FETCH_BINARIES;
+    // successful queries
+    query(COUNT.args(func.args(" ()")), 0);
+    query(COUNT.args(func.args(" ('" + XML + "', '" + CSV + "', '" + XML + "')")), 3);
+    query(func.args(" ('" + XML + "', '" + CSV + "')", 1) + " = (" +
+        _FETCH_BINARY.args(XML) + ", " + _FETCH_BINARY.args(CSV) + ')', true);
+    error(func.args(" ('" + XML + "', '" + XML + "x')"), FETCH_OPEN_X);
+  }
+
   /** Test method. */
   @Test public void contentType() {
     final Function func = _FETCH_CONTENT_TYPE;
@@ -92,6 +92,47 @@ public final class JsonModuleTest extends SandboxTest {
     query(func.args("null", map), "");
   }
 
+  /** Test method. */
+  @Test public void parseStream() {
+    final Function func = _JSON_PARSE_STREAM;
+    final String map = " map { 'format':'xquery' }";
+    final String array = " map { 'format':'xquery', 'mode':'array' }";
+    final String json = " ! serialize(., map { 'method':'json', 'indent':'no' })";
+    query(func.args(" ()"), "");
+    query(func.args(""), "");
+    query(func.args("1 2\n3", map), "1\n2\n3");
+    query(func.args("{\"A\":1}\n{\"A\":2}\n", map) + "?A", "1\n2");
+
+    // sequence of arrays
+    query(func.args("[]", map) + json, "[]");
+    query(func.args("[1,2]\n[3,4]", map) + json, "[1,2]\n[3,4]");
+    query(COUNT.args(func.args("[] []", map)), 2);
+
+    // members of a single array
+    query(func.args("[]", array), "");
+    query(func.args("[1,[2],{\"A\":3}]", array) + json, "1\n[2]\n{\"A\":3}");
+    query(func.args("[[1,2],[3,4]]", array) + json, "[1,2]\n[3,4]");
+    query(func.args("[1,2,]", " map { 'liberal':true(), 'mode':'array' }") + " ! string()",
+        "1\n2");
+    query(func.args("[{}, null]", " map { 'mode':'array' }") + " ! name(*)", "json\njson");
+
+    // lazy input
+    final String file = sandbox().path() + "stream.json";
+    query("file:write-text('" + file + "', string-join(1 to 10000, ' '))");
+    query("count(" + func.args(" file:read-text('" + file + "')", map) + ')', 10000);
+    query("head(" + func.args(" file:read-text('" + file + "')", map) + ')', 1);
+    query("file:write-text('" + file + "', '[1, 2, 3')");
+    query("head(" + func.args(" file:read-text('" + file + "')", array) + ')', 1);
+
+    error(func.args("[1,2", array), JSON_PARSE_X_X_X);
+    error(func.args("[1,2]3", array), JSON_PARSE_X_X_X);
+    error(func.args("[1,2][3]", array), JSON_PARSE_X_X_X);
+    error(func.args("1", array), JSON_PARSE_X_X_X);
+    error(func.args("1 }"), JSON_PARSE_X_X_X);
+    error(func.args("[1,2,]", array), JSON_PARSE_X_X_X);
+    error(func.args("[1]", " map { 'mode':'x' }"), INVALIDOPT_X);
+  }
+
   /** Test method. */
   @Test public void serialize() {
     serial("<json type='object'/>", "", "{\n}");
@@ -0,0 +1,72 @@
+package org.basex.query.value.map;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link MapBuilder}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class MapBuilderTest {
+  /**
+   * Compares built maps with maps that are created by single insertions.
+   * @throws QueryException query exception
+   */
+  @Test public void build() throws QueryException {
+    final Random rnd = new Random(0);
+    for(int len = 0; len < 2_000; len += 1 + len / 8) {
+      final MapBuilder builder = new MapBuilder();
+      XQMap map = XQMap.EMPTY;
+      for(int i = 0; i < len; i++) {
+        final Item key = Int.get(rnd.nextInt(len));
+        final Item value = Int.get(i);
+        builder.put(key, value);
+        map = map.put(key, value, null);
+      }
+      compare(map, builder.finish());
+    }
+  }
+
+  /**
+   * Tests keys with equal hash values, and keys that are considered identical.
+   * @throws QueryException query exception
+   */
+  @Test public void collisions() throws QueryException {
+    // "Aa" and "BB" have the same hash value
+    final Item[] keys = { Str.get("Aa"), Str.get("BB"), Int.get(1), Dbl.get(1), Str.get("x"),
+      Str.get("AaAa"), Str.get("BBBB"), Str.get("AaBB"), Str.get("BB") };
+    final MapBuilder builder = new MapBuilder(1);
+    XQMap map = XQMap.EMPTY;
+    for(int i = 0; i < keys.length; i++) {
+      builder.put(keys[i], Int.get(i));
+      map = map.put(keys[i], Int.get(i), null);
+    }
+    final XQMap built = builder.finish();
+    compare(map, built);
+    assertEquals(7, built.mapSize());
+    assertEquals(8, ((Int) built.get(Str.get("BB"), null)).itr());
+    assertEquals(3, ((Int) built.get(Int.get(1), null)).itr());
+  }
+
+  /**
+   * Compares two maps.
+   * @param expected expected map
+   * @param map built map
+   * @throws QueryException query exception
+   */
+  private static void compare(final XQMap expected, final XQMap map) throws QueryException {
+    assertEquals(expected.mapSize(), map.mapSize());
+    assertEquals(expected.keys().toString(), map.keys().toString());
+    for(final Item key : expected.keys()) {
+      assertEquals(expected.get(key, null), map.get(key, null));
+    }
+    assertTrue(expected.deep(map, null, null));
+  }
+}
@@ -1,12 +1,16 @@
 package org.basex.server;
 
+import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.cmd.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * This class tests the client/server session API.
@@ -42,4 +46,78 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /** Retrieves results in pages.
+   * @throws IOException I/O exception */
+  @Test public void queryPage() throws IOException {
+    try(ClientQuery query = (ClientQuery) session.query("1 to 10")) {
+      query.page(3);
+      int c = 0;
+      while(query.more()) assertEqual(Integer.toString(++c), query.next());
+      assertEquals(10, c);
+      assertFalse(query.more());
+    }
+    try(ClientQuery query = (ClientQuery) session.query("1 to 6")) {
+      query.page(3);
+      int c = 0;
+      while(query.more()) assertEqual(Integer.toString(++c), query.next());
+      assertEquals(6, c);
+    }
+    try(ClientQuery query = (ClientQuery) session.query("1 to 5")) {
+      query.page(2);
+      query.binary(true);
+      long c = 0;
+      for(Object o; (o = query.nextObject()) != null;) assertEquals(++c, o);
+      assertEquals(5, c);
+    }
+  }
+
+  /** Closes and re-executes queries with open cursors.
+   * @throws IOException I/O exception */
+  @Test public void queryPageClose() throws IOException {
+    final ClientQuery query1 = (ClientQuery) session.query("1 to 100000000");
+    query1.page(2);
+    assertEqual("1", query1.next());
+    final ClientQuery query2 = (ClientQuery) session.query("'a', 'b', 'c'");
+    query2.page(1);
+    assertEqual("a", query2.next());
+    assertEqual("2", query1.next());
+    assertEqual("3", query1.next());
+    assertEqual("b", query2.next());
+    assertEqual("X", session.execute("xquery 'X'"));
+    query1.close();
+    assertEqual("c", query2.next());
+    assertNull(query2.next());
+    query2.close();
+  }
+
+  /** Releases open cursors if the session runs a conflicting command.
+   * @throws IOException I/O exception */
+  @Test public void queryPageRelease() throws IOException {
+    session.execute(new CreateDB(NAME, "<a/>"));
+    final String query1 = _DB_OPEN.args(NAME) + "/*/name(), 1 to 100000000";
+    try(ClientQuery query = (ClientQuery) session.query(query1)) {
+      query.page(1);
+      assertEqual("a", query.next());
+      // read-only commands do not conflict with the read lock of the query
+      assertEqual("a", session.execute(new XQuery(_DB_OPEN.args(NAME) + "/*/name()")));
+      assertEqual("1", query.next());
+      // the command would otherwise be blocked by the read lock of the query
+      session.execute(new Replace("a.xml", "<b/>"));
+      try {
+        query.next();
+        fail("Error expected.");
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    try(ClientQuery query = (ClientQuery) session.query("1 to 3")) {
+      query.page(1);
+      assertEqual("1", query.next());
+      assertEqual("X", session.execute("xquery 'X'"));
+      assertEqual("1\n2\n3", query.execute());
+    } finally {
+      session.execute(new DropDB(NAME));
+    }
+  }
 }
@@ -0,0 +1,136 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.server.Log.LogType;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the log writer.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class LogTest extends SandboxTest {
+  /** Number of entries. */
+  private static final int ENTRIES = 1000;
+
+  /** Resets the options. */
+  @After public void reset() {
+    final StaticOptions sopts = context.soptions;
+    sopts.set(StaticOptions.LOGQUEUE, StaticOptions.LOGQUEUE.value());
+    sopts.set(StaticOptions.LOGDROP, StaticOptions.LOGDROP.value());
+    sopts.set(StaticOptions.LOGSYNC, StaticOptions.LOGSYNC.value());
+  }
+
+  /**
+   * Writes entries synchronously.
+   * @throws IOException I/O exception
+   */
+  @Test public void sync() throws IOException {
+    write();
+  }
+
+  /**
+   * Writes entries asynchronously.
+   * @throws IOException I/O exception
+   */
+  @Test public void async() throws IOException {
+    context.soptions.set(StaticOptions.LOGQUEUE, 16);
+    context.soptions.set(StaticOptions.LOGSYNC, 1);
+    write();
+  }
+
+  /**
+   * Writes entries with multiple threads.
+   * @throws IOException I/O exception
+   */
+  @Test public void asyncThreads() throws IOException {
+    context.soptions.set(StaticOptions.LOGQUEUE, 4);
+    final Log log = new Log(context.soptions);
+    final LogFile before = log.file(name());
+    final int size = before != null ? before.read().size() : 0;
+
+    final ArrayList<Thread> threads = new ArrayList<>();
+    for(int t = 0; t < 8; t++) {
+      final Thread thread = new Thread(() -> {
+        for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, "X");
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for(final Thread thread : threads) {
+      try {
+        thread.join();
+      } catch(final InterruptedException ex) {
+        throw new AssertionError(ex);
+      }
+    }
+    assertEquals(size + 8 * ENTRIES, log.file(name()).read().size());
+    log.close();
+  }
+
+  /**
+   * Writes entries after the log has been closed.
+   * @throws IOException I/O exception
+   */
+  @Test public void closed() throws IOException {
+    context.soptions.set(StaticOptions.LOGQUEUE, 16);
+    final int writers = writers();
+    final Log log = new Log(context.soptions);
+    final LogFile before = log.file(name());
+    final int size = before != null ? before.read().size() : 0;
+    log.writeServer(LogType.INFO, "X");
+    log.close();
+
+    // no new writer will be started: entries are written synchronously
+    for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, "Y");
+    assertEquals(writers, writers());
+    assertEquals(size + 1 + ENTRIES, log.file(name()).read().size());
+    log.close();
+  }
+
+  /**
+   * Returns the number of running log writers.
+   * @return number of writers
+   */
+  private static int writers() {
+    int c = 0;
+    for(final Thread thread : Thread.getAllStackTraces().keySet()) {
+      if(thread instanceof LogWriter && thread.isAlive()) c++;
+    }
+    return c;
+  }
+
+  /**
+   * Writes and checks log entries.
+   * @throws IOException I/O exception
+   */
+  private static void write() throws IOException {
+    final Log log = new Log(context.soptions);
+    final LogFile before = log.file(name());
+    final int size = before != null ? before.read().size() : 0;
+    for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, Integer.toString(e));
+
+    final StringList lines = log.file(name()).read();
+    assertEquals(size + ENTRIES, lines.size());
+    assertTrue(lines.get(lines.size() - 1).contains(Integer.toString(ENTRIES - 1)));
+    log.close();
+  }
+
+  /**
+   * Returns the name of the current log file.
+   * @return name
+   */
+  private static String name() {
+    return DateTime.format(new Date(), DateTime.DATE);
+  }
+}
@@ -297,6 +297,35 @@ public abstract class SessionTest extends SandboxTest {
     assertNull(q.next());
   }
 
+  /** Retrieves typed results in the binary format.
+   * @throws IOException I/O exception */
+  @Test public void queryBinaryFormat() throws IOException {
+    try(Query query = session.query("-123, xs:byte(5), 1.5e0, xs:float(2.5), true(), " +
+        "xs:hexBinary('414243'), xs:base64Binary('QUJD'), 1.5, 'x', <a/>")) {
+      query.binary(true);
+      assertEquals(-123L, query.nextObject());
+      assertEquals(5L, query.nextObject());
+      assertEquals(1.5d, query.nextObject());
+      assertEquals(2.5f, query.nextObject());
+      assertEquals(true, query.nextObject());
+      assertArrayEquals(token("ABC"), (byte[]) query.nextObject());
+      assertArrayEquals(token("ABC"), (byte[]) query.nextObject());
+      assertEquals("1.5", query.nextObject());
+      assertEquals("x", query.nextObject());
+      assertEquals("<a/>", query.nextObject());
+      assertNull(query.nextObject());
+    }
+    try(Query query = session.query("-123, 1.5e0, true(), xs:hexBinary('414243'), 'x'")) {
+      query.binary(true);
+      assertEqual("-123", query.next());
+      assertEqual("1.5", query.next());
+      assertEqual("true", query.next());
+      assertEqual("414243", query.next());
+      assertEqual("x", query.next());
+      assertNull(query.next());
+    }
+  }
+
   /** Queries empty content.
    * @throws IOException I/O exception */
   @Test public void queryEmptyString() throws IOException {